@@ -0,0 +1,102 @@
+package com.vynlotaste.archive;
+
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Arquivamento de pedidos finalizados: move pedidos DELIVERED/CANCELLED (e removidos
+ * logicamente) mais antigos que {@code vynlo.archive.age}, com os itens, para as tabelas
+ * particionadas por mês {@code orders_archive}/{@code order_items_archive}. As partições são
+ * criadas sob demanda pela função {@code archive_orders}.
+ * <p>
+ * Cada lote é uma transação curta com SKIP LOCKED, então o job não disputa locks com pedidos
+ * em uso. Os pedidos arquivados continuam visíveis: as listagens por cliente leem a view
+ * {@code orders_history} e as buscas por ID e por código caem no arquivo
+ * ({@link com.vynlotaste.repository.ArchivedOrderQuery}) quando o pedido não está na tabela quente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderArchiver {
+
+    private final OrderRepository orderRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter archivedCounter;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void initialize() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("vynlo.orders.archived")
+            .description("Orders moved to the partitioned archive")
+            .register(meterRegistry);
+        this.runTimer = Timer.builder("vynlo.orders.archive.time")
+            .description("Duration of an archival run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${vynlo.archive.schedule:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (!properties.getArchive().isEnabled()) {
+            return;
+        }
+        try {
+            archive();
+        } catch (Exception e) {
+            log.error("Erro no arquivamento de pedidos", e);
+        }
+    }
+
+    /**
+     * Arquiva lotes até não sobrar pedido elegível.
+     *
+     * @return total de pedidos movidos
+     */
+    public long archive() {
+        VynloProperties.Archive settings = properties.getArchive();
+        LocalDateTime cutoff = LocalDateTime.now().minus(settings.getAge());
+
+        long total = runTimer.record(() -> {
+            long moved = 0;
+            int batch;
+            do {
+                Integer result = transactionTemplate.execute(
+                    status -> orderRepository.archiveOrders(cutoff, settings.getBatchSize()));
+                batch = result != null ? result : 0;
+                moved += batch;
+                archivedCounter.increment(batch);
+            } while (batch == settings.getBatchSize());
+            return moved;
+        });
+
+        if (total > 0) {
+            // Entradas 'order:'/'user:' podem apontar para pedidos que saíram da tabela quente
+            Cache ordersCache = cacheManager.getCache(CacheConfig.ORDERS_CACHE);
+            if (ordersCache != null) {
+                ordersCache.clear();
+            }
+            log.info("Arquivamento de pedidos: {} pedidos criados antes de {} movidos para o arquivo", total, cutoff);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,47 @@
+package com.vynlotaste.board;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.projection.OrderHistoryEntry;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Visão enxuta de um pedido mantida pelo {@link ActiveOrderIndex} e devolvida pelas consultas
+ * de pedidos em andamento. {@code version} é o {@code @Version} do pedido quando a visão foi
+ * montada (nulo se desconhecido) e ordena as atualizações do índice.
+ */
+// "active" é derivado do status: sai no JSON e é ignorado na leitura dos resumos da timeline
+@JsonIgnoreProperties(value = "active", allowGetters = true)
+public record ActiveOrder(Long id, String orderNumber, Order.OrderStatus status, Order.OrderType type,
+                          Long customerId, BigDecimal totalAmount, LocalDateTime createdAt, Long version) {
+
+    public static ActiveOrder of(Order order) {
+        return new ActiveOrder(
+            order.getId(),
+            order.getOrderNumber(),
+            order.getStatus(),
+            order.getType(),
+            order.getCustomer() != null ? order.getCustomer().getId() : null,
+            order.getTotalAmount(),
+            order.getCreatedAt(),
+            order.getVersion());
+    }
+
+    public static ActiveOrder of(OrderHistoryEntry entry) {
+        return new ActiveOrder(
+            entry.getId(),
+            entry.getOrderNumber(),
+            entry.getStatus(),
+            entry.getType(),
+            entry.getCustomerId(),
+            entry.getTotalAmount(),
+            entry.getCreatedAt(),
+            entry.getVersion());
+    }
+
+    public boolean isActive() {
+        return ActiveOrderIndex.ACTIVE_STATUSES.contains(status);
+    }
+}
@@ -0,0 +1,319 @@
+package com.vynlotaste.board;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Índice em memória dos pedidos em andamento (PENDING a READY, incluindo os estados de
+ * pagamento), indexado por status, tipo e
+ * cliente. Pedidos finalizados permanecem enquanto estiverem dentro da janela de "recentes".
+ * <p>
+ * É mantido incrementalmente pelos deltas do quadro de pedidos (que chegam a todos os nós via
+ * Redis), reconstruído do banco na inicialização e conferido periodicamente contra o banco; as
+ * divergências encontradas são corrigidas e expostas no gauge {@code vynlo.orders.index.drift}.
+ * Leituras não tomam lock; escritas são serializadas.
+ * <p>
+ * Toda escrita é ordenada pelo {@code @Version} do pedido: deltas atrasados ou repetidos não
+ * voltam uma entrada para um status anterior, e pedidos que saíram do índice guardam a última
+ * versão até a próxima verificação para não serem ressuscitados. Deltas que chegam enquanto o
+ * banco está sendo lido (reconstrução ou verificação) são reaplicados por cima do que foi lido.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveOrderIndex {
+
+    public static final Set<Order.OrderStatus> ACTIVE_STATUSES = EnumSet.of(
+        Order.OrderStatus.PENDING, Order.OrderStatus.PENDING_PAYMENT, Order.OrderStatus.PAYMENT_FAILED,
+        Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING, Order.OrderStatus.READY);
+
+    private static final Comparator<ActiveOrder> BY_CREATION = Comparator
+        .comparing(ActiveOrder::createdAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(ActiveOrder::id);
+
+    private final OrderRepository orderRepository;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, ActiveOrder> orders = new ConcurrentHashMap<>();
+    private final Map<Order.OrderStatus, Set<Long>> byStatus = new EnumMap<>(Order.OrderStatus.class);
+    private final Map<Order.OrderType, Set<Long>> byType = new EnumMap<>(Order.OrderType.class);
+    private final Map<Long, Set<Long>> byCustomer = new ConcurrentHashMap<>();
+
+    // Guardados com o monitor do índice
+    private final Map<Long, Long> removedVersions = new HashMap<>();
+    private final Map<Long, ActiveOrder> appliedWhileLoading = new HashMap<>();
+    private int loading;
+
+    private final AtomicLong lastDrift = new AtomicLong();
+    private Counter staleDeltas;
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void initialize() {
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+        for (Order.OrderType type : Order.OrderType.values()) {
+            byType.put(type, ConcurrentHashMap.newKeySet());
+        }
+
+        Gauge.builder("vynlo.orders.index.size", () -> byStatus.entrySet().stream()
+                .filter(entry -> ACTIVE_STATUSES.contains(entry.getKey()))
+                .mapToInt(entry -> entry.getValue().size())
+                .sum())
+            .description("Active orders held in the in-memory index")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.orders.index.drift", lastDrift, AtomicLong::get)
+            .description("Entries corrected by the last index consistency check")
+            .register(meterRegistry);
+        staleDeltas = Counter.builder("vynlo.orders.index.stale_deltas")
+            .description("Board deltas ignored because the index already held a newer order version")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        startLoading();
+        try {
+            List<ActiveOrder> snapshot = loadFromDatabase();
+            synchronized (this) {
+                orders.clear();
+                byStatus.values().forEach(Set::clear);
+                byType.values().forEach(Set::clear);
+                byCustomer.clear();
+                removedVersions.clear();
+                snapshot.forEach(this::put);
+                // O que chegou durante a leitura pode ser mais novo que o banco lido
+                for (ActiveOrder order : appliedWhileLoading.values()) {
+                    if (!isStale(order)) {
+                        put(order);
+                    }
+                }
+                ready = true;
+            }
+            log.info("Índice de pedidos ativos reconstruído com {} pedidos", snapshot.size());
+        } finally {
+            finishLoading();
+        }
+    }
+
+    public void apply(OrderBoardDelta delta) {
+        synchronized (this) {
+            // Delta sem versão (evento antigo) não entra na ordenação: mantém a versão conhecida
+            Long version = delta.version() != null ? delta.version() : knownVersion(delta.id());
+            ActiveOrder order = new ActiveOrder(
+                delta.id(), delta.number(), delta.to(), delta.type(), delta.customer(), delta.total(),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(delta.created()), ZoneId.systemDefault()),
+                version);
+            if (isStale(order)) {
+                staleDeltas.increment();
+                return;
+            }
+            if (loading > 0) {
+                appliedWhileLoading.put(order.id(), order);
+            }
+            put(order);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<ActiveOrder> findByStatus(Order.OrderStatus status) {
+        return collect(byStatus.get(status), order -> true);
+    }
+
+    public List<ActiveOrder> findByStatuses(Collection<Order.OrderStatus> statuses, Collection<Order.OrderType> types) {
+        return statuses.stream()
+            .flatMap(status -> collect(byStatus.get(status), order -> types.contains(order.type())).stream())
+            .sorted(BY_CREATION)
+            .toList();
+    }
+
+    public List<ActiveOrder> findActiveByType(Order.OrderType type) {
+        return collect(byType.get(type), ActiveOrder::isActive);
+    }
+
+    public List<ActiveOrder> findByCustomer(Long customerId) {
+        return collect(byCustomer.get(customerId), order -> true);
+    }
+
+    public List<ActiveOrder> findCreatedSince(LocalDateTime since) {
+        return orders.values().stream()
+            .filter(order -> order.createdAt() != null && !order.createdAt().isBefore(since))
+            .sorted(BY_CREATION.reversed())
+            .toList();
+    }
+
+    public long countByStatus(Order.OrderStatus status) {
+        return byStatus.get(status).size();
+    }
+
+    /**
+     * Compara o índice com o banco, corrige as diferenças e descarta finalizados fora da janela.
+     * Entradas mais novas que o banco lido (ou alteradas durante a leitura) são mantidas.
+     */
+    @Scheduled(fixedDelayString = "#{@vynloProperties.orderIndex.consistencyCheckInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.orderIndex.consistencyCheckInterval.toMillis()}")
+    public void checkConsistency() {
+        if (!ready) {
+            return;
+        }
+
+        startLoading();
+        try {
+            Map<Long, ActiveOrder> expected = new HashMap<>();
+            for (ActiveOrder order : loadFromDatabase()) {
+                expected.put(order.id(), order);
+            }
+
+            long drift = 0;
+            synchronized (this) {
+                // As lápides só valem até o banco lido refletir a saída do pedido
+                removedVersions.keySet().removeIf(id -> !appliedWhileLoading.containsKey(id));
+                for (ActiveOrder order : expected.values()) {
+                    if (appliedWhileLoading.containsKey(order.id()) || isStale(order)) {
+                        continue;
+                    }
+                    ActiveOrder current = orders.get(order.id());
+                    if (current == null || current.status() != order.status()
+                        || !Objects.equals(current.customerId(), order.customerId())
+                        || !Objects.equals(current.version(), order.version())) {
+                        put(order);
+                        drift++;
+                    }
+                }
+                for (Long id : List.copyOf(orders.keySet())) {
+                    if (!expected.containsKey(id) && !appliedWhileLoading.containsKey(id)) {
+                        remove(id);
+                        drift++;
+                    }
+                }
+            }
+
+            lastDrift.set(drift);
+            if (drift > 0) {
+                log.warn("Índice de pedidos ativos divergia do banco em {} entradas (corrigido)", drift);
+            }
+        } catch (Exception e) {
+            log.error("Erro na verificação de consistência do índice de pedidos", e);
+        } finally {
+            finishLoading();
+        }
+    }
+
+    private synchronized void startLoading() {
+        loading++;
+    }
+
+    private synchronized void finishLoading() {
+        if (--loading == 0) {
+            appliedWhileLoading.clear();
+        }
+    }
+
+    // Chamado com o monitor do índice
+    private Long knownVersion(Long id) {
+        ActiveOrder current = orders.get(id);
+        return current != null ? current.version() : removedVersions.get(id);
+    }
+
+    // Chamado com o monitor do índice. Sem versão de um dos lados não há como ordenar: aceita.
+    private boolean isStale(ActiveOrder order) {
+        Long known = knownVersion(order.id());
+        return known != null && order.version() != null && order.version() < known;
+    }
+
+    private List<ActiveOrder> loadFromDatabase() {
+        LocalDateTime since = LocalDateTime.now().minus(properties.getOrderIndex().getRecentWindow());
+        return orderRepository.findIndexEntries(ACTIVE_STATUSES, since);
+    }
+
+    private List<ActiveOrder> collect(Set<Long> ids, Predicate<ActiveOrder> filter) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream()
+            .map(orders::get)
+            .filter(Objects::nonNull)
+            .filter(filter)
+            .sorted(BY_CREATION)
+            .toList();
+    }
+
+    // Chamado com o monitor do índice
+    private void put(ActiveOrder order) {
+        remove(order.id());
+        removedVersions.remove(order.id());
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getOrderIndex().getRecentWindow());
+        if (!order.isActive() && (order.createdAt() == null || order.createdAt().isBefore(cutoff))) {
+            if (order.version() != null) {
+                removedVersions.put(order.id(), order.version());
+            }
+            return;
+        }
+
+        orders.put(order.id(), order);
+        byStatus.get(order.status()).add(order.id());
+        if (order.type() != null) {
+            byType.get(order.type()).add(order.id());
+        }
+        if (order.customerId() != null) {
+            byCustomer.computeIfAbsent(order.customerId(), id -> ConcurrentHashMap.newKeySet()).add(order.id());
+        }
+    }
+
+    // Chamado com o monitor do índice
+    private void remove(Long id) {
+        ActiveOrder previous = orders.remove(id);
+        if (previous == null) {
+            return;
+        }
+        if (previous.version() != null) {
+            removedVersions.put(id, previous.version());
+        }
+        byStatus.get(previous.status()).remove(id);
+        if (previous.type() != null) {
+            byType.get(previous.type()).remove(id);
+        }
+        if (previous.customerId() != null) {
+            Set<Long> customerOrders = byCustomer.get(previous.customerId());
+            if (customerOrders != null) {
+                customerOrders.remove(id);
+                if (customerOrders.isEmpty()) {
+                    byCustomer.remove(previous.customerId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vynlotaste.board;
+
+import com.vynlotaste.entity.Order;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Estações do quadro de pedidos. Cada estação acompanha um subconjunto de status/tipos e só
+ * pode ser assinada por determinados papéis.
+ */
+public enum BoardStation {
+
+    KITCHEN("kitchen",
+        EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING),
+        EnumSet.allOf(Order.OrderType.class),
+        Set.of("ROLE_ADMIN", "ROLE_MANAGER", "ROLE_STAFF", "ROLE_EMPLOYEE")),
+
+    DELIVERY("delivery",
+        EnumSet.of(Order.OrderStatus.READY),
+        EnumSet.of(Order.OrderType.DELIVERY),
+        Set.of("ROLE_ADMIN", "ROLE_MANAGER", "ROLE_STAFF", "ROLE_DRIVER")),
+
+    FRONT("front",
+        EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.PENDING_PAYMENT, Order.OrderStatus.PAYMENT_FAILED,
+            Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING, Order.OrderStatus.READY),
+        EnumSet.allOf(Order.OrderType.class),
+        Set.of("ROLE_ADMIN", "ROLE_MANAGER", "ROLE_STAFF", "ROLE_EMPLOYEE"));
+
+    private final String path;
+    private final Set<Order.OrderStatus> statuses;
+    private final Set<Order.OrderType> types;
+    private final Set<String> authorities;
+
+    BoardStation(String path, Set<Order.OrderStatus> statuses, Set<Order.OrderType> types, Set<String> authorities) {
+        this.path = path;
+        this.statuses = statuses;
+        this.types = types;
+        this.authorities = authorities;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Set<Order.OrderStatus> getStatuses() {
+        return statuses;
+    }
+
+    public Set<Order.OrderType> getTypes() {
+        return types;
+    }
+
+    public boolean isAllowed(String authority) {
+        return authorities.contains(authority);
+    }
+
+    /**
+     * Um delta interessa à estação se o pedido entra, permanece ou sai do conjunto acompanhado
+     * (a saída é necessária para a tela remover o card).
+     */
+    public boolean isAffectedBy(OrderBoardDelta delta) {
+        if (delta.type() == null || !types.contains(delta.type())) {
+            return false;
+        }
+        return (delta.from() != null && statuses.contains(delta.from()))
+            || (delta.to() != null && statuses.contains(delta.to()));
+    }
+
+    public static Optional<BoardStation> fromPath(String path) {
+        for (BoardStation station : values()) {
+            if (station.path.equals(path)) {
+                return Optional.of(station);
+            }
+        }
+        return Optional.empty();
+    }
+}
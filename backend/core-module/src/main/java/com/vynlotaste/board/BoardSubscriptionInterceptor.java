@@ -0,0 +1,80 @@
+package com.vynlotaste.board;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Restringe SUBSCRIBE nos destinos do quadro ({@code /topic/board/{estação}} e
+ * {@code /app/board/{estação}}) aos papéis permitidos para cada estação. Destinos com padrões
+ * ({@code *}, {@code ?}, {@code {}}) e tópicos de {@code /topic} fora do quadro são negados.
+ */
+@Slf4j
+@Component
+public class BoardSubscriptionInterceptor implements ChannelInterceptor {
+
+    private static final String BROKER_PREFIX = "/topic";
+
+    private static final String[] BOARD_PREFIXES = {OrderBoardService.TOPIC_PREFIX, "/app/board/"};
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SUBSCRIBE) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            return message;
+        }
+
+        // O simple broker casa destinos de SUBSCRIBE com AntPathMatcher: um padrão como
+        // /topic/** ou /topic/*/kitchen receberia os deltas de todas as estações
+        if (destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0) {
+            log.warn("Assinatura com padrão negada em {} para {}", destination, accessor.getUser());
+            throw new MessageDeliveryException("Destination patterns are not allowed: " + destination);
+        }
+
+        for (String prefix : BOARD_PREFIXES) {
+            if (destination.startsWith(prefix)) {
+                BoardStation station = BoardStation.fromPath(destination.substring(prefix.length()))
+                    .orElseThrow(() -> new MessageDeliveryException("Unknown board station: " + destination));
+                if (!isAllowed(accessor.getUser(), station)) {
+                    log.warn("Assinatura negada no quadro {} para {}", station, accessor.getUser());
+                    throw new MessageDeliveryException("Access denied to board station: " + station.getPath());
+                }
+                return message;
+            }
+        }
+
+        // Os únicos tópicos publicados são os do quadro; qualquer outro destino do broker é negado
+        if (destination.equals(BROKER_PREFIX) || destination.startsWith(BROKER_PREFIX + "/")) {
+            log.warn("Assinatura negada em {} para {}", destination, accessor.getUser());
+            throw new MessageDeliveryException("Unknown topic: " + destination);
+        }
+        return message;
+    }
+
+    private boolean isAllowed(Principal principal, BoardStation station) {
+        if (!(principal instanceof Authentication authentication) || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (station.isAllowed(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package com.vynlotaste.board;
+
+import com.vynlotaste.entity.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Mudança de status compacta enviada às telas e usada para manter o {@link ActiveOrderIndex}
+ * de cada nó. No snapshot inicial {@code from} é nulo.
+ *
+ * @param id       ID do pedido
+ * @param number   código do pedido
+ * @param type     tipo do pedido
+ * @param customer ID do cliente
+ * @param total    valor total
+ * @param from     status anterior
+ * @param to       status atual
+ * @param created  criação do pedido (epoch millis)
+ * @param at       instante da mudança (epoch millis)
+ * @param version  {@code @Version} do pedido depois da mudança (nulo se desconhecido)
+ */
+public record OrderBoardDelta(Long id, String number, Order.OrderType type, Long customer, BigDecimal total,
+                              Order.OrderStatus from, Order.OrderStatus to, long created, long at, Long version) {
+}
@@ -0,0 +1,135 @@
+package com.vynlotaste.board;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.event.OrderStatusBatchChangedEvent;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Quadro de pedidos ao vivo.
+ * <p>
+ * Cada {@link OrderStatusChangedEvent} (entregue pelo relay do outbox em um único nó) vira um
+ * {@link OrderBoardDelta} publicado no canal Redis {@value #CHANNEL}. Todos os nós assinam o
+ * canal e repassam o delta, via STOMP, apenas para os tópicos das estações afetadas. As telas
+ * recebem um snapshot ao assinar e depois somente deltas, sem polling. Os mesmos deltas mantêm
+ * o {@link ActiveOrderIndex} local, de onde vem o snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderBoardService implements MessageListener {
+
+    public static final String CHANNEL = "vynlo:order-board";
+    public static final String TOPIC_PREFIX = "/topic/board/";
+
+    private final ActiveOrderIndex activeOrderIndex;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Counter deltasPublished;
+    private Counter deltasDelivered;
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.deltasPublished = Counter.builder("vynlo.board.deltas.published")
+            .description("Order board deltas published to Redis")
+            .register(meterRegistry);
+        this.deltasDelivered = Counter.builder("vynlo.board.deltas.delivered")
+            .description("Order board deltas pushed to local station topics")
+            .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(event);
+    }
+
+    @EventListener
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        event.getChanges().forEach(this::publish);
+    }
+
+    private void publish(OrderStatusChangedEvent event) {
+        long now = System.currentTimeMillis();
+        OrderBoardDelta delta = new OrderBoardDelta(
+            event.getOrderId(),
+            event.getOrderNumber(),
+            event.getOrderType() != null ? Order.OrderType.valueOf(event.getOrderType()) : null,
+            event.getCustomerId(),
+            event.getTotalAmount(),
+            event.getPreviousStatus() != null ? Order.OrderStatus.valueOf(event.getPreviousStatus()) : null,
+            Order.OrderStatus.valueOf(event.getNewStatus()),
+            event.getOrderCreatedAt() != null ? toEpochMillis(event.getOrderCreatedAt()) : now,
+            now,
+            event.getOrderVersion()
+        );
+
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(delta));
+            deltasPublished.increment();
+        } catch (Exception e) {
+            // Best-effort: as telas se ressincronizam pelo snapshot ao reconectar
+            log.warn("Falha ao publicar delta do quadro de pedidos: {}", event.getOrderId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            OrderBoardDelta delta = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), OrderBoardDelta.class);
+            activeOrderIndex.apply(delta);
+            for (BoardStation station : BoardStation.values()) {
+                if (station.isAffectedBy(delta)) {
+                    messagingTemplate.convertAndSend(TOPIC_PREFIX + station.getPath(), delta);
+                    deltasDelivered.increment();
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erro ao repassar delta do quadro de pedidos", e);
+        }
+    }
+
+    public List<OrderBoardDelta> snapshot(BoardStation station) {
+        long now = System.currentTimeMillis();
+        return activeOrderIndex.findByStatuses(station.getStatuses(), station.getTypes()).stream()
+            .map(order -> new OrderBoardDelta(
+                order.id(),
+                order.orderNumber(),
+                order.type(),
+                order.customerId(),
+                order.totalAmount(),
+                null,
+                order.status(),
+                order.createdAt() != null ? toEpochMillis(order.createdAt()) : now,
+                now,
+                order.version()))
+            .toList();
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
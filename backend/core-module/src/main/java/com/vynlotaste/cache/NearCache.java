@@ -0,0 +1,204 @@
+package com.vynlotaste.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.domain.Page;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache em dois níveis: um Caffeine em memória (L1), limitado por peso e com TTL, na frente do
+ * cache do Redis (L2). Leituras tentam o L1 e, na falta, o L2, repovoando o L1. Escritas e
+ * remoções vão para os dois níveis e são anunciadas pelo {@link NearCacheManager} para que os
+ * outros nós descartem a entrada local.
+ * <p>
+ * O L1 guarda a mesma instância para todos os chamadores: valores em cache não devem ser
+ * alterados. Uma leitura do L2 concorrente com a invalidação pode repovoar o L1 com o valor
+ * antigo; o TTL do L1 limita essa janela.
+ */
+class NearCache implements Cache {
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final NearCacheManager manager;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+
+    NearCache(Cache remote, NearCacheManager manager, long maximumWeight, Duration ttl,
+              MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.manager = manager;
+        this.local = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((String key, Object value) -> weightOf(value))
+            .expireAfterWrite(ttl)
+            .build();
+
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        Gauge.builder("vynlo.cache.l1.weight", local,
+                cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+            .tag("cache", getName())
+            .description("Weighted size of the in-memory cache tier")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            l2Hits.increment();
+            local.put(localKey, wrapper.get());
+        } else {
+            l2Misses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        if (value != null) {
+            local.put(localKey(key), value);
+        }
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            if (value != null) {
+                local.put(localKey(key), value);
+            }
+            manager.publishInvalidation(getName(), localKey(key));
+        } else if (existing.get() != null) {
+            local.put(localKey(key), existing.get());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        invalidateLocal(localKey(key));
+        manager.publishInvalidation(getName(), localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        invalidateLocal(localKey(key));
+        manager.publishInvalidation(getName(), localKey(key));
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        manager.publishInvalidation(getName(), null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        clearLocal();
+        manager.publishInvalidation(getName(), null);
+        return invalidated;
+    }
+
+    void invalidateLocal(String key) {
+        local.invalidate(key);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("vynlo.cache.requests")
+            .tag("cache", getName())
+            .tag("tier", tier)
+            .tag("result", result)
+            .description("Cache lookups by tier and result")
+            .register(meterRegistry);
+    }
+
+    // Mesma conversão de chave do RedisCache, para que a invalidação por pub/sub case com o L1
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // Listas e páginas pesam o número de elementos; o cardápio inteiro não expulsa os produtos
+    private static int weightOf(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof Map<?, ?> map) {
+            return map.size() + 1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.vynlotaste.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CacheManager} que coloca um {@link NearCache} (L1 em memória) na frente dos caches do
+ * Redis listados em {@code vynlo.near-cache.caches}; os demais passam direto para o Redis.
+ * <p>
+ * Cada escrita ou remoção publica uma {@link CacheInvalidation} no canal {@value #CHANNEL}; os
+ * outros nós descartam a entrada do L1 ao receber, e o atraso entre publicação e recebimento é
+ * medido em {@code vynlo.cache.invalidation.lag}. Todos os caches são transaction-aware, como
+ * no {@code RedisCacheManager} original: escritas e invalidações só saem depois do commit.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener, InitializingBean {
+
+    public static final String CHANNEL = "vynlo:cache-invalidation";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties.NearCache settings;
+    private final MeterRegistry meterRegistry;
+
+    // Identifica as mensagens deste nó, que já atualizou o próprio L1
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remote, StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer listenerContainer, ObjectMapper objectMapper,
+                            VynloProperties.NearCache settings, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::decorate);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remote.getCacheNames();
+    }
+
+    private Cache decorate(String name) {
+        Cache cache = remote.getCache(name);
+        if (cache == null) {
+            return null;
+        }
+        if (settings.isEnabled() && settings.getCaches().contains(name)) {
+            NearCache nearCache = new NearCache(cache, this, settings.getMaximumWeight(), settings.getTtl(), meterRegistry);
+            nearCaches.put(name, nearCache);
+            cache = nearCache;
+        }
+        return new TransactionAwareCacheDecorator(cache);
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            CacheInvalidation invalidation = new CacheInvalidation(nodeId, cacheName, key, System.currentTimeMillis());
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(invalidation));
+        } catch (Exception e) {
+            // Best-effort: sem a mensagem os outros nós ficam com o valor antigo até o TTL do L1
+            log.warn("Falha ao publicar invalidação do cache {}: {}", cacheName, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidation invalidation = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), CacheInvalidation.class);
+            if (nodeId.equals(invalidation.origin())) {
+                return;
+            }
+
+            NearCache cache = nearCaches.get(invalidation.cache());
+            if (cache == null) {
+                return;
+            }
+            if (invalidation.key() == null) {
+                cache.clearLocal();
+            } else {
+                cache.invalidateLocal(invalidation.key());
+            }
+            Timer.builder("vynlo.cache.invalidation.lag")
+                .tag("cache", invalidation.cache())
+                .description("Delay between publishing a cache invalidation and dropping the in-memory entry")
+                .register(meterRegistry)
+                .record(Math.max(0, System.currentTimeMillis() - invalidation.sentAt()), TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.error("Erro ao processar invalidação de cache", e);
+        }
+    }
+
+    /**
+     * Mensagem de invalidação; {@code key} nulo limpa o cache inteiro.
+     */
+    record CacheInvalidation(String origin, String cache, String key, long sentAt) {
+    }
+}
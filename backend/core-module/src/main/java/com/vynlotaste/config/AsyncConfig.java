@@ -6,6 +6,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
@@ -21,4 +22,69 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Pool exclusivo para chamadas ao gateway de pagamento. Limitado em threads e fila para que
+     * um gateway lento não consuma o pool comum; quando lota, a autorização é recusada na hora
+     * em vez de enfileirar sem limite.
+     */
+    @Bean(name = "paymentExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor paymentExecutor(VynloProperties properties) {
+        VynloProperties.Payment settings = properties.getPayment();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(settings.getMaxConcurrency());
+        executor.setMaxPoolSize(settings.getMaxConcurrency());
+        executor.setQueueCapacity(settings.getQueueCapacity());
+        executor.setThreadNamePrefix("VynloPayment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Pool exclusivo das chamadas HTTP de webhook. A fila tem o tamanho de um lote do
+     * despachante; entregas recusadas voltam a ficar disponíveis quando a reserva vence.
+     */
+    @Bean(name = "webhookExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor webhookExecutor(VynloProperties properties) {
+        VynloProperties.Webhook settings = properties.getWebhook();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(settings.getMaxConcurrency());
+        executor.setMaxPoolSize(settings.getMaxConcurrency());
+        executor.setQueueCapacity(settings.getBatchSize());
+        executor.setThreadNamePrefix("VynloWebhook-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Threads dos workers da ingestão assíncrona de pedidos. O tamanho é o número de workers:
+     * cada um segura no máximo uma conexão do pool por vez.
+     */
+    @Bean(name = "ingestionExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor ingestionExecutor(VynloProperties properties) {
+        int workers = properties.getIngestion().getWorkers();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("VynloIngestion-");
+        executor.initialize();
+        return executor;
+    }
+    
+    /**
+     * Thread única das reconstruções do snapshot do cardápio; pedidos que chegam durante uma
+     * reconstrução são agrupados pelo próprio serviço.
+     */
+    @Bean(name = "menuExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor menuExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("VynloMenu-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vynlotaste.cache.NearCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
@@ -19,6 +21,8 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -37,10 +41,16 @@ public class CacheConfig implements CachingConfigurer {
     public static final String ORDERS_CACHE = "orders";
     public static final String SYSTEM_CONFIG_CACHE = "system-config";
     public static final String PRODUCT_CATEGORIES_CACHE = "product-categories";
+    public static final String APPROXIMATE_COUNTS_CACHE = "approximate-counts";
 
     @Bean
     @Primary
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     ObjectMapper jacksonObjectMapper,
+                                     VynloProperties vynloProperties,
+                                     MeterRegistry meterRegistry) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.activateDefaultTyping(
@@ -73,12 +83,19 @@ public class CacheConfig implements CachingConfigurer {
         
         // Cache de categorias - TTL 2 horas
         cacheConfigurations.put(PRODUCT_CATEGORIES_CACHE, defaultConfig.entryTtl(Duration.ofHours(2)));
+        
+        // Totais aproximados da paginação por cursor - TTL 1 minuto
+        cacheConfigurations.put(APPROXIMATE_COUNTS_CACHE, defaultConfig.entryTtl(Duration.ofMinutes(1)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // O NearCacheManager aplica o transaction-aware sobre os dois níveis
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(defaultConfig)
             .withInitialCacheConfigurations(cacheConfigurations)
-            .transactionAware()
             .build();
+        redisCacheManager.initializeCaches();
+
+        return new NearCacheManager(redisCacheManager, stringRedisTemplate, redisMessageListenerContainer,
+            jacksonObjectMapper, vynloProperties.getNearCache(), meterRegistry);
     }
 
     @Bean
@@ -86,7 +103,8 @@ public class CacheConfig implements CachingConfigurer {
     public CacheManager fallbackCacheManager() {
         log.warn("Redis indisponível - usando cache em memória como fallback");
         return new org.springframework.cache.concurrent.ConcurrentMapCacheManager(
-            USERS_CACHE, PRODUCTS_CACHE, ORDERS_CACHE, SYSTEM_CONFIG_CACHE, PRODUCT_CATEGORIES_CACHE
+            USERS_CACHE, PRODUCTS_CACHE, ORDERS_CACHE, SYSTEM_CONFIG_CACHE, PRODUCT_CATEGORIES_CACHE,
+            APPROXIMATE_COUNTS_CACHE
         );
     }
 
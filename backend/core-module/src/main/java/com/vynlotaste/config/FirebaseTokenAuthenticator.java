@@ -0,0 +1,59 @@
+package com.vynlotaste.config;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import com.vynlotaste.entity.UserRole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Valida um ID token do Firebase e monta a autenticação do Spring Security (uid como principal,
+ * papel do custom claim "role"). Usado pelo filtro HTTP e pelo CONNECT do STOMP.
+ */
+@Component
+public class FirebaseTokenAuthenticator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FirebaseTokenAuthenticator.class);
+
+    /**
+     * @throws RuntimeException se o token for inválido ou expirado
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        try {
+            // Verificar token Firebase
+            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
+
+            // Extrair role do token (custom claims)
+            UserRole userRole = extractUserRole(decodedToken);
+            List<SimpleGrantedAuthority> authorities = Collections.singletonList(
+                new SimpleGrantedAuthority(userRole.getAuthority())
+            );
+            return new UsernamePasswordAuthenticationToken(decodedToken.getUid(), null, authorities);
+        } catch (Exception e) {
+            logger.error("Falha na verificação do token Firebase: {}", e.getMessage());
+            throw new RuntimeException("Token inválido", e);
+        }
+    }
+
+    private UserRole extractUserRole(FirebaseToken token) {
+        // Extrair role dos custom claims do Firebase
+        Object roleObj = token.getClaims().get("role");
+        
+        if (roleObj != null) {
+            try {
+                return UserRole.valueOf(roleObj.toString().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Role inválido no token: {}", roleObj);
+            }
+        }
+        
+        // Role padrão se não especificado
+        return UserRole.CUSTOMER;
+    }
+}
@@ -0,0 +1,23 @@
+package com.vynlotaste.config;
+
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * RestTemplate compartilhado pelas chamadas a serviços externos e pelos webhooks. Sem timeouts
+ * uma chamada a um endpoint que não responde prende a thread indefinidamente.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, VynloProperties properties) {
+        VynloProperties.Http settings = properties.getHttp();
+        return builder
+            .setConnectTimeout(settings.getConnectTimeout())
+            .setReadTimeout(settings.getReadTimeout())
+            .build();
+    }
+}
@@ -1,8 +1,5 @@
 package com.vynlotaste.config;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseToken;
-import com.vynlotaste.entity.UserRole;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,15 +7,12 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Filtro JWT customizado para validação de tokens Firebase
@@ -31,6 +25,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String AUTHORIZATION_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
+    private final FirebaseTokenAuthenticator tokenAuthenticator;
+
+    public JwtAuthenticationFilter(FirebaseTokenAuthenticator tokenAuthenticator) {
+        this.tokenAuthenticator = tokenAuthenticator;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
@@ -68,53 +68,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private void authenticateToken(String token, HttpServletRequest request) {
-        try {
-            // Verificar token Firebase
-            FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(token);
-            String uid = decodedToken.getUid();
-            String email = decodedToken.getEmail();
-            
-            // Extrair role do token (custom claims)
-            UserRole userRole = extractUserRole(decodedToken);
-            
-            // Criar authorities
-            List<SimpleGrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority(userRole.getAuthority())
-            );
-
-            // Criar authentication
-            UsernamePasswordAuthenticationToken authentication = 
-                new UsernamePasswordAuthenticationToken(uid, null, authorities);
-            
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            
-            // Definir no contexto de segurança
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-            // Log de auditoria
-            logger.info("Usuário autenticado: uid={}, email={}, role={}, ip={}", 
-                       uid, email, userRole, getClientIpAddress(request));
-            
-        } catch (Exception e) {
-            logger.error("Falha na verificação do token Firebase: {}", e.getMessage());
-            throw new RuntimeException("Token inválido", e);
-        }
-    }
-
-    private UserRole extractUserRole(FirebaseToken token) {
-        // Extrair role dos custom claims do Firebase
-        Object roleObj = token.getClaims().get("role");
+        UsernamePasswordAuthenticationToken authentication = tokenAuthenticator.authenticate(token);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         
-        if (roleObj != null) {
-            try {
-                return UserRole.valueOf(roleObj.toString().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                logger.warn("Role inválido no token: {}", roleObj);
-            }
-        }
+        // Definir no contexto de segurança
+        SecurityContextHolder.getContext().setAuthentication(authentication);
         
-        // Role padrão se não especificado
-        return UserRole.CUSTOMER;
+        // Log de auditoria
+        logger.info("Usuário autenticado: uid={}, role={}, ip={}", 
+                   authentication.getName(), authentication.getAuthorities(), getClientIpAddress(request));
     }
 
     private boolean isPublicEndpoint(String requestURI) {
@@ -68,6 +68,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/public/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/favicon.ico").permitAll()
+                // Handshake do quadro ao vivo: o token vai no CONNECT do STOMP
+                .requestMatchers("/ws/**").permitAll()
                 
                 // Endpoints administrativos - apenas ADMIN
                 .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
@@ -82,7 +84,8 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/financial/**").hasAnyRole("ADMIN", "MANAGER")
                 .requestMatchers("/api/v1/reports/**").hasAnyRole("ADMIN", "MANAGER")
                 
-                // Endpoints de pedidos - ADMIN, MANAGER ou STAFF
+                // Endpoints de pedidos - ADMIN, MANAGER ou STAFF; o cliente acompanha o status dos próprios
+                .requestMatchers(HttpMethod.GET, "/api/v1/orders/*/status").hasAnyRole("ADMIN", "MANAGER", "STAFF", "CUSTOMER")
                 .requestMatchers(HttpMethod.GET, "/api/v1/orders/**").hasAnyRole("ADMIN", "MANAGER", "STAFF")
                 .requestMatchers(HttpMethod.POST, "/api/v1/orders/**").hasAnyRole("ADMIN", "MANAGER", "STAFF", "CUSTOMER")
                 .requestMatchers(HttpMethod.PUT, "/api/v1/orders/**").hasAnyRole("ADMIN", "MANAGER", "STAFF")
@@ -0,0 +1,56 @@
+package com.vynlotaste.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Autentica a sessão STOMP no CONNECT pelo cabeçalho nativo {@code Authorization: Bearer <token>}.
+ * <p>
+ * O handshake do WebSocket não passa cabeçalhos a partir do navegador, então a autenticação HTTP
+ * não vale aqui: o token vem no frame CONNECT e o usuário fica associado à sessão, valendo para
+ * os SUBSCRIBE seguintes (checados por papel no {@code BoardSubscriptionInterceptor}). CONNECT sem
+ * token ou com token inválido recebe ERROR e a sessão é fechada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StompAuthenticationInterceptor implements ChannelInterceptor {
+
+    static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final FirebaseTokenAuthenticator tokenAuthenticator;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || (accessor.getCommand() != StompCommand.CONNECT && accessor.getCommand() != StompCommand.STOMP)) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader(AUTHORIZATION_HEADER);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            log.warn("CONNECT STOMP sem token na sessão {}", accessor.getSessionId());
+            throw new MessageDeliveryException("Missing bearer token on STOMP CONNECT");
+        }
+
+        Authentication authentication;
+        try {
+            authentication = tokenAuthenticator.authenticate(header.substring(BEARER_PREFIX.length()));
+        } catch (RuntimeException e) {
+            throw new MessageDeliveryException("Invalid bearer token on STOMP CONNECT");
+        }
+        accessor.setUser(authentication);
+        log.debug("Sessão STOMP {} autenticada: {}", accessor.getSessionId(), authentication.getName());
+        return message;
+    }
+}
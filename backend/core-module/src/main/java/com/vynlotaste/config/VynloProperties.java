@@ -4,12 +4,16 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Component
@@ -22,6 +26,25 @@ public class VynloProperties {
     private Cors cors = new Cors();
     private Ssl ssl = new Ssl();
     private Backup backup = new Backup();
+    private StockHold stockHold = new StockHold();
+    private OrderNumber orderNumber = new OrderNumber();
+    private Outbox outbox = new Outbox();
+    private Webhook webhook = new Webhook();
+    private Http http = new Http();
+    private OrderIndex orderIndex = new OrderIndex();
+    private Payment payment = new Payment();
+    private Idempotency idempotency = new Idempotency();
+    private Ingestion ingestion = new Ingestion();
+    private Export export = new Export();
+    private Archive archive = new Archive();
+    private OrderPlacement orderPlacement = new OrderPlacement();
+    private OrderTimeline orderTimeline = new OrderTimeline();
+    private OrderStatusTracking orderStatusTracking = new OrderStatusTracking();
+    private Kitchen kitchen = new Kitchen();
+    private NearCache nearCache = new NearCache();
+    private Menu menu = new Menu();
+    private ProductSearch productSearch = new ProductSearch();
+    private StockCounter stockCounter = new StockCounter();
 
     @Data
     public static class Features {
@@ -95,4 +118,308 @@ public class VynloProperties {
         
         private String s3Bucket;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class StockHold {
+        private boolean enabled = true;
+        
+        // Tempo máximo que um pedido PENDING segura o estoque antes de ser cancelado
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(15);
+        
+        @NotNull
+        private Duration tick = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class OrderNumber {
+        // Identificador único da instância no cluster (10 bits do código do pedido). Sem valor
+        // padrão: dois nós com o mesmo id emitiriam códigos iguais no mesmo milissegundo, então a
+        // aplicação não sobe sem ele
+        @NotNull(message = "vynlo.order-number.node-id must be set to a value unique per instance")
+        @Min(0)
+        @Max(1023)
+        private Integer nodeId;
+    }
+
+    @Data
+    public static class Outbox {
+        private boolean enabled = true;
+        
+        @Min(1)
+        @Max(5000)
+        private int batchSize = 100;
+        
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(1);
+        
+        // Eventos que falham este número de vezes ficam no outbox para análise manual
+        @Min(1)
+        private int maxAttempts = 10;
+        
+        // Espera antes da segunda tentativa; dobra a cada falha até maxRetryBackoff
+        @NotNull
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        
+        @NotNull
+        private Duration maxRetryBackoff = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Webhook {
+        private boolean enabled = true;
+        
+        @Min(1)
+        @Max(1000)
+        private int batchSize = 50;
+        
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(1);
+        
+        // Entregas que falham este número de vezes ficam na tabela para análise manual
+        @Min(1)
+        private int maxAttempts = 10;
+        
+        @NotNull
+        private Duration retryBackoff = Duration.ofSeconds(5);
+        
+        @NotNull
+        private Duration maxRetryBackoff = Duration.ofMinutes(30);
+        
+        // Por quanto tempo uma entrega reservada por um nó fica fora do alcance dos outros;
+        // precisa cobrir connect + read timeout da chamada HTTP
+        @NotNull
+        private Duration lease = Duration.ofMinutes(1);
+        
+        // Chamadas HTTP simultâneas (threads do webhookExecutor)
+        @Min(1)
+        private int maxConcurrency = 8;
+    }
+
+    @Data
+    public static class Http {
+        // Timeouts do RestTemplate usado nas chamadas a serviços externos e webhooks
+        @NotNull
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        
+        @NotNull
+        private Duration readTimeout = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class OrderIndex {
+        // Intervalo da conferência do índice de pedidos ativos contra o banco
+        @NotNull
+        private Duration consistencyCheckInterval = Duration.ofMinutes(5);
+        
+        // Pedidos finalizados ficam no índice enquanto forem "recentes"
+        @NotNull
+        private Duration recentWindow = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class Payment {
+        // Chamadas simultâneas ao gateway (threads do paymentExecutor)
+        @Min(1)
+        private int maxConcurrency = 16;
+        
+        @Min(0)
+        private int queueCapacity = 200;
+        
+        // Prazo para o gateway decidir; depois dele o pedido vai para PAYMENT_FAILED e é
+        // cancelado, devolvendo o estoque reservado
+        @NotNull
+        private Duration authorizationTimeout = Duration.ofMinutes(2);
+    }
+
+    @Data
+    public static class Idempotency {
+        // Por quanto tempo a resposta fica disponível para repetições com a mesma chave
+        @NotNull
+        private Duration ttl = Duration.ofHours(24);
+        
+        // Prazo da transação em que a ação roda (ex.: a criação do pedido); estourado, ela é revertida
+        @NotNull
+        private Duration actionTimeout = Duration.ofSeconds(30);
+        
+        // Validade do marcador "em andamento"; precisa ser maior que action-timeout, senão uma
+        // duplicata pode adquirir a chave e executar enquanto a original ainda roda
+        @NotNull
+        private Duration inFlightTtl = Duration.ofMinutes(2);
+        
+        // Quanto uma requisição duplicada espera pelo resultado da original
+        @NotNull
+        private Duration waitTimeout = Duration.ofSeconds(10);
+    }
+
+    @Data
+    public static class Ingestion {
+        // Quando ativo, POST /api/v1/orders enfileira o pedido e responde 202 com um código de acompanhamento
+        private boolean enabled = false;
+        
+        // Pedidos por transação do worker
+        @Min(1)
+        @Max(500)
+        private int batchSize = 50;
+        
+        // Workers drenando a fila em paralelo neste nó (cada um usa uma conexão do pool)
+        @Min(1)
+        @Max(16)
+        private int workers = 2;
+        
+        @NotNull
+        private Duration pollInterval = Duration.ofMillis(200);
+        
+        // Falhas inesperadas (não de validação) antes de o pedido ser rejeitado
+        @Min(1)
+        private int maxAttempts = 5;
+        
+        // Por quanto tempo o resultado fica disponível para consulta
+        @NotNull
+        private Duration retention = Duration.ofDays(2);
+    }
+
+    @Data
+    public static class Export {
+        // Cada export segura uma conexão do pool enquanto transmite
+        @Min(1)
+        @Max(10)
+        private int maxConcurrent = 2;
+        
+        // Linhas trazidas por ida ao banco no cursor do export
+        @Min(10)
+        @Max(10000)
+        private int fetchSize = 500;
+    }
+
+    @Data
+    public static class Archive {
+        // Depende das tabelas e funções da V13 (somente PostgreSQL)
+        private boolean enabled = false;
+        
+        // Idade mínima de um pedido DELIVERED/CANCELLED para sair da tabela quente
+        @NotNull
+        private Duration age = Duration.ofDays(90);
+        
+        // Pedidos movidos por transação
+        @Min(1)
+        @Max(10000)
+        private int batchSize = 1000;
+        
+        @NotBlank
+        private String schedule = "0 30 3 * * *";
+    }
+
+    @Data
+    public static class OrderPlacement {
+        // JPA: entidades + batch JDBC; DATABASE_FUNCTION: uma chamada a process_order (V14, somente PostgreSQL)
+        @NotNull
+        private Strategy strategy = Strategy.JPA;
+        
+        public enum Strategy {
+            JPA, DATABASE_FUNCTION
+        }
+    }
+
+    @Data
+    public static class OrderTimeline {
+        // Timelines e resumos sem acesso por este período saem do Redis e são recarregados do banco
+        @NotNull
+        private Duration ttl = Duration.ofDays(30);
+    }
+
+    @Data
+    public static class OrderStatusTracking {
+        // Renovado a cada mudança de status enquanto o pedido está em andamento
+        @NotNull
+        private Duration activeTtl = Duration.ofHours(24);
+        
+        // Pedidos finalizados continuam consultáveis pelo polling por este período
+        @NotNull
+        private Duration terminalTtl = Duration.ofHours(1);
+        
+        // Espera máxima do long-poll (abaixo do timeout de requisições assíncronas)
+        @NotNull
+        private Duration maxWait = Duration.ofSeconds(25);
+    }
+
+    @Data
+    public static class Kitchen {
+        // Cozinheiros trabalhando em paralelo por estação (categoria do produto)
+        @Min(1)
+        private int defaultCooks = 1;
+        
+        private Map<String, Integer> cooks = new HashMap<>();
+        
+        // Usado para produtos sem preparationTime cadastrado
+        @NotNull
+        private Duration defaultPreparationTime = Duration.ofMinutes(10);
+        
+        // Amostras reais de um produto antes de substituir o preparationTime cadastrado
+        @Min(1)
+        private int minSamples = 5;
+        
+        // Amostras mais distantes da média que este número de desvios-padrão são descartadas
+        private double outlierDeviations = 3.0;
+        
+        // Intervalo da ressincronização das filas com o banco (deltas perdidos no pub/sub)
+        @NotNull
+        private Duration resyncInterval = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class NearCache {
+        // Cache em memória (L1) na frente do Redis para os caches listados
+        private boolean enabled = true;
+        
+        @NotNull
+        private List<String> caches = List.of(CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCT_CATEGORIES_CACHE);
+        
+        // Peso máximo por cache; listas e páginas pesam o número de elementos
+        @Min(1)
+        private long maximumWeight = 10_000;
+        
+        // Limita a defasagem caso uma invalidação via pub/sub se perca
+        @NotNull
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Menu {
+        // Reconstrução periódica do snapshot, além das disparadas por alterações de produto
+        @NotNull
+        private Duration refreshInterval = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class ProductSearch {
+        // Reconstrução completa do índice de busca, além das atualizações por produto
+        @NotNull
+        private Duration rebuildInterval = Duration.ofMinutes(15);
+    }
+
+    @Data
+    public static class StockCounter {
+        // Estoque vivo em contadores no Redis, gravado depois no banco (exige a estratégia JPA)
+        private boolean enabled = false;
+        
+        // Atraso de products.stock_quantity em relação ao diário de movimentos
+        @NotNull
+        private Duration flushInterval = Duration.ofSeconds(1);
+        
+        @Min(1)
+        @Max(10000)
+        private int flushBatchSize = 500;
+        
+        // Idade a partir da qual uma operação em andamento é dada como abandonada (nó caiu no meio)
+        @NotNull
+        private Duration inFlightTimeout = Duration.ofMinutes(5);
+        
+        @NotNull
+        private Duration reconcileInterval = Duration.ofMinutes(1);
+        
+        // Movimentos aplicados ficam esse tempo para a conciliação; precisa passar de inFlightTimeout
+        @NotNull
+        private Duration journalRetention = Duration.ofHours(1);
+    }
+}
@@ -0,0 +1,45 @@
+package com.vynlotaste.config;
+
+import com.vynlotaste.board.BoardSubscriptionInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP sobre WebSocket para o quadro de pedidos ao vivo. O broker é o simples em memória:
+ * a distribuição entre nós é feita pelo canal Redis do OrderBoardService, cada nó entrega
+ * apenas para as próprias sessões. O handshake é público; a sessão é autenticada no CONNECT.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final VynloProperties vynloProperties;
+    private final StompAuthenticationInterceptor stompAuthenticationInterceptor;
+    private final BoardSubscriptionInterceptor boardSubscriptionInterceptor;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] origins = vynloProperties.getCors().getAllowedOrigins() != null
+            ? vynloProperties.getCors().getAllowedOrigins().toArray(String[]::new)
+            : new String[0];
+        registry.addEndpoint("/ws/board").setAllowedOriginPatterns(origins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Autenticação antes da checagem de papel nas assinaturas
+        registration.interceptors(stompAuthenticationInterceptor, boardSubscriptionInterceptor);
+    }
+}
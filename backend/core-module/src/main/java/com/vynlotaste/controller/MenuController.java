@@ -0,0 +1,76 @@
+package com.vynlotaste.controller;
+
+import com.vynlotaste.menu.MenuSnapshot;
+import com.vynlotaste.menu.MenuSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Cardápio público servido do {@link MenuSnapshot}: os bytes já serializados (e comprimidos,
+ * quando o cliente aceita gzip) vão direto para a resposta, sem consulta ao banco nem
+ * serialização por requisição.
+ */
+@RestController
+@RequestMapping("/api/v1/public/menu")
+@RequiredArgsConstructor
+public class MenuController {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    private final MenuSnapshotService menuSnapshotService;
+
+    @GetMapping
+    public ResponseEntity<byte[]> getMenu(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MenuSnapshot snapshot = menuSnapshotService.current();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = snapshot.etag(gzip);
+
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+        }
+
+        byte[] body = snapshot.body(gzip);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(REVALIDATE)
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+            .contentType(MediaType.APPLICATION_JSON)
+            .contentLength(body.length);
+        if (gzip) {
+            // Com Content-Encoding definido a compressão do servidor não comprime de novo
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // If-None-Match usa comparação fraca e pode trazer uma lista de ETags ou "*"
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
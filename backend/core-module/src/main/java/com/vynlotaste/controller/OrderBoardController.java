@@ -0,0 +1,30 @@
+package com.vynlotaste.controller;
+
+import com.vynlotaste.board.BoardStation;
+import com.vynlotaste.board.OrderBoardDelta;
+import com.vynlotaste.board.OrderBoardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.List;
+
+/**
+ * Snapshot do quadro de pedidos. O cliente assina {@code /app/board/{estação}} para receber o
+ * estado atual uma única vez e {@code /topic/board/{estação}} para os deltas seguintes.
+ */
+@Controller
+@RequiredArgsConstructor
+public class OrderBoardController {
+
+    private final OrderBoardService orderBoardService;
+
+    @SubscribeMapping("/board/{station}")
+    public List<OrderBoardDelta> snapshot(@DestinationVariable String station) {
+        BoardStation boardStation = BoardStation.fromPath(station)
+            .orElseThrow(() -> new MessageDeliveryException("Unknown board station: " + station));
+        return orderBoardService.snapshot(boardStation);
+    }
+}
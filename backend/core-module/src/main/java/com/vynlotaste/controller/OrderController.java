@@ -1,33 +1,124 @@
 package com.vynlotaste.controller;
 
+import com.vynlotaste.board.ActiveOrder;
+import com.vynlotaste.config.VynloProperties;
 import com.vynlotaste.dto.order.OrderRequestDto;
 import com.vynlotaste.dto.order.OrderResponseDto;
 import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import com.vynlotaste.export.ExportFormat;
+import com.vynlotaste.export.OrderExportService;
+import com.vynlotaste.idempotency.IdempotencyService;
+import com.vynlotaste.ingestion.OrderIntakeResponse;
+import com.vynlotaste.ingestion.OrderIntakeService;
 import com.vynlotaste.mapper.OrderMapper;
+import com.vynlotaste.pagination.CursorPage;
+import com.vynlotaste.projection.OrderListItem;
 import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.PaymentOrchestrator;
+import com.vynlotaste.service.UserService;
+import com.vynlotaste.timeline.OrderTimelineService;
+import com.vynlotaste.tracking.OrderStatusSnapshot;
+import com.vynlotaste.tracking.OrderStatusTracker;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 @RequiredArgsConstructor
 public class OrderController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Set<String> STAFF_AUTHORITIES = Set.of("ROLE_ADMIN", "ROLE_MANAGER", "ROLE_STAFF");
+    private static final Pattern IDEMPOTENCY_KEY_PATTERN = Pattern.compile("[A-Za-z0-9_:-]{8,128}");
+
     private final OrderService orderService;
     private final OrderMapper orderMapper;
+    private final PaymentOrchestrator paymentOrchestrator;
+    private final IdempotencyService idempotencyService;
+    private final OrderIntakeService orderIntakeService;
+    private final VynloProperties vynloProperties;
+    private final OrderExportService orderExportService;
+    private final OrderTimelineService orderTimelineService;
+    private final OrderStatusTracker orderStatusTracker;
+    private final UserService userService;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF', 'USER')")
-    public ResponseEntity<OrderResponseDto> createOrder(@Valid @RequestBody OrderRequestDto orderRequest) {
-        Order order = orderService.createOrder(orderRequest);
-        OrderResponseDto response = orderMapper.toResponseDto(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody OrderRequestDto orderRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        // Ingestão assíncrona: 202 com o código de acompanhamento; o pedido é criado em lote depois
+        if (vynloProperties.getIngestion().isEnabled()) {
+            return enqueueOrder(orderRequest, idempotencyKey, authentication);
+        }
+        
+        if (idempotencyKey == null) {
+            Order order = orderService.createOrder(orderRequest);
+            OrderResponseDto response = orderMapper.toResponseDto(order);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+        
+        validateIdempotencyKey(idempotencyKey);
+        
+        // Repetições (timeout no app, retry do cliente) recebem a mesma resposta sem criar outro pedido
+        IdempotencyService.IdempotentResult<OrderResponseDto> result = idempotencyService.execute(
+            idempotencyScope(authentication), idempotencyKey, orderRequest, OrderResponseDto.class,
+            () -> orderMapper.toResponseDto(orderService.createOrder(orderRequest)));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+            .body(result.value());
+    }
+
+    // Cliente só acompanha as próprias requisições, como no /status
+    @GetMapping("/intake/{trackingId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF') or (hasRole('CUSTOMER') and @orderIntakeService.isOwner(#trackingId, authentication.name))")
+    public ResponseEntity<OrderIntakeResponse> getIntakeStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(orderIntakeService.getStatus(trackingId));
+    }
+
+    // Polling dos apps: lê só o hash do pedido no Redis; ?wait=N segura até N segundos por uma mudança.
+    // Cliente só acompanha os próprios pedidos
+    @GetMapping("/{id}/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF') or (hasRole('CUSTOMER') and @orderStatusTracker.isOwner(#id, authentication.name))")
+    public CompletableFuture<ResponseEntity<OrderStatusSnapshot>> getOrderStatus(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(defaultValue = "0") long wait) {
+        OrderStatusSnapshot current = orderStatusTracker.get(id);
+        if (!current.etag().equals(ifNoneMatch)) {
+            return CompletableFuture.completedFuture(statusResponse(current));
+        }
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(notModified(current));
+        }
+        return orderStatusTracker.awaitChange(current, Duration.ofSeconds(wait))
+            .thenApply(changed -> changed != null ? statusResponse(changed) : notModified(current));
     }
 
     @PutMapping("/{id}/status")
@@ -35,20 +126,158 @@ public class OrderController {
     public ResponseEntity<OrderResponseDto> updateOrderStatus(
             @PathVariable Long id,
             @RequestBody StatusUpdateRequest request) {
-        Order.OrderStatus status = Order.OrderStatus.valueOf(request.getStatus());
-        Order order = orderService.updateOrderStatus(id, status);
+        // Transições da saga de pagamento são recusadas pelo próprio serviço
+        Order order = orderService.updateOrderStatus(id, Order.OrderStatus.valueOf(request.getStatus()));
         OrderResponseDto response = orderMapper.toResponseDto(order);
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping("/my-orders")
+    @PostMapping("/{id}/payment")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF', 'USER')")
-    public ResponseEntity<List<OrderResponseDto>> getUserOrders(@RequestParam Long userId) {
-        List<Order> orders = orderService.getOrdersByUser(userId);
-        List<OrderResponseDto> response = orders.stream()
-            .map(orderMapper::toResponseDto)
-            .toList();
-        return ResponseEntity.ok(response);
+    public ResponseEntity<OrderResponseDto> authorizePayment(
+            @PathVariable Long id,
+            @RequestBody PaymentRequest request) {
+        // 202: o resultado (CONFIRMED/PAYMENT_FAILED) chega depois pelo quadro de pedidos
+        Order order = paymentOrchestrator.authorize(id, request.getMethod());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(orderMapper.toResponseDto(order));
+    }
+
+    @PutMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF')")
+    public ResponseEntity<List<ActiveOrder>> updateOrderStatuses(@RequestBody BatchStatusUpdateRequest request) {
+        Order.OrderStatus status = Order.OrderStatus.valueOf(request.getStatus());
+        return ResponseEntity.ok(orderService.updateOrderStatuses(request.getOrderIds(), status));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF')")
+    public ResponseEntity<CursorPage<OrderListItem>> listOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(orderService.scrollOrders(cursor, size, includeTotal));
+    }
+
+    /**
+     * Export em streaming (CSV com uma linha por item, ou NDJSON com um pedido por linha) dos
+     * pedidos criados em [from, to). A memória usada não depende do tamanho do período.
+     */
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        if (!from.isBefore(to)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT, "'from' must be before 'to'");
+        }
+        
+        orderExportService.export(from, to, format, () -> {
+            response.setContentType(format.contentType());
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders-"
+                + from.toLocalDate() + "_" + to.toLocalDate() + "." + format.extension() + "\"");
+            return response.getOutputStream();
+        });
+    }
+
+    @GetMapping("/number/{orderNumber}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF', 'USER')")
+    public ResponseEntity<OrderResponseDto> getOrderByNumber(@PathVariable String orderNumber) {
+        Order order = orderService.findByOrderNumber(orderNumber);
+        return ResponseEntity.ok(orderMapper.toResponseDto(order));
+    }
+
+    // Lista completa (inclui arquivados); para históricos longos prefira a timeline paginada
+    @GetMapping("/my-orders")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF', 'CUSTOMER')")
+    public ResponseEntity<List<OrderListItem>> getUserOrders(@RequestParam(required = false) Long userId,
+                                                             Authentication authentication) {
+        return ResponseEntity.ok(orderService.getOrdersByUser(resolveCustomerId(userId, authentication)));
+    }
+
+    // Servido do Redis (sorted set por cliente, carregado de orders_history); custo proporcional à página
+    @GetMapping("/timeline")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'STAFF', 'CUSTOMER')")
+    public ResponseEntity<Page<ActiveOrder>> getOrderTimeline(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        return ResponseEntity.ok(orderTimelineService.getTimeline(resolveCustomerId(userId, authentication), page, size));
+    }
+
+    private static ResponseEntity<OrderStatusSnapshot> statusResponse(OrderStatusSnapshot snapshot) {
+        return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache())
+            .body(snapshot);
+    }
+
+    private static ResponseEntity<OrderStatusSnapshot> notModified(OrderStatusSnapshot snapshot) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache())
+            .build();
+    }
+
+    private ResponseEntity<OrderIntakeResponse> enqueueOrder(OrderRequestDto orderRequest, String idempotencyKey,
+                                                             Authentication authentication) {
+        OrderIntakeResponse intake;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            intake = orderIntakeService.enqueue(orderRequest);
+        } else {
+            validateIdempotencyKey(idempotencyKey);
+            IdempotencyService.IdempotentResult<OrderIntakeResponse> result = idempotencyService.execute(
+                idempotencyScope(authentication), idempotencyKey, orderRequest, OrderIntakeResponse.class,
+                () -> orderIntakeService.enqueue(orderRequest));
+            intake = result.value();
+            replayed = result.replayed();
+        }
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.ACCEPTED)
+            .location(URI.create("/api/v1/orders/intake/" + intake.trackingId()));
+        if (idempotencyKey != null) {
+            response.header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(replayed));
+        }
+        return response.body(intake);
+    }
+
+    // A equipe consulta qualquer cliente pelo userId; os demais só a si mesmos, pelo usuário
+    // autenticado (um userId de outro cliente é recusado, não ignorado)
+    private Long resolveCustomerId(Long userId, Authentication authentication) {
+        if (hasAnyAuthority(authentication, STAFF_AUTHORITIES)) {
+            if (userId == null) {
+                throw new BusinessException(ErrorCode.INVALID_INPUT, "'userId' is required");
+            }
+            return userId;
+        }
+        Long currentUserId = userService.findByEmail(authentication.getName())
+            .map(User::getId)
+            .orElseThrow(() -> new AccessDeniedException("Unknown user: " + authentication.getName()));
+        if (userId != null && !userId.equals(currentUserId)) {
+            throw new AccessDeniedException("Cannot read another customer's orders");
+        }
+        return currentUserId;
+    }
+
+    private static boolean hasAnyAuthority(Authentication authentication, Set<String> authorities) {
+        return authentication.getAuthorities().stream()
+            .anyMatch(authority -> authorities.contains(authority.getAuthority()));
+    }
+
+    // Chaves pertencem a quem autenticou, não ao customerId do corpo: outro usuário não consegue
+    // ler a resposta nem bloquear a chave de um cliente enviando o mesmo Idempotency-Key
+    private static String idempotencyScope(Authentication authentication) {
+        return "orders:" + authentication.getName();
+    }
+
+    private static void validateIdempotencyKey(String idempotencyKey) {
+        if (!IDEMPOTENCY_KEY_PATTERN.matcher(idempotencyKey).matches()) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT, "Invalid " + IDEMPOTENCY_KEY_HEADER + " header");
+        }
     }
 
     public static class StatusUpdateRequest {
@@ -57,4 +286,21 @@ public class OrderController {
         public String getStatus() { return status; }
         public void setStatus(String status) { this.status = status; }
     }
-}
\ No newline at end of file
+
+    public static class BatchStatusUpdateRequest {
+        private List<Long> orderIds;
+        private String status;
+        
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+
+    public static class PaymentRequest {
+        private String method;
+        
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+    }
+}
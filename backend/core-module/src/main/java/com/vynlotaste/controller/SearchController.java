@@ -1,9 +1,16 @@
 package com.vynlotaste.controller;
 
+import com.vynlotaste.board.ActiveOrder;
 import com.vynlotaste.entity.Order;
 import com.vynlotaste.entity.Product;
 import com.vynlotaste.entity.User;
 import com.vynlotaste.entity.UserRole;
+import com.vynlotaste.pagination.CursorPage;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.projection.OrderListItem;
+import com.vynlotaste.search.ProductFacetPage;
+import com.vynlotaste.search.ProductSearchHit;
+import com.vynlotaste.search.ProductSearchIndex;
 import com.vynlotaste.service.DynamicQueryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -26,6 +33,7 @@ import java.util.List;
 public class SearchController {
 
     private final DynamicQueryService dynamicQueryService;
+    private final ProductSearchIndex productSearchIndex;
 
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -52,6 +60,30 @@ public class SearchController {
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/users/scroll")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Search users with dynamic filters, cursor-paginated (newest first, no total count)")
+    public ResponseEntity<CursorPage<User>> scrollUsers(
+            @Parameter(description = "User role filter") @RequestParam(required = false) UserRole role,
+            @Parameter(description = "Active status filter") @RequestParam(required = false) Boolean active,
+            @Parameter(description = "Email verified filter") @RequestParam(required = false) Boolean emailVerified,
+            @Parameter(description = "Created after date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @Parameter(description = "Created before date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @Parameter(description = "Email contains") @RequestParam(required = false) String emailContains,
+            @Parameter(description = "Name contains") @RequestParam(required = false) String nameContains,
+            @Parameter(description = "Phone contains") @RequestParam(required = false) String phone,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include a cached approximate total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPage<User> users = dynamicQueryService.scrollUsers(
+            role, active, emailVerified, createdAfter, createdBefore,
+            emailContains, nameContains, phone, cursor, size, includeTotal
+        );
+
+        return ResponseEntity.ok(users);
+    }
+
     @GetMapping("/products")
     @Operation(summary = "Search products with dynamic filters")
     public ResponseEntity<Page<Product>> searchProducts(
@@ -80,10 +112,75 @@ public class SearchController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/products/facets")
+    @Operation(summary = "Search products with filters and facet counts for each filter value")
+    public ResponseEntity<ProductFacetPage> searchProductsWithFacets(
+            @Parameter(description = "Category filter") @RequestParam(required = false) String category,
+            @Parameter(description = "Available filter") @RequestParam(required = false) Boolean available,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Name contains") @RequestParam(required = false) String nameContains,
+            @Parameter(description = "Description contains") @RequestParam(required = false) String descriptionContains,
+            @Parameter(description = "Vegan filter") @RequestParam(required = false) Boolean vegan,
+            @Parameter(description = "Vegetarian filter") @RequestParam(required = false) Boolean vegetarian,
+            @Parameter(description = "Gluten free filter") @RequestParam(required = false) Boolean glutenFree,
+            @Parameter(description = "Ingredient contains") @RequestParam(required = false) String ingredientContains,
+            @Parameter(description = "Page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
+            @Parameter(description = "Sort direction") @RequestParam(defaultValue = "asc") String sortDirection) {
+
+        ProductFacetPage products = dynamicQueryService.findProductsWithFacets(
+            category, available, minPrice, maxPrice, nameContains, descriptionContains,
+            vegan, vegetarian, glutenFree, ingredientContains,
+            page, size, sortBy, sortDirection
+        );
+
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/products/text")
+    @Operation(summary = "Full-text product search over name, description and ingredients (ranked, accent and typo tolerant)")
+    public ResponseEntity<List<ProductSearchHit>> searchProductsByText(
+            @Parameter(description = "Search terms") @RequestParam String q,
+            @Parameter(description = "Only available products") @RequestParam(defaultValue = "true") boolean availableOnly,
+            @Parameter(description = "Maximum number of results") @RequestParam(defaultValue = "20") int limit) {
+
+        List<ProductSearchHit> hits = productSearchIndex.search(q, KeysetCursor.limit(limit), availableOnly);
+        return ResponseEntity.ok(hits);
+    }
+
+    @GetMapping("/products/scroll")
+    @Operation(summary = "Search products with dynamic filters, cursor-paginated (newest first, no total count)")
+    public ResponseEntity<CursorPage<Product>> scrollProducts(
+            @Parameter(description = "Category filter") @RequestParam(required = false) String category,
+            @Parameter(description = "Available filter") @RequestParam(required = false) Boolean available,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Name contains") @RequestParam(required = false) String nameContains,
+            @Parameter(description = "Description contains") @RequestParam(required = false) String descriptionContains,
+            @Parameter(description = "Minimum stock") @RequestParam(required = false) Integer minStock,
+            @Parameter(description = "Vegan filter") @RequestParam(required = false) Boolean vegan,
+            @Parameter(description = "Vegetarian filter") @RequestParam(required = false) Boolean vegetarian,
+            @Parameter(description = "Gluten free filter") @RequestParam(required = false) Boolean glutenFree,
+            @Parameter(description = "Ingredient contains") @RequestParam(required = false) String ingredientContains,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include a cached approximate total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPage<Product> products = dynamicQueryService.scrollProducts(
+            category, available, minPrice, maxPrice, nameContains, descriptionContains,
+            minStock, vegan, vegetarian, glutenFree, ingredientContains,
+            cursor, size, includeTotal
+        );
+
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/orders")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('STAFF')")
     @Operation(summary = "Search orders with dynamic filters")
-    public ResponseEntity<Page<Order>> searchOrders(
+    public ResponseEntity<Page<OrderListItem>> searchOrders(
             @Parameter(description = "Order status filter") @RequestParam(required = false) Order.OrderStatus status,
             @Parameter(description = "Order type filter") @RequestParam(required = false) Order.OrderType type,
             @Parameter(description = "Customer ID filter") @RequestParam(required = false) Long customerId,
@@ -99,7 +196,7 @@ public class SearchController {
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "createdAt") String sortBy,
             @Parameter(description = "Sort direction") @RequestParam(defaultValue = "desc") String sortDirection) {
 
-        Page<Order> orders = dynamicQueryService.findOrders(
+        Page<OrderListItem> orders = dynamicQueryService.findOrders(
             status, type, customerId, customerEmail, createdAfter, createdBefore,
             minAmount, maxAmount, orderNumber, deliveryAddress,
             page, size, sortBy, sortDirection
@@ -108,6 +205,33 @@ public class SearchController {
         return ResponseEntity.ok(orders);
     }
 
+    @GetMapping("/orders/scroll")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('STAFF')")
+    @Operation(summary = "Search orders with dynamic filters, cursor-paginated (newest first, no total count)")
+    public ResponseEntity<CursorPage<OrderListItem>> scrollOrders(
+            @Parameter(description = "Order status filter") @RequestParam(required = false) Order.OrderStatus status,
+            @Parameter(description = "Order type filter") @RequestParam(required = false) Order.OrderType type,
+            @Parameter(description = "Customer ID filter") @RequestParam(required = false) Long customerId,
+            @Parameter(description = "Customer email contains") @RequestParam(required = false) String customerEmail,
+            @Parameter(description = "Created after date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @Parameter(description = "Created before date") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @Parameter(description = "Minimum amount") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Maximum amount") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Order number contains") @RequestParam(required = false) String orderNumber,
+            @Parameter(description = "Delivery address contains") @RequestParam(required = false) String deliveryAddress,
+            @Parameter(description = "Continuation token from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Include a cached approximate total") @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        CursorPage<OrderListItem> orders = dynamicQueryService.scrollOrders(
+            status, type, customerId, customerEmail, createdAfter, createdBefore,
+            minAmount, maxAmount, orderNumber, deliveryAddress,
+            cursor, size, includeTotal
+        );
+
+        return ResponseEntity.ok(orders);
+    }
+
     @GetMapping("/products/category/{category}")
     @Operation(summary = "Get available products by category")
     public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
@@ -133,27 +257,30 @@ public class SearchController {
 
     @GetMapping("/orders/pending")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('STAFF')")
-    @Operation(summary = "Get pending orders")
-    public ResponseEntity<List<Order>> getPendingOrders() {
-        List<Order> orders = dynamicQueryService.findPendingOrders();
+    @Operation(summary = "Get pending orders",
+               description = "Returns the compact active-order view (id, orderNumber, status, type, customerId, "
+                   + "totalAmount, createdAt, version) instead of the full order entity; items, customer and "
+                   + "delivery details are no longer embedded")
+    public ResponseEntity<List<ActiveOrder>> getPendingOrders() {
+        List<ActiveOrder> orders = dynamicQueryService.findPendingOrders();
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/orders/delivery")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER') or hasRole('DRIVER')")
     @Operation(summary = "Get delivery orders")
-    public ResponseEntity<List<Order>> getDeliveryOrders(
+    public ResponseEntity<List<OrderListItem>> getDeliveryOrders(
             @Parameter(description = "Order status filter") @RequestParam(required = false) Order.OrderStatus status) {
-        List<Order> orders = dynamicQueryService.findDeliveryOrders(status);
+        List<OrderListItem> orders = dynamicQueryService.findDeliveryOrders(status);
         return ResponseEntity.ok(orders);
     }
 
     @GetMapping("/orders/high-value")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
     @Operation(summary = "Get high value orders")
-    public ResponseEntity<List<Order>> getHighValueOrders(
+    public ResponseEntity<List<OrderListItem>> getHighValueOrders(
             @Parameter(description = "Minimum amount") @RequestParam BigDecimal minAmount) {
-        List<Order> orders = dynamicQueryService.findHighValueOrders(minAmount);
+        List<OrderListItem> orders = dynamicQueryService.findHighValueOrders(minAmount);
         return ResponseEntity.ok(orders);
     }
 
@@ -6,6 +6,7 @@ import com.vynlotaste.dto.user.UserResponseDto;
 import com.vynlotaste.dto.validation.ValidationGroups;
 import com.vynlotaste.entity.User;
 import com.vynlotaste.mapper.UserMapper;
+import com.vynlotaste.pagination.CursorPage;
 import com.vynlotaste.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -195,6 +196,33 @@ public class UserControllerV1 {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+        summary = "Listar usuários por cursor",
+        description = "Lista usuários do mais recente para o mais antigo sem contagem total. " +
+                      "Use o nextCursor da resposta para buscar a página seguinte.",
+        tags = {"Usuários V1"}
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de usuários"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "403", description = "Permissões insuficientes")
+    })
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    public ResponseEntity<CursorPage<UserResponseDto>> scrollUsers(
+        @Parameter(description = "Token de continuação da página anterior")
+        @RequestParam(required = false) String cursor,
+        @Parameter(description = "Tamanho da página (máximo 100)", example = "20")
+        @RequestParam(defaultValue = "20") int size,
+        @Parameter(description = "Incluir total aproximado (cache de 1 minuto)")
+        @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        log.debug("Scrolling users: size={}, cursor={}", size, cursor);
+        CursorPage<UserResponseDto> response = userService.scrollUsers(cursor, size, includeTotal)
+            .map(userMapper::toResponseDto);
+        return ResponseEntity.ok(response);
+    }
+
     @Operation(
         summary = "Buscar usuário por ID",
         description = "Retorna os dados de um usuário específico pelo seu ID",
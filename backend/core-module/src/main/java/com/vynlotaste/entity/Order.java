@@ -29,7 +29,8 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Número do pedido é obrigatório")
@@ -82,7 +83,7 @@ public class Order {
     private LocalDateTime updatedAt;
 
     public enum OrderStatus {
-        PENDING, CONFIRMED, PREPARING, READY, DELIVERED, CANCELLED
+        PENDING, PENDING_PAYMENT, PAYMENT_FAILED, CONFIRMED, PREPARING, READY, DELIVERED, CANCELLED
     }
 
     public enum OrderType {
@@ -101,7 +102,7 @@ public class Order {
     }
 
     public boolean canBeCancelled() {
-        return status == OrderStatus.PENDING || status == OrderStatus.CONFIRMED;
+        return status == OrderStatus.PENDING || status == OrderStatus.PAYMENT_FAILED || status == OrderStatus.CONFIRMED;
     }
 
     // Construtores
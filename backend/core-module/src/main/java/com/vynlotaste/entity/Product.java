@@ -28,7 +28,8 @@ import java.time.LocalDateTime;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome do produto é obrigatório")
@@ -58,8 +59,10 @@ public class Product {
     @Max(value = 480, message = "Tempo de preparo deve ser no máximo 8 horas")
     private Integer preparationTime;
 
+    // Gravado só na criação; depois muda apenas por UPDATEs relativos (reservas, devoluções,
+    // process_order, diário de estoque), que um save com valor lido antes não pode sobrescrever
     @Min(value = 0, message = "Quantidade em estoque não pode ser negativa")
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Integer stockQuantity = 0;
 
     @Size(max = 100, message = "Categoria deve ter no máximo 100 caracteres")
@@ -123,6 +126,28 @@ public class Product {
         stockQuantity += quantity;
     }
 
+    // Cópia rasa e desanexada, para servir um produto mantido em memória com outro estoque
+    public Product copyWithStock(Integer stockQuantity) {
+        Product copy = new Product(name, price, category);
+        copy.id = id;
+        copy.description = description;
+        copy.imageUrl = imageUrl;
+        copy.available = available;
+        copy.preparationTime = preparationTime;
+        copy.stockQuantity = stockQuantity;
+        copy.ingredients = ingredients;
+        copy.weight = weight;
+        copy.calories = calories;
+        copy.vegan = vegan;
+        copy.vegetarian = vegetarian;
+        copy.glutenFree = glutenFree;
+        copy.deleted = deleted;
+        copy.version = version;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
     // Construtores
     public Product() {}
 
@@ -5,9 +5,16 @@ import com.vynlotaste.webhook.WebhookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+/**
+ * Entrega os eventos de domínio a integrações externas e notificações. Roda de forma síncrona
+ * dentro do relay do outbox, mas não chama os endpoints de webhook: só registra uma entrega por
+ * endpoint em webhook_deliveries, enviada pelo {@link com.vynlotaste.webhook.WebhookDispatcher}
+ * com tentativas próprias. Um endpoint fora do ar não atrasa o evento para os outros listeners.
+ * As notificações ao cliente continuam assíncronas e sem nova tentativa: só saem depois que o
+ * webhook foi registrado, então uma reentrega por falha no registro não as duplica.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -16,59 +23,61 @@ public class DomainEventListener {
     private final WebhookService webhookService;
     private final NotificationService notificationService;
     
-    @Async
     @EventListener
     public void handleOrderStatusChanged(OrderStatusChangedEvent event) {
         log.info("Processing OrderStatusChanged event: {}", event.getEventId());
         
-        try {
-            // Enviar webhook para integrações externas
-            webhookService.sendWebhook("order.status.changed", event);
-            
-            // Enviar notificação para o cliente
+        // Registrar webhook para integrações externas
+        webhookService.enqueue("order.status.changed", event);
+        
+        // Enviar notificação para o cliente (a criação do pedido e o início da autorização de
+        // pagamento não geram notificação de status)
+        if (event.getPreviousStatus() != null && !"PENDING_PAYMENT".equals(event.getNewStatus())) {
             notificationService.sendOrderStatusNotification(event);
-            
-            log.info("OrderStatusChanged event processed successfully: {}", event.getEventId());
-        } catch (Exception e) {
-            log.error("Failed to process OrderStatusChanged event: {}", event.getEventId(), e);
+        }
+        
+        log.info("OrderStatusChanged event processed successfully: {}", event.getEventId());
+    }
+    
+    @EventListener
+    public void handleOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        log.info("Processing OrderStatusBatchChanged event: {} ({} orders)", event.getEventId(), event.getChanges().size());
+        
+        // Integrações externas continuam recebendo um webhook por pedido. Os registros são
+        // idempotentes pelo eventId de cada mudança; as notificações só saem depois de todos
+        for (OrderStatusChangedEvent change : event.getChanges()) {
+            webhookService.enqueue("order.status.changed", change);
+        }
+        for (OrderStatusChangedEvent change : event.getChanges()) {
+            notificationService.sendOrderStatusNotification(change);
         }
     }
     
-    @Async
     @EventListener
     public void handleUserRegistered(UserRegisteredEvent event) {
         log.info("Processing UserRegistered event: {}", event.getEventId());
         
-        try {
-            // Enviar webhook
-            webhookService.sendWebhook("user.registered", event);
-            
-            // Enviar email de boas-vindas
-            notificationService.sendWelcomeEmail(event);
-            
-            log.info("UserRegistered event processed successfully: {}", event.getEventId());
-        } catch (Exception e) {
-            log.error("Failed to process UserRegistered event: {}", event.getEventId(), e);
-        }
+        // Registrar webhook
+        webhookService.enqueue("user.registered", event);
+        
+        // Enviar email de boas-vindas
+        notificationService.sendWelcomeEmail(event);
+        
+        log.info("UserRegistered event processed successfully: {}", event.getEventId());
     }
     
-    @Async
     @EventListener
     public void handleProductUpdated(ProductUpdatedEvent event) {
         log.info("Processing ProductUpdated event: {}", event.getEventId());
         
-        try {
-            // Enviar webhook
-            webhookService.sendWebhook("product.updated", event);
-            
-            // Notificar sobre mudanças de preço ou estoque
-            if ("PRICE_CHANGE".equals(event.getUpdateType()) || "STOCK_UPDATE".equals(event.getUpdateType())) {
-                notificationService.sendProductUpdateNotification(event);
-            }
-            
-            log.info("ProductUpdated event processed successfully: {}", event.getEventId());
-        } catch (Exception e) {
-            log.error("Failed to process ProductUpdated event: {}", event.getEventId(), e);
+        // Registrar webhook
+        webhookService.enqueue("product.updated", event);
+        
+        // Notificar sobre mudanças de preço ou estoque
+        if ("PRICE_CHANGE".equals(event.getUpdateType()) || "STOCK_UPDATE".equals(event.getUpdateType())) {
+            notificationService.sendProductUpdateNotification(event);
         }
+        
+        log.info("ProductUpdated event processed successfully: {}", event.getEventId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.vynlotaste.event;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mudança de status aplicada a vários pedidos em um único UPDATE (ex.: a cozinha marcando um
+ * lote como READY). Vai para o outbox como um só registro; os consumidores tratam cada item como
+ * um {@link OrderStatusChangedEvent}.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class OrderStatusBatchChangedEvent extends BaseEvent {
+    
+    private final String newStatus;
+    private final List<OrderStatusChangedEvent> changes;
+    private final String eventId = UUID.randomUUID().toString();
+    
+    @Override
+    public String getEventId() {
+        return eventId;
+    }
+    
+    @Override
+    public String getEventType() {
+        return "ORDER_STATUS_BATCH_CHANGED";
+    }
+}
@@ -3,6 +3,8 @@ package com.vynlotaste.event;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Data
@@ -14,6 +16,11 @@ public class OrderStatusChangedEvent extends BaseEvent {
     private final String newStatus;
     private final Long customerId;
     private final String orderNumber;
+    private final String orderType;
+    private final BigDecimal totalAmount;
+    private final LocalDateTime orderCreatedAt;
+    // @Version do pedido depois da mudança: ordena as mudanças de um mesmo pedido entre si
+    private final Long orderVersion;
     private final String eventId = UUID.randomUUID().toString();
     
     @Override
@@ -15,7 +15,7 @@ public class ProductUpdatedEvent extends BaseEvent {
     private final BigDecimal price;
     private final Integer stockQuantity;
     private final Boolean available;
-    private final String updateType; // PRICE_CHANGE, STOCK_UPDATE, AVAILABILITY_CHANGE
+    private final String updateType; // CREATED, PRICE_CHANGE, DETAILS_CHANGE, STOCK_UPDATE, AVAILABILITY_CHANGE, DELETED
     private final String eventId = UUID.randomUUID().toString();
     
     @Override
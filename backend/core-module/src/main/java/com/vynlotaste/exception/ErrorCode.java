@@ -24,6 +24,8 @@ public enum ErrorCode {
     ORDER_VALIDATION_ERROR("VT-3002", "Order validation failed"),
     ORDER_CANNOT_BE_CANCELLED("VT-3003", "Order cannot be cancelled"),
     INVALID_ORDER_STATUS("VT-3004", "Invalid order status"),
+    IDEMPOTENCY_KEY_IN_PROGRESS("VT-3005", "A request with this idempotency key is still in progress"),
+    IDEMPOTENCY_KEY_REUSED("VT-3006", "Idempotency key was already used with a different request"),
     
     // Payment errors (4000-4999)
     PAYMENT_FAILED("VT-4001", "Payment processing failed"),
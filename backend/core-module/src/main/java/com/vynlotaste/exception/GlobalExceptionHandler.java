@@ -4,6 +4,7 @@ import com.vynlotaste.exception.payment.PaymentFailedException;
 import com.vynlotaste.exception.security.InsufficientPermissionsException;
 import com.vynlotaste.exception.user.UserNotFoundException;
 import com.vynlotaste.exception.product.ProductOutOfStockException;
+import com.vynlotaste.exception.order.IdempotencyConflictException;
 import com.vynlotaste.exception.order.OrderValidationException;
 import com.vynlotaste.monitoring.SimpleMonitoringService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -267,6 +268,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(
+            IdempotencyConflictException ex, HttpServletRequest request) {
+        
+        logError(ex, request);
+        errorMetricsService.recordError(ex.getErrorCode().name(), request.getRequestURI());
+        
+        // Em andamento: o cliente pode repetir com a mesma chave. Chave reutilizada: erro do cliente
+        HttpStatus status = ex.getErrorCode() == ErrorCode.IDEMPOTENCY_KEY_IN_PROGRESS
+            ? HttpStatus.CONFLICT
+            : HttpStatus.UNPROCESSABLE_ENTITY;
+        
+        ErrorResponse errorResponse = ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(status.value())
+            .error("Idempotency Conflict")
+            .message(ex.getMessage())
+            .code(ex.getErrorCode().getCode())
+            .path(request.getRequestURI())
+            .requestId(MDC.get("requestId"))
+            .traceId(MDC.get("traceId"))
+            .build();
+        
+        return ResponseEntity.status(status).body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, HttpServletRequest request) {
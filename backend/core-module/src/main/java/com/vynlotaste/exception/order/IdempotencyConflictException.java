@@ -0,0 +1,19 @@
+package com.vynlotaste.exception.order;
+
+import com.vynlotaste.exception.BaseException;
+import com.vynlotaste.exception.ErrorCode;
+
+public class IdempotencyConflictException extends BaseException {
+    
+    private IdempotencyConflictException(ErrorCode errorCode, String key) {
+        super(errorCode, errorCode.getDefaultMessage() + ": " + key, key);
+    }
+    
+    public static IdempotencyConflictException inProgress(String key) {
+        return new IdempotencyConflictException(ErrorCode.IDEMPOTENCY_KEY_IN_PROGRESS, key);
+    }
+    
+    public static IdempotencyConflictException reused(String key) {
+        return new IdempotencyConflictException(ErrorCode.IDEMPOTENCY_KEY_REUSED, key);
+    }
+}
@@ -0,0 +1,60 @@
+package com.vynlotaste.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV (RFC 4180) com uma linha por item; os dados do pedido se repetem em cada linha.
+ */
+class CsvOrderExportWriter implements OrderExportWriter {
+
+    private static final String HEADER = "order_id,order_number,status,type,created_at,total_amount,"
+        + "customer_id,customer_email,item_id,product_id,product_name,quantity,unit_price";
+
+    private final Writer writer;
+
+    CsvOrderExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(OrderExportRow row) throws IOException {
+        field(row.orderId(), false);
+        field(row.orderNumber(), false);
+        field(row.status(), false);
+        field(row.type(), false);
+        field(row.createdAt(), false);
+        field(row.totalAmount(), false);
+        field(row.customerId(), false);
+        field(row.customerEmail(), false);
+        field(row.itemId(), false);
+        field(row.productId(), false);
+        field(row.productName(), false);
+        field(row.quantity(), false);
+        field(row.unitPrice(), true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void field(Object value, boolean last) throws IOException {
+        if (value != null) {
+            writer.write(escape(value.toString()));
+        }
+        writer.write(last ? "\r\n" : ",");
+    }
+
+    static String escape(String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
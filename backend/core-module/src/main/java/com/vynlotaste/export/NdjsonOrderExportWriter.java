@@ -0,0 +1,80 @@
+package com.vynlotaste.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * NDJSON com um objeto por pedido e os itens aninhados. O objeto é escrito campo a campo
+ * enquanto as linhas do mesmo pedido chegam e fechado quando o pedido muda.
+ */
+class NdjsonOrderExportWriter implements OrderExportWriter {
+
+    private final JsonGenerator generator;
+    private Long currentOrderId;
+
+    NdjsonOrderExportWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // Um objeto por linha; o stream da resposta é fechado pelo container
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(OrderExportRow row) throws IOException {
+        if (!Objects.equals(row.orderId(), currentOrderId)) {
+            endOrder();
+            startOrder(row);
+        }
+        if (row.itemId() != null) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", row.itemId());
+            writeNullable("productId", row.productId());
+            generator.writeStringField("productName", row.productName());
+            writeNullable("quantity", row.quantity());
+            generator.writeNumberField("unitPrice", row.unitPrice());
+            generator.writeEndObject();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        endOrder();
+        generator.close();
+    }
+
+    private void startOrder(OrderExportRow row) throws IOException {
+        currentOrderId = row.orderId();
+        generator.writeStartObject();
+        generator.writeNumberField("id", row.orderId());
+        generator.writeStringField("orderNumber", row.orderNumber());
+        generator.writeStringField("status", row.status() != null ? row.status().name() : null);
+        generator.writeStringField("type", row.type() != null ? row.type().name() : null);
+        generator.writeStringField("createdAt", row.createdAt() != null ? row.createdAt().toString() : null);
+        generator.writeNumberField("totalAmount", row.totalAmount());
+        writeNullable("customerId", row.customerId());
+        generator.writeStringField("customerEmail", row.customerEmail());
+        generator.writeArrayFieldStart("items");
+    }
+
+    private void endOrder() throws IOException {
+        if (currentOrderId == null) {
+            return;
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        currentOrderId = null;
+    }
+
+    private void writeNullable(String field, Number value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value.longValue());
+        }
+    }
+}
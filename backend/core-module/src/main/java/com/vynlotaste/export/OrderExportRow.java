@@ -0,0 +1,27 @@
+package com.vynlotaste.export;
+
+import com.vynlotaste.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Uma linha do export: o pedido repetido em cada item (LEFT JOIN, então pedidos sem itens
+ * aparecem uma vez com as colunas de item nulas).
+ */
+public record OrderExportRow(
+    Long orderId,
+    String orderNumber,
+    Order.OrderStatus status,
+    Order.OrderType type,
+    LocalDateTime createdAt,
+    BigDecimal totalAmount,
+    Long customerId,
+    String customerEmail,
+    Long itemId,
+    Long productId,
+    String productName,
+    Integer quantity,
+    BigDecimal unitPrice
+) {
+}
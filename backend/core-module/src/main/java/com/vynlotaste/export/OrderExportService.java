@@ -0,0 +1,169 @@
+package com.vynlotaste.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Export de pedidos e itens em streaming com memória constante.
+ * <p>
+ * A consulta roda em uma {@link StatelessSession} (sem contexto de persistência, nada fica
+ * retido entre linhas) dentro de uma transação somente leitura, e é lida como um {@link Stream}
+ * forward-only com fetch size: o driver do PostgreSQL usa um cursor e traz {@code fetchSize}
+ * linhas por vez. Cada linha vai direto para a resposta. O número de exports simultâneos é
+ * limitado, pois cada um segura uma conexão do pool até terminar.
+ * <p>
+ * A consulta é nativa sobre as views de histórico, para que pedidos já movidos para o arquivo
+ * continuem no export; as linhas são montadas direto no {@link OrderExportRow}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    // orders_history / order_items_history (V13): o export cobre também os pedidos arquivados
+    static final String EXPORT_QUERY =
+        "SELECT o.id AS order_id, o.order_number, o.status, o.type, o.created_at, o.total_amount, " +
+        "c.id AS customer_id, c.email AS customer_email, i.id AS item_id, i.product_id, p.name AS product_name, " +
+        "i.quantity, i.unit_price " +
+        "FROM orders_history o JOIN users c ON c.id = o.customer_id " +
+        "LEFT JOIN order_items_history i ON i.order_id = o.id AND i.deleted = false " +
+        "LEFT JOIN products p ON p.id = i.product_id " +
+        "WHERE o.deleted = false AND o.created_at >= :from AND o.created_at < :to " +
+        "ORDER BY o.created_at, o.id, i.id";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Semaphore permits;
+    private Counter rowsCounter;
+    private Timer exportTimer;
+
+    @PostConstruct
+    public void initialize() {
+        this.permits = new Semaphore(properties.getExport().getMaxConcurrent());
+        this.rowsCounter = Counter.builder("vynlo.orders.export.rows")
+            .description("Rows written by order exports")
+            .register(meterRegistry);
+        this.exportTimer = Timer.builder("vynlo.orders.export.time")
+            .description("Duration of order exports")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.orders.export.active", permits,
+                semaphore -> properties.getExport().getMaxConcurrent() - semaphore.availablePermits())
+            .description("Order exports currently streaming")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Escreve os pedidos criados em {@code [from, to)}. A vaga é reservada antes de o destino ser
+     * aberto, para que a recusa ainda possa virar um 429 em vez de uma resposta cortada.
+     */
+    public void export(LocalDateTime from, LocalDateTime to, ExportFormat format, ExportTarget target) throws IOException {
+        if (!permits.tryAcquire()) {
+            throw new BusinessException(ErrorCode.TOO_MANY_REQUESTS, "Too many concurrent order exports, try again later");
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long rows = 0;
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            OutputStream out = target.open();
+            Transaction transaction = session.beginTransaction();
+            try {
+                session.doWork(connection -> connection.setReadOnly(true));
+                rows = writeRows(session, from, to, format, out);
+            } finally {
+                // Somente leitura: não há o que confirmar
+                transaction.rollback();
+            }
+        } finally {
+            permits.release();
+            rowsCounter.increment(rows);
+            sample.stop(exportTimer);
+        }
+        log.info("Export de pedidos concluído: {} linhas ({} a {}, {})", rows, from, to, format);
+    }
+
+    private long writeRows(StatelessSession session, LocalDateTime from, LocalDateTime to,
+                           ExportFormat format, OutputStream out) throws IOException {
+        long rows = 0;
+        try (Stream<OrderExportRow> stream = session.createNativeQuery(EXPORT_QUERY, Object[].class)
+                .addScalar("order_id", Long.class)
+                .addScalar("order_number", String.class)
+                .addScalar("status", String.class)
+                .addScalar("type", String.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("total_amount", BigDecimal.class)
+                .addScalar("customer_id", Long.class)
+                .addScalar("customer_email", String.class)
+                .addScalar("item_id", Long.class)
+                .addScalar("product_id", Long.class)
+                .addScalar("product_name", String.class)
+                .addScalar("quantity", Integer.class)
+                .addScalar("unit_price", BigDecimal.class)
+                .setTupleTransformer((tuple, aliases) -> toRow(tuple))
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setFetchSize(properties.getExport().getFetchSize())
+                .setReadOnly(true)
+                .getResultStream();
+             OrderExportWriter writer = format.open(out, objectMapper)) {
+            Iterator<OrderExportRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    static OrderExportRow toRow(Object[] tuple) {
+        return new OrderExportRow(
+            (Long) tuple[0],
+            (String) tuple[1],
+            tuple[2] != null ? Order.OrderStatus.valueOf((String) tuple[2]) : null,
+            tuple[3] != null ? Order.OrderType.valueOf((String) tuple[3]) : null,
+            (LocalDateTime) tuple[4],
+            (BigDecimal) tuple[5],
+            (Long) tuple[6],
+            (String) tuple[7],
+            (Long) tuple[8],
+            (Long) tuple[9],
+            (String) tuple[10],
+            (Integer) tuple[11],
+            (BigDecimal) tuple[12]);
+    }
+
+    /**
+     * Destino do export, aberto só depois de a vaga ser reservada (ex.: define os headers e
+     * devolve o stream da resposta HTTP).
+     */
+    @FunctionalInterface
+    public interface ExportTarget {
+
+        OutputStream open() throws IOException;
+    }
+}
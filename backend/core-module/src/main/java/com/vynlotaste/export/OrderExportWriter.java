@@ -0,0 +1,13 @@
+package com.vynlotaste.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Escreve as linhas do export à medida que chegam do cursor. As linhas vêm ordenadas por
+ * pedido, então no máximo um pedido fica em memória.
+ */
+interface OrderExportWriter extends Closeable {
+
+    void write(OrderExportRow row) throws IOException;
+}
@@ -0,0 +1,215 @@
+package com.vynlotaste.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.exception.order.IdempotencyConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Execução idempotente de requisições identificadas por um {@code Idempotency-Key}.
+ * <p>
+ * A primeira requisição grava no Redis, com SET NX, um marcador "em andamento" com TTL curto,
+ * e executa a ação numa transação com prazo menor que esse TTL. Ao terminar, troca o marcador
+ * pela resposta serializada, com o TTL longo, só se o marcador ainda for o seu. Duplicatas
+ * concorrentes esperam a original e devolvem a mesma resposta, então a ação nunca roda duas
+ * vezes para a mesma chave. Se a original falhar, o marcador é removido e a próxima tentativa
+ * executa de novo. A mesma chave com um corpo diferente é rejeitada pela impressão digital
+ * gravada junto.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    static final String KEY_PREFIX = "vynlo:idempotency:";
+
+    private static final long MIN_POLL_MILLIS = 25;
+    private static final long MAX_POLL_MILLIS = 250;
+
+    // Só remove o marcador se ainda for o desta execução
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    // Troca o marcador pela resposta só se ele ainda for o desta execução (não expirou nem mudou de dono)
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+        "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 else return 0 end",
+        Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final PlatformTransactionManager transactionManager;
+
+    private Counter executedCounter;
+    private Counter replayedCounter;
+    private Counter conflictCounter;
+
+    @PostConstruct
+    public void initialize() {
+        VynloProperties.Idempotency settings = properties.getIdempotency();
+        if (settings.getInFlightTtl().compareTo(settings.getActionTimeout()) <= 0) {
+            throw new IllegalStateException("vynlo.idempotency.in-flight-ttl (" + settings.getInFlightTtl()
+                + ") must be longer than vynlo.idempotency.action-timeout (" + settings.getActionTimeout() + ")");
+        }
+
+        this.executedCounter = Counter.builder("vynlo.idempotency.requests")
+            .tag("result", "executed")
+            .description("Idempotent requests by result")
+            .register(meterRegistry);
+        this.replayedCounter = Counter.builder("vynlo.idempotency.requests")
+            .tag("result", "replayed")
+            .description("Idempotent requests by result")
+            .register(meterRegistry);
+        this.conflictCounter = Counter.builder("vynlo.idempotency.requests")
+            .tag("result", "conflict")
+            .description("Idempotent requests by result")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Executa {@code action} uma única vez por {@code scope + key}.
+     *
+     * @param scope   dono das chaves, ex.: o usuário autenticado; nunca um valor vindo do corpo
+     * @param request corpo da requisição, usado para detectar reuso da chave com outro conteúdo
+     */
+    public <T> IdempotentResult<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                           Supplier<T> action) {
+        VynloProperties.Idempotency settings = properties.getIdempotency();
+        String redisKey = KEY_PREFIX + scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        long deadline = System.currentTimeMillis() + settings.getWaitTimeout().toMillis();
+        long pollMillis = MIN_POLL_MILLIS;
+
+        while (true) {
+            String marker = write(new IdempotencyRecord(IdempotencyRecord.IN_FLIGHT, UUID.randomUUID().toString(),
+                fingerprint, null));
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(redisKey, marker, settings.getInFlightTtl()))) {
+                return new IdempotentResult<>(run(redisKey, marker, fingerprint, action), false);
+            }
+
+            String raw = stringRedisTemplate.opsForValue().get(redisKey);
+            if (raw != null) {
+                IdempotencyRecord record = read(raw, IdempotencyRecord.class);
+                if (!fingerprint.equals(record.fingerprint())) {
+                    conflictCounter.increment();
+                    throw IdempotencyConflictException.reused(key);
+                }
+                if (record.isCompleted()) {
+                    replayedCounter.increment();
+                    log.debug("Resposta idempotente reaproveitada: {}", redisKey);
+                    return new IdempotentResult<>(read(record.response(), responseType), true);
+                }
+            }
+            // raw == null: a original falhou e liberou a chave; tenta adquirir de novo
+
+            if (System.currentTimeMillis() >= deadline) {
+                conflictCounter.increment();
+                throw IdempotencyConflictException.inProgress(key);
+            }
+            sleep(pollMillis);
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    private <T> T run(String redisKey, String marker, String fingerprint, Supplier<T> action) {
+        VynloProperties.Idempotency settings = properties.getIdempotency();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout((int) Math.max(1, settings.getActionTimeout().toSeconds()));
+
+        T result;
+        try {
+            result = transaction.execute(status -> action.get());
+        } catch (RuntimeException e) {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), marker);
+            throw e;
+        }
+
+        executedCounter.increment();
+        try {
+            IdempotencyRecord completed = new IdempotencyRecord(IdempotencyRecord.COMPLETED, null, fingerprint, write(result));
+            Long stored = stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(redisKey), marker, write(completed),
+                String.valueOf(settings.getTtl().toMillis()));
+            if (!Long.valueOf(1).equals(stored)) {
+                // Outra execução assumiu a chave depois que o marcador expirou: não sobrescreve o dela
+                log.warn("Marcador idempotente expirou antes da resposta ser gravada: {}", redisKey);
+            }
+        } catch (Exception e) {
+            // A ação já foi aplicada; sem o registro, repetições após o TTL do marcador executariam de novo
+            log.error("Falha ao gravar resposta idempotente: {}", redisKey, e);
+        }
+        return result;
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize idempotency record", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for idempotent request", e);
+        }
+    }
+
+    record IdempotencyRecord(String state, String token, String fingerprint, String response) {
+
+        static final String IN_FLIGHT = "IN_FLIGHT";
+        static final String COMPLETED = "COMPLETED";
+
+        @JsonIgnore
+        boolean isCompleted() {
+            return COMPLETED.equals(state);
+        }
+    }
+
+    public record IdempotentResult<T>(T value, boolean replayed) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.vynlotaste.ingestion;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_intake")
+@Data
+public class OrderIntake {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_intake_seq")
+    @SequenceGenerator(name = "order_intake_seq", sequenceName = "order_intake_id_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "tracking_id", nullable = false, unique = true, length = 20)
+    private String trackingId;
+    
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.QUEUED;
+    
+    @Column(name = "order_id")
+    private Long orderId;
+    
+    @Column(length = 1000)
+    private String error;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    public enum Status {
+        QUEUED, ACCEPTED, REJECTED
+    }
+}
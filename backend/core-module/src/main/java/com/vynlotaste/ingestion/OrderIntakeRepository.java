@@ -0,0 +1,37 @@
+package com.vynlotaste.ingestion;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderIntakeRepository extends JpaRepository<OrderIntake, Long> {
+    
+    // SKIP LOCKED: workers do mesmo nó ou de outros nós drenam a fila sem disputar as mesmas linhas
+    @Query(value = "SELECT * FROM order_intake WHERE status = 'QUEUED' ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<OrderIntake> lockNextBatch(@Param("limit") int limit);
+    
+    @Query(value = "SELECT * FROM order_intake WHERE id = :id AND status = 'QUEUED' FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    Optional<OrderIntake> lockQueued(@Param("id") Long id);
+    
+    @Query(value = "SELECT * FROM order_intake WHERE id IN (:ids) AND status = 'QUEUED' ORDER BY id FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<OrderIntake> lockQueuedIn(@Param("ids") Collection<Long> ids);
+    
+    Optional<OrderIntake> findByTrackingId(String trackingId);
+    
+    long countByStatus(OrderIntake.Status status);
+    
+    @Modifying
+    @Query("DELETE FROM OrderIntake i WHERE i.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
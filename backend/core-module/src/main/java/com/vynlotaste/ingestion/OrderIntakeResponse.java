@@ -0,0 +1,28 @@
+package com.vynlotaste.ingestion;
+
+import java.time.LocalDateTime;
+
+/**
+ * Situação de um pedido enfileirado, consultada pelo código de acompanhamento. Quando aceito,
+ * o {@code trackingId} também é o número do pedido criado.
+ */
+public record OrderIntakeResponse(
+    String trackingId,
+    OrderIntake.Status status,
+    Long orderId,
+    String error,
+    LocalDateTime createdAt,
+    LocalDateTime processedAt
+) {
+
+    static OrderIntakeResponse of(OrderIntake intake) {
+        return new OrderIntakeResponse(
+            intake.getTrackingId(),
+            intake.getStatus(),
+            intake.getOrderId(),
+            intake.getError(),
+            intake.getCreatedAt(),
+            intake.getProcessedAt()
+        );
+    }
+}
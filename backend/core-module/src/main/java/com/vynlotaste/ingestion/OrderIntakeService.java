@@ -0,0 +1,99 @@
+package com.vynlotaste.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import com.vynlotaste.service.OrderNumberGenerator;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Aceitação de pedidos no modo de ingestão assíncrona: valida o que não depende do banco,
+ * reserva o número do pedido (que vira o código de acompanhamento) e grava a requisição na
+ * fila {@code order_intake}. A criação de fato fica com o {@link OrderIntakeWorker}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderIntakeService {
+
+    private final OrderIntakeRepository orderIntakeRepository;
+    private final OrderService orderService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Counter queuedCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        this.queuedCounter = Counter.builder("vynlo.orders.intake")
+            .tag("result", "queued")
+            .description("Orders handled by asynchronous ingestion, by result")
+            .register(meterRegistry);
+    }
+
+    @Transactional
+    public OrderIntakeResponse enqueue(OrderRequestDto orderRequest) {
+        orderService.validateOrderRequest(orderRequest);
+
+        OrderIntake intake = new OrderIntake();
+        intake.setTrackingId(orderNumberGenerator.nextOrderNumber());
+        intake.setCustomerId(orderRequest.getCustomerId());
+        intake.setPayload(write(orderRequest));
+        orderIntakeRepository.save(intake);
+
+        queuedCounter.increment();
+        log.debug("Pedido enfileirado para ingestão: {} (cliente {})", intake.getTrackingId(), intake.getCustomerId());
+        return OrderIntakeResponse.of(intake);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderIntakeResponse getStatus(String trackingId) {
+        // Mesmo formato do número do pedido: aceita minúsculas e separadores
+        String normalized = OrderNumberGenerator.normalize(trackingId);
+        if (normalized == null) {
+            throw new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order intake not found: " + trackingId);
+        }
+        return orderIntakeRepository.findByTrackingId(normalized)
+            .map(OrderIntakeResponse::of)
+            .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order intake not found: " + trackingId));
+    }
+
+    /**
+     * Usado no {@code @PreAuthorize} do acompanhamento: o cliente só consulta as próprias
+     * requisições, como no polling de status do pedido.
+     */
+    @Transactional(readOnly = true)
+    public boolean isOwner(String trackingId, String currentUserEmail) {
+        try {
+            String normalized = OrderNumberGenerator.normalize(trackingId);
+            if (normalized == null) {
+                return false;
+            }
+            return orderIntakeRepository.findByTrackingId(normalized)
+                .map(intake -> userService.findById(intake.getCustomerId()).getEmail().equals(currentUserEmail))
+                .orElse(false);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String write(OrderRequestDto orderRequest) {
+        try {
+            return objectMapper.writeValueAsString(orderRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order request", e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.vynlotaste.ingestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Workers da ingestão assíncrona: cada um trava um lote de até {@code batchSize} pedidos
+ * enfileirados com FOR UPDATE SKIP LOCKED e cria todos em uma única transação
+ * ({@link OrderService#createOrdersInBatch}), gravando o resultado na própria linha da fila.
+ * Rejeições de negócio (estoque, produto indisponível, cliente inexistente) afetam só o pedido.
+ * <p>
+ * Os workers rodam no {@code ingestionExecutor}: o {@link #poll()} agendado só repõe os que
+ * terminaram e retorna, sem esperar; cada worker drena lotes cheios em sequência e encerra no
+ * primeiro lote parcial. Se um lote falhar, ele é dividido ao meio até isolar o pedido que
+ * causa a falha, que vai sozinho para REJECTED (dead letter). Falhas transitórias de banco
+ * não dividem nem rejeitam: o lote volta para a fila, e o pedido isolado só é rejeitado
+ * depois de {@code maxAttempts} falhas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderIntakeWorker {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OrderIntakeRepository orderIntakeRepository;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier("ingestionExecutor")
+    private final ThreadPoolTaskExecutor ingestionExecutor;
+
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private TransactionTemplate transactionTemplate;
+    private Counter acceptedCounter;
+    private Counter rejectedCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void initialize() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.acceptedCounter = Counter.builder("vynlo.orders.intake")
+            .tag("result", "accepted")
+            .description("Orders handled by asynchronous ingestion, by result")
+            .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("vynlo.orders.intake")
+            .tag("result", "rejected")
+            .description("Orders handled by asynchronous ingestion, by result")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("vynlo.orders.intake.batch.time")
+            .description("Time to persist one ingestion batch")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.orders.intake.last.batch.size", lastBatchSize, AtomicLong::get)
+            .description("Orders processed in the last ingestion batch")
+            .register(meterRegistry);
+        // Consulta o banco a cada coleta; o índice parcial mantém o COUNT barato
+        Gauge.builder("vynlo.orders.intake.backlog", orderIntakeRepository,
+                repository -> repository.countByStatus(OrderIntake.Status.QUEUED))
+            .description("Orders waiting in the ingestion queue")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{@vynloProperties.ingestion.pollInterval.toMillis()}")
+    public void poll() {
+        VynloProperties.Ingestion settings = properties.getIngestion();
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        // Só completa o número de workers; quem ainda está drenando continua
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= settings.getWorkers()) {
+                return;
+            }
+            if (!activeWorkers.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            try {
+                ingestionExecutor.execute(() -> {
+                    try {
+                        drain(settings);
+                    } finally {
+                        activeWorkers.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                activeWorkers.decrementAndGet();
+                log.warn("Executor de ingestão cheio; novo worker fica para a próxima rodada");
+                return;
+            }
+        }
+    }
+
+    int activeWorkers() {
+        return activeWorkers.get();
+    }
+
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.HOURS)
+    public void purgeProcessed() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(properties.getIngestion().getRetention());
+            Integer purged = transactionTemplate.execute(status -> orderIntakeRepository.deleteProcessedBefore(before));
+            if (purged != null && purged > 0) {
+                log.info("Fila de ingestão: {} resultados expirados removidos", purged);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao limpar a fila de ingestão", e);
+        }
+    }
+
+    private void drain(VynloProperties.Ingestion settings) {
+        try {
+            // Lotes cheios em sequência; um lote parcial indica que a fila esvaziou
+            int processed;
+            do {
+                processed = processBatch(settings);
+            } while (processed == settings.getBatchSize() && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Erro no worker de ingestão de pedidos", e);
+        }
+    }
+
+    int processBatch(VynloProperties.Ingestion settings) {
+        List<Long> lockedIds = new ArrayList<>();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int[] accepted = new int[1];
+            Integer processed = transactionTemplate.execute(status -> {
+                List<OrderIntake> batch = orderIntakeRepository.lockNextBatch(settings.getBatchSize());
+                batch.forEach(intake -> lockedIds.add(intake.getId()));
+                accepted[0] = process(batch);
+                return batch.size();
+            });
+            int count = processed != null ? processed : 0;
+            lastBatchSize.set(count);
+            if (count > 0) {
+                sample.stop(batchTimer);
+                recordOutcome(accepted[0], count);
+            }
+            return count;
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                log.warn("Falha transitória no lote de ingestão com {} pedidos; o lote volta para a fila", lockedIds.size(), e);
+                return 0;
+            }
+            // O lote inteiro foi desfeito; as metades são reprocessadas até isolar o pedido problemático
+            log.warn("Falha no lote de ingestão com {} pedidos, dividindo para isolar o problemático", lockedIds.size(), e);
+            split(lockedIds, settings);
+            return 0;
+        }
+    }
+
+    private void split(List<Long> ids, VynloProperties.Ingestion settings) {
+        if (ids.size() == 1) {
+            processSingle(ids.get(0), settings);
+            return;
+        }
+        int middle = ids.size() / 2;
+        processPart(ids.subList(0, middle), settings);
+        processPart(ids.subList(middle, ids.size()), settings);
+    }
+
+    private void processPart(List<Long> ids, VynloProperties.Ingestion settings) {
+        if (ids.size() == 1) {
+            processSingle(ids.get(0), settings);
+            return;
+        }
+        try {
+            int[] accepted = new int[1];
+            Integer processed = transactionTemplate.execute(status -> {
+                List<OrderIntake> part = orderIntakeRepository.lockQueuedIn(ids);
+                accepted[0] = process(part);
+                return part.size();
+            });
+            if (processed != null && processed > 0) {
+                recordOutcome(accepted[0], processed);
+            }
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                log.warn("Falha transitória em parte de um lote de ingestão; {} pedidos voltam para a fila", ids.size(), e);
+                return;
+            }
+            split(ids, settings);
+        }
+    }
+
+    private void processSingle(Long id, VynloProperties.Ingestion settings) {
+        try {
+            Integer accepted = transactionTemplate.execute(status -> orderIntakeRepository.lockQueued(id)
+                .map(intake -> process(List.of(intake)))
+                .orElse(-1));
+            if (accepted != null && accepted >= 0) {
+                recordOutcome(accepted, 1);
+            }
+        } catch (Exception e) {
+            boolean transientFailure = isTransient(e);
+            log.warn("Falha ao processar pedido da fila de ingestão: {}", id, e);
+            Boolean rejected = transactionTemplate.execute(status -> orderIntakeRepository.findById(id)
+                .map(intake -> {
+                    intake.setAttempts(intake.getAttempts() + 1);
+                    // Falha transitória ganha novas tentativas; qualquer outra, com o pedido já
+                    // isolado, o identifica como o problemático
+                    if (transientFailure && intake.getAttempts() < settings.getMaxAttempts()) {
+                        return false;
+                    }
+                    reject(intake, "Order could not be processed", LocalDateTime.now());
+                    return true;
+                })
+                .orElse(false));
+            if (Boolean.TRUE.equals(rejected)) {
+                rejectedCounter.increment();
+            }
+        }
+    }
+
+    // Chamado dentro da transação do lote; retorna quantos pedidos foram aceitos
+    private int process(List<OrderIntake> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, OrderIntake> byTrackingId = new HashMap<>();
+        Map<String, OrderRequestDto> requests = new LinkedHashMap<>();
+        for (OrderIntake intake : batch) {
+            try {
+                requests.put(intake.getTrackingId(), objectMapper.readValue(intake.getPayload(), OrderRequestDto.class));
+                byTrackingId.put(intake.getTrackingId(), intake);
+            } catch (Exception e) {
+                log.warn("Payload inválido na fila de ingestão: {}", intake.getTrackingId(), e);
+                reject(intake, "Invalid order payload", now);
+            }
+        }
+        if (requests.isEmpty()) {
+            return 0;
+        }
+
+        int accepted = 0;
+        for (Map.Entry<String, OrderService.BatchOrderResult> entry : orderService.createOrdersInBatch(requests).entrySet()) {
+            OrderIntake intake = byTrackingId.get(entry.getKey());
+            OrderService.BatchOrderResult result = entry.getValue();
+            if (result.isAccepted()) {
+                intake.setStatus(OrderIntake.Status.ACCEPTED);
+                intake.setOrderId(result.order().getId());
+                intake.setProcessedAt(now);
+                accepted++;
+            } else {
+                reject(intake, result.rejectionReason(), now);
+            }
+        }
+        return accepted;
+    }
+
+    // Métricas só depois do commit
+    private void recordOutcome(int accepted, int processed) {
+        acceptedCounter.increment(accepted);
+        rejectedCounter.increment(processed - accepted);
+    }
+
+    private void reject(OrderIntake intake, String reason, LocalDateTime now) {
+        intake.setStatus(OrderIntake.Status.REJECTED);
+        intake.setError(truncate(reason != null ? reason : "Order rejected"));
+        intake.setProcessedAt(now);
+    }
+
+    // Banco indisponível, deadlock, timeout de lock: nada indica que algum pedido seja o culpado
+    private static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof CannotCreateTransactionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
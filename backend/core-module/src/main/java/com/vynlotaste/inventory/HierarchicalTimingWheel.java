@@ -0,0 +1,199 @@
+package com.vynlotaste.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel hierárquico (esquema de Varghese &amp; Lauck, o mesmo dos timers do kernel Linux).
+ * <p>
+ * Cada nível possui {@value #WHEEL_SIZE} slots; o nível {@code n} cobre {@code 64^(n+1)} ticks.
+ * Agendar e cancelar são O(1) (listas duplamente ligadas por slot) e cada tick processa apenas
+ * um slot do nível 0, mais um cascateamento ocasional dos níveis superiores quando o nível
+ * inferior completa uma volta. Deadlines além do alcance do último nível são reagendados no
+ * cascateamento até caberem.
+ * <p>
+ * A classe não é thread-safe por si só; os métodos públicos são sincronizados e o avanço do
+ * relógio deve ser feito por uma única thread de tick.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    static final int LEVELS = 4;
+
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Bucket<T>[][] wheels;
+
+    // Próximo tick a ser processado
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Bucket[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheels[level][slot] = new Bucket<>();
+            }
+        }
+    }
+
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        // Arredonda para cima: um timeout nunca expira antes do deadline
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(payload, deadlineTick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Avança o relógio até {@code nowMillis} e devolve os payloads expirados, em ordem de deadline.
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+
+        while (currentTick <= targetTick) {
+            int index = (int) (currentTick & WHEEL_MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+
+            Bucket<T> bucket = wheels[0][index];
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                expired.add(timeout.payload);
+                size--;
+            }
+            currentTick++;
+        }
+
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+
+        Bucket<T> bucket = wheels[level][index];
+        Timeout<T> timeout;
+        while ((timeout = bucket.poll()) != null) {
+            place(timeout);
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        long placementTick;
+
+        if (delta < 0) {
+            // Deadline já passou: expira no próximo tick processado
+            placementTick = currentTick;
+            delta = 0;
+        } else if (delta >= MAX_SPAN) {
+            // Fora do alcance: estaciona no último nível e é reposicionado no cascateamento
+            delta = MAX_SPAN - 1;
+            placementTick = currentTick + delta;
+        } else {
+            placementTick = timeout.deadlineTick;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) ((placementTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        wheels[level][slot].append(timeout);
+    }
+
+    public static final class Timeout<T> {
+
+        private final T payload;
+        private final long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+            } else {
+                bucket.head = next;
+            }
+            if (next != null) {
+                next.prev = prev;
+            } else {
+                bucket.tail = prev;
+            }
+            prev = null;
+            next = null;
+            bucket = null;
+        }
+    }
+
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        private void append(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail != null) {
+                tail.next = timeout;
+            } else {
+                head = timeout;
+            }
+            tail = timeout;
+        }
+
+        private Timeout<T> poll() {
+            Timeout<T> first = head;
+            if (first != null) {
+                first.unlink();
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Contadores de estoque no Redis, com um diário de movimentos no banco como fonte da verdade.
+ * <p>
+ * Com {@code vynlo.stock-counter.enabled} o valor vivo de cada produto fica num campo do hash
+ * {@value #COUNTERS_KEY}, e reservas são scripts Lua: um pedido com vários produtos confere e
+ * decrementa todos atomicamente, sem lock de linha no banco. Cada reserva ou devolução grava na
+ * transação do pedido um movimento por produto em {@code stock_journal} (só INSERTs, sem
+ * disputa), e a gravação periódica soma em {@code products.stock_quantity} os movimentos ainda
+ * não aplicados, descartando do cache as chaves 'id:' dos produtos alterados.
+ * <p>
+ * Enquanto a transação do pedido não termina, a operação fica no hash {@value #IN_FLIGHT_KEY}:
+ * a reserva desfaz o decremento se a transação for revertida, e a devolução só incrementa o
+ * contador depois do commit. Se o nó cair no meio, a conciliação periódica decide pelo diário:
+ * com movimentos gravados a operação foi confirmada, sem eles foi revertida.
+ * <p>
+ * Um contador ausente é carregado do banco com HSETNX (estoque mais os movimentos pendentes),
+ * nunca sobrescrevendo um valor vivo; é assim que os contadores se refazem depois de uma perda
+ * do Redis. Só as operações em andamento no instante da perda ficam fora da recarga. A função
+ * process_order decrementa o estoque no banco, por isso os contadores exigem a estratégia de
+ * criação JPA.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockCounterService {
+
+    static final String COUNTERS_KEY = "vynlo:stock:counters";
+    static final String IN_FLIGHT_KEY = "vynlo:stock:in-flight";
+
+    static final String LOAD_SQL =
+        "SELECT p.id, p.stock_quantity + COALESCE((SELECT SUM(j.delta) FROM stock_journal j " +
+        "WHERE j.product_id = p.id AND j.applied = false), 0) AS stock_quantity " +
+        "FROM products p WHERE p.id IN (%s) AND p.deleted = false";
+
+    static final String JOURNAL_SQL = "INSERT INTO stock_journal (reservation_id, product_id, delta) VALUES (?, ?, ?)";
+
+    // Em ordem de id e sem SKIP LOCKED: uma devolução é sempre aplicada antes das reservas que dependeram dela
+    static final String PENDING_SQL =
+        "SELECT id, product_id, delta FROM stock_journal WHERE applied = false ORDER BY id LIMIT ? FOR UPDATE";
+
+    // Sem version = version + 1: o estoque não é gravado pela entidade (coluna não atualizável),
+    // então a gravação não invalida a versão de quem está editando o produto. O piso em zero só
+    // atua na janela de perda do Redis e evita que products_stock_non_negative trave a gravação.
+    static final String FLUSH_SQL =
+        "UPDATE products SET stock_quantity = GREATEST(stock_quantity + ?, 0), updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    static final String MARK_APPLIED_SQL = "UPDATE stock_journal SET applied = true WHERE id IN (%s)";
+
+    static final String JOURNALED_SQL = "SELECT DISTINCT reservation_id FROM stock_journal WHERE reservation_id IN (%s)";
+
+    static final String PURGE_SQL = "DELETE FROM stock_journal WHERE applied = true AND created_at < ?";
+
+    static final String RESERVE = "reserve";
+    static final String RELEASE = "release";
+
+    private static final String MISSING = "missing";
+    private static final String REJECTED = "rejected";
+    private static final String OK = "ok";
+
+    // ARGV: operação, registro em andamento e pares (produto, quantidade). Tudo ou nada: confere
+    // todos os contadores antes de decrementar, e registra a operação junto com o decremento
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+        local missing = {}
+        for i = 3, #ARGV, 2 do
+          if redis.call('hexists', KEYS[1], ARGV[i]) == 0 then missing[#missing + 1] = ARGV[i] end
+        end
+        if #missing > 0 then return {'missing', unpack(missing)} end
+        local rejected = {}
+        for i = 3, #ARGV, 2 do
+          if tonumber(redis.call('hget', KEYS[1], ARGV[i])) < tonumber(ARGV[i + 1]) then rejected[#rejected + 1] = ARGV[i] end
+        end
+        if #rejected > 0 then return {'rejected', unpack(rejected)} end
+        for i = 3, #ARGV, 2 do
+          redis.call('hincrby', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1]))
+        end
+        redis.call('hset', KEYS[2], ARGV[1], ARGV[2])
+        return {'ok'}
+        """, List.class);
+
+    // ARGV: operação e pares (produto, variação). Só quem remove a operação do hash aplica as
+    // variações, então o fim da transação e a conciliação nunca aplicam a mesma operação duas
+    // vezes. Contadores ausentes ficam de fora: a recarga do banco já reflete o que foi confirmado.
+    private static final RedisScript<Long> SETTLE_SCRIPT = new DefaultRedisScript<>("""
+        if redis.call('hdel', KEYS[2], ARGV[1]) == 0 then return 0 end
+        for i = 2, #ARGV, 2 do
+          if redis.call('hexists', KEYS[1], ARGV[i]) == 1 then
+            redis.call('hincrby', KEYS[1], ARGV[i], tonumber(ARGV[i + 1]))
+          end
+        end
+        return 1
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CacheManager cacheManager;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Counter reservedCounter;
+    private Counter rejectedCounter;
+    private Counter releasedCounter;
+    private Counter loadedCounter;
+    private Counter flushedCounter;
+    private Counter reconciledCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void initialize() {
+        if (isEnabled() && properties.getOrderPlacement().getStrategy() != VynloProperties.OrderPlacement.Strategy.JPA) {
+            throw new IllegalStateException("Redis stock counters require the JPA order placement strategy");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reservedCounter = operations("reserved");
+        this.rejectedCounter = operations("rejected");
+        this.releasedCounter = operations("released");
+        this.loadedCounter = Counter.builder("vynlo.stock.counter.loads")
+            .description("Stock counters loaded from the database (first use or after Redis loss)")
+            .register(meterRegistry);
+        this.flushedCounter = Counter.builder("vynlo.stock.counter.flushed")
+            .description("Stock journal entries applied to the database")
+            .register(meterRegistry);
+        this.reconciledCounter = Counter.builder("vynlo.stock.counter.reconciled")
+            .description("Abandoned in-flight stock operations settled from the journal")
+            .register(meterRegistry);
+        this.flushTimer = Timer.builder("vynlo.stock.counter.flush.time")
+            .description("Time to apply pending stock journal entries to the database")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (isEnabled()) {
+            flush();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.getStockCounter().isEnabled();
+    }
+
+    /**
+     * Decrementa todos os produtos ou nenhum e grava os movimentos na transação corrente. Se ela
+     * for revertida, os contadores são devolvidos; sem transação o decremento já é definitivo.
+     *
+     * @return os produtos sem estoque suficiente (ou inexistentes); vazio se o decremento foi aplicado
+     */
+    public List<Long> tryDecrement(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return List.of();
+        }
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        String reservationId = UUID.randomUUID().toString();
+        List<String> result = reserve(reservationId, ordered);
+        if (MISSING.equals(result.get(0))) {
+            List<Long> unknown = load(ids(result));
+            if (!unknown.isEmpty()) {
+                rejectedCounter.increment();
+                return unknown;
+            }
+            result = reserve(reservationId, ordered);
+        }
+
+        if (REJECTED.equals(result.get(0))) {
+            rejectedCounter.increment();
+            return ids(result);
+        }
+        if (!OK.equals(result.get(0))) {
+            throw new IllegalStateException("Stock counters unavailable for products: " + ids(result));
+        }
+
+        journal(reservationId, ordered, -1, ordered, Map.of());
+        reservedCounter.increment();
+        return List.of();
+    }
+
+    /**
+     * Estoque atual dos produtos, para quem serve produtos de um cache. Com os contadores ativos
+     * é o valor vivo do Redis; produtos sem contador (e tudo, com os contadores desligados) são
+     * lidos do banco somando os movimentos ainda não aplicados, sem carregar contadores.
+     * Produtos inexistentes ficam de fora.
+     */
+    public Map<Long, Integer> currentStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<Long> ids = productIds.stream().distinct().toList();
+        Map<Long, Integer> stock = new HashMap<>();
+        List<Long> missing = ids;
+        if (isEnabled()) {
+            List<Object> values = stringRedisTemplate.opsForHash()
+                .multiGet(COUNTERS_KEY, ids.stream().<Object>map(String::valueOf).toList());
+            missing = new ArrayList<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (values.get(i) != null) {
+                    stock.put(ids.get(i), Integer.valueOf(values.get(i).toString()));
+                } else {
+                    missing.add(ids.get(i));
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.query(String.format(LOAD_SQL, placeholders(missing.size())),
+                rs -> {
+                    stock.put(rs.getLong("id"), rs.getInt("stock_quantity"));
+                },
+                missing.toArray());
+        }
+        return stock;
+    }
+
+    /**
+     * Devolve estoque: grava os movimentos na transação corrente e só incrementa os contadores
+     * depois do commit (sem transação, na hora).
+     */
+    public void increment(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        String reservationId = UUID.randomUUID().toString();
+        stringRedisTemplate.opsForHash().put(IN_FLIGHT_KEY, reservationId, inFlight(RELEASE, ordered));
+
+        journal(reservationId, ordered, 1, Map.of(), ordered);
+        releasedCounter.increment();
+    }
+
+    /**
+     * Soma em {@code products.stock_quantity} os movimentos ainda não aplicados, em lotes. Os
+     * movimentos são travados em ordem de id, então dois nós gravando ao mesmo tempo se revezam
+     * em vez de aplicar a mesma linha duas vezes.
+     */
+    @Scheduled(fixedDelayString = "#{@vynloProperties.stockCounter.flushInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.stockCounter.flushInterval.toMillis()}")
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        int batchSize = properties.getStockCounter().getFlushBatchSize();
+        try {
+            flushTimer.record(() -> {
+                Integer applied;
+                do {
+                    applied = transactionTemplate.execute(status -> applyPending(batchSize));
+                } while (applied != null && applied == batchSize);
+            });
+        } catch (Exception e) {
+            log.error("Erro ao gravar movimentos de estoque no banco", e);
+        }
+    }
+
+    /**
+     * Resolve as operações em andamento mais antigas que {@code inFlightTimeout}, cujo nó caiu
+     * antes do fim da transação: uma reserva sem movimentos no diário foi revertida e devolve o
+     * estoque; uma devolução com movimentos foi confirmada e incrementa os contadores. Também
+     * apaga os movimentos aplicados há mais de {@code journalRetention}.
+     */
+    @Scheduled(fixedDelayString = "#{@vynloProperties.stockCounter.reconcileInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.stockCounter.reconcileInterval.toMillis()}")
+    public void reconcile() {
+        if (!isEnabled()) {
+            return;
+        }
+        VynloProperties.StockCounter settings = properties.getStockCounter();
+        try {
+            long cutoff = System.currentTimeMillis() - settings.getInFlightTimeout().toMillis();
+            Map<String, String> abandoned = new TreeMap<>();
+            stringRedisTemplate.opsForHash().entries(IN_FLIGHT_KEY).forEach((reservationId, entry) -> {
+                if (startedAt(entry.toString()) < cutoff) {
+                    abandoned.put(reservationId.toString(), entry.toString());
+                }
+            });
+
+            if (!abandoned.isEmpty()) {
+                Set<String> journaled = new HashSet<>(jdbcTemplate.queryForList(
+                    String.format(JOURNALED_SQL, placeholders(abandoned.size())), String.class,
+                    abandoned.keySet().toArray()));
+                int settled = 0;
+                for (Map.Entry<String, String> operation : abandoned.entrySet()) {
+                    boolean committed = journaled.contains(operation.getKey());
+                    boolean reserve = RESERVE.equals(kind(operation.getValue()));
+                    Map<Long, Integer> deltas = reserve != committed ? quantities(operation.getValue()) : Map.of();
+                    if (settle(operation.getKey(), deltas)) {
+                        settled++;
+                    }
+                }
+                reconciledCounter.increment(settled);
+                log.warn("Operações de estoque abandonadas conciliadas pelo diário: {}", settled);
+            }
+
+            jdbcTemplate.update(PURGE_SQL, Timestamp.from(Instant.now().minus(settings.getJournalRetention())));
+        } catch (Exception e) {
+            log.error("Erro ao conciliar operações de estoque em andamento", e);
+        }
+    }
+
+    private int applyPending(int limit) {
+        List<Long> entryIds = new ArrayList<>(limit);
+        Map<Long, Integer> deltas = new TreeMap<>();
+        jdbcTemplate.query(PENDING_SQL,
+            rs -> {
+                entryIds.add(rs.getLong("id"));
+                deltas.merge(rs.getLong("product_id"), rs.getInt("delta"), Integer::sum);
+            },
+            limit);
+        if (entryIds.isEmpty()) {
+            return 0;
+        }
+
+        // Em ordem de produto, como as reservas sem contadores, para não entrar em deadlock
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((productId, delta) -> {
+            if (delta != 0) {
+                batchArgs.add(new Object[]{delta, productId});
+            }
+        });
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batchArgs);
+        }
+        jdbcTemplate.update(String.format(MARK_APPLIED_SQL, placeholders(entryIds.size())), entryIds.toArray());
+
+        flushedCounter.increment(entryIds.size());
+        evictProducts(deltas.keySet());
+        log.debug("Movimentos de estoque aplicados no banco: {} ({} produtos)", entryIds.size(), deltas.size());
+        return entryIds.size();
+    }
+
+    // Grava os movimentos e agenda o fim da operação: onCommit/onRollback são as variações que o
+    // fim da transação aplica aos contadores
+    private void journal(String reservationId, TreeMap<Long, Integer> ordered, int sign,
+                         Map<Long, Integer> onRollback, Map<Long, Integer> onCommit) {
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, quantity) -> batchArgs.add(new Object[]{reservationId, productId, sign * quantity}));
+        try {
+            jdbcTemplate.batchUpdate(JOURNAL_SQL, batchArgs);
+        } catch (RuntimeException e) {
+            settle(reservationId, onRollback);
+            throw e;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            settle(reservationId, onCommit);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // A transação já terminou: se o Redis falhar aqui, a conciliação resolve depois
+                try {
+                    settle(reservationId, status == STATUS_COMMITTED ? onCommit : onRollback);
+                } catch (RuntimeException e) {
+                    log.error("Falha ao concluir a operação de estoque {}, fica para a conciliação", reservationId, e);
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private List<String> reserve(String reservationId, TreeMap<Long, Integer> ordered) {
+        List<String> args = new ArrayList<>(ordered.size() * 2 + 2);
+        args.add(reservationId);
+        args.add(inFlight(RESERVE, ordered));
+        ordered.forEach((productId, quantity) -> {
+            args.add(productId.toString());
+            args.add(quantity.toString());
+        });
+        return stringRedisTemplate.execute(RESERVE_SCRIPT, List.of(COUNTERS_KEY, IN_FLIGHT_KEY), args.toArray());
+    }
+
+    private boolean settle(String reservationId, Map<Long, Integer> deltas) {
+        List<String> args = new ArrayList<>(deltas.size() * 2 + 1);
+        args.add(reservationId);
+        deltas.forEach((productId, delta) -> {
+            args.add(productId.toString());
+            args.add(delta.toString());
+        });
+        Long settled = stringRedisTemplate.execute(SETTLE_SCRIPT, List.of(COUNTERS_KEY, IN_FLIGHT_KEY), args.toArray());
+        return settled != null && settled == 1L;
+    }
+
+    /**
+     * Carrega do banco os contadores ausentes, sem sobrescrever os que outro nó já carregou.
+     *
+     * @return os produtos que não existem (ou foram removidos)
+     */
+    private List<Long> load(List<Long> productIds) {
+        Map<Long, Integer> stock = new TreeMap<>();
+        jdbcTemplate.query(String.format(LOAD_SQL, placeholders(productIds.size())),
+            rs -> {
+                stock.put(rs.getLong("id"), rs.getInt("stock_quantity"));
+            },
+            productIds.toArray());
+
+        stock.forEach((productId, quantity) ->
+            stringRedisTemplate.opsForHash().putIfAbsent(COUNTERS_KEY, productId.toString(), quantity.toString()));
+        loadedCounter.increment(stock.size());
+        log.info("Contadores de estoque carregados do banco: {}", stock.keySet());
+
+        List<Long> unknown = new ArrayList<>(productIds);
+        unknown.removeAll(stock.keySet());
+        return unknown;
+    }
+
+    private void evictProducts(Collection<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (Long productId : productIds) {
+            cache.evict("id:" + productId);
+        }
+    }
+
+    private Counter operations(String result) {
+        return Counter.builder("vynlo.stock.counter.operations")
+            .tag("result", result)
+            .description("Stock counter operations by result")
+            .register(meterRegistry);
+    }
+
+    // Registro em andamento: "operação|início em epoch ms|produto:quantidade,..."
+    static String inFlight(String kind, Map<Long, Integer> quantities) {
+        StringBuilder entry = new StringBuilder(kind).append('|').append(System.currentTimeMillis()).append('|');
+        quantities.forEach((productId, quantity) -> entry.append(productId).append(':').append(quantity).append(','));
+        entry.setLength(entry.length() - 1);
+        return entry.toString();
+    }
+
+    private static String kind(String entry) {
+        return entry.substring(0, entry.indexOf('|'));
+    }
+
+    private static long startedAt(String entry) {
+        return Long.parseLong(entry.split("\\|")[1]);
+    }
+
+    private static Map<Long, Integer> quantities(String entry) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (String pair : entry.split("\\|")[2].split(",")) {
+            int separator = pair.indexOf(':');
+            quantities.put(Long.valueOf(pair.substring(0, separator)), Integer.valueOf(pair.substring(separator + 1)));
+        }
+        return quantities;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static List<Long> ids(List<String> result) {
+        return result.subList(1, result.size()).stream().map(Long::valueOf).toList();
+    }
+}
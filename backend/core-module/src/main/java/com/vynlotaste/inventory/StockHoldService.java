@@ -0,0 +1,245 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.PaymentOrchestrator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds temporários sobre o estoque reservado por pedidos ainda não confirmados.
+ * <p>
+ * O estoque é decrementado na criação do pedido ({@link StockReservationService}); aqui apenas
+ * se controla por quanto tempo essa reserva vale. Cada hold é um timeout em um
+ * {@link HierarchicalTimingWheel}: confirmar o pedido faz o commit do hold, cancelar o libera, e
+ * um hold que expira cancela o pedido ainda não confirmado, devolvendo o estoque. Um pedido com
+ * autorização de pagamento em andamento não é cancelado pelo hold: ele é renovado até o prazo
+ * da autorização, e um pedido ainda em PENDING_PAYMENT depois disso (ex.: o nó que chamou o
+ * gateway caiu) é encerrado por {@link PaymentOrchestrator#expire}. Na inicialização os holds
+ * são reconstruídos a partir dos pedidos do banco em todos os nós; por isso a expiração só
+ * cancela o pedido com um compare-and-set sobre o status lido ({@link OrderService#expireOrder}),
+ * e apenas um nó devolve o estoque.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockHoldService {
+
+    static final String EXPIRED_REASON = "Reserva de estoque expirada";
+
+    private static final Set<Order.OrderStatus> HELD_STATUSES = EnumSet.of(
+        Order.OrderStatus.PENDING, Order.OrderStatus.PENDING_PAYMENT, Order.OrderStatus.PAYMENT_FAILED);
+
+    private final OrderRepository orderRepository;
+    private final ObjectProvider<OrderService> orderService;
+    private final ObjectProvider<PaymentOrchestrator> paymentOrchestrator;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, HierarchicalTimingWheel.Timeout<Long>> holds = new ConcurrentHashMap<>();
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private ScheduledExecutorService ticker;
+
+    private Counter placedCounter;
+    private Counter committedCounter;
+    private Counter releasedCounter;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    public void initialize() {
+        VynloProperties.StockHold settings = properties.getStockHold();
+        long tickMillis = settings.getTick().toMillis();
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+
+        Gauge.builder("vynlo.stock.holds.active", holds, Map::size)
+            .description("Stock holds currently active")
+            .register(meterRegistry);
+        this.placedCounter = Counter.builder("vynlo.stock.holds.placed")
+            .description("Total stock holds placed")
+            .register(meterRegistry);
+        this.committedCounter = Counter.builder("vynlo.stock.holds.committed")
+            .description("Total stock holds committed on order confirmation")
+            .register(meterRegistry);
+        this.releasedCounter = Counter.builder("vynlo.stock.holds.released")
+            .description("Total stock holds released on cancellation")
+            .register(meterRegistry);
+        this.expiredCounter = Counter.builder("vynlo.stock.holds.expired")
+            .description("Total stock holds expired by timeout")
+            .register(meterRegistry);
+
+        if (settings.isEnabled()) {
+            this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-hold-wheel");
+                thread.setDaemon(true);
+                return thread;
+            });
+            ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildHolds() {
+        if (!properties.getStockHold().isEnabled()) {
+            return;
+        }
+
+        long ttlMillis = properties.getStockHold().getTtl().toMillis();
+        int rebuilt = 0;
+        for (Order.OrderStatus status : HELD_STATUSES) {
+            for (Object[] row : orderRepository.findIdAndCreatedAtByStatus(status)) {
+                LocalDateTime createdAt = (LocalDateTime) row[1];
+                long createdAtMillis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                schedule((Long) row[0], createdAtMillis + ttlMillis);
+                rebuilt++;
+            }
+        }
+        log.info("Holds de estoque reconstruídos para {} pedidos pendentes", rebuilt);
+    }
+
+    /**
+     * Coloca um hold para o pedido recém-criado. Dentro de uma transação o hold só é
+     * registrado após o commit, para que um rollback não deixe timeouts órfãos.
+     */
+    public void place(Order order) {
+        if (!properties.getStockHold().isEnabled()) {
+            return;
+        }
+
+        Long orderId = order.getId();
+        long deadline = System.currentTimeMillis() + properties.getStockHold().getTtl().toMillis();
+        afterCommit(() -> schedule(orderId, deadline));
+    }
+
+    /**
+     * Encerra o hold de um pedido confirmado. Como em {@link #place}, dentro de uma transação o
+     * timeout só é cancelado após o commit: se a transação voltar atrás, o pedido continua
+     * pendente e o hold ainda precisa expirá-lo.
+     */
+    public void commit(Long orderId) {
+        afterCommit(() -> {
+            if (cancelTimeout(orderId)) {
+                committedCounter.increment();
+                log.debug("Hold de estoque confirmado para pedido: {}", orderId);
+            }
+        });
+    }
+
+    public void release(Long orderId) {
+        afterCommit(() -> {
+            if (cancelTimeout(orderId)) {
+                releasedCounter.increment();
+                log.debug("Hold de estoque liberado para pedido: {}", orderId);
+            }
+        });
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    void tick() {
+        try {
+            for (Long orderId : wheel.advanceTo(System.currentTimeMillis())) {
+                // Quem remover primeiro vence a corrida entre expiração e confirmação
+                if (holds.remove(orderId) != null) {
+                    expire(orderId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erro ao processar expiração de holds de estoque", e);
+        }
+    }
+
+    private void expire(Long orderId) {
+        expiredCounter.increment();
+        try {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || !HELD_STATUSES.contains(order.getStatus())) {
+                return;
+            }
+            if (order.getStatus() == Order.OrderStatus.PENDING_PAYMENT) {
+                // O compare-and-set que entrou em PENDING_PAYMENT gravou updated_at
+                LocalDateTime startedAt = order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+                long now = System.currentTimeMillis();
+                long paymentDeadline = startedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + properties.getPayment().getAuthorizationTimeout().toMillis();
+                if (now < paymentDeadline) {
+                    // Gateway ainda no prazo: cancelar agora poderia anular um pagamento aprovado
+                    schedule(orderId, Math.min(now + properties.getStockHold().getTtl().toMillis(), paymentDeadline));
+                } else {
+                    paymentOrchestrator.getObject().expire(orderId);
+                }
+                return;
+            }
+            // Compare-and-set: outro nó com o mesmo hold reconstruído pode já ter cancelado o pedido
+            if (orderService.getObject().expireOrder(orderId, order.getStatus(), EXPIRED_REASON)) {
+                log.info("Hold de estoque expirado, pedido cancelado: {}", orderId);
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao cancelar pedido com hold expirado: {}", orderId, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void schedule(Long orderId, long deadlineMillis) {
+        HierarchicalTimingWheel.Timeout<Long> timeout = wheel.schedule(orderId, deadlineMillis);
+        HierarchicalTimingWheel.Timeout<Long> previous = holds.put(orderId, timeout);
+        if (previous != null) {
+            wheel.cancel(previous);
+        } else {
+            placedCounter.increment();
+        }
+    }
+
+    private boolean cancelTimeout(Long orderId) {
+        HierarchicalTimingWheel.Timeout<Long> timeout = holds.remove(orderId);
+        if (timeout == null) {
+            return false;
+        }
+        wheel.cancel(timeout);
+        return true;
+    }
+}
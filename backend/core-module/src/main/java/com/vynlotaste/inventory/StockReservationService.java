@@ -0,0 +1,191 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.exception.InsufficientStockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reserva de estoque com updates condicionais em lote.
+ * Cada linha é decrementada com um UPDATE guardado por "stock_quantity >= ?", todas
+ * enviadas em um único batch JDBC. Se qualquer linha falhar, a exceção desfaz a
+ * transação inteira do pedido. Apenas as chaves 'id:' dos produtos afetados são
+ * removidas do cache (após o commit, pois o CacheManager é transaction-aware).
+ * <p>
+ * Com {@code vynlo.stock-counter.enabled} o estoque vivo fica nos contadores do Redis
+ * ({@link StockCounterService}): a reserva é um decremento atômico lá, desfeito se a transação
+ * do pedido for revertida, a devolução só é aplicada após o commit, e ambas gravam na transação
+ * do pedido os movimentos que a gravação periódica soma no banco, atualizando o cache.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    static final String RESERVE_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE id = ? AND stock_quantity >= ? AND deleted = false";
+
+    static final String RELEASE_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity + ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final StockCounterService stockCounterService;
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void reserve(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        List<Long> rejected = applyReservation(ordered);
+
+        if (!rejected.isEmpty()) {
+            log.warn("Reserva de estoque rejeitada para produtos: {}", rejected);
+            throw new InsufficientStockException("Insufficient stock for products: " + rejected);
+        }
+
+        evictReserved(ordered.keySet());
+        log.debug("Estoque reservado para {} produtos", ordered.size());
+    }
+
+    /**
+     * Variante sem exceção para lotes com vários pedidos na mesma transação: se alguma linha
+     * for rejeitada, os decrementos já aplicados são devolvidos e a transação segue utilizável
+     * para os demais pedidos.
+     *
+     * @return os produtos sem estoque suficiente (vazio se a reserva foi aplicada)
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public List<Long> tryReserve(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return List.of();
+        }
+
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        List<Long> rejected = applyReservation(ordered);
+
+        if (!rejected.isEmpty()) {
+            Map<Long, Integer> applied = new TreeMap<>(ordered);
+            applied.keySet().removeAll(rejected);
+            if (!applied.isEmpty() && !stockCounterService.isEnabled()) {
+                release(applied);
+            }
+            log.debug("Reserva de estoque rejeitada para produtos: {}", rejected);
+            return rejected;
+        }
+
+        evictReserved(ordered.keySet());
+        return List.of();
+    }
+
+    /**
+     * Trava as linhas dos produtos em ordem de ID. Um lote que reserva estoque para vários
+     * pedidos chama isto antes, para não travar os produtos na ordem dos pedidos e entrar em
+     * deadlock com outro lote ou com uma criação avulsa.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockProducts(Collection<Long> productIds) {
+        // Com os contadores a reserva não toca as linhas do banco
+        if (productIds.isEmpty() || stockCounterService.isEnabled()) {
+            return;
+        }
+
+        List<Long> ordered = new ArrayList<>(new TreeSet<>(productIds));
+        String placeholders = String.join(", ", Collections.nCopies(ordered.size(), "?"));
+        jdbcTemplate.queryForList(
+            "SELECT id FROM products WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+            Long.class, ordered.toArray());
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void release(Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        if (stockCounterService.isEnabled()) {
+            stockCounterService.increment(ordered);
+            log.debug("Estoque devolvido para {} produtos", ordered.size());
+            return;
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, productId}));
+
+        jdbcTemplate.batchUpdate(RELEASE_SQL, batchArgs);
+
+        evictProducts(ordered.keySet());
+        log.debug("Estoque devolvido para {} produtos", ordered.size());
+    }
+
+    // Ordenar por ID evita deadlocks entre pedidos concorrentes com os mesmos produtos
+    private List<Long> applyReservation(TreeMap<Long, Integer> ordered) {
+        if (stockCounterService.isEnabled()) {
+            // Tudo ou nada: com produtos rejeitados nenhum contador foi alterado
+            return stockCounterService.tryDecrement(ordered);
+        }
+
+        List<Object[]> batchArgs = new ArrayList<>(ordered.size());
+        ordered.forEach((productId, quantity) -> batchArgs.add(new Object[]{quantity, productId, quantity}));
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(RESERVE_SQL, batchArgs);
+
+        List<Long> rejected = new ArrayList<>();
+        int index = 0;
+        for (Long productId : ordered.keySet()) {
+            if (updateCounts[index++] == 0) {
+                rejected.add(productId);
+            }
+        }
+        return rejected;
+    }
+
+    public static Map<Long, Integer> quantitiesByProduct(Collection<OrderItem> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    // Com os contadores o banco só muda na gravação periódica, que descarta o cache ela mesma
+    private void evictReserved(Collection<Long> productIds) {
+        if (!stockCounterService.isEnabled()) {
+            evictProducts(productIds);
+        }
+    }
+
+    /**
+     * Remove as chaves 'id:' dos produtos cujo estoque foi alterado fora deste serviço (ex.:
+     * pela função process_order).
+     */
+    public void evictProducts(Collection<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (Long productId : productIds) {
+            cache.evict("id:" + productId);
+        }
+    }
+}
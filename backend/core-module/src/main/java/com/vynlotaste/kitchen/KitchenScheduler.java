@@ -0,0 +1,467 @@
+package com.vynlotaste.kitchen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.board.OrderBoardDelta;
+import com.vynlotaste.board.OrderBoardService;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Fila da cozinha por estação e previsão de pronto de cada pedido.
+ * <p>
+ * Pedidos CONFIRMED e PREPARING ocupam as estações dos seus produtos (a categoria do produto),
+ * em ordem de chegada. O trabalho de um pedido em uma estação é a soma, por produto que ela
+ * prepara, da estimativa vezes a quantidade pedida; estações diferentes trabalham em paralelo.
+ * A previsão vem de list scheduling: um min-heap com o instante em que cada cozinheiro da estação
+ * fica livre, e cada pedido da fila pega o primeiro livre, em O(log c) para c cozinheiros.
+ * <p>
+ * A programação de cada estação é mantida incrementalmente. A estação guarda o heap depois do
+ * último pedido da fila e, em cada pedido, o estado do heap antes dele. Um pedido que chega no
+ * fim da fila (o caso comum) só consome o heap. Uma entrada fora de ordem, um início de preparo
+ * ou uma saída reprograma a partir da posição afetada, e para assim que o heap volta a ser igual
+ * ao da programação anterior: dali em diante nada muda.
+ * <p>
+ * A estimativa de um produto começa no {@code preparationTime} cadastrado e passa a ser a média
+ * dos tempos reais (PREPARING → READY) depois de {@code vynlo.kitchen.min-samples} amostras. O
+ * tempo real de um pedido é repartido entre os produtos na proporção das estimativas; média e
+ * variância são mantidas em streaming ({@link PrepTimeStats}) e amostras fora da curva são
+ * descartadas.
+ * <p>
+ * É mantida pelos deltas do quadro de pedidos (todos os nós recebem) e ressincronizada com o
+ * banco na inicialização e periodicamente. Leituras de previsão não tomam lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KitchenScheduler implements MessageListener {
+
+    public static final Set<Order.OrderStatus> KITCHEN_STATUSES = EnumSet.of(
+        Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING);
+
+    static final String DEFAULT_STATION = "default";
+
+    private static final Comparator<Ticket> BY_ARRIVAL = Comparator
+        .comparingLong((Ticket ticket) -> ticket.createdAt)
+        .thenComparing(ticket -> ticket.orderId);
+
+    private final OrderRepository orderRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    // Estado mutável protegido pelo monitor do agendador
+    private final Map<Long, Ticket> tickets = new HashMap<>();
+    private final Map<String, Station> stations = new HashMap<>();
+    private final Map<Long, PrepTimeStats> productStats = new HashMap<>();
+
+    private final Map<Long, Long> readyAt = new ConcurrentHashMap<>();
+
+    private Counter acceptedSamples;
+    private Counter discardedSamples;
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(OrderBoardService.CHANNEL));
+        Gauge.builder("vynlo.kitchen.queue.size", readyAt, Map::size)
+            .description("Orders queued or being prepared in the kitchen")
+            .register(meterRegistry);
+        this.acceptedSamples = Counter.builder("vynlo.kitchen.prep.samples")
+            .tag("result", "accepted")
+            .description("Actual preparation time samples by result")
+            .register(meterRegistry);
+        this.discardedSamples = Counter.builder("vynlo.kitchen.prep.samples")
+            .tag("result", "outlier")
+            .description("Actual preparation time samples by result")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Previsão de pronto para um pedido na cozinha; vazio se o pedido não está na fila.
+     */
+    public Optional<LocalDateTime> estimateReadyAt(Long orderId) {
+        Long millis = readyAt.get(orderId);
+        return millis != null
+            ? Optional.of(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()))
+            : Optional.empty();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<KitchenWorkLine> lines = orderRepository.findKitchenWork(KITCHEN_STATUSES);
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            tickets.clear();
+            stations.clear();
+            readyAt.clear();
+            for (List<KitchenWorkLine> orderLines : groupByOrder(lines).values()) {
+                Ticket ticket = ticketOf(orderLines);
+                ticket.products.keySet().forEach(station -> stationOf(station).put(ticket));
+            }
+            stations.values().forEach(station -> station.replan(now, false));
+        }
+        log.info("Filas da cozinha reconstruídas com {} pedidos", readyAt.size());
+    }
+
+    // Corrige deltas perdidos no pub/sub; as estatísticas de preparo são preservadas
+    @Scheduled(fixedDelayString = "#{@vynloProperties.kitchen.resyncInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.kitchen.resyncInterval.toMillis()}")
+    public void resync() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Erro na ressincronização das filas da cozinha", e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            apply(objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), OrderBoardDelta.class));
+        } catch (Exception e) {
+            log.error("Erro ao aplicar delta do quadro de pedidos na fila da cozinha", e);
+        }
+    }
+
+    void apply(OrderBoardDelta delta) {
+        switch (delta.to()) {
+            case CONFIRMED, PREPARING -> {
+                boolean known;
+                synchronized (this) {
+                    known = tickets.containsKey(delta.id());
+                }
+                // Os itens são lidos fora do monitor; o pedido chega à fila pela primeira vez aqui
+                List<KitchenWorkLine> lines = known ? List.of() : orderRepository.findKitchenWorkByOrderIds(List.of(delta.id()));
+                synchronized (this) {
+                    Ticket ticket = tickets.get(delta.id());
+                    boolean starts = delta.to() == Order.OrderStatus.PREPARING;
+                    if (ticket == null) {
+                        if (lines.isEmpty()) {
+                            return;
+                        }
+                        ticket = ticketOf(lines);
+                        if (starts && ticket.startedAt == null) {
+                            ticket.startedAt = delta.at();
+                        }
+                        enqueue(ticket, delta.at());
+                    } else if (starts && ticket.startedAt == null) {
+                        ticket.startedAt = delta.at();
+                        start(ticket, delta.at());
+                    }
+                }
+            }
+            case READY -> {
+                synchronized (this) {
+                    Ticket ticket = tickets.get(delta.id());
+                    // Estimativas novas invalidam a programação salva das estações do pedido
+                    boolean learned = ticket != null && ticket.startedAt != null
+                        && learn(ticket, delta.at() - ticket.startedAt);
+                    dequeue(delta.id(), delta.at(), !learned);
+                }
+            }
+            default -> {
+                synchronized (this) {
+                    dequeue(delta.id(), delta.at(), true);
+                }
+            }
+        }
+    }
+
+    // Chamado com o monitor do agendador
+    private Ticket ticketOf(List<KitchenWorkLine> lines) {
+        KitchenWorkLine first = lines.get(0);
+        Ticket ticket = new Ticket(first.orderId(), toEpochMillis(first.createdAt()));
+        if (first.status() == Order.OrderStatus.PREPARING) {
+            // Sem o delta de início, a última atualização do pedido é a entrada em PREPARING
+            ticket.startedAt = toEpochMillis(first.updatedAt());
+        }
+        for (KitchenWorkLine line : lines) {
+            ticket.products.computeIfAbsent(stationOf(line), station -> new LinkedHashMap<>())
+                .merge(line.productId(), line, KitchenWorkLine::plus);
+        }
+
+        tickets.put(ticket.orderId, ticket);
+        return ticket;
+    }
+
+    // Chamado com o monitor do agendador
+    private void enqueue(Ticket ticket, long now) {
+        ticket.products.keySet().forEach(station -> stationOf(station).add(ticket, now));
+    }
+
+    // Chamado com o monitor do agendador
+    private void start(Ticket ticket, long now) {
+        ticket.products.keySet().forEach(station -> stations.get(station).start(ticket, now));
+    }
+
+    // Chamado com o monitor do agendador
+    private void dequeue(Long orderId, long now, boolean converge) {
+        Ticket ticket = tickets.remove(orderId);
+        if (ticket == null) {
+            return;
+        }
+        readyAt.remove(orderId);
+        for (String name : ticket.products.keySet()) {
+            Station station = stations.get(name);
+            station.remove(ticket, now, converge);
+            if (station.isEmpty()) {
+                stations.remove(name);
+            }
+        }
+    }
+
+    private Station stationOf(String name) {
+        return stations.computeIfAbsent(name, key -> new Station(key, cooksAt(key)));
+    }
+
+    private void finish(Ticket ticket, String station, long finish) {
+        ticket.finishByStation.put(station, finish);
+        readyAt.put(ticket.orderId, ticket.finishByStation.values().stream().mapToLong(Long::longValue).max().orElse(finish));
+    }
+
+    /**
+     * Reparte o tempo real do pedido entre os produtos na proporção das estimativas atuais.
+     * Chamado com o monitor do agendador.
+     *
+     * @return se a estimativa de algum produto mudou
+     */
+    private boolean learn(Ticket ticket, long actualMillis) {
+        long predictedMillis = ticket.products.keySet().stream()
+            .mapToLong(station -> workMillis(ticket, station))
+            .max()
+            .orElse(0);
+        if (predictedMillis <= 0 || actualMillis <= 0) {
+            return false;
+        }
+
+        double ratio = actualMillis / (double) predictedMillis;
+        VynloProperties.Kitchen settings = properties.getKitchen();
+        boolean changed = false;
+        for (Map<Long, KitchenWorkLine> stationProducts : ticket.products.values()) {
+            for (KitchenWorkLine line : stationProducts.values()) {
+                double sample = estimateMinutes(line) * ratio;
+                PrepTimeStats stats = productStats.computeIfAbsent(line.productId(), id -> new PrepTimeStats());
+                if (stats.count() >= settings.getMinSamples() && stats.isOutlier(sample, settings.getOutlierDeviations())) {
+                    discardedSamples.increment();
+                    log.debug("Tempo de preparo fora da curva descartado para o produto {}: {} min", line.productId(), sample);
+                    continue;
+                }
+                stats.add(sample);
+                acceptedSamples.increment();
+                changed |= stats.count() >= settings.getMinSamples();
+            }
+        }
+        return changed;
+    }
+
+    private long workMillis(Ticket ticket, String station) {
+        double minutes = ticket.products.getOrDefault(station, Map.of()).values().stream()
+            .mapToDouble(line -> estimateMinutes(line) * line.units())
+            .sum();
+        return Math.round(minutes * TimeUnit.MINUTES.toMillis(1));
+    }
+
+    double estimateMinutes(KitchenWorkLine line) {
+        VynloProperties.Kitchen settings = properties.getKitchen();
+        PrepTimeStats stats = productStats.get(line.productId());
+        if (stats != null && stats.count() >= settings.getMinSamples()) {
+            return stats.mean();
+        }
+        if (line.preparationTime() != null && line.preparationTime() > 0) {
+            return line.preparationTime();
+        }
+        return settings.getDefaultPreparationTime().toSeconds() / 60.0;
+    }
+
+    private int cooksAt(String station) {
+        VynloProperties.Kitchen settings = properties.getKitchen();
+        return Math.max(1, settings.getCooks().getOrDefault(station, settings.getDefaultCooks()));
+    }
+
+    private static String stationOf(KitchenWorkLine line) {
+        return line.station() != null && !line.station().isBlank()
+            ? line.station().trim().toLowerCase(Locale.ROOT)
+            : DEFAULT_STATION;
+    }
+
+    private static Map<Long, List<KitchenWorkLine>> groupByOrder(Collection<KitchenWorkLine> lines) {
+        return lines.stream().collect(Collectors.groupingBy(KitchenWorkLine::orderId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    private static long[] snapshot(PriorityQueue<Long> cooks) {
+        return cooks.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static PriorityQueue<Long> restore(long[] snapshot) {
+        PriorityQueue<Long> cooks = new PriorityQueue<>(Math.max(1, snapshot.length));
+        for (long free : snapshot) {
+            cooks.add(free);
+        }
+        return cooks;
+    }
+
+    /**
+     * Programação de uma estação. Pedidos em preparo seguram um cozinheiro até terminarem; os
+     * que esperam pegam, em ordem de chegada, o cozinheiro que fica livre antes. Chamado com o
+     * monitor do agendador.
+     */
+    private final class Station {
+
+        private final String name;
+        private final int cooks;
+        private final TreeSet<Ticket> started = new TreeSet<>(BY_ARRIVAL);
+        private final TreeSet<Ticket> waiting = new TreeSet<>(BY_ARRIVAL);
+        // Instante em que cada cozinheiro fica livre depois do último pedido da fila
+        private PriorityQueue<Long> tail;
+
+        private Station(String name, int cooks) {
+            this.name = name;
+            this.cooks = cooks;
+            this.tail = restore(new long[cooks]);
+        }
+
+        boolean isEmpty() {
+            return started.isEmpty() && waiting.isEmpty();
+        }
+
+        // Só registra; a programação vem de replan (reconstrução)
+        void put(Ticket ticket) {
+            (ticket.startedAt != null ? started : waiting).add(ticket);
+        }
+
+        void add(Ticket ticket, long now) {
+            put(ticket);
+            if (ticket.startedAt != null) {
+                replan(now, true);
+                return;
+            }
+            Ticket next = waiting.higher(ticket);
+            if (next == null) {
+                ticket.checkpoints.put(name, snapshot(tail));
+                assign(ticket, tail, now);
+            } else {
+                // Chegou fora de ordem: assume o lugar (e o estado do heap) de quem vinha depois
+                replay(ticket, restore(next.checkpoints.get(name)), now, true);
+            }
+        }
+
+        void start(Ticket ticket, long now) {
+            if (waiting.remove(ticket)) {
+                ticket.checkpoints.remove(name);
+                started.add(ticket);
+            }
+            replan(now, true);
+        }
+
+        void remove(Ticket ticket, long now, boolean converge) {
+            if (started.remove(ticket) || !converge) {
+                waiting.remove(ticket);
+                replan(now, converge);
+                return;
+            }
+            Ticket next = waiting.higher(ticket);
+            long[] before = ticket.checkpoints.remove(name);
+            waiting.remove(ticket);
+            if (next == null) {
+                tail = restore(before);
+            } else {
+                replay(next, restore(before), now, true);
+            }
+        }
+
+        void replan(long now, boolean converge) {
+            PriorityQueue<Long> free = new PriorityQueue<>(cooks);
+            for (int i = 0; i < cooks; i++) {
+                free.add(now);
+            }
+            for (Ticket ticket : started) {
+                free.poll();
+                long finish = Math.max(now, ticket.startedAt + workMillis(ticket, name));
+                free.add(finish);
+                finish(ticket, name, finish);
+            }
+            replay(waiting.isEmpty() ? null : waiting.first(), free, now, converge);
+        }
+
+        /**
+         * Reprograma a fila a partir de {@code from} com o heap {@code free}. Se o heap antes de
+         * um pedido for igual ao da programação anterior, e não houver cozinheiro livre no passado
+         * (que seria adiantado para {@code now}), o resto da fila e o heap final não mudam.
+         */
+        private void replay(Ticket from, PriorityQueue<Long> free, long now, boolean converge) {
+            if (from != null) {
+                for (Ticket ticket : waiting.tailSet(from, true)) {
+                    long[] before = snapshot(free);
+                    long[] previous = ticket.checkpoints.put(name, before);
+                    if (converge && before[0] >= now && Arrays.equals(before, previous)) {
+                        return;
+                    }
+                    assign(ticket, free, now);
+                }
+            }
+            tail = free;
+        }
+
+        private void assign(Ticket ticket, PriorityQueue<Long> free, long now) {
+            long finish = Math.max(now, free.poll()) + workMillis(ticket, name);
+            free.add(finish);
+            finish(ticket, name, finish);
+        }
+    }
+
+    private static final class Ticket {
+
+        private final Long orderId;
+        private final long createdAt;
+        private final Map<String, Map<Long, KitchenWorkLine>> products = new LinkedHashMap<>();
+        private final Map<String, Long> finishByStation = new HashMap<>();
+        // Heap da estação antes deste pedido, enquanto ele espera na fila
+        private final Map<String, long[]> checkpoints = new HashMap<>();
+        private Long startedAt;
+
+        private Ticket(Long orderId, long createdAt) {
+            this.orderId = orderId;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.vynlotaste.kitchen;
+
+import com.vynlotaste.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Um item de pedido como visto pela cozinha: o produto, a estação que o prepara (a categoria do
+ * produto), o tempo de preparo cadastrado, em minutos, e a quantidade pedida.
+ */
+public record KitchenWorkLine(Long orderId, Order.OrderStatus status, LocalDateTime createdAt, LocalDateTime updatedAt,
+                              Long productId, String station, Integer preparationTime, Integer quantity) {
+
+    int units() {
+        return quantity != null && quantity > 0 ? quantity : 1;
+    }
+
+    // Duas linhas do mesmo produto no pedido viram uma com as quantidades somadas
+    KitchenWorkLine plus(KitchenWorkLine other) {
+        return new KitchenWorkLine(orderId, status, createdAt, updatedAt, productId, station, preparationTime,
+            units() + other.units());
+    }
+}
@@ -0,0 +1,48 @@
+package com.vynlotaste.kitchen;
+
+/**
+ * Média e variância de tempos de preparo calculadas em streaming (algoritmo de Welford): cada
+ * amostra atualiza o estado em O(1), sem guardar o histórico e sem o cancelamento numérico da
+ * fórmula ingênua da soma dos quadrados.
+ * <p>
+ * Não é thread-safe; o {@link KitchenScheduler} só acessa sob o próprio monitor.
+ */
+public class PrepTimeStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+
+    public void add(double sample) {
+        count++;
+        double delta = sample - mean;
+        mean += delta / count;
+        m2 += delta * (sample - mean);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    // Variância amostral; zero com menos de duas amostras
+    public double variance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * Se a amostra fica a mais de {@code deviations} desvios-padrão da média. Sem dispersão
+     * conhecida nenhuma amostra é considerada fora da curva.
+     */
+    public boolean isOutlier(double sample, double deviations) {
+        double standardDeviation = standardDeviation();
+        return standardDeviation > 0 && Math.abs(sample - mean) > deviations * standardDeviation;
+    }
+}
@@ -4,6 +4,7 @@ import com.vynlotaste.dto.order.OrderRequestDto;
 import com.vynlotaste.dto.order.OrderResponseDto;
 import com.vynlotaste.entity.Order;
 import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.service.OrderStateMachine;
 import org.mapstruct.*;
 import org.springframework.stereotype.Component;
 
@@ -57,6 +58,8 @@ public interface OrderMapper {
         
         return switch (status) {
             case PENDING -> "Pendente";
+            case PENDING_PAYMENT -> "Aguardando pagamento";
+            case PAYMENT_FAILED -> "Pagamento recusado";
             case CONFIRMED -> "Confirmado";
             case PREPARING -> "Preparando";
             case READY -> "Pronto";
@@ -71,13 +74,7 @@ public interface OrderMapper {
         LocalDateTime now = LocalDateTime.now();
         long minutesSinceCreation = ChronoUnit.MINUTES.between(order.getCreatedAt(), now);
         
-        int estimatedTime = switch (order.getStatus()) {
-            case PENDING -> 5;
-            case CONFIRMED -> 30;
-            case PREPARING -> 20;
-            case READY -> 10;
-            default -> 0;
-        };
+        int estimatedTime = OrderStateMachine.estimatedMinutes(order.getStatus());
         
         int remaining = (int) (estimatedTime - minutesSinceCreation);
         return Math.max(0, remaining);
@@ -87,7 +84,8 @@ public interface OrderMapper {
         if (status == null) return 0;
         
         return switch (status) {
-            case PENDING -> 10;
+            case PENDING, PAYMENT_FAILED -> 10;
+            case PENDING_PAYMENT -> 15;
             case CONFIRMED -> 25;
             case PREPARING -> 60;
             case READY -> 90;
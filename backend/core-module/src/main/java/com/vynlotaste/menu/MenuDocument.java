@@ -0,0 +1,19 @@
+package com.vynlotaste.menu;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Cardápio público como é serializado no {@link MenuSnapshot}: produtos disponíveis agrupados
+ * por categoria. Estoque fica de fora, porque muda a cada pedido e invalidaria o snapshot.
+ */
+public record MenuDocument(List<Category> categories) {
+
+    public record Category(String name, List<Item> products) {
+    }
+
+    public record Item(Long id, String name, String description, BigDecimal price, String imageUrl,
+                       Integer preparationTime, String ingredients, Integer calories,
+                       Boolean vegan, Boolean vegetarian, Boolean glutenFree) {
+    }
+}
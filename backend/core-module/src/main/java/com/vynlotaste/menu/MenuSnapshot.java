@@ -0,0 +1,73 @@
+package com.vynlotaste.menu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cardápio já serializado: o JSON em UTF-8 e a versão gzip, prontos para irem direto para a
+ * resposta. {@link #body(boolean)} devolve o próprio array, sem cópia, e quem recebe não deve
+ * alterá-lo. O ETag forte vem do SHA-256 do JSON, com um sufixo na versão comprimida, que é
+ * outra representação.
+ */
+public final class MenuSnapshot {
+
+    private final byte[] json;
+    private final byte[] gzip;
+    private final String hash;
+    private final LocalDateTime builtAt;
+
+    private MenuSnapshot(byte[] json, byte[] gzip, String hash, LocalDateTime builtAt) {
+        this.json = json;
+        this.gzip = gzip;
+        this.hash = hash;
+        this.builtAt = builtAt;
+    }
+
+    static MenuSnapshot of(byte[] json) {
+        return new MenuSnapshot(json, compress(json), sha256(json), LocalDateTime.now());
+    }
+
+    public byte[] body(boolean compressed) {
+        return compressed ? gzip : json;
+    }
+
+    public String etag(boolean compressed) {
+        return compressed ? "\"" + hash + "-gzip\"" : "\"" + hash + "\"";
+    }
+
+    public String hash() {
+        return hash;
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public int size() {
+        return json.length;
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress menu snapshot", e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static String sha256(byte[] json) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.vynlotaste.menu;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.event.ProductUpdatedEvent;
+import com.vynlotaste.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mantém o {@link MenuSnapshot} do cardápio público.
+ * <p>
+ * O snapshot é reconstruído fora do caminho de leitura, no {@code menuExecutor}: na
+ * inicialização, a cada {@link ProductUpdatedEvent} (entregue pelo outbox em um dos nós, que
+ * avisa os demais pelo canal {@value #CHANNEL}) e periodicamente. Pedidos de reconstrução que
+ * chegam enquanto outra está na fila são agrupados, e um resultado com o mesmo hash mantém o
+ * snapshot anterior. A leitura é só o acesso a um campo volátil.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshotService implements MessageListener {
+
+    public static final String CHANNEL = "vynlo:menu";
+
+    static final String UNCATEGORIZED = "Outros";
+
+    private static final Comparator<Product> BY_NAME = Comparator.comparing(Product::getName,
+        Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Qualifier("menuExecutor")
+    private final ThreadPoolTaskExecutor menuExecutor;
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile MenuSnapshot current;
+
+    private Timer rebuildTimer;
+    private Counter changedCounter;
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.rebuildTimer = Timer.builder("vynlo.menu.rebuild.time")
+            .description("Time to load and serialize the menu snapshot")
+            .register(meterRegistry);
+        this.changedCounter = Counter.builder("vynlo.menu.snapshots")
+            .description("Menu snapshots published with new content")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.menu.snapshot.bytes", this, service -> service.current != null ? service.current.size() : 0)
+            .description("Size of the uncompressed menu snapshot")
+            .register(meterRegistry);
+    }
+
+    public MenuSnapshot current() {
+        MenuSnapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        // Só antes da primeira reconstrução (ex.: requisição durante a inicialização)
+        synchronized (this) {
+            if (current == null) {
+                rebuild();
+            }
+            return current;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    @EventListener
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        requestRebuild();
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, event.getEventId());
+        } catch (Exception e) {
+            // Best-effort: os outros nós se atualizam na reconstrução periódica
+            log.warn("Falha ao avisar os outros nós sobre a alteração do cardápio: {}", event.getProductId(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "#{@vynloProperties.menu.refreshInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.menu.refreshInterval.toMillis()}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    void requestRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        menuExecutor.execute(() -> {
+            rebuildQueued.set(false);
+            try {
+                rebuild();
+            } catch (Exception e) {
+                log.error("Erro ao reconstruir o snapshot do cardápio", e);
+            }
+        });
+    }
+
+    synchronized void rebuild() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        MenuSnapshot snapshot;
+        try {
+            snapshot = MenuSnapshot.of(objectMapper.writeValueAsBytes(render(productRepository.findByAvailableTrue())));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to build menu snapshot", e);
+        } finally {
+            sample.stop(rebuildTimer);
+        }
+
+        MenuSnapshot previous = current;
+        if (previous != null && previous.hash().equals(snapshot.hash())) {
+            return;
+        }
+        current = snapshot;
+        changedCounter.increment();
+        log.info("Snapshot do cardápio atualizado: {} ({} bytes, {} com gzip)",
+            snapshot.hash(), snapshot.size(), snapshot.body(true).length);
+    }
+
+    // Ordem estável (categoria, nome, id): o mesmo cardápio sempre gera os mesmos bytes e o mesmo ETag
+    private static MenuDocument render(List<Product> products) {
+        Map<String, List<Product>> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Product product : products) {
+            String category = product.getCategory() != null && !product.getCategory().isBlank()
+                ? product.getCategory().trim()
+                : UNCATEGORIZED;
+            byCategory.computeIfAbsent(category, key -> new ArrayList<>()).add(product);
+        }
+
+        List<MenuDocument.Category> categories = byCategory.entrySet().stream()
+            .map(entry -> new MenuDocument.Category(entry.getKey(), entry.getValue().stream()
+                .sorted(BY_NAME.thenComparing(Product::getId))
+                .map(MenuSnapshotService::item)
+                .toList()))
+            .toList();
+        return new MenuDocument(categories);
+    }
+
+    private static MenuDocument.Item item(Product product) {
+        return new MenuDocument.Item(
+            product.getId(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            product.getImageUrl(),
+            product.getPreparationTime(),
+            product.getIngredients(),
+            product.getCalories(),
+            product.getVegan(),
+            product.getVegetarian(),
+            product.getGlutenFree());
+    }
+}
@@ -11,6 +11,7 @@ public class NotificationTemplateService {
             case "PREPARING" -> "Pedido em Preparo - Vynlo Taste";
             case "READY" -> "Pedido Pronto - Vynlo Taste";
             case "DELIVERED" -> "Pedido Entregue - Vynlo Taste";
+            case "PAYMENT_FAILED" -> "Pagamento Recusado - Vynlo Taste";
             default -> "Atualização do Pedido - Vynlo Taste";
         };
     }
@@ -21,6 +22,7 @@ public class NotificationTemplateService {
             case "PREPARING" -> "está sendo preparado com carinho";
             case "READY" -> "está pronto para retirada";
             case "DELIVERED" -> "foi entregue com sucesso";
+            case "PAYMENT_FAILED" -> "teve o pagamento recusado; tente novamente com outra forma de pagamento";
             default -> "teve seu status atualizado";
         };
         
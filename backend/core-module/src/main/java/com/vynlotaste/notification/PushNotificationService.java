@@ -74,6 +74,7 @@ public class PushNotificationService {
             case "PREPARING" -> "sendo preparado";
             case "READY" -> "pronto para retirada";
             case "DELIVERED" -> "entregue";
+            case "PAYMENT_FAILED" -> "com o pagamento recusado";
             default -> status.toLowerCase();
         };
     }
@@ -36,6 +36,7 @@ public class SmsService {
             case "PREPARING" -> "sendo preparado";
             case "READY" -> "pronto para retirada";
             case "DELIVERED" -> "entregue";
+            case "PAYMENT_FAILED" -> "com o pagamento recusado";
             default -> status.toLowerCase();
         };
     }
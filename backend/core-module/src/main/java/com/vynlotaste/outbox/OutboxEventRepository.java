@@ -0,0 +1,21 @@
+package com.vynlotaste.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // SKIP LOCKED: linhas travadas por outro nó são puladas em vez de bloquear o relay.
+    // Eventos que falharam ficam de fora até next_attempt_at.
+    @Query(value = "SELECT * FROM outbox_events WHERE attempts < :maxAttempts AND next_attempt_at <= CURRENT_TIMESTAMP "
+        + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+    
+    long countByAttemptsLessThan(int maxAttempts);
+}
@@ -0,0 +1,153 @@
+package com.vynlotaste.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.event.BaseEvent;
+import com.vynlotaste.event.EventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relay do outbox: trava um lote de eventos pendentes com FOR UPDATE SKIP LOCKED, entrega
+ * cada um pelo {@link EventPublisher} e remove só os entregues na mesma transação. Vários nós
+ * podem drenar a tabela em paralelo sem processar a mesma linha.
+ * <p>
+ * Os listeners rodam de forma síncrona e propagam as falhas: um evento só é entregue quando
+ * todos terminaram sem exceção. Nenhum listener chama serviços externos aqui: webhooks só são
+ * registrados em webhook_deliveries e enviados pelo {@code WebhookDispatcher}. Se algum falhar, a linha fica com attempts incrementado e só
+ * volta a ser travada depois de next_attempt_at (espera exponencial). Cada entrega roda fora
+ * da transação do lote, para que a falha de um listener não a marque como rollback-only.
+ * Se o nó cair antes do commit, o lote volta a ficar disponível (entrega at-least-once;
+ * listeners devem ser idempotentes pelo eventId).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+    
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate deliveryTemplate;
+    private Counter dispatchedCounter;
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void initialize() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveryTemplate = new TransactionTemplate(transactionManager);
+        deliveryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.dispatchedCounter = Counter.builder("vynlo.outbox.dispatched")
+            .description("Outbox events dispatched")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("vynlo.outbox.failed")
+            .description("Outbox event dispatch failures")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.outbox.last.batch.size", lastBatchSize, AtomicLong::get)
+            .description("Events dispatched in the last relay batch")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "#{@vynloProperties.outbox.pollInterval.toMillis()}")
+    public void poll() {
+        VynloProperties.Outbox settings = properties.getOutbox();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        
+        try {
+            // Drena lotes cheios em sequência; um lote parcial indica que a fila esvaziou. Eventos
+            // que falharam saem do alcance até next_attempt_at, então não travam a drenagem
+            int locked;
+            do {
+                locked = relayBatch(settings);
+            } while (locked == settings.getBatchSize());
+        } catch (Exception e) {
+            log.error("Erro no relay do outbox", e);
+        }
+    }
+    
+    /**
+     * Entrega um lote e retorna quantos eventos foram travados, entregues ou não.
+     */
+    int relayBatch(VynloProperties.Outbox settings) {
+        int[] locked = new int[1];
+        Integer dispatched = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(settings.getMaxAttempts(), settings.getBatchSize());
+            locked[0] = batch.size();
+            List<OutboxEvent> delivered = new ArrayList<>(batch.size());
+            
+            for (OutboxEvent outboxEvent : batch) {
+                try {
+                    BaseEvent event = deserialize(outboxEvent);
+                    deliveryTemplate.executeWithoutResult(delivery -> eventPublisher.publishEvent(event));
+                    delivered.add(outboxEvent);
+                } catch (Exception e) {
+                    // Fica no outbox (alteração salva no commit do lote); o restante do lote segue
+                    outboxEvent.setAttempts(outboxEvent.getAttempts() + 1);
+                    outboxEvent.setLastError(truncate(e.toString()));
+                    outboxEvent.setNextAttemptAt(LocalDateTime.now().plus(backoff(settings, outboxEvent.getAttempts())));
+                    failedCounter.increment();
+                    log.warn("Falha ao despachar evento do outbox: {} (tentativa {})",
+                        outboxEvent.getEventId(), outboxEvent.getAttempts(), e);
+                }
+            }
+            
+            outboxEventRepository.deleteAllInBatch(delivered);
+            return delivered.size();
+        });
+        
+        int count = dispatched != null ? dispatched : 0;
+        lastBatchSize.set(count);
+        dispatchedCounter.increment(count);
+        if (count > 0) {
+            log.debug("Outbox relay despachou {} eventos", count);
+        }
+        return locked[0];
+    }
+    
+    static Duration backoff(VynloProperties.Outbox settings, int attempts) {
+        return backoff(settings.getRetryBackoff(), settings.getMaxRetryBackoff(), attempts);
+    }
+    
+    // initial · 2^(tentativas - 1), limitado a max
+    public static Duration backoff(Duration initial, Duration max, int attempts) {
+        Duration delay = initial;
+        for (int i = 1; i < attempts && delay.compareTo(max) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(max) < 0 ? delay : max;
+    }
+    
+    private BaseEvent deserialize(OutboxEvent outboxEvent) throws Exception {
+        Class<?> type = Class.forName(outboxEvent.getPayloadType());
+        return (BaseEvent) objectMapper.readValue(outboxEvent.getPayload(), type);
+    }
+    
+    private String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
@@ -0,0 +1,45 @@
+package com.vynlotaste.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.event.BaseEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Grava eventos de domínio no outbox dentro da transação corrente. O evento só se torna
+ * visível para o {@link OutboxRelay} se a transação de negócio fizer commit; rollbacks e
+ * tentativas descartadas pelo @Retryable não deixam eventos para trás.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(BaseEvent event, Long aggregateId) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventId(event.getEventId());
+        outboxEvent.setEventType(event.getEventType());
+        outboxEvent.setAggregateId(aggregateId);
+        outboxEvent.setPayloadType(event.getClass().getName());
+        outboxEvent.setPayload(serialize(event));
+        
+        outboxEventRepository.save(outboxEvent);
+        log.debug("Event appended to outbox: {} for aggregate: {}", event.getEventType(), aggregateId);
+    }
+    
+    private String serialize(BaseEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + event.getEventType(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.vynlotaste.pagination;
+
+import com.vynlotaste.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Totais aproximados para telas que precisam mostrar "cerca de N resultados" junto da
+ * paginação por cursor. Tabelas inteiras usam a estimativa do planner ({@code pg_class.reltuples},
+ * atualizada pelo ANALYZE/autovacuum); buscas filtradas fazem o COUNT de verdade, mas no máximo
+ * uma vez por minuto para o mesmo filtro.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApproximateCounter {
+
+    private static final String ESTIMATE_SQL = "SELECT reltuples::bigint FROM pg_class WHERE relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    /**
+     * Estimativa do número de linhas da tabela; cai no {@code exactCount} se a tabela ainda
+     * não foi analisada.
+     */
+    public long estimateTable(String table, Supplier<Long> exactCount) {
+        return cached("table:" + table, () -> {
+            List<Long> estimate = jdbcTemplate.queryForList(ESTIMATE_SQL, Long.class, table);
+            if (estimate.isEmpty() || estimate.get(0) == null || estimate.get(0) < 0) {
+                return exactCount.get();
+            }
+            return estimate.get(0);
+        });
+    }
+
+    /**
+     * COUNT de uma busca filtrada, reaproveitado enquanto estiver no cache.
+     *
+     * @param filters valores dos filtros, na ordem; compõem a chave do cache
+     */
+    public long countFiltered(String name, List<?> filters, Supplier<Long> count) {
+        return cached(name + ":" + filters, count);
+    }
+
+    private long cached(String key, Supplier<Long> loader) {
+        Cache cache = cacheManager.getCache(CacheConfig.APPROXIMATE_COUNTS_CACHE);
+        if (cache == null) {
+            return loader.get();
+        }
+        Long value = cache.get(key, loader::get);
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,25 @@
+package com.vynlotaste.pagination;
+
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de uma listagem por cursor (semântica de Slice: sabe se há próxima, não o total).
+ *
+ * @param nextCursor       token para a próxima página, ou {@code null} na última
+ * @param approximateTotal total aproximado, só quando pedido; pode estar defasado em até um minuto
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor, Long approximateTotal) {
+
+    public static <T> CursorPage<T> of(Window<T> window, Long approximateTotal) {
+        return new CursorPage<>(window.getContent(), window.size(), window.hasNext(),
+            KeysetCursor.next(window), approximateTotal);
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = content.stream().<R>map(mapper).toList();
+        return new CursorPage<>(mapped, size, hasNext, nextCursor, approximateTotal);
+    }
+}
@@ -0,0 +1,114 @@
+package com.vynlotaste.pagination;
+
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Paginação por keyset em {@code (created_at, id)}, do mais recente para o mais antigo.
+ * <p>
+ * Cada página continua de onde a anterior parou com {@code WHERE (created_at, id) < (?, ?)},
+ * então o custo não cresce com a profundidade como no OFFSET, e nenhuma página paga um COUNT.
+ * A posição vai para o cliente como um token opaco (base64url); o formato interno pode mudar
+ * sem quebrar a API.
+ */
+public final class KeysetCursor {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    static final String CREATED_AT = "createdAt";
+    static final String ID = "id";
+
+    public static final Sort SORT = Sort.by(Sort.Direction.DESC, CREATED_AT, ID);
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Posição de início para o token recebido; sem token, começa do primeiro registro.
+     */
+    public static ScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw invalid();
+            }
+            return new Key(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)))
+                .toPosition();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * Token da próxima página, ou {@code null} se esta foi a última.
+     */
+    public static String next(Window<?> window) {
+        if (window.isEmpty() || !window.hasNext()) {
+            return null;
+        }
+
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, ?> keys = position.getKeys();
+        String raw = keys.get(CREATED_AT) + SEPARATOR + keys.get(ID);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Chave de continuação contida na posição, ou {@code null} na primeira página.
+     */
+    public static Key keyOf(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset) || keyset.isInitial()) {
+            return null;
+        }
+        Map<String, ?> keys = keyset.getKeys();
+        return new Key((LocalDateTime) keys.get(CREATED_AT), (Long) keys.get(ID));
+    }
+
+    /**
+     * Monta a janela a partir de uma consulta que buscou {@code limit + 1} linhas; a linha extra
+     * só indica que existe próxima página.
+     */
+    public static <T> Window<T> window(List<T> rows, int limit, Function<T, Key> keyExtractor) {
+        List<T> content = rows.size() > limit ? rows.subList(0, limit) : rows;
+        return Window.from(content, index -> keyExtractor.apply(content.get(index)).toPosition(), rows.size() > limit);
+    }
+
+    public static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public record Key(LocalDateTime createdAt, Long id) {
+
+        ScrollPosition toPosition() {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(CREATED_AT, createdAt);
+            keys.put(ID, id);
+            return ScrollPosition.forward(keys);
+        }
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException(ErrorCode.INVALID_INPUT, "Invalid pagination cursor");
+    }
+}
@@ -0,0 +1,27 @@
+package com.vynlotaste.projection;
+
+import com.vynlotaste.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha do histórico de pedidos, lida da view {@code orders_history} (pedidos ativos e
+ * arquivados) por {@code OrderRepository.HISTORY_SELECT}. É a fonte das listagens por cliente:
+ * {@code /my-orders} e a timeline. {@code archived} indica se o pedido já saiu da tabela quente.
+ */
+public interface OrderHistoryEntry {
+
+    Long getId();
+    String getOrderNumber();
+    Order.OrderStatus getStatus();
+    Order.OrderType getType();
+    Long getCustomerId();
+    BigDecimal getTotalAmount();
+    String getDeliveryAddress();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    Long getItemCount();
+    Boolean getArchived();
+    Long getVersion();
+}
@@ -0,0 +1,37 @@
+package com.vynlotaste.projection;
+
+import com.vynlotaste.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Linha de listagem de pedidos montada direto na consulta (constructor expression), com o
+ * cliente vindo do JOIN e a quantidade de itens de um subselect. Nenhuma entidade é carregada,
+ * então listar uma página não dispara lazy loading de {@code customer} ou {@code items}.
+ * <p>
+ * É uma classe (não record) porque as listas por cliente vão para o cache Redis, cujo
+ * serializador só grava o tipo de classes não finais.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderListItem {
+
+    private Long id;
+    private String orderNumber;
+    private Order.OrderStatus status;
+    private Order.OrderType type;
+    private BigDecimal totalAmount;
+    private String deliveryAddress;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long customerId;
+    private String customerEmail;
+    private String customerFirstName;
+    private String customerLastName;
+    private Integer itemCount;
+}
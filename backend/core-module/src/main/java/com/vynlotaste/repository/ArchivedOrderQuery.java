@@ -0,0 +1,108 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Leitura de pedidos que já saíram da tabela quente para {@code orders_archive} /
+ * {@code order_items_archive} (V13). O {@link Order} devolvido é montado a partir das linhas do
+ * arquivo e nunca entra no contexto de persistência: é somente leitura, e salvá-lo criaria um
+ * pedido novo na tabela quente. Cliente e produtos são as entidades atuais.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ArchivedOrderQuery {
+
+    static final String ORDER_COLUMNS = "SELECT id, order_number, status, type, total_amount, delivery_address, notes, " +
+        "customer_id, deleted, version, created_at, updated_at FROM orders_archive ";
+
+    static final String ITEMS_SQL = "SELECT id, product_id, quantity, unit_price, item_notes, customizations, version, " +
+        "created_at, updated_at FROM order_items_archive WHERE order_id = ? AND deleted = false ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    public Optional<Order> findById(Long id) {
+        return load(ORDER_COLUMNS + "WHERE id = ? AND deleted = false", id);
+    }
+
+    public Optional<Order> findByOrderNumber(String orderNumber) {
+        return load(ORDER_COLUMNS + "WHERE order_number = ? AND deleted = false", orderNumber);
+    }
+
+    private Optional<Order> load(String sql, Object key) {
+        List<ArchivedOrder> rows = jdbcTemplate.query(sql, (rs, rowNum) -> readOrder(rs), key);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ArchivedOrder row = rows.get(0);
+        Order order = row.order();
+        order.setCustomer(entityManager.find(User.class, row.customerId()));
+
+        List<ArchivedItem> items = jdbcTemplate.query(ITEMS_SQL, (rs, rowNum) -> readItem(rs), order.getId());
+        Map<Long, Product> products = items.isEmpty() ? Map.of() : entityManager
+            .createQuery("SELECT p FROM Product p WHERE p.id IN :ids", Product.class)
+            .setParameter("ids", items.stream().map(ArchivedItem::productId).distinct().toList())
+            .getResultStream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        for (ArchivedItem archived : items) {
+            OrderItem item = archived.item();
+            // Produto removido depois do arquivamento: o item fica sem produto
+            item.setProduct(products.get(archived.productId()));
+            order.addItem(item);
+        }
+        return Optional.of(order);
+    }
+
+    private static ArchivedOrder readOrder(ResultSet rs) throws SQLException {
+        Order order = new Order();
+        order.setId(rs.getLong("id"));
+        order.setOrderNumber(rs.getString("order_number"));
+        order.setStatus(Order.OrderStatus.valueOf(rs.getString("status")));
+        order.setType(Order.OrderType.valueOf(rs.getString("type")));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        order.setDeliveryAddress(rs.getString("delivery_address"));
+        order.setNotes(rs.getString("notes"));
+        order.setDeleted(rs.getBoolean("deleted"));
+        order.setVersion(rs.getObject("version", Long.class));
+        order.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        order.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return new ArchivedOrder(order, rs.getLong("customer_id"));
+    }
+
+    private static ArchivedItem readItem(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setId(rs.getLong("id"));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setItemNotes(rs.getString("item_notes"));
+        item.setCustomizations(rs.getString("customizations"));
+        item.setDeleted(false);
+        item.setVersion(rs.getObject("version", Long.class));
+        item.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        item.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return new ArchivedItem(item, rs.getLong("product_id"));
+    }
+
+    private record ArchivedOrder(Order order, Long customerId) {
+    }
+
+    private record ArchivedItem(OrderItem item, Long productId) {
+    }
+}
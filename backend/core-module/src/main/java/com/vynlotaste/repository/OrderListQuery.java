@@ -0,0 +1,122 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.projection.OrderListItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listagens de pedidos como {@link OrderListItem}: uma única consulta por página, com o cliente
+ * no JOIN e a contagem de itens em subselect, aceitando as mesmas {@link Specification} das
+ * buscas por entidade. Páginas por OFFSET fazem mais um COUNT (pulado quando a página já mostra
+ * o total); páginas por cursor nunca contam.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderListQuery {
+
+    private final EntityManager entityManager;
+
+    public List<OrderListItem> findAll(Specification<Order> spec, Sort sort) {
+        return createQuery(spec, sort, null).getResultList();
+    }
+
+    public Page<OrderListItem> findPage(Specification<Order> spec, Pageable pageable) {
+        TypedQuery<OrderListItem> query = createQuery(spec, pageable.getSort(), null);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    /**
+     * Página por cursor em (created_at, id), do mais recente para o mais antigo.
+     */
+    public Window<OrderListItem> scroll(Specification<Order> spec, ScrollPosition position, int limit) {
+        List<OrderListItem> rows = createQuery(spec, KeysetCursor.SORT, KeysetCursor.keyOf(position))
+            .setMaxResults(limit + 1)
+            .getResultList();
+        return KeysetCursor.window(rows, limit, item -> new KeysetCursor.Key(item.getCreatedAt(), item.getId()));
+    }
+
+    private TypedQuery<OrderListItem> createQuery(Specification<Order> spec, Sort sort, KeysetCursor.Key after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderListItem> query = cb.createQuery(OrderListItem.class);
+        Root<Order> order = query.from(Order.class);
+        Join<Order, User> customer = order.join("customer");
+
+        query.select(cb.construct(OrderListItem.class,
+            order.get("id"),
+            order.get("orderNumber"),
+            order.get("status"),
+            order.get("type"),
+            order.get("totalAmount"),
+            order.get("deliveryAddress"),
+            order.get("createdAt"),
+            order.get("updatedAt"),
+            customer.get("id"),
+            customer.get("email"),
+            customer.get("firstName"),
+            customer.get("lastName"),
+            cb.size(order.<List<OrderItem>>get("items"))));
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(order, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        if (after != null) {
+            // (created_at, id) < (?, ?) escrito por extenso: o seek usa o índice (created_at DESC, id DESC)
+            predicates.add(cb.or(
+                cb.lessThan(order.<LocalDateTime>get("createdAt"), after.createdAt()),
+                cb.and(
+                    cb.equal(order.get("createdAt"), after.createdAt()),
+                    cb.lessThan(order.<Long>get("id"), after.id()))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, order, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Order> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Order> order = query.from(Order.class);
+        query.select(cb.count(order));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(order, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
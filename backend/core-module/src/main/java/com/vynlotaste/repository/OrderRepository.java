@@ -1,17 +1,27 @@
 package com.vynlotaste.repository;
 
+import com.vynlotaste.board.ActiveOrder;
 import com.vynlotaste.entity.Order;
+import com.vynlotaste.kitchen.KitchenWorkLine;
+import com.vynlotaste.projection.OrderHistoryEntry;
+import com.vynlotaste.tracking.OrderStatusSnapshot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
@@ -41,6 +51,91 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     
     long countByStatus(Order.OrderStatus status);
     
+    @Query("SELECT o.id, o.createdAt FROM Order o WHERE o.status = :status")
+    List<Object[]> findIdAndCreatedAtByStatus(@Param("status") Order.OrderStatus status);
+    
+    @Query("SELECT new com.vynlotaste.board.ActiveOrder(o.id, o.orderNumber, o.status, o.type, o.customer.id, o.totalAmount, o.createdAt, o.version) " +
+           "FROM Order o WHERE o.status IN :statuses OR o.createdAt >= :since")
+    List<ActiveOrder> findIndexEntries(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                       @Param("since") LocalDateTime since);
+    
+    @Query("SELECT new com.vynlotaste.board.ActiveOrder(o.id, o.orderNumber, o.status, o.type, o.customer.id, o.totalAmount, o.createdAt, o.version) " +
+           "FROM Order o WHERE o.status = :status ORDER BY o.createdAt")
+    List<ActiveOrder> findActiveOrderViewsByStatus(@Param("status") Order.OrderStatus status);
+    
+    @Query("SELECT new com.vynlotaste.board.ActiveOrder(o.id, o.orderNumber, o.status, o.type, o.customer.id, o.totalAmount, o.createdAt, o.version) " +
+           "FROM Order o WHERE o.status IN :statuses ORDER BY o.createdAt")
+    List<ActiveOrder> findActiveOrderViewsByStatuses(@Param("statuses") Collection<Order.OrderStatus> statuses);
+    
+    @Query("SELECT new com.vynlotaste.board.ActiveOrder(o.id, o.orderNumber, o.status, o.type, o.customer.id, o.totalAmount, o.createdAt, o.version) " +
+           "FROM Order o WHERE o.id IN :ids ORDER BY o.createdAt")
+    List<ActiveOrder> findActiveOrderViewsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT new com.vynlotaste.tracking.OrderStatusSnapshot(o.id, o.customer.id, o.status, o.createdAt, o.version) " +
+           "FROM Order o WHERE o.id = :id")
+    Optional<OrderStatusSnapshot> findStatusSnapshotById(@Param("id") Long id);
+    
+    @Query("SELECT new com.vynlotaste.kitchen.KitchenWorkLine(o.id, o.status, o.createdAt, o.updatedAt, p.id, p.category, p.preparationTime, i.quantity) " +
+           "FROM OrderItem i JOIN i.order o JOIN i.product p WHERE o.status IN :statuses")
+    List<KitchenWorkLine> findKitchenWork(@Param("statuses") Collection<Order.OrderStatus> statuses);
+    
+    @Query("SELECT new com.vynlotaste.kitchen.KitchenWorkLine(o.id, o.status, o.createdAt, o.updatedAt, p.id, p.category, p.preparationTime, i.quantity) " +
+           "FROM OrderItem i JOIN i.order o JOIN i.product p WHERE o.id IN :ids")
+    List<KitchenWorkLine> findKitchenWorkByOrderIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Long id);
+    
+    // Compare-and-set: só altera se o status ainda for o lido pelo chamador
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now, o.version = o.version + 1 " +
+           "WHERE o.id = :id AND o.status = :from")
+    int compareAndSetStatus(@Param("id") Long id,
+                            @Param("from") Order.OrderStatus from,
+                            @Param("to") Order.OrderStatus to,
+                            @Param("now") LocalDateTime now);
+    
+    // Um único UPDATE para o lote; o subselect trava as linhas; devolve o status anterior e a nova versão de cada uma.
+    // Sem @Modifying de propósito: com ele o Spring Data usaria executeUpdate, que só devolve a contagem e perde o
+    // RETURNING. Em troca, o contexto de persistência não é limpo (Order já carregada na transação fica com status e
+    // versão antigos; releia pelo banco) e o hint abaixo força o flush do que estiver pendente em orders antes do UPDATE.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "orders"))
+    @Query(value = "UPDATE orders o SET status = :to, updated_at = :now, version = o.version + 1 " +
+                   "FROM (SELECT id, status FROM orders WHERE id IN (:ids) AND status IN (:from) FOR UPDATE) prev " +
+                   "WHERE o.id = prev.id RETURNING o.id, prev.status, o.version",
+           nativeQuery = true)
+    List<Object[]> transitionStatuses(@Param("ids") Collection<Long> ids,
+                                      @Param("from") Collection<String> from,
+                                      @Param("to") String to,
+                                      @Param("now") LocalDateTime now);
+    
+    // Leitura única do histórico (tabela quente + arquivo, view orders_history) para todas as listagens por cliente
+    String HISTORY_SELECT = "SELECT h.id AS id, h.order_number AS orderNumber, h.status AS status, h.type AS type, " +
+                            "h.customer_id AS customerId, h.total_amount AS totalAmount, " +
+                            "h.delivery_address AS deliveryAddress, h.created_at AS createdAt, h.updated_at AS updatedAt, " +
+                            "(SELECT COUNT(*) FROM order_items_history i WHERE i.order_id = h.id AND i.deleted = false) AS itemCount, " +
+                            "h.archived AS archived, h.version AS version " +
+                            "FROM orders_history h ";
+    
+    // O Pageable não deve trazer Sort: a ordenação é fixa (created_at DESC, id DESC)
+    @Query(value = HISTORY_SELECT + "WHERE h.customer_id = :customerId AND h.deleted = false " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           countQuery = "SELECT COUNT(*) FROM orders_history h WHERE h.customer_id = :customerId AND h.deleted = false",
+           nativeQuery = true)
+    Page<OrderHistoryEntry> findHistoryByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+    
+    @Query(value = HISTORY_SELECT + "WHERE h.customer_id = :customerId AND h.deleted = false " +
+                   "ORDER BY h.created_at DESC, h.id DESC",
+           nativeQuery = true)
+    List<OrderHistoryEntry> findAllHistoryByCustomerId(@Param("customerId") Long customerId);
+    
+    @Query(value = HISTORY_SELECT + "WHERE h.id IN (:ids) AND h.deleted = false", nativeQuery = true)
+    List<OrderHistoryEntry> findHistoryByIds(@Param("ids") Collection<Long> ids);
+    
+    // Move um lote de pedidos finalizados para o arquivo particionado (função archive_orders, V13)
+    @Query(value = "SELECT archive_orders(:cutoff, :batchSize)", nativeQuery = true)
+    int archiveOrders(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
     long countByCreatedAtAfter(LocalDateTime since);
     
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.createdAtAfter >= :since")
@@ -0,0 +1,142 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.exception.InsufficientStockException;
+import com.vynlotaste.exception.order.OrderValidationException;
+import com.vynlotaste.exception.user.UserNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Grava um pedido com uma única chamada à função {@code process_order} (V14): validação de
+ * cliente e produtos, decremento de estoque, inserts de pedido e itens e cálculo do total
+ * acontecem no servidor, na transação corrente. Os valores gerados (ids, preços, total e
+ * datas) são aplicados de volta no {@link Order} recebido, que continua fora do contexto de
+ * persistência.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProcessOrderFunction {
+
+    static final String CALL_SQL = "SELECT order_id, created_at, total_amount, item_id, unit_price " +
+        "FROM process_order(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // SQLSTATEs levantados pela função
+    static final String CUSTOMER_NOT_FOUND = "VT404";
+    static final String INVALID_ITEMS = "VT422";
+    static final String INSUFFICIENT_STOCK = "VT409";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @throws UserNotFoundException se o cliente não existir
+     * @throws OrderValidationException se algum produto não existir ou estiver indisponível
+     * @throws InsufficientStockException se faltar estoque para algum produto
+     */
+    public void place(Order order) {
+        List<OrderItem> items = order.getItems();
+        List<PlacedItem> placed;
+        try {
+            placed = jdbcTemplate.query(connection -> prepare(connection, order, items),
+                (rs, rowNum) -> new PlacedItem(
+                    rs.getLong("order_id"),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getBigDecimal("total_amount"),
+                    rs.getLong("item_id"),
+                    rs.getBigDecimal("unit_price")));
+        } catch (DataAccessException e) {
+            throw translate(e, order);
+        }
+
+        if (placed.size() != items.size()) {
+            throw new IllegalStateException("process_order returned " + placed.size() + " items, expected " + items.size());
+        }
+
+        PlacedItem first = placed.get(0);
+        order.setId(first.orderId());
+        order.setTotalAmount(first.totalAmount());
+        order.setCreatedAt(first.createdAt());
+        order.setUpdatedAt(first.createdAt());
+        order.setVersion(0L);
+        // A função devolve os itens na ordem em que foram enviados
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            PlacedItem result = placed.get(i);
+            item.setId(result.itemId());
+            item.setUnitPrice(result.unitPrice());
+            item.setCreatedAt(first.createdAt());
+            item.setUpdatedAt(first.createdAt());
+            item.setVersion(0L);
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, Order order, List<OrderItem> items) throws SQLException {
+        int size = items.size();
+        Long[] productIds = new Long[size];
+        Integer[] quantities = new Integer[size];
+        BigDecimal[] unitPrices = new BigDecimal[size];
+        String[] itemNotes = new String[size];
+        String[] customizations = new String[size];
+        for (int i = 0; i < size; i++) {
+            OrderItem item = items.get(i);
+            productIds[i] = item.getProduct().getId();
+            quantities[i] = item.getQuantity();
+            unitPrices[i] = item.getUnitPrice();
+            itemNotes[i] = item.getItemNotes();
+            customizations[i] = item.getCustomizations();
+        }
+
+        PreparedStatement statement = connection.prepareStatement(CALL_SQL);
+        statement.setString(1, order.getOrderNumber());
+        statement.setLong(2, order.getCustomer().getId());
+        statement.setString(3, order.getType().name());
+        statement.setString(4, order.getDeliveryAddress());
+        statement.setString(5, order.getNotes());
+        statement.setArray(6, connection.createArrayOf("bigint", productIds));
+        statement.setArray(7, connection.createArrayOf("integer", quantities));
+        statement.setArray(8, connection.createArrayOf("numeric", unitPrices));
+        statement.setArray(9, connection.createArrayOf("varchar", itemNotes));
+        statement.setArray(10, connection.createArrayOf("text", customizations));
+        return statement;
+    }
+
+    private static RuntimeException translate(DataAccessException e, Order order) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        String sqlState = cause instanceof SQLException sqlException ? sqlException.getSQLState() : null;
+        if (sqlState == null) {
+            return e;
+        }
+        return switch (sqlState) {
+            case CUSTOMER_NOT_FOUND -> new UserNotFoundException(order.getCustomer().getId());
+            case INVALID_ITEMS -> new OrderValidationException(serverMessage(cause));
+            case INSUFFICIENT_STOCK -> new InsufficientStockException(serverMessage(cause));
+            default -> e;
+        };
+    }
+
+    // Mensagem do RAISE, sem o prefixo "ERROR:" e o contexto PL/pgSQL que o driver acrescenta
+    private static String serverMessage(Throwable cause) {
+        String message = cause.getMessage();
+        if (message == null) {
+            return "";
+        }
+        int start = message.startsWith("ERROR: ") ? "ERROR: ".length() : 0;
+        int end = message.indexOf('\n');
+        return message.substring(start, end > start ? end : message.length());
+    }
+
+    private record PlacedItem(Long orderId, LocalDateTime createdAt, BigDecimal totalAmount,
+                              Long itemId, BigDecimal unitPrice) {
+    }
+}
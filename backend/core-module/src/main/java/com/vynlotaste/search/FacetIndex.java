@@ -0,0 +1,321 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Índice de facetas do catálogo, imutável e montado de uma vez a partir dos produtos.
+ * <p>
+ * Cada produto recebe um ordinal; cada valor de faceta (categoria, disponível, vegano,
+ * vegetariano, sem glúten) guarda um {@link BitSet} dos ordinais que o têm. O preço fica numa
+ * coluna ordenada, e a faixa pedida vira um intervalo achado por busca binária. Uma consulta é
+ * um AND de bitmaps; as contagens das facetas saem na mesma passada, e as ordenações
+ * suportadas são arrays de ordinais pré-ordenados, percorridos até encher a página.
+ */
+final class FacetIndex {
+
+    static final String CATEGORY = "category";
+    static final String AVAILABLE = "available";
+    static final String VEGAN = "vegan";
+    static final String VEGETARIAN = "vegetarian";
+    static final String GLUTEN_FREE = "glutenFree";
+
+    private final Product[] products;
+    private final String[] names;
+    private final String[] descriptions;
+    private final String[] ingredients;
+
+    private final BitSet all;
+    // Chave em minúsculas (a busca por categoria ignora maiúsculas); o rótulo é a primeira grafia vista
+    private final Map<String, BitSet> categories = new TreeMap<>();
+    private final Map<String, String> categoryLabels = new TreeMap<>();
+    private final Map<String, BooleanColumn> flags = new LinkedHashMap<>();
+
+    private final BigDecimal[] sortedPrices;
+    private final int[] byPrice;
+    private final Map<String, int[]> orderings = new LinkedHashMap<>();
+
+    private FacetIndex(List<Product> catalog) {
+        int size = catalog.size();
+        this.products = catalog.toArray(new Product[0]);
+        this.names = new String[size];
+        this.descriptions = new String[size];
+        this.ingredients = new String[size];
+        this.all = new BitSet(size);
+        all.set(0, size);
+
+        BooleanColumn available = new BooleanColumn(size);
+        BooleanColumn vegan = new BooleanColumn(size);
+        BooleanColumn vegetarian = new BooleanColumn(size);
+        BooleanColumn glutenFree = new BooleanColumn(size);
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Product product = products[ordinal];
+            names[ordinal] = lower(product.getName());
+            descriptions[ordinal] = lower(product.getDescription());
+            ingredients[ordinal] = lower(product.getIngredients());
+
+            String category = product.getCategory();
+            if (category != null && !category.isBlank()) {
+                String key = lower(category);
+                categories.computeIfAbsent(key, k -> new BitSet(size)).set(ordinal);
+                categoryLabels.putIfAbsent(key, category);
+            }
+            available.add(ordinal, product.getAvailable());
+            vegan.add(ordinal, product.getVegan());
+            vegetarian.add(ordinal, product.getVegetarian());
+            glutenFree.add(ordinal, product.getGlutenFree());
+        }
+        flags.put(AVAILABLE, available);
+        flags.put(VEGAN, vegan);
+        flags.put(VEGETARIAN, vegetarian);
+        flags.put(GLUTEN_FREE, glutenFree);
+
+        // Produtos sem preço ficam fora da coluna: nenhuma faixa os inclui, como no SQL
+        this.byPrice = IntStream.range(0, size)
+            .filter(ordinal -> products[ordinal].getPrice() != null)
+            .boxed()
+            .sorted(Comparator.comparing((Integer ordinal) -> products[ordinal].getPrice()).thenComparing(this::idOf))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        this.sortedPrices = new BigDecimal[byPrice.length];
+        for (int i = 0; i < byPrice.length; i++) {
+            sortedPrices[i] = products[byPrice[i]].getPrice();
+        }
+
+        orderings.put("id", ordering(Product::getId, Comparator.naturalOrder()));
+        orderings.put("name", ordering(Product::getName, String.CASE_INSENSITIVE_ORDER));
+        orderings.put("createdAt", ordering(Product::getCreatedAt, Comparator.naturalOrder()));
+        orderings.put("price", ordering(Product::getPrice, Comparator.naturalOrder()));
+    }
+
+    static FacetIndex of(Collection<Product> catalog) {
+        return new FacetIndex(new ArrayList<>(catalog));
+    }
+
+    int size() {
+        return products.length;
+    }
+
+    /**
+     * Ordenações atendidas pelo índice: uma única propriedade entre id, name, createdAt e price,
+     * ou nenhuma (id).
+     */
+    boolean canSort(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return orders.isEmpty() || (orders.size() == 1 && orderings.containsKey(orders.get(0).getProperty()));
+    }
+
+    ProductFacetPage query(ProductFilter filter, Pageable pageable, boolean withFacets) {
+        BitSet base = priceRange(filter.minPrice(), filter.maxPrice());
+        applyText(base, filter);
+
+        Map<String, BitSet> constraints = new LinkedHashMap<>();
+        if (filter.category() != null && !filter.category().isBlank()) {
+            constraints.put(CATEGORY, categories.getOrDefault(lower(filter.category()), new BitSet()));
+        }
+        putFlag(constraints, AVAILABLE, filter.available());
+        putFlag(constraints, VEGAN, filter.vegan());
+        putFlag(constraints, VEGETARIAN, filter.vegetarian());
+        putFlag(constraints, GLUTEN_FREE, filter.glutenFree());
+
+        BitSet matches = (BitSet) base.clone();
+        constraints.values().forEach(matches::and);
+
+        Page<Product> page = new PageImpl<>(page(matches, pageable), pageable, matches.cardinality());
+        return new ProductFacetPage(page, withFacets ? facets(base, constraints) : Map.of());
+    }
+
+    // Cada faceta conta com todos os filtros menos o seu: as alternativas continuam visíveis
+    private Map<String, Map<String, Integer>> facets(BitSet base, Map<String, BitSet> constraints) {
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+
+        BitSet forCategory = excluding(base, constraints, CATEGORY);
+        Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        categories.forEach((key, bits) -> {
+            int count = intersectionSize(forCategory, bits);
+            if (count > 0) {
+                categoryCounts.put(categoryLabels.get(key), count);
+            }
+        });
+        facets.put(CATEGORY, categoryCounts);
+
+        flags.forEach((facet, column) -> {
+            BitSet scope = excluding(base, constraints, facet);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            counts.put("true", intersectionSize(scope, column.yes));
+            counts.put("false", intersectionSize(scope, column.no));
+            facets.put(facet, counts);
+        });
+        return facets;
+    }
+
+    private List<Product> page(BitSet matches, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return matches.stream().mapToObj(ordinal -> products[ordinal]).toList();
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        int[] ordering = orderings.get(order.getProperty());
+        if (ordering == null) {
+            throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+        }
+
+        long skip = pageable.getOffset();
+        List<Product> content = new ArrayList<>(pageable.getPageSize());
+        for (int i = 0; i < ordering.length && content.size() < pageable.getPageSize(); i++) {
+            int ordinal = ordering[order.isAscending() ? i : ordering.length - 1 - i];
+            if (!matches.get(ordinal)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+            } else {
+                content.add(products[ordinal]);
+            }
+        }
+        return content;
+    }
+
+    private BitSet priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return (BitSet) all.clone();
+        }
+        int from = minPrice != null ? lowerBound(minPrice) : 0;
+        int to = maxPrice != null ? upperBound(maxPrice) : sortedPrices.length;
+        BitSet range = new BitSet(products.length);
+        for (int i = from; i < to; i++) {
+            range.set(byPrice[i]);
+        }
+        return range;
+    }
+
+    // Primeira posição com preço >= value
+    private int lowerBound(BigDecimal value) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Primeira posição com preço > value
+    private int upperBound(BigDecimal value) {
+        int low = 0;
+        int high = sortedPrices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedPrices[mid].compareTo(value) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Filtros de texto não têm bitmap: varrem só os ordinais que sobraram da faixa de preço
+    private void applyText(BitSet candidates, ProductFilter filter) {
+        String name = blankToNull(filter.nameContains());
+        String description = blankToNull(filter.descriptionContains());
+        String ingredient = blankToNull(filter.ingredientContains());
+        if (name == null && description == null && ingredient == null) {
+            return;
+        }
+        for (int ordinal = candidates.nextSetBit(0); ordinal >= 0; ordinal = candidates.nextSetBit(ordinal + 1)) {
+            if (!contains(names[ordinal], name) || !contains(descriptions[ordinal], description)
+                    || !contains(ingredients[ordinal], ingredient)) {
+                candidates.clear(ordinal);
+            }
+        }
+    }
+
+    private void putFlag(Map<String, BitSet> constraints, String facet, Boolean value) {
+        if (value != null) {
+            BooleanColumn column = flags.get(facet);
+            constraints.put(facet, value ? column.yes : column.no);
+        }
+    }
+
+    private static BitSet excluding(BitSet base, Map<String, BitSet> constraints, String facet) {
+        BitSet scope = (BitSet) base.clone();
+        constraints.forEach((name, bits) -> {
+            if (!name.equals(facet)) {
+                scope.and(bits);
+            }
+        });
+        return scope;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    // Nulos por último na ordem crescente; empate pelo id para a paginação ser estável
+    private <T> int[] ordering(Function<Product, T> key, Comparator<T> comparator) {
+        return IntStream.range(0, products.length)
+            .boxed()
+            .sorted(Comparator.comparing((Integer ordinal) -> key.apply(products[ordinal]), Comparator.nullsLast(comparator))
+                .thenComparing(this::idOf))
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private Long idOf(int ordinal) {
+        return products[ordinal].getId();
+    }
+
+    private static boolean contains(String value, String fragment) {
+        return fragment == null || (value != null && value.contains(fragment));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : lower(value);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Bitmaps de um atributo booleano; nulos não entram em nenhum dos dois, como no SQL.
+     */
+    private static final class BooleanColumn {
+
+        private final BitSet yes;
+        private final BitSet no;
+
+        BooleanColumn(int size) {
+            this.yes = new BitSet(size);
+            this.no = new BitSet(size);
+        }
+
+        void add(int ordinal, Boolean value) {
+            if (value != null) {
+                (value ? yes : no).set(ordinal);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+/**
+ * Página de produtos com as contagens por faceta (faceta -> valor -> produtos). A contagem de
+ * cada faceta aplica todos os filtros menos o da própria faceta, para a barra lateral mostrar
+ * quantos produtos cada alternativa traria.
+ */
+public record ProductFacetPage(
+    Page<Product> products,
+    Map<String, Map<String, Integer>> facets
+) {
+}
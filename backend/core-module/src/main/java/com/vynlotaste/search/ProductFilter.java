@@ -0,0 +1,22 @@
+package com.vynlotaste.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Filtros do catálogo atendidos pelo {@link FacetIndex}; campos nulos ou em branco não filtram.
+ * Mesma semântica do {@code ProductSpecifications.buildDynamicQuery}: categoria sem diferenciar
+ * maiúsculas, faixa de preço inclusiva e textos por "contém".
+ */
+public record ProductFilter(
+    String category,
+    Boolean available,
+    BigDecimal minPrice,
+    BigDecimal maxPrice,
+    String nameContains,
+    String descriptionContains,
+    String ingredientContains,
+    Boolean vegan,
+    Boolean vegetarian,
+    Boolean glutenFree
+) {
+}
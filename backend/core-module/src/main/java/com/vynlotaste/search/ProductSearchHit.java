@@ -0,0 +1,17 @@
+package com.vynlotaste.search;
+
+import java.math.BigDecimal;
+
+/**
+ * Resultado da busca textual de produtos, do mais para o menos relevante.
+ */
+public record ProductSearchHit(
+    Long id,
+    String name,
+    String category,
+    BigDecimal price,
+    String imageUrl,
+    boolean available,
+    double score
+) {
+}
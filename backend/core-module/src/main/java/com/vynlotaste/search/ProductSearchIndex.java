@@ -0,0 +1,242 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.event.ProductUpdatedEvent;
+import com.vynlotaste.inventory.StockCounterService;
+import com.vynlotaste.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Busca de produtos em memória, sem passar pelo banco: textual sobre um {@link TrigramIndex}
+ * e por filtros com contagem de facetas sobre um {@link FacetIndex}.
+ * <p>
+ * Os índices são montados com o catálogo inteiro na inicialização e reconstruídos
+ * periodicamente; entre uma reconstrução e outra, cada {@link ProductUpdatedEvent} (entregue
+ * pelo outbox em um dos nós) é anunciado no canal {@value #CHANNEL} e todos os nós, inclusive o
+ * de origem, recarregam só aquele produto. Se a mensagem se perder, a reconstrução periódica
+ * corrige. O estoque muda por UPDATE direto (ou no contador do Redis) a cada pedido, sem
+ * evento, então os produtos em memória não servem para filtrar por estoque, e o estoque que
+ * carregam está velho: a página devolvida por {@link #filter} leva cópias com o estoque atual,
+ * lido só para os produtos da página ({@link StockCounterService#currentStock}).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex implements MessageListener {
+
+    public static final String CHANNEL = "vynlo:product-search";
+
+    private final ProductRepository productRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StockCounterService stockCounterService;
+    private final MeterRegistry meterRegistry;
+
+    // Alterados só dentro de refresh()/rebuild(), que são sincronizados
+    private final Map<Long, Product> catalog = new HashMap<>();
+    private volatile TrigramIndex index;
+    private volatile FacetIndex facets;
+
+    private Timer queryTimer;
+    private Timer facetTimer;
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.queryTimer = Timer.builder("vynlo.search.query.time")
+            .tag("type", "text")
+            .description("Time to answer a product search from the in-memory indexes")
+            .register(meterRegistry);
+        this.facetTimer = Timer.builder("vynlo.search.query.time")
+            .tag("type", "facet")
+            .description("Time to answer a product search from the in-memory indexes")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.search.index.products", this, search -> search.index != null ? search.index.size() : 0)
+            .description("Products in the in-memory search index")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.search.index.terms", this, search -> search.index != null ? search.index.terms() : 0)
+            .description("Distinct terms in the in-memory search index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Produtos que casam com todos os termos de {@code query}, do mais para o menos relevante.
+     */
+    public List<ProductSearchHit> search(String query, int limit, boolean availableOnly) {
+        TrigramIndex current = index();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return current.search(query, limit, availableOnly);
+        } finally {
+            sample.stop(queryTimer);
+        }
+    }
+
+    /**
+     * Se {@link #filter} atende a ordenação pedida; as demais continuam no banco.
+     */
+    public boolean canSort(Sort sort) {
+        return facets().canSort(sort);
+    }
+
+    /**
+     * Página de produtos que passam em {@code filter} e, se pedido, as contagens por faceta. Os
+     * produtos da página são cópias com o estoque atual; os do catálogo nunca são alterados.
+     */
+    public ProductFacetPage filter(ProductFilter filter, Pageable pageable, boolean withFacets) {
+        FacetIndex current = facets();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ProductFacetPage page;
+        try {
+            page = current.query(filter, pageable, withFacets);
+        } finally {
+            sample.stop(facetTimer);
+        }
+        return new ProductFacetPage(withCurrentStock(page.products()), page.facets());
+    }
+
+    /**
+     * Só as contagens por faceta de {@code filter}, para quando a página vem do banco.
+     */
+    public Map<String, Map<String, Integer>> facetCounts(ProductFilter filter) {
+        FacetIndex current = facets();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return current.query(filter, PageRequest.of(0, 1), true).facets();
+        } finally {
+            sample.stop(facetTimer);
+        }
+    }
+
+    private Page<Product> withCurrentStock(Page<Product> products) {
+        if (!products.hasContent()) {
+            return products;
+        }
+        Map<Long, Integer> stock = stockCounterService.currentStock(
+            products.getContent().stream().map(Product::getId).toList());
+        // Removido depois da última reconstrução: vai sem estoque até o índice tirá-lo
+        return products.map(product -> product.copyWithStock(stock.getOrDefault(product.getId(), 0)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onProductUpdated(ProductUpdatedEvent event) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, String.valueOf(event.getProductId()));
+        } catch (Exception e) {
+            // Sem o pub/sub ao menos este nó fica em dia; os outros esperam a reconstrução
+            log.warn("Falha ao avisar os outros nós sobre a alteração do produto {}", event.getProductId(), e);
+            refresh(event.getProductId());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            refresh(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            log.error("Erro ao atualizar o índice de busca", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@vynloProperties.productSearch.rebuildInterval.toMillis()}",
+               initialDelayString = "#{@vynloProperties.productSearch.rebuildInterval.toMillis()}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Erro ao reconstruir o índice de busca", e);
+        }
+    }
+
+    /**
+     * Recarrega um produto; produtos removidos (soft delete) saem do índice.
+     */
+    synchronized void refresh(Long productId) {
+        TrigramIndex current = index;
+        if (current == null) {
+            return;
+        }
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isPresent()) {
+            current.put(product.get());
+            catalog.put(productId, product.get());
+        } else {
+            current.remove(productId);
+            catalog.remove(productId);
+        }
+        // O FacetIndex é imutável; remontá-lo a partir do catálogo em memória não vai ao banco
+        facets = FacetIndex.of(catalog.values());
+        log.debug("Produto {} atualizado no índice de busca", productId);
+    }
+
+    // Monta índices novos e troca as referências: as buscas seguem nos anteriores enquanto isso.
+    // Sincronizado com refresh(), que assim nunca altera um índice prestes a ser descartado.
+    synchronized void rebuild() {
+        long start = System.nanoTime();
+        List<Product> products = productRepository.findAll();
+        TrigramIndex rebuilt = new TrigramIndex();
+        products.forEach(rebuilt::put);
+        catalog.clear();
+        products.forEach(product -> catalog.put(product.getId(), product));
+        facets = FacetIndex.of(catalog.values());
+        index = rebuilt;
+        log.info("Índice de busca de produtos reconstruído: {} produtos, {} termos em {} ms",
+            rebuilt.size(), rebuilt.terms(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private TrigramIndex index() {
+        TrigramIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        // Só antes da primeira reconstrução (ex.: requisição durante a inicialização)
+        synchronized (this) {
+            if (index == null) {
+                rebuild();
+            }
+            return index;
+        }
+    }
+
+    private FacetIndex facets() {
+        FacetIndex current = facets;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (facets == null) {
+                rebuild();
+            }
+            return facets;
+        }
+    }
+}
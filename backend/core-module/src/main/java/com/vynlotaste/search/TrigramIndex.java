@@ -0,0 +1,229 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória sobre nome, descrição e ingredientes dos produtos.
+ * <p>
+ * Cada termo aponta para os produtos que o contêm, com o peso do campo mais relevante em que
+ * aparece. Os termos do vocabulário ficam ordenados (busca por prefixo) e indexados por
+ * trigrama (busca por trecho e tolerância a erros de digitação). Cada termo da consulta casa
+ * com os termos do vocabulário por igualdade, prefixo, trecho ou distância de edição, nessa
+ * ordem de pontuação; um produto precisa casar com todos os termos da consulta e a pontuação
+ * final é a soma dos melhores casamentos de cada um.
+ */
+final class TrigramIndex {
+
+    static final double NAME_WEIGHT = 3.0;
+    static final double INGREDIENTS_WEIGHT = 1.5;
+    static final double DESCRIPTION_WEIGHT = 1.0;
+
+    static final double EXACT = 1.0;
+    static final double PREFIX = 0.8;
+    static final double INFIX = 0.6;
+    static final double TYPO = 0.5;
+
+    // Termos curtos só casam por igualdade ou prefixo; distância 2 só a partir de 8 letras
+    private static final int MIN_INFIX_LENGTH = 3;
+    private static final int MIN_TYPO_LENGTH = 4;
+    private static final int MIN_TWO_TYPOS_LENGTH = 8;
+
+    private static final Comparator<Map.Entry<Document, Double>> RANKING =
+        Map.Entry.<Document, Double>comparingByValue().reversed()
+            .thenComparing(entry -> entry.getKey().name(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(entry -> entry.getKey().id());
+
+    private final Map<Long, Document> documents = new HashMap<>();
+    // termo -> (produto -> peso do campo)
+    private final Map<String, Map<Long, Double>> postings = new HashMap<>();
+    private final NavigableSet<String> vocabulary = new TreeSet<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(Product product) {
+        Map<String, Double> weights = new HashMap<>();
+        addTerms(weights, product.getName(), NAME_WEIGHT);
+        addTerms(weights, product.getIngredients(), INGREDIENTS_WEIGHT);
+        addTerms(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+        Document document = new Document(product.getId(), product.getName(), product.getCategory(),
+            product.getPrice(), product.getImageUrl(), Boolean.TRUE.equals(product.getAvailable()), weights.keySet());
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.getId());
+            documents.put(document.id(), document);
+            weights.forEach((term, weight) -> {
+                Map<Long, Double> posting = postings.computeIfAbsent(term, key -> new HashMap<>());
+                if (posting.isEmpty()) {
+                    vocabulary.add(term);
+                    TextNormalizer.trigrams(term).forEach(gram -> trigrams.computeIfAbsent(gram, key -> new TreeSet<>()).add(term));
+                }
+                posting.put(document.id(), weight);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int terms() {
+        lock.readLock().lock();
+        try {
+            return vocabulary.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<ProductSearchHit> search(String query, int limit, boolean availableOnly) {
+        List<String> queryTerms = TextNormalizer.terms(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                matches(queryTerm).forEach((term, similarity) ->
+                    postings.get(term).forEach((productId, weight) ->
+                        termScores.merge(productId, similarity * weight, Math::max)));
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((productId, score) -> score + termScores.get(productId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Map.Entry<Document, Double>> ranked = new ArrayList<>(scores.size());
+            scores.forEach((productId, score) -> {
+                Document document = documents.get(productId);
+                if (!availableOnly || document.available()) {
+                    ranked.add(Map.entry(document, score));
+                }
+            });
+            ranked.sort(RANKING);
+
+            return ranked.stream()
+                .limit(limit)
+                .map(entry -> entry.getKey().hit(entry.getValue()))
+                .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Termos do vocabulário que casam com o termo da consulta e a similaridade de cada um.
+     */
+    private Map<String, Double> matches(String queryTerm) {
+        Map<String, Double> matches = new HashMap<>();
+        for (String term : vocabulary.subSet(queryTerm, true, queryTerm + Character.MAX_VALUE, false)) {
+            matches.put(term, term.equals(queryTerm) ? EXACT : PREFIX);
+        }
+        if (queryTerm.length() < MIN_INFIX_LENGTH) {
+            return matches;
+        }
+
+        // Candidatos: termos que compartilham ao menos um trigrama com a consulta
+        Set<String> queryGrams = TextNormalizer.trigrams(queryTerm);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String term : trigrams.getOrDefault(gram, Set.of())) {
+                shared.merge(term, 1, Integer::sum);
+            }
+        }
+
+        int maxDistance = queryTerm.length() >= MIN_TWO_TYPOS_LENGTH ? 2 : queryTerm.length() >= MIN_TYPO_LENGTH ? 1 : 0;
+        shared.forEach((term, count) -> {
+            if (matches.containsKey(term)) {
+                return;
+            }
+            if (term.contains(queryTerm)) {
+                matches.put(term, INFIX);
+                return;
+            }
+            // Cada edição altera no máximo três trigramas: com menos em comum não há como casar
+            if (maxDistance == 0 || count < queryGrams.size() - 3 * maxDistance) {
+                return;
+            }
+            int distance = TextNormalizer.distance(queryTerm, term, maxDistance);
+            if (distance <= maxDistance) {
+                matches.put(term, TYPO / distance);
+            }
+        });
+        return matches;
+    }
+
+    private void removeLocked(Long productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms()) {
+            Map<Long, Double> posting = postings.get(term);
+            posting.remove(productId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+                vocabulary.remove(term);
+                for (String gram : TextNormalizer.trigrams(term)) {
+                    Set<String> terms = trigrams.get(gram);
+                    terms.remove(term);
+                    if (terms.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addTerms(Map<String, Double> weights, String text, double weight) {
+        for (String term : TextNormalizer.terms(text)) {
+            weights.merge(term, weight, Math::max);
+        }
+    }
+
+    private record Document(Long id, String name, String category, BigDecimal price, String imageUrl,
+                            boolean available, Set<String> terms) {
+
+        ProductSearchHit hit(double score) {
+            return new ProductSearchHit(id, name, category, price, imageUrl, available, score);
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.vynlotaste.service;
 
+import com.vynlotaste.board.ActiveOrder;
+import com.vynlotaste.board.ActiveOrderIndex;
 import com.vynlotaste.entity.Order;
 import com.vynlotaste.entity.Product;
 import com.vynlotaste.entity.User;
 import com.vynlotaste.entity.UserRole;
+import com.vynlotaste.pagination.ApproximateCounter;
+import com.vynlotaste.pagination.CursorPage;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.projection.OrderListItem;
+import com.vynlotaste.repository.OrderListQuery;
 import com.vynlotaste.repository.OrderRepository;
 import com.vynlotaste.repository.ProductRepository;
 import com.vynlotaste.repository.UserRepository;
+import com.vynlotaste.search.ProductFacetPage;
+import com.vynlotaste.search.ProductFilter;
+import com.vynlotaste.search.ProductSearchIndex;
 import com.vynlotaste.specification.OrderSpecifications;
 import com.vynlotaste.specification.ProductSpecifications;
 import com.vynlotaste.specification.UserSpecifications;
@@ -17,13 +27,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -34,6 +50,13 @@ public class DynamicQueryService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
+    private final ActiveOrderIndex activeOrderIndex;
+    private final ApproximateCounter approximateCounter;
+    private final OrderListQuery orderListQuery;
+    private final ProductSearchIndex productSearchIndex;
+
+    private static final Set<Order.OrderStatus> PENDING_STATUSES =
+        EnumSet.of(Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
 
     // User queries
     @Cacheable(value = "userQueries", key = "#role + '_' + #active + '_' + #emailVerified")
@@ -55,6 +78,26 @@ public class DynamicQueryService {
         return userRepository.findAll(spec, pageable);
     }
 
+    /**
+     * Mesma busca de {@link #findUsers} paginada por cursor em (created_at, id), sem COUNT.
+     */
+    public CursorPage<User> scrollUsers(UserRole role, Boolean active, Boolean emailVerified,
+                                        LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                        String emailContains, String nameContains, String phone,
+                                        String cursor, int size, boolean includeTotal) {
+        
+        Specification<User> spec = UserSpecifications.buildDynamicQuery(
+            role, active, emailVerified, createdAfter, createdBefore,
+            emailContains, nameContains, phone
+        );
+        
+        Long total = includeTotal
+            ? approximateCounter.countFiltered("users", Arrays.asList(role, active, emailVerified, createdAfter,
+                createdBefore, emailContains, nameContains, phone), () -> userRepository.count(spec))
+            : null;
+        return CursorPage.of(scroll(userRepository, spec, cursor, size), total);
+    }
+
     public List<User> findActiveUsersByRole(UserRole role) {
         Specification<User> spec = Specification
             .where(UserSpecifications.hasRole(role))
@@ -71,7 +114,11 @@ public class DynamicQueryService {
     }
 
     // Product queries
-    @Cacheable(value = "productQueries", key = "#category + '_' + #available + '_' + #minPrice + '_' + #maxPrice")
+    /**
+     * Atendida pelo índice de facetas em memória ({@link ProductSearchIndex}); só o filtro de
+     * estoque, que o índice não acompanha, e ordenações fora de id, name, createdAt e price vão
+     * ao banco.
+     */
     public Page<Product> findProducts(String category, Boolean available, 
                                      BigDecimal minPrice, BigDecimal maxPrice,
                                      String nameContains, String descriptionContains,
@@ -81,15 +128,73 @@ public class DynamicQueryService {
         
         log.debug("Finding products with filters - category: {}, available: {}, page: {}", category, available, page);
         
+        Sort sort = createSort(sortBy, sortDirection);
+        Pageable pageable = PageRequest.of(page, size, sort);
+        
+        if (minStock == null && productSearchIndex.canSort(sort)) {
+            ProductFilter filter = new ProductFilter(category, available, minPrice, maxPrice,
+                nameContains, descriptionContains, ingredientContains, vegan, vegetarian, glutenFree);
+            return productSearchIndex.filter(filter, pageable, false).products();
+        }
+        
         Specification<Product> spec = ProductSpecifications.buildDynamicQuery(
             category, available, minPrice, maxPrice, nameContains, descriptionContains,
             minStock, vegan, vegetarian, glutenFree, ingredientContains
         );
         
+        return productRepository.findAll(spec, pageable);
+    }
+
+    /**
+     * Mesma busca de {@link #findProducts} (sem o filtro de estoque) com as contagens por faceta
+     * para a barra lateral, tudo numa passada pelo índice em memória.
+     */
+    public ProductFacetPage findProductsWithFacets(String category, Boolean available,
+                                                   BigDecimal minPrice, BigDecimal maxPrice,
+                                                   String nameContains, String descriptionContains,
+                                                   Boolean vegan, Boolean vegetarian,
+                                                   Boolean glutenFree, String ingredientContains,
+                                                   int page, int size, String sortBy, String sortDirection) {
+        
+        ProductFilter filter = new ProductFilter(category, available, minPrice, maxPrice,
+            nameContains, descriptionContains, ingredientContains, vegan, vegetarian, glutenFree);
         Sort sort = createSort(sortBy, sortDirection);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return productRepository.findAll(spec, pageable);
+        if (productSearchIndex.canSort(sort)) {
+            return productSearchIndex.filter(filter, pageable, true);
+        }
+        
+        // Ordenação que o índice não tem: a página vem do banco, as contagens continuam do índice
+        Specification<Product> spec = ProductSpecifications.buildDynamicQuery(
+            category, available, minPrice, maxPrice, nameContains, descriptionContains,
+            null, vegan, vegetarian, glutenFree, ingredientContains
+        );
+        Map<String, Map<String, Integer>> facets = productSearchIndex.facetCounts(filter);
+        return new ProductFacetPage(productRepository.findAll(spec, pageable), facets);
+    }
+
+    /**
+     * Mesma busca de {@link #findProducts} paginada por cursor em (created_at, id), sem COUNT.
+     */
+    public CursorPage<Product> scrollProducts(String category, Boolean available,
+                                              BigDecimal minPrice, BigDecimal maxPrice,
+                                              String nameContains, String descriptionContains,
+                                              Integer minStock, Boolean vegan, Boolean vegetarian,
+                                              Boolean glutenFree, String ingredientContains,
+                                              String cursor, int size, boolean includeTotal) {
+        
+        Specification<Product> spec = ProductSpecifications.buildDynamicQuery(
+            category, available, minPrice, maxPrice, nameContains, descriptionContains,
+            minStock, vegan, vegetarian, glutenFree, ingredientContains
+        );
+        
+        Long total = includeTotal
+            ? approximateCounter.countFiltered("products", Arrays.asList(category, available, minPrice, maxPrice,
+                nameContains, descriptionContains, minStock, vegan, vegetarian, glutenFree, ingredientContains),
+                () -> productRepository.count(spec))
+            : null;
+        return CursorPage.of(scroll(productRepository, spec, cursor, size), total);
     }
 
     public List<Product> findAvailableProductsByCategory(String category) {
@@ -127,7 +232,7 @@ public class DynamicQueryService {
 
     // Order queries
     @Cacheable(value = "orderQueries", key = "#status + '_' + #type + '_' + #customerId + '_' + #createdAfter")
-    public Page<Order> findOrders(Order.OrderStatus status, Order.OrderType type,
+    public Page<OrderListItem> findOrders(Order.OrderStatus status, Order.OrderType type,
                                  Long customerId, String customerEmail,
                                  LocalDateTime createdAfter, LocalDateTime createdBefore,
                                  BigDecimal minAmount, BigDecimal maxAmount,
@@ -144,7 +249,31 @@ public class DynamicQueryService {
         Sort sort = createSort(sortBy, sortDirection);
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        return orderRepository.findAll(spec, pageable);
+        return orderListQuery.findPage(spec, pageable);
+    }
+
+    /**
+     * Mesma busca de {@link #findOrders} paginada por cursor em (created_at, id), sem COUNT;
+     * o custo de uma página funda é o mesmo da primeira.
+     */
+    public CursorPage<OrderListItem> scrollOrders(Order.OrderStatus status, Order.OrderType type,
+                                          Long customerId, String customerEmail,
+                                          LocalDateTime createdAfter, LocalDateTime createdBefore,
+                                          BigDecimal minAmount, BigDecimal maxAmount,
+                                          String orderNumber, String deliveryAddress,
+                                          String cursor, int size, boolean includeTotal) {
+        
+        Specification<Order> spec = OrderSpecifications.buildDynamicQuery(
+            status, type, customerId, customerEmail, createdAfter, createdBefore,
+            minAmount, maxAmount, orderNumber, deliveryAddress
+        );
+        
+        Long total = includeTotal
+            ? approximateCounter.countFiltered("orders", Arrays.asList(status, type, customerId, customerEmail,
+                createdAfter, createdBefore, minAmount, maxAmount, orderNumber, deliveryAddress),
+                () -> orderRepository.count(spec))
+            : null;
+        return CursorPage.of(orderListQuery.scroll(spec, KeysetCursor.decode(cursor), KeysetCursor.limit(size)), total);
     }
 
     public List<Order> findOrdersByCustomer(Long customerId, Order.OrderStatus status) {
@@ -164,13 +293,15 @@ public class DynamicQueryService {
         return orderRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "createdAt"));
     }
 
-    public List<Order> findPendingOrders() {
-        Specification<Order> spec = OrderSpecifications.isPendingOrConfirmed();
+    public List<ActiveOrder> findPendingOrders() {
+        if (activeOrderIndex.isReady()) {
+            return activeOrderIndex.findByStatuses(PENDING_STATUSES, EnumSet.allOf(Order.OrderType.class));
+        }
         
-        return orderRepository.findAll(spec, Sort.by("createdAt"));
+        return orderRepository.findActiveOrderViewsByStatuses(PENDING_STATUSES);
     }
 
-    public List<Order> findDeliveryOrders(Order.OrderStatus status) {
+    public List<OrderListItem> findDeliveryOrders(Order.OrderStatus status) {
         Specification<Order> spec = Specification
             .where(OrderSpecifications.isDeliveryType());
         
@@ -178,13 +309,13 @@ public class DynamicQueryService {
             spec = spec.and(OrderSpecifications.hasStatus(status));
         }
         
-        return orderRepository.findAll(spec, Sort.by("createdAt"));
+        return orderListQuery.findAll(spec, Sort.by("createdAt"));
     }
 
-    public List<Order> findHighValueOrders(BigDecimal minAmount) {
+    public List<OrderListItem> findHighValueOrders(BigDecimal minAmount) {
         Specification<Order> spec = OrderSpecifications.totalAmountGreaterThan(minAmount);
         
-        return orderRepository.findAll(spec, Sort.by(Sort.Direction.DESC, "totalAmount"));
+        return orderListQuery.findAll(spec, Sort.by(Sort.Direction.DESC, "totalAmount"));
     }
 
     // Complex combined queries
@@ -221,6 +352,13 @@ public class DynamicQueryService {
     }
 
     // Utility methods
+    private <T> Window<T> scroll(JpaSpecificationExecutor<T> repository, Specification<T> spec, String cursor, int size) {
+        return repository.<T, Window<T>>findBy(spec, query -> query
+            .sortBy(KeysetCursor.SORT)
+            .limit(KeysetCursor.limit(size))
+            .scroll(KeysetCursor.decode(cursor)));
+    }
+
     private Sort createSort(String sortBy, String sortDirection) {
         if (sortBy == null || sortBy.trim().isEmpty()) {
             return Sort.by(Sort.Direction.DESC, "createdAt");
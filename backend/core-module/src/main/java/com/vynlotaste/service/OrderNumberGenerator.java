@@ -0,0 +1,146 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.config.VynloProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de números de pedido no estilo Snowflake.
+ * <p>
+ * Layout do long (63 bits úteis): 41 bits de milissegundos desde {@link #EPOCH_MILLIS},
+ * 10 bits de nó e 12 bits de sequência. O estado (timestamp + sequência) fica em um único
+ * {@link AtomicLong} atualizado por CAS, sem locks. Se a sequência estourar dentro do mesmo
+ * milissegundo, ou o relógio voltar, o gerador avança logicamente para o milissegundo seguinte
+ * em vez de esperar, mantendo os códigos estritamente crescentes por nó.
+ * <p>
+ * O código externo é o long em base 32 Crockford com largura fixa de 13 caracteres: sem
+ * letras ambíguas, case-insensitive e fácil de digitar em comandos de WhatsApp/SMS. A largura
+ * fixa faz a ordem lexicográfica coincidir com a ordem de criação.
+ */
+@Component
+public class OrderNumberGenerator {
+
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH_MILLIS = 1704067200000L;
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    static final int CODE_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = i;
+        }
+        // Substituições do Crockford para erros de digitação comuns
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = 1;
+        DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    private final long nodeId;
+
+    // (timestamp relativo << SEQUENCE_BITS) | sequência do último id emitido
+    private final AtomicLong lastState = new AtomicLong();
+
+    public OrderNumberGenerator(VynloProperties properties) {
+        this(requireNodeId(properties.getOrderNumber().getNodeId()));
+    }
+
+    OrderNumberGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    private static long requireNodeId(Integer nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException("vynlo.order-number.node-id must be set to a value unique per instance");
+        }
+        return nodeId;
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        long candidate = now << SEQUENCE_BITS;
+
+        while (true) {
+            long last = lastState.get();
+            long next = candidate > last ? candidate : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public String nextOrderNumber() {
+        return encode(nextId());
+    }
+
+    public static String encode(long id) {
+        char[] code = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(code);
+    }
+
+    /**
+     * Decodifica um código digitado pelo usuário, ignorando hífens e espaços.
+     *
+     * @return o id, ou -1 se o texto não for um código válido deste gerador
+     */
+    public static long decode(String code) {
+        if (code == null) {
+            return -1;
+        }
+
+        long id = 0;
+        int digits = 0;
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0 || ++digits > CODE_LENGTH) {
+                return -1;
+            }
+            // 13 x 5 = 65 bits: o primeiro dígito só carrega os 3 bits mais altos do long positivo
+            if (digits == 1 && value > 7) {
+                return -1;
+            }
+            id = (id << 5) | value;
+        }
+        return digits == CODE_LENGTH ? id : -1;
+    }
+
+    /**
+     * Forma canônica (maiúscula, sem separadores e sem letras ambíguas) de um código, ou
+     * {@code null} se o texto não for um código deste gerador.
+     */
+    public static String normalize(String code) {
+        long id = decode(code);
+        return id < 0 ? null : encode(id);
+    }
+
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    public static long nodeOf(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+}
@@ -1,28 +1,44 @@
 package com.vynlotaste.service;
 
+import com.vynlotaste.board.ActiveOrder;
+import com.vynlotaste.board.ActiveOrderIndex;
 import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.config.VynloProperties;
 import com.vynlotaste.dto.order.OrderRequestDto;
 import com.vynlotaste.entity.*;
 import com.vynlotaste.exception.order.OrderValidationException;
 import com.vynlotaste.exception.user.UserNotFoundException;
-import com.vynlotaste.exception.product.ProductOutOfStockException;
-import com.vynlotaste.exception.payment.PaymentFailedException;
+import com.vynlotaste.exception.BaseException;
 import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.InsufficientStockException;
 import com.vynlotaste.exception.ErrorCode;
 import com.vynlotaste.repository.*;
-import com.vynlotaste.event.EventPublisher;
 import com.vynlotaste.event.OrderEvent;
+import com.vynlotaste.event.OrderStatusBatchChangedEvent;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import com.vynlotaste.inventory.StockHoldService;
+import com.vynlotaste.inventory.StockReservationService;
 import com.vynlotaste.notification.NotificationService;
+import com.vynlotaste.outbox.OutboxService;
+import com.vynlotaste.pagination.ApproximateCounter;
+import com.vynlotaste.pagination.CursorPage;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.projection.OrderHistoryEntry;
+import com.vynlotaste.projection.OrderListItem;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
@@ -38,8 +54,17 @@ import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -50,11 +75,22 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
-    private final ProductRepository productRepository;
-    private final EventPublisher eventPublisher;
+    private final ProductService productService;
+    private final OutboxService outboxService;
     private final MeterRegistry meterRegistry;
-    private final PaymentService paymentService;
     private final NotificationService notificationService;
+    private final StockReservationService stockReservationService;
+    private final StockHoldService stockHoldService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final ActiveOrderIndex activeOrderIndex;
+    private final CacheManager cacheManager;
+    private final ApproximateCounter approximateCounter;
+    private final OrderListQuery orderListQuery;
+    private final ProcessOrderFunction processOrderFunction;
+    private final ArchivedOrderQuery archivedOrderQuery;
+    private final VynloProperties properties;
+    
+    static final int MAX_STATUS_BATCH_SIZE = 200;
     
     private Counter orderCreatedCounter;
     private Counter orderCancelledCounter;
@@ -74,8 +110,10 @@ public class OrderService {
     }
 
     @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.READ_COMMITTED)
-    @CacheEvict(value = {CacheConfig.ORDERS_CACHE, CacheConfig.USERS_CACHE}, allEntries = true)
-    @Retryable(value = {Exception.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.ORDERS_CACHE, key = "'user:' + #result.customer.id"),
+        @CacheEvict(value = CacheConfig.USERS_CACHE, allEntries = true)
+    })
     public Order createOrder(@Valid @NotNull OrderRequestDto orderRequest) {
         Timer.Sample sample = Timer.start(meterRegistry);
         
@@ -85,25 +123,46 @@ public class OrderService {
             // Validações de negócio
             validateOrderRequest(orderRequest);
             
-            // Buscar cliente
-            User customer = userRepository.findById(orderRequest.getCustomerId())
-                .orElseThrow(() -> new UserNotFoundException(orderRequest.getCustomerId()));
+            boolean databaseFunction = properties.getOrderPlacement().getStrategy()
+                == VynloProperties.OrderPlacement.Strategy.DATABASE_FUNCTION;
+            
+            // Buscar cliente (na função, a existência é conferida pelo próprio process_order)
+            User customer = databaseFunction
+                ? userRepository.getReferenceById(orderRequest.getCustomerId())
+                : userRepository.findById(orderRequest.getCustomerId())
+                    .orElseThrow(() -> new UserNotFoundException(orderRequest.getCustomerId()));
             
             // Criar pedido
-            Order order = buildOrder(orderRequest, customer);
+            Order order = buildOrder(orderRequest, customer, generateOrderNumber());
             
-            // Validar e adicionar itens
-            addItemsToOrder(order, orderRequest.getItems());
+            // Validar e adicionar itens (uma única resolução em lote: cache primeiro, depois uma consulta multi-id)
+            Map<Long, Product> products = productService.findAllByIds(productIdsOf(orderRequest.getItems()));
+            addItemsToOrder(order, orderRequest.getItems(), products);
             
-            // Calcular total
-            BigDecimal calculatedTotal = calculateTotal(order.getItems());
-            order.setTotalAmount(calculatedTotal);
+            Order savedOrder;
+            if (databaseFunction) {
+                // Uma ida ao banco: revalida com os produtos travados, reserva estoque, grava e totaliza
+                processOrderFunction.place(order);
+                stockReservationService.evictProducts(products.keySet());
+                savedOrder = order;
+            } else {
+                // Reservar estoque (updates condicionais em lote; falha desfaz o pedido inteiro)
+                stockReservationService.reserve(StockReservationService.quantitiesByProduct(order.getItems()));
+                
+                // Calcular total
+                order.setTotalAmount(calculateTotal(order.getItems()));
+                
+                // Salvar pedido
+                savedOrder = orderRepository.save(order);
+            }
+            BigDecimal calculatedTotal = savedOrder.getTotalAmount();
             
-            // Salvar pedido
-            Order savedOrder = orderRepository.save(order);
+            // Segurar o estoque até a confirmação (expira e cancela o pedido após o TTL)
+            stockHoldService.place(savedOrder);
             
-            // Publicar evento
-            eventPublisher.publishEvent(new OrderEvent("ORDER_CREATED", savedOrder.getId(), customer.getId()));
+            // Registrar evento no outbox (mesma transação do pedido)
+            outboxService.append(new OrderEvent("ORDER_CREATED", savedOrder.getId(), customer.getId()), savedOrder.getId());
+            appendStatusChange(savedOrder, null);
             
             // Métricas
             orderCreatedCounter.increment();
@@ -121,85 +180,343 @@ public class OrderService {
         }
     }
 
+    /**
+     * Cria um lote de pedidos na transação do chamador (ingestão assíncrona). Clientes e produtos
+     * são resolvidos uma vez para o lote inteiro, os pedidos saem em inserts JDBC em lote e o
+     * cache é invalidado uma vez por lote. Um pedido inválido ou sem estoque é rejeitado sozinho,
+     * sem desfazer os demais.
+     *
+     * @param requestsByOrderNumber requisições indexadas pelo número já reservado para o pedido
+     * @return o resultado de cada requisição, na mesma ordem
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, BatchOrderResult> createOrdersInBatch(@NotNull Map<String, OrderRequestDto> requestsByOrderNumber) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (OrderRequestDto request : requestsByOrderNumber.values()) {
+            customerIds.add(request.getCustomerId());
+            if (request.getItems() != null) {
+                productIds.addAll(productIdsOf(request.getItems()));
+            }
+        }
+        
+        Map<Long, User> customers = userRepository.findAllById(customerIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Product> products = productService.findAllByIds(productIds);
+        // Produtos travados em ordem de ID antes das reservas de cada pedido
+        stockReservationService.lockProducts(productIds);
+        
+        Map<String, BatchOrderResult> results = new LinkedHashMap<>();
+        List<Order> accepted = new ArrayList<>();
+        for (Map.Entry<String, OrderRequestDto> entry : requestsByOrderNumber.entrySet()) {
+            OrderRequestDto request = entry.getValue();
+            try {
+                validateOrderRequest(request);
+                User customer = customers.get(request.getCustomerId());
+                if (customer == null) {
+                    throw new UserNotFoundException(request.getCustomerId());
+                }
+                
+                Order order = buildOrder(request, customer, entry.getKey());
+                addItemsToOrder(order, request.getItems(), products);
+                
+                List<Long> rejected = stockReservationService.tryReserve(
+                    StockReservationService.quantitiesByProduct(order.getItems()));
+                if (!rejected.isEmpty()) {
+                    throw new InsufficientStockException("Insufficient stock for products: " + rejected);
+                }
+                
+                order.setTotalAmount(calculateTotal(order.getItems()));
+                accepted.add(order);
+                results.put(entry.getKey(), BatchOrderResult.accepted(order));
+            } catch (BaseException e) {
+                log.debug("Order {} rejected in batch: {}", entry.getKey(), e.getMessage());
+                results.put(entry.getKey(), BatchOrderResult.rejected(e.getMessage()));
+            }
+        }
+        
+        // Inserts em lote (ids por sequência com allocationSize; hibernate.jdbc.batch_size)
+        orderRepository.saveAll(accepted);
+        
+        Set<Long> affectedCustomers = new HashSet<>();
+        for (Order order : accepted) {
+            stockHoldService.place(order);
+            outboxService.append(new OrderEvent("ORDER_CREATED", order.getId(), order.getCustomer().getId()), order.getId());
+            appendStatusChange(order, null);
+            affectedCustomers.add(order.getCustomer().getId());
+        }
+        orderCreatedCounter.increment(accepted.size());
+        
+        // Uma invalidação por lote em vez de uma por pedido
+        if (!accepted.isEmpty()) {
+            affectedCustomers.forEach(this::evictCustomerOrders);
+            Cache usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+            if (usersCache != null) {
+                usersCache.clear();
+            }
+        }
+        
+        sample.stop(orderProcessingTimer);
+        log.info("Order batch processed: {} accepted, {} rejected",
+            accepted.size(), requestsByOrderNumber.size() - accepted.size());
+        return results;
+    }
+
     @Cacheable(value = CacheConfig.ORDERS_CACHE, key = "'order:' + #id")
     public Order getOrderById(@NotNull @Positive Long id) {
         log.debug("Fetching order by ID: {}", id);
+        // Pedido já arquivado: lido do arquivo, somente leitura
         return orderRepository.findById(id)
+            .or(() -> archivedOrderQuery.findById(id))
             .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order not found with ID: " + id));
     }
 
+    // Mudanças de status só valem para a tabela quente: pedidos arquivados já estão finalizados
+    private Order loadOrder(Long id) {
+        return orderRepository.findById(id)
+            .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order not found with ID: " + id));
+    }
+
+    /**
+     * Busca por código de pedido. Códigos Snowflake são normalizados para a forma canônica
+     * (maiúsculas, sem separadores) antes da busca pelo índice de order_number; números no
+     * formato antigo ("ORD-...") são buscados como vieram.
+     */
+    public Order findByOrderNumber(@NotNull String orderNumber) {
+        log.debug("Fetching order by number: {}", orderNumber);
+        
+        long id = OrderNumberGenerator.decode(orderNumber);
+        String number = id >= 0 ? OrderNumberGenerator.encode(id) : orderNumber.trim();
+        Order order = orderRepository.findByOrderNumber(number);
+        if (order == null) {
+            order = archivedOrderQuery.findByOrderNumber(number)
+                .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order not found with number: " + orderNumber));
+        }
+        return order;
+    }
+
     @Cacheable(value = CacheConfig.ORDERS_CACHE, key = "'user:' + #userId")
-    public List<Order> getOrdersByUser(@NotNull @Positive Long userId) {
+    public List<OrderListItem> getOrdersByUser(@NotNull @Positive Long userId) {
         log.debug("Fetching orders for user: {}", userId);
         
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException(userId);
-        }
+        User customer = userRepository.findById(userId)
+            .orElseThrow(() -> new UserNotFoundException(userId));
         
-        return orderRepository.findByCustomerId(userId);
+        // Projeção da view de histórico: inclui os pedidos arquivados, sem carregar itens de cada pedido
+        return orderRepository.findAllHistoryByCustomerId(userId).stream()
+            .map(entry -> toListItem(entry, customer))
+            .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    @Cacheable(value = CacheConfig.ORDERS_CACHE, key = "'status:' + #status.name()")
-    public List<Order> getOrdersByStatus(@NotNull Order.OrderStatus status) {
+    private static OrderListItem toListItem(OrderHistoryEntry entry, User customer) {
+        return new OrderListItem(entry.getId(), entry.getOrderNumber(), entry.getStatus(), entry.getType(),
+            entry.getTotalAmount(), entry.getDeliveryAddress(), entry.getCreatedAt(), entry.getUpdatedAt(),
+            customer.getId(), customer.getEmail(), customer.getFirstName(), customer.getLastName(),
+            entry.getItemCount() != null ? entry.getItemCount().intValue() : 0);
+    }
+
+    public List<ActiveOrder> getOrdersByStatus(@NotNull Order.OrderStatus status) {
         log.debug("Fetching orders by status: {}", status);
-        return orderRepository.findByStatus(status);
+        // Status em andamento vêm do índice em memória; finalizados continuam no banco
+        if (ActiveOrderIndex.ACTIVE_STATUSES.contains(status) && activeOrderIndex.isReady()) {
+            return activeOrderIndex.findByStatus(status);
+        }
+        return orderRepository.findActiveOrderViewsByStatus(status);
     }
 
+    /**
+     * Muda o status com um UPDATE condicional ({@code WHERE id = ? AND status = ?}) em vez de
+     * salvar a entidade pelo {@code @Version}. Se outro usuário mudar o status entre a leitura e
+     * o UPDATE, a transição é reavaliada a partir do novo status; como o fluxo só anda para
+     * frente, isso termina em poucas voltas. Só aceita transições manuais: PENDING_PAYMENT só é
+     * alcançado e deixado por {@link #applyPaymentStatus}.
+     */
     @Transactional(propagation = Propagation.REQUIRED)
     @CachePut(value = CacheConfig.ORDERS_CACHE, key = "'order:' + #result.id")
-    @CacheEvict(value = CacheConfig.ORDERS_CACHE, key = "'recent'")
-    @Retryable(value = {Exception.class}, maxAttempts = 2, backoff = @Backoff(delay = 500))
     public Order updateOrderStatus(@NotNull @Positive Long orderId, @NotNull Order.OrderStatus newStatus) {
+        return changeStatus(orderId, newStatus, false);
+    }
+
+    /**
+     * Mesma mudança de {@link #updateOrderStatus}, restrita às transições da saga de pagamento
+     * (entrada em PENDING_PAYMENT e a decisão do gateway). Usada só pelo {@link PaymentOrchestrator}.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    @CachePut(value = CacheConfig.ORDERS_CACHE, key = "'order:' + #result.id")
+    public Order applyPaymentStatus(@NotNull @Positive Long orderId, @NotNull Order.OrderStatus newStatus) {
+        return changeStatus(orderId, newStatus, true);
+    }
+
+    private Order changeStatus(Long orderId, Order.OrderStatus newStatus, boolean paymentFlow) {
         log.info("Updating order status: {} to {}", orderId, newStatus);
         
-        Order order = getOrderById(orderId);
-        Order.OrderStatus oldStatus = order.getStatus();
-        
-        // Validar transição de status
-        validateStatusTransition(oldStatus, newStatus);
+        Order.OrderStatus oldStatus;
+        do {
+            oldStatus = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order not found with ID: " + orderId));
+            if (paymentFlow) {
+                OrderStateMachine.validatePaymentTransition(oldStatus, newStatus);
+            } else {
+                OrderStateMachine.validateTransition(oldStatus, newStatus);
+            }
+        } while (orderRepository.compareAndSetStatus(orderId, oldStatus, newStatus, LocalDateTime.now()) == 0);
         
-        order.setStatus(newStatus);
-        Order savedOrder = orderRepository.save(order);
+        Order order = loadOrder(orderId);
         
-        // Publicar evento
-        eventPublisher.publishEvent(new OrderEvent("ORDER_STATUS_UPDATED", orderId, order.getCustomer().getId()));
+        if (newStatus == Order.OrderStatus.CONFIRMED) {
+            stockHoldService.commit(orderId);
+        } else if (newStatus == Order.OrderStatus.CANCELLED) {
+            stockReservationService.release(StockReservationService.quantitiesByProduct(order.getItems()));
+            stockHoldService.release(orderId);
+        }
         
-        // Enviar notificação
-        sendNotification(savedOrder, "Status atualizado para: " + newStatus.name());
+        // Registrar evento no outbox (mesma transação da mudança de status)
+        outboxService.append(new OrderEvent("ORDER_STATUS_UPDATED", orderId, order.getCustomer().getId()), orderId);
+        // Quadro ao vivo, webhooks e notificação ao cliente saem do OrderStatusChangedEvent após o commit
+        appendStatusChange(order, oldStatus);
+        evictCustomerOrders(order.getCustomer().getId());
         
         log.info("Order status updated: {} from {} to {}", orderId, oldStatus, newStatus);
-        return savedOrder;
+        return order;
     }
 
+    /**
+     * Avança vários pedidos para o mesmo status em um único UPDATE e uma única transação (ex.: a
+     * cozinha marcando um lote como READY). Pedidos cujo status atual não permite a transição
+     * são ignorados; o retorno traz apenas os que mudaram. Gera um único evento agregado.
+     */
     @Transactional(propagation = Propagation.REQUIRED)
-    @CacheEvict(value = CacheConfig.ORDERS_CACHE, allEntries = true)
+    public List<ActiveOrder> updateOrderStatuses(@NotNull Collection<Long> orderIds, @NotNull Order.OrderStatus newStatus) {
+        if (orderIds.isEmpty() || orderIds.size() > MAX_STATUS_BATCH_SIZE) {
+            throw new OrderValidationException("Batch must contain between 1 and " + MAX_STATUS_BATCH_SIZE + " orders");
+        }
+        // Cancelamento devolve estoque e exige motivo: continua sendo por pedido
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            throw new OrderValidationException("Orders must be cancelled individually");
+        }
+        if (OrderStateMachine.isPaymentStatus(newStatus)) {
+            throw new OrderValidationException("Payment statuses are set by the payment flow");
+        }
+        
+        // Só transições manuais: CONFIRMED não inclui pedidos em PENDING_PAYMENT
+        Set<Order.OrderStatus> from = OrderStateMachine.predecessorsOf(newStatus);
+        if (from.isEmpty()) {
+            throw new OrderValidationException("No order can be moved to status " + newStatus);
+        }
+        
+        Map<Long, Order.OrderStatus> previousStatuses = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : orderRepository.transitionStatuses(
+                Set.copyOf(orderIds),
+                from.stream().map(Enum::name).toList(),
+                newStatus.name(),
+                LocalDateTime.now())) {
+            previousStatuses.put(((Number) row[0]).longValue(), Order.OrderStatus.valueOf((String) row[1]));
+            versions.put(((Number) row[0]).longValue(), ((Number) row[2]).longValue());
+        }
+        
+        if (previousStatuses.isEmpty()) {
+            log.info("Batch status update to {} changed no orders ({} requested)", newStatus, orderIds.size());
+            return List.of();
+        }
+        
+        List<ActiveOrder> updated = orderRepository.findActiveOrderViewsByIds(previousStatuses.keySet());
+        List<OrderStatusChangedEvent> changes = new ArrayList<>(updated.size());
+        for (ActiveOrder order : updated) {
+            if (newStatus == Order.OrderStatus.CONFIRMED) {
+                stockHoldService.commit(order.id());
+            }
+            changes.add(new OrderStatusChangedEvent(
+                order.id(),
+                previousStatuses.get(order.id()).name(),
+                newStatus.name(),
+                order.customerId(),
+                order.orderNumber(),
+                order.type().name(),
+                order.totalAmount(),
+                order.createdAt(),
+                versions.get(order.id())
+            ));
+            evictCachedOrder(order.id());
+            evictCustomerOrders(order.customerId());
+        }
+        outboxService.append(new OrderStatusBatchChangedEvent(newStatus.name(), changes), null);
+        
+        log.info("Batch status update to {}: {} of {} orders changed", newStatus, updated.size(), orderIds.size());
+        return updated;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.ORDERS_CACHE, key = "'order:' + #orderId"),
+        @CacheEvict(value = CacheConfig.ORDERS_CACHE, key = "'user:' + #result.customer.id")
+    })
     public Order cancelOrder(@NotNull @Positive Long orderId, String reason) {
         log.info("Cancelling order: {} with reason: {}", orderId, reason);
         
-        Order order = getOrderById(orderId);
+        Order order = loadOrder(orderId);
         
         if (!order.canBeCancelled()) {
             throw new OrderValidationException("Order cannot be cancelled in status: " + order.getStatus());
         }
         
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setNotes(order.getNotes() + " | Cancelled: " + reason);
         
-        Order savedOrder = orderRepository.save(order);
+        // Devolver o estoque reservado na criação
+        stockReservationService.release(StockReservationService.quantitiesByProduct(order.getItems()));
+        stockHoldService.release(orderId);
+        
+        // Flush para o evento levar a versão já incrementada pelo cancelamento
+        Order savedOrder = orderRepository.saveAndFlush(order);
         
-        // Publicar evento
-        eventPublisher.publishEvent(new OrderEvent("ORDER_CANCELLED", orderId, order.getCustomer().getId()));
+        // Registrar evento no outbox (mesma transação do cancelamento)
+        outboxService.append(new OrderEvent("ORDER_CANCELLED", orderId, order.getCustomer().getId()), orderId);
+        appendStatusChange(savedOrder, previousStatus);
         
         // Métricas
         orderCancelledCounter.increment();
         
-        // Notificação
-        sendNotification(savedOrder, "Pedido cancelado: " + reason);
-        
         log.info("Order cancelled: {}", orderId);
         return savedOrder;
     }
 
+    /**
+     * Cancelamento por expiração (hold de estoque ou prazo de pagamento). Os holds são
+     * reconstruídos em todos os nós, então a mesma expiração pode disparar em mais de um: o
+     * cancelamento é um compare-and-set a partir de {@code expectedStatus} e só quem vencer
+     * devolve o estoque. Retorna {@code false} se o pedido já saiu desse status.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean expireOrder(@NotNull @Positive Long orderId, @NotNull Order.OrderStatus expectedStatus, String reason) {
+        if (orderRepository.compareAndSetStatus(orderId, expectedStatus, Order.OrderStatus.CANCELLED, LocalDateTime.now()) == 0) {
+            log.info("Order {} left {} before expiring; nothing to cancel", orderId, expectedStatus);
+            return false;
+        }
+        
+        Order order = loadOrder(orderId);
+        order.setNotes(order.getNotes() + " | Cancelled: " + reason);
+        
+        // Devolver o estoque reservado na criação
+        stockReservationService.release(StockReservationService.quantitiesByProduct(order.getItems()));
+        stockHoldService.release(orderId);
+        
+        Order savedOrder = orderRepository.saveAndFlush(order);
+        
+        outboxService.append(new OrderEvent("ORDER_CANCELLED", orderId, order.getCustomer().getId()), orderId);
+        appendStatusChange(savedOrder, expectedStatus);
+        evictCachedOrder(orderId);
+        evictCustomerOrders(order.getCustomer().getId());
+        
+        orderCancelledCounter.increment();
+        
+        log.info("Order expired and cancelled: {}", orderId);
+        return true;
+    }
+
     public BigDecimal calculateTotal(@NotNull List<OrderItem> items) {
         if (items == null || items.isEmpty()) {
             return BigDecimal.ZERO;
@@ -211,33 +528,6 @@ public class OrderService {
             .setScale(2, RoundingMode.HALF_UP);
     }
 
-    @Retryable(value = {PaymentFailedException.class}, maxAttempts = 3, backoff = @Backoff(delay = 2000))
-    public boolean processPayment(@NotNull Order order, @NotNull String paymentMethod) {
-        log.info("Processing payment for order: {} with method: {}", order.getId(), paymentMethod);
-        
-        try {
-            boolean paymentResult = paymentService.processPaymentSync(
-                order.getId().toString(), 
-                order.getTotalAmount(), 
-                paymentMethod
-            );
-            
-            if (paymentResult) {
-                updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED);
-                log.info("Payment processed successfully for order: {}", order.getId());
-            } else {
-                log.warn("Payment failed for order: {}", order.getId());
-                throw new PaymentFailedException(order.getId().toString(), "Payment processing failed");
-            }
-            
-            return paymentResult;
-            
-        } catch (Exception e) {
-            log.error("Payment processing error for order: {}", order.getId(), e);
-            throw new PaymentFailedException(order.getId().toString(), e.getMessage(), e);
-        }
-    }
-
     @Retryable(value = {Exception.class}, maxAttempts = 2, backoff = @Backoff(delay = 1000))
     public void sendNotification(@NotNull Order order, @NotNull String message) {
         try {
@@ -252,22 +542,39 @@ public class OrderService {
         }
     }
 
-    @Cacheable(value = CacheConfig.ORDERS_CACHE, key = "'recent'")
-    public List<Order> findRecentOrders() {
+    public List<ActiveOrder> findRecentOrders() {
         LocalDateTime since = LocalDateTime.now().minusHours(24);
         log.debug("Fetching recent orders since: {}", since);
-        return orderRepository.findByCreatedAtAfterOrderByCreatedAtDesc(since);
+        if (activeOrderIndex.isReady()) {
+            return activeOrderIndex.findCreatedSince(since);
+        }
+        return orderRepository.findByCreatedAtAfterOrderByCreatedAtDesc(since).stream()
+            .map(ActiveOrder::of)
+            .toList();
     }
 
     public Page<Order> findAllOrders(Pageable pageable) {
         return orderRepository.findAll(pageable);
     }
 
+    /**
+     * Alternativa a {@link #findAllOrders} por cursor em (created_at, id): sem OFFSET nem COUNT.
+     */
+    public CursorPage<OrderListItem> scrollOrders(String cursor, int size, boolean includeTotal) {
+        Window<OrderListItem> window = orderListQuery.scroll(null, KeysetCursor.decode(cursor), KeysetCursor.limit(size));
+        Long total = includeTotal ? approximateCounter.estimateTable("orders", orderRepository::count) : null;
+        return CursorPage.of(window, total);
+    }
+
     public List<Order> findByDateRange(LocalDateTime start, LocalDateTime end) {
         return orderRepository.findByCreatedAtBetween(start, end);
     }
 
-    private void validateOrderRequest(OrderRequestDto orderRequest) {
+    /**
+     * Validações de negócio que não dependem do banco; também usadas na aceitação de pedidos da
+     * ingestão assíncrona, antes de enfileirar.
+     */
+    public void validateOrderRequest(OrderRequestDto orderRequest) {
         if (orderRequest.getType() == Order.OrderType.DELIVERY && 
             (orderRequest.getDeliveryAddress() == null || orderRequest.getDeliveryAddress().trim().isEmpty())) {
             throw new OrderValidationException("Delivery address is required for delivery orders");
@@ -278,9 +585,9 @@ public class OrderService {
         }
     }
 
-    private Order buildOrder(OrderRequestDto orderRequest, User customer) {
+    private Order buildOrder(OrderRequestDto orderRequest, User customer, String orderNumber) {
         Order order = new Order();
-        order.setOrderNumber(generateOrderNumber());
+        order.setOrderNumber(orderNumber);
         order.setStatus(Order.OrderStatus.PENDING);
         order.setType(orderRequest.getType());
         order.setDeliveryAddress(orderRequest.getDeliveryAddress());
@@ -289,16 +596,18 @@ public class OrderService {
         return order;
     }
 
-    private void addItemsToOrder(Order order, List<OrderRequestDto.OrderItemRequestDto> itemRequests) {
+    private static Set<Long> productIdsOf(List<OrderRequestDto.OrderItemRequestDto> itemRequests) {
+        return itemRequests.stream()
+            .map(OrderRequestDto.OrderItemRequestDto::getProductId)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private void addItemsToOrder(Order order, List<OrderRequestDto.OrderItemRequestDto> itemRequests,
+                                 Map<Long, Product> products) {
+        validateOrderProducts(productIdsOf(itemRequests), products);
+        
         for (OrderRequestDto.OrderItemRequestDto itemRequest : itemRequests) {
-            Product product = productRepository.findById(itemRequest.getProductId())
-                .orElseThrow(() -> new BusinessException(ErrorCode.PRODUCT_NOT_FOUND, 
-                    "Product not found: " + itemRequest.getProductId()));
-            
-            // Verificar estoque
-            if (!hasStock(product.getId(), itemRequest.getQuantity())) {
-                throw new ProductOutOfStockException(product.getId(), itemRequest.getQuantity(), 0);
-            }
+            Product product = products.get(itemRequest.getProductId());
             
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(product);
@@ -312,23 +621,68 @@ public class OrderService {
         }
     }
 
-    private void validateStatusTransition(Order.OrderStatus from, Order.OrderStatus to) {
-        // Implementar regras de transição de status
-        if (from == Order.OrderStatus.CANCELLED || from == Order.OrderStatus.DELIVERED) {
-            throw new OrderValidationException("Cannot change status from " + from + " to " + to);
+    private void validateOrderProducts(Set<Long> productIds, Map<Long, Product> products) {
+        List<Long> missing = new ArrayList<>();
+        List<Long> unavailable = new ArrayList<>();
+        
+        for (Long productId : productIds) {
+            Product product = products.get(productId);
+            if (product == null || Boolean.TRUE.equals(product.getDeleted())) {
+                missing.add(productId);
+            } else if (!Boolean.TRUE.equals(product.getAvailable())) {
+                unavailable.add(productId);
+            }
+        }
+        
+        if (!missing.isEmpty() || !unavailable.isEmpty()) {
+            StringBuilder message = new StringBuilder("Invalid order items");
+            if (!missing.isEmpty()) {
+                message.append(" - products not found: ").append(missing);
+            }
+            if (!unavailable.isEmpty()) {
+                message.append(" - products unavailable: ").append(unavailable);
+            }
+            throw new OrderValidationException(message.toString());
         }
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    private void appendStatusChange(Order order, Order.OrderStatus previousStatus) {
+        OrderStatusChangedEvent event = new OrderStatusChangedEvent(
+            order.getId(),
+            previousStatus != null ? previousStatus.name() : null,
+            order.getStatus().name(),
+            order.getCustomer().getId(),
+            order.getOrderNumber(),
+            order.getType().name(),
+            order.getTotalAmount(),
+            order.getCreatedAt(),
+            order.getVersion()
+        );
+        outboxService.append(event, order.getId());
     }
 
-    private boolean hasStock(Long productId, int quantity) {
-        // Implementação simplificada - integrar com sistema de estoque
-        return true;
+    private void evictCachedOrder(Long orderId) {
+        Cache cache = cacheManager.getCache(CacheConfig.ORDERS_CACHE);
+        if (cache != null) {
+            cache.evict("order:" + orderId);
+        }
+    }
+
+    private void evictCustomerOrders(Long customerId) {
+        Cache cache = cacheManager.getCache(CacheConfig.ORDERS_CACHE);
+        if (cache != null) {
+            cache.evict("user:" + customerId);
+        }
+    }
+
+    private String generateOrderNumber() {
+        return orderNumberGenerator.nextOrderNumber();
     }
 
     public long countPendingOrders() {
+        if (activeOrderIndex.isReady()) {
+            return activeOrderIndex.countByStatus(Order.OrderStatus.PENDING);
+        }
         return orderRepository.countByStatus(Order.OrderStatus.PENDING);
     }
 
@@ -351,4 +705,23 @@ public class OrderService {
         LocalDateTime startOfDay = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
         return orderRepository.sumTotalAmountByCreatedAtAfter(startOfDay);
     }
-}
\ No newline at end of file
+
+    /**
+     * Resultado de uma requisição dentro de {@link #createOrdersInBatch}: o pedido salvo ou o
+     * motivo da rejeição.
+     */
+    public record BatchOrderResult(Order order, String rejectionReason) {
+
+        static BatchOrderResult accepted(Order order) {
+            return new BatchOrderResult(order, null);
+        }
+
+        static BatchOrderResult rejected(String reason) {
+            return new BatchOrderResult(null, reason);
+        }
+
+        public boolean isAccepted() {
+            return order != null;
+        }
+    }
+}
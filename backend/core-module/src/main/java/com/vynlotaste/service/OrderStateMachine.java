@@ -0,0 +1,124 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.entity.Order.OrderStatus;
+import com.vynlotaste.exception.order.OrderValidationException;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tabela de transições de status de pedido.
+ * <p>
+ * O fluxo anda para frente (PENDING → CONFIRMED → PREPARING → READY → DELIVERED), passando
+ * opcionalmente por PENDING_PAYMENT enquanto o gateway autoriza o pagamento; um pagamento
+ * recusado (PAYMENT_FAILED) pode ser tentado de novo. O cancelamento só é permitido antes do
+ * preparo e fora de uma autorização em andamento. Fora a nova tentativa de pagamento, que
+ * depende do gateway, o grafo não tem ciclos: um compare-and-set que perde a corrida pode
+ * reler o status e tentar de novo em poucas voltas.
+ * <p>
+ * As transições de entrada e saída de PENDING_PAYMENT pertencem à saga de pagamento
+ * ({@link PaymentOrchestrator}) e não valem para mudanças manuais de status:
+ * {@link #canTransition} e {@link #predecessorsOf} as excluem, {@link #canTransitionByPayment}
+ * só as aceita.
+ */
+public final class OrderStateMachine {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PAYMENT_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(OrderStatus.PENDING, EnumSet.of(OrderStatus.PENDING_PAYMENT, OrderStatus.CONFIRMED, OrderStatus.CANCELLED));
+        // Com a autorização em andamento só o callback do gateway decide o próximo status
+        TRANSITIONS.put(OrderStatus.PENDING_PAYMENT, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PAYMENT_FAILED));
+        TRANSITIONS.put(OrderStatus.PAYMENT_FAILED, EnumSet.of(OrderStatus.PENDING_PAYMENT, OrderStatus.CANCELLED));
+        TRANSITIONS.put(OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PREPARING, OrderStatus.CANCELLED));
+        TRANSITIONS.put(OrderStatus.PREPARING, EnumSet.of(OrderStatus.READY));
+        TRANSITIONS.put(OrderStatus.READY, EnumSet.of(OrderStatus.DELIVERED));
+        TRANSITIONS.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        for (OrderStatus status : OrderStatus.values()) {
+            PAYMENT_TRANSITIONS.put(status, EnumSet.noneOf(OrderStatus.class));
+            PREDECESSORS.put(status, EnumSet.noneOf(OrderStatus.class));
+        }
+        PAYMENT_TRANSITIONS.get(OrderStatus.PENDING).add(OrderStatus.PENDING_PAYMENT);
+        PAYMENT_TRANSITIONS.get(OrderStatus.PAYMENT_FAILED).add(OrderStatus.PENDING_PAYMENT);
+        PAYMENT_TRANSITIONS.get(OrderStatus.PENDING_PAYMENT).addAll(EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PAYMENT_FAILED));
+
+        TRANSITIONS.forEach((from, targets) -> targets.stream()
+            .filter(to -> canTransition(from, to))
+            .forEach(to -> PREDECESSORS.get(to).add(from)));
+    }
+
+    private OrderStateMachine() {
+    }
+
+    /**
+     * Status controlados apenas pela saga de pagamento ({@link PaymentOrchestrator}).
+     */
+    public static boolean isPaymentStatus(OrderStatus status) {
+        return status == OrderStatus.PENDING_PAYMENT || status == OrderStatus.PAYMENT_FAILED;
+    }
+
+    /**
+     * Minutos estimados, a partir da criação do pedido, para ele sair do status atual; 0 nos
+     * status sem previsão.
+     */
+    public static int estimatedMinutes(OrderStatus status) {
+        return switch (status) {
+            case PENDING, PENDING_PAYMENT -> 5;
+            case CONFIRMED -> 30;
+            case PREPARING -> 20;
+            case READY -> 10;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Se uma mudança manual (operador, cozinha, lote) pode levar o pedido de {@code from} a
+     * {@code to}.
+     */
+    public static boolean canTransition(OrderStatus from, OrderStatus to) {
+        return TRANSITIONS.get(from).contains(to) && !PAYMENT_TRANSITIONS.get(from).contains(to);
+    }
+
+    /**
+     * Se a saga de pagamento pode levar o pedido de {@code from} a {@code to}.
+     */
+    public static boolean canTransitionByPayment(OrderStatus from, OrderStatus to) {
+        return PAYMENT_TRANSITIONS.get(from).contains(to);
+    }
+
+    public static void validateTransition(OrderStatus from, OrderStatus to) {
+        if (!canTransition(from, to)) {
+            throw new OrderValidationException(canTransitionByPayment(from, to)
+                ? "Status " + to + " from " + from + " is set by the payment flow"
+                : "Cannot change status from " + from + " to " + to);
+        }
+    }
+
+    public static void validatePaymentTransition(OrderStatus from, OrderStatus to) {
+        if (!canTransitionByPayment(from, to)) {
+            throw new OrderValidationException("Payment flow cannot change status from " + from + " to " + to);
+        }
+    }
+
+    /**
+     * Todos os próximos status possíveis, manuais ou da saga de pagamento.
+     */
+    public static Set<OrderStatus> allowedFrom(OrderStatus from) {
+        return Collections.unmodifiableSet(TRANSITIONS.get(from));
+    }
+
+    /**
+     * Status a partir dos quais uma mudança manual chega a {@code to}; é o filtro do UPDATE em
+     * lote.
+     */
+    public static Set<OrderStatus> predecessorsOf(OrderStatus to) {
+        return Collections.unmodifiableSet(PREDECESSORS.get(to));
+    }
+}
@@ -0,0 +1,194 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.inventory.StockHoldService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Autorização de pagamento como uma saga assíncrona.
+ * <p>
+ * O pedido passa para PENDING_PAYMENT em uma transação curta, que faz o commit e devolve a
+ * conexão ao pool antes de o gateway ser chamado. A chamada roda no {@code paymentExecutor}
+ * (limitado) e o callback aplica CONFIRMED ou PAYMENT_FAILED em outra transação curta. Nenhuma
+ * conexão do banco fica presa esperando o gateway.
+ * <p>
+ * A autorização tem prazo ({@code vynlo.payment.authorization-timeout}). Se o gateway não
+ * responder a tempo, o pedido vai para PAYMENT_FAILED e é cancelado, o que devolve o estoque e
+ * libera o hold; uma aprovação que chegue depois disso é cancelada no gateway (void). A chamada
+ * ao gateway é uma tentativa única: uma recusa é final e nunca é repetida nem convertida em
+ * aprovação. Se o nó cair no meio da saga, o {@link StockHoldService} encontra o pedido vencido
+ * em PENDING_PAYMENT e chama {@link #expire}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentOrchestrator {
+
+    static final String TIMEOUT_REASON = "Pagamento não autorizado no prazo";
+
+    private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final MeterRegistry meterRegistry;
+    private final VynloProperties properties;
+
+    @Qualifier("paymentExecutor")
+    private final ThreadPoolTaskExecutor paymentExecutor;
+
+    private Timer authorizationTimer;
+    private Counter approvedCounter;
+    private Counter declinedCounter;
+    private Counter timedOutCounter;
+    private Counter lateApprovalCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        this.authorizationTimer = Timer.builder("vynlo.payments.authorization.time")
+            .description("Time from PENDING_PAYMENT to the gateway decision")
+            .register(meterRegistry);
+        this.approvedCounter = Counter.builder("vynlo.payments.authorizations")
+            .tag("outcome", "approved")
+            .description("Payment authorizations by outcome")
+            .register(meterRegistry);
+        this.declinedCounter = Counter.builder("vynlo.payments.authorizations")
+            .tag("outcome", "declined")
+            .description("Payment authorizations by outcome")
+            .register(meterRegistry);
+        this.timedOutCounter = Counter.builder("vynlo.payments.authorizations")
+            .tag("outcome", "timeout")
+            .description("Payment authorizations by outcome")
+            .register(meterRegistry);
+        this.lateApprovalCounter = Counter.builder("vynlo.payments.authorizations.voided")
+            .description("Gateway approvals voided because the order no longer awaited them")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.payments.executor.queued", paymentExecutor,
+                executor -> executor.getThreadPoolExecutor().getQueue().size())
+            .description("Payment gateway calls waiting for a thread")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a autorização e retorna assim que o pedido estiver em PENDING_PAYMENT; o status
+     * final é aplicado pelo callback e chega aos clientes pelo quadro de pedidos.
+     */
+    public Order authorize(Long orderId, String paymentMethod) {
+        // Transação curta: o commit libera a conexão antes da chamada ao gateway
+        Order order = orderService.applyPaymentStatus(orderId, Order.OrderStatus.PENDING_PAYMENT);
+        log.info("Payment authorization started for order: {} via {}", orderId, paymentMethod);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<Boolean> gatewayCall;
+        try {
+            // Uma tentativa só: recusa é final e não pode virar nova cobrança nem aprovação por fallback
+            gatewayCall = paymentService.authorizePayment(order.getOrderNumber(), order.getTotalAmount(), paymentMethod);
+        } catch (RuntimeException e) {
+            // Ex.: paymentExecutor lotado; o pedido não pode ficar preso em PENDING_PAYMENT
+            gatewayCall = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Boolean> call = gatewayCall;
+        // O prazo não interrompe a chamada ao gateway, só deixa de esperar por ela. O prazo vale
+        // sobre uma cópia para que a resposta tardia ainda seja observada em call
+        call.copy().orTimeout(properties.getPayment().getAuthorizationTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .handle((approved, error) -> {
+                sample.stop(authorizationTimer);
+                if (unwrap(error) instanceof TimeoutException) {
+                    log.warn("Payment gateway did not answer in time for order: {}", orderId);
+                    expire(orderId);
+                    // O pedido foi cancelado; uma aprovação que chegue depois precisa ser desfeita
+                    call.thenAccept(lateApproval -> {
+                        if (Boolean.TRUE.equals(lateApproval)) {
+                            voidLateApproval(order);
+                        }
+                    });
+                    return null;
+                }
+                if (error != null) {
+                    log.warn("Payment gateway error for order: {}", orderId, error);
+                }
+                boolean confirmed = error == null && Boolean.TRUE.equals(approved);
+                if (!complete(orderId, confirmed) && confirmed) {
+                    // A aprovação não virou CONFIRMED (ex.: o hold venceu e cancelou o pedido)
+                    voidLateApproval(order);
+                }
+                return null;
+            });
+        return order;
+    }
+
+    /**
+     * Encerra uma autorização que passou do prazo: PAYMENT_FAILED e cancelamento, que devolve o
+     * estoque. Não faz nada se o pedido já saiu de PENDING_PAYMENT.
+     */
+    public void expire(Long orderId) {
+        try {
+            orderService.applyPaymentStatus(orderId, Order.OrderStatus.PAYMENT_FAILED);
+            timedOutCounter.increment();
+        } catch (Exception e) {
+            // O callback do gateway chegou antes do prazo ser aplicado
+            log.info("Payment deadline for order {} not applied: {}", orderId, e.getMessage());
+            return;
+        }
+        try {
+            // Compare-and-set a partir de PAYMENT_FAILED: o pedido pode ter mudado desde então
+            if (orderService.expireOrder(orderId, Order.OrderStatus.PAYMENT_FAILED, TIMEOUT_REASON)) {
+                log.info("Payment authorization for order {} timed out; order cancelled", orderId);
+            }
+        } catch (Exception e) {
+            // PAYMENT_FAILED continua segurando o estoque até o hold expirar
+            log.error("Failed to cancel order {} after payment timeout", orderId, e);
+        }
+    }
+
+    private boolean complete(Long orderId, boolean approved) {
+        Order.OrderStatus status = approved ? Order.OrderStatus.CONFIRMED : Order.OrderStatus.PAYMENT_FAILED;
+        try {
+            orderService.applyPaymentStatus(orderId, status);
+            (approved ? approvedCounter : declinedCounter).increment();
+            log.info("Payment authorization for order {} finished: {}", orderId, status);
+            return true;
+        } catch (Exception e) {
+            // O pedido fica em PENDING_PAYMENT até o hold vencer e chamar expire
+            log.error("Failed to apply payment outcome {} to order: {}", status, orderId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Compensação: cancela no gateway uma aprovação que o pedido não vai usar. Se o void falhar,
+     * a cobrança precisa ser estornada manualmente.
+     */
+    private void voidLateApproval(Order order) {
+        lateApprovalCounter.increment();
+        log.warn("Payment for order {} approved after it was abandoned; voiding authorization", order.getOrderNumber());
+        CompletableFuture<Void> voidCall;
+        try {
+            voidCall = paymentService.voidAuthorization(order.getOrderNumber(), order.getTotalAmount());
+        } catch (RuntimeException e) {
+            voidCall = CompletableFuture.failedFuture(e);
+        }
+        voidCall.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("Failed to void late payment authorization for order {}; refund it manually",
+                    order.getOrderNumber(), error);
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
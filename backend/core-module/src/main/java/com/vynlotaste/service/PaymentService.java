@@ -7,6 +7,8 @@ import io.github.resilience4j.retry.annotation.Retry;
 import io.github.resilience4j.timelimiter.annotation.TimeLimiter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -17,6 +19,56 @@ import java.util.concurrent.CompletableFuture;
 @RequiredArgsConstructor
 public class PaymentService {
 
+    @Qualifier("paymentExecutor")
+    private final ThreadPoolTaskExecutor paymentExecutor;
+
+    /**
+     * Autorização usada pela saga de pagamento: uma única tentativa, sem retry e sem fallback.
+     * Uma recusa completa com {@code false} e é final; só erros de comunicação completam a
+     * future com exceção. Repetir a chamada ou aprovar por fallback cobraria o cliente de novo
+     * ou confirmaria um pedido que o gateway não aprovou.
+     */
+    public CompletableFuture<Boolean> authorizePayment(String paymentId, BigDecimal amount, String method) {
+        return CompletableFuture.supplyAsync(() -> {
+            log.info("Authorizing payment: {} for amount: {} via {}", paymentId, amount, method);
+
+            try {
+                // Simulação da chamada ao gateway
+                Thread.sleep(1000);
+
+                boolean approved = Math.random() > 0.1; // 90% aprovados
+                if (approved) {
+                    log.info("Payment authorized: {}", paymentId);
+                } else {
+                    log.info("Payment declined by gateway: {}", paymentId);
+                }
+                return approved;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentFailedException(paymentId, "Payment authorization interrupted", e);
+            }
+        }, paymentExecutor);
+    }
+
+    /**
+     * Cancela no gateway uma autorização que o pedido não vai mais usar (ex.: aprovada depois
+     * do prazo). Também sem retry nem fallback: uma falha precisa ser conciliada manualmente.
+     */
+    public CompletableFuture<Void> voidAuthorization(String paymentId, BigDecimal amount) {
+        return CompletableFuture.runAsync(() -> {
+            log.info("Voiding payment authorization: {} amount: {}", paymentId, amount);
+
+            try {
+                // Simulação da chamada ao gateway
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentFailedException(paymentId, "Payment void interrupted", e);
+            }
+        }, paymentExecutor);
+    }
+
     @CircuitBreaker(name = "payment", fallbackMethod = "processPaymentFallback")
     @Retry(name = "payment")
     @TimeLimiter(name = "payment")
@@ -42,7 +94,7 @@ public class PaymentService {
                 Thread.currentThread().interrupt();
                 throw new PaymentFailedException(paymentId, "Payment processing interrupted", e);
             }
-        });
+        }, paymentExecutor);
     }
 
     @CircuitBreaker(name = "payment", fallbackMethod = "refundPaymentFallback")
@@ -68,7 +120,7 @@ public class PaymentService {
                 Thread.currentThread().interrupt();
                 throw new PaymentFailedException(paymentId, "Refund processing interrupted", e);
             }
-        });
+        }, paymentExecutor);
     }
 
     // Fallback methods
@@ -92,16 +144,6 @@ public class PaymentService {
         return CompletableFuture.completedFuture(false);
     }
 
-    public boolean processPaymentSync(String paymentId, BigDecimal amount, String method) {
-        try {
-            CompletableFuture<Boolean> future = processPayment(paymentId, amount, method);
-            return future.get();
-        } catch (Exception e) {
-            log.error("Synchronous payment processing failed for: {}", paymentId, e);
-            return false;
-        }
-    }
-
     public boolean isPaymentGatewayAvailable() {
         try {
             // Simulação de health check
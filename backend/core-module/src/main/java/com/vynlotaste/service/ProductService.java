@@ -3,9 +3,17 @@ package com.vynlotaste.service;
 import com.vynlotaste.config.CacheConfig;
 import com.vynlotaste.dto.product.ProductRequestDto;
 import com.vynlotaste.entity.Product;
+import com.vynlotaste.event.ProductUpdatedEvent;
+import com.vynlotaste.inventory.StockReservationService;
+import com.vynlotaste.outbox.OutboxService;
+import com.vynlotaste.pagination.KeysetCursor;
 import com.vynlotaste.repository.ProductRepository;
+import com.vynlotaste.search.ProductSearchHit;
+import com.vynlotaste.search.ProductSearchIndex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
@@ -14,7 +22,12 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Slf4j
 @Service
@@ -23,6 +36,10 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final StockReservationService stockReservationService;
+    private final OutboxService outboxService;
+    private final ProductSearchIndex productSearchIndex;
 
     @CacheEvict(value = {CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCT_CATEGORIES_CACHE}, allEntries = true)
     public Product createProduct(ProductRequestDto productRequest) {
@@ -35,6 +52,7 @@ public class ProductService {
         product.setPreparationTime(productRequest.getPreparationTime());
         product.setStockQuantity(productRequest.getStockQuantity() != null ? productRequest.getStockQuantity() : 0);
         Product savedProduct = productRepository.save(product);
+        appendProductUpdated(savedProduct, "CREATED");
         log.debug("Produto criado e cache invalidado: {}", savedProduct.getId());
         return savedProduct;
     }
@@ -54,14 +72,69 @@ public class ProductService {
             .orElseThrow(() -> new RuntimeException("Produto não encontrado"));
     }
 
+    /**
+     * Resolve vários produtos de uma vez: primeiro consulta as entradas 'id:' do PRODUCTS_CACHE
+     * e carrega apenas os ausentes com uma única consulta multi-id, repovoando o cache.
+     * IDs inexistentes ou com soft delete simplesmente não aparecem no mapa retornado.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> findAllByIds(Collection<Long> ids) {
+        Map<Long, Product> resolved = new HashMap<>();
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        List<Long> misses = new ArrayList<>();
+
+        for (Long id : ids) {
+            Product cached = getCachedProduct(cache, id);
+            if (cached != null) {
+                resolved.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (Product product : productRepository.findAllById(misses)) {
+                resolved.put(product.getId(), product);
+                if (cache != null) {
+                    cache.put("id:" + product.getId(), product);
+                }
+            }
+        }
+
+        log.debug("Produtos resolvidos em lote: total={}, cache={}, banco={}",
+            ids.size(), ids.size() - misses.size(), misses.size());
+        return resolved;
+    }
+
+    // Mesma transação da alteração; o relay entrega depois do commit (snapshot do cardápio, webhooks)
+    private void appendProductUpdated(Product product, String updateType) {
+        outboxService.append(new ProductUpdatedEvent(product.getId(), product.getName(), product.getPrice(),
+            product.getStockQuantity(), product.getAvailable(), updateType), product.getId());
+    }
+
+    private Product getCachedProduct(Cache cache, Long id) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get("id:" + id, Product.class);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao ler produto {} do cache, buscando no banco", id, e);
+            return null;
+        }
+    }
+
     @CachePut(value = CacheConfig.PRODUCTS_CACHE, key = "'id:' + #result.id")
     @CacheEvict(value = CacheConfig.PRODUCT_CATEGORIES_CACHE, allEntries = true)
     public Product updateProduct(Long id, ProductRequestDto productRequest) {
         Product product = findById(id);
+        boolean priceChanged = product.getPrice() == null || productRequest.getPrice() == null
+            || product.getPrice().compareTo(productRequest.getPrice()) != 0;
         product.setName(productRequest.getName());
         product.setDescription(productRequest.getDescription());
         product.setPrice(productRequest.getPrice());
         Product savedProduct = productRepository.save(product);
+        appendProductUpdated(savedProduct, priceChanged ? "PRICE_CHANGE" : "DETAILS_CHANGE");
         log.debug("Produto atualizado e cache renovado: {}", savedProduct.getId());
         return savedProduct;
     }
@@ -70,14 +143,26 @@ public class ProductService {
     public void deleteProduct(Long id) {
         Product product = findById(id);
         productRepository.delete(product);
+        appendProductUpdated(product, "DELETED");
         log.debug("Produto deletado e cache invalidado: {}", id);
     }
 
+    /**
+     * Busca no índice em memória ({@link ProductSearchIndex}), que cobre nome, descrição e
+     * ingredientes e tolera acentos e erros de digitação; os produtos saem do cache por id, na
+     * ordem de relevância.
+     */
     @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "'search:' + #name")
     public List<Product> searchByName(String name) {
         log.debug("Buscando produtos por nome: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+        List<Long> ids = productSearchIndex.search(name, KeysetCursor.MAX_SIZE, false).stream()
+            .map(ProductSearchHit::id)
+            .toList();
+        Map<Long, Product> products = findAllByIds(ids);
+        return ids.stream()
+            .map(products::get)
+            .filter(Objects::nonNull)
+            .toList();
     }
 
     @Transactional(readOnly = true)
@@ -114,23 +199,14 @@ public class ProductService {
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCT_CATEGORIES_CACHE}, allEntries = true)
     public void decrementStock(Long productId, int quantity) {
-        Product product = findById(productId);
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Estoque insuficiente");
-        }
-        product.setStockQuantity(product.getStockQuantity() - quantity);
-        productRepository.save(product);
+        stockReservationService.reserve(Map.of(productId, quantity));
         log.debug("Estoque decrementado para produto {}: quantidade={}", productId, quantity);
     }
 
     @Transactional
-    @CacheEvict(value = {CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCT_CATEGORIES_CACHE}, allEntries = true)
     public void incrementStock(Long productId, int quantity) {
-        Product product = findById(productId);
-        product.setStockQuantity(product.getStockQuantity() + quantity);
-        productRepository.save(product);
+        stockReservationService.release(Map.of(productId, quantity));
         log.debug("Estoque incrementado para produto {}: quantidade={}", productId, quantity);
     }
 
@@ -4,6 +4,9 @@ import com.vynlotaste.config.CacheConfig;
 import com.vynlotaste.dto.UserRegistrationDto;
 import com.vynlotaste.entity.User;
 import com.vynlotaste.entity.UserRole;
+import com.vynlotaste.pagination.ApproximateCounter;
+import com.vynlotaste.pagination.CursorPage;
+import com.vynlotaste.pagination.KeysetCursor;
 import com.vynlotaste.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +16,8 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +31,7 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final ApproximateCounter approximateCounter;
 
     @Transactional
     @CacheEvict(value = "users", allEntries = true)
@@ -107,6 +113,18 @@ public class UserService {
         return userRepository.findAll(pageable);
     }
 
+    /**
+     * Alternativa a {@link #findAllUsers} por cursor em (created_at, id): sem OFFSET nem COUNT.
+     */
+    public CursorPage<User> scrollUsers(String cursor, int size, boolean includeTotal) {
+        Window<User> window = userRepository.<User, Window<User>>findBy(Specification.where(null), query -> query
+            .sortBy(KeysetCursor.SORT)
+            .limit(KeysetCursor.limit(size))
+            .scroll(KeysetCursor.decode(cursor)));
+        Long total = includeTotal ? approximateCounter.estimateTable("users", userRepository::count) : null;
+        return CursorPage.of(window, total);
+    }
+
     @Transactional
     @Caching(put = {
         @CachePut(value = CacheConfig.USERS_CACHE, key = "'id:' + #result.id"),
@@ -0,0 +1,332 @@
+package com.vynlotaste.timeline;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.board.ActiveOrder;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.event.OrderStatusBatchChangedEvent;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import com.vynlotaste.exception.user.UserNotFoundException;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Histórico de pedidos por cliente servido do Redis, com custo proporcional à página e não ao
+ * histórico.
+ * <p>
+ * Cada cliente tem um sorted set {@code vynlo:orders:timeline:<id>} com os ids dos pedidos e a
+ * data de criação como score, e cada pedido tem um resumo JSON em
+ * {@code vynlo:orders:summary:<id>}. Uma página é um ZREVRANGE por posição seguido de um MGET
+ * dos resumos. Os eventos de status atualizam o set e o resumo incrementalmente. O set só é
+ * considerado completo quando contém o membro sentinela {@value #COMPLETE_MARKER} (score -1,
+ * sempre o último), gravado pela carga inicial a partir do banco. Assim, um set criado só por
+ * eventos é recarregado na primeira leitura e o sentinela expira junto com o set.
+ * <p>
+ * As cargas do banco leem a view {@code orders_history}, então pedidos já arquivados continuam
+ * na timeline. Os resumos são gravados por compare-and-set no {@code @Version} do pedido: um
+ * evento atrasado ou uma carga do banco nunca sobrescreve um resumo mais novo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderTimelineService {
+
+    static final String TIMELINE_PREFIX = "vynlo:orders:timeline:";
+    static final String SUMMARY_PREFIX = "vynlo:orders:summary:";
+    static final String COMPLETE_MARKER = "complete";
+
+    // ARGV: resumo, versão do pedido ('' se desconhecida), TTL em segundos e '1' se vem de um evento.
+    // Resumo gravado com versão maior é mantido. Evento sem versão apaga o resumo (relido do banco
+    // na próxima leitura); carga do banco sem versão só grava se não houver resumo.
+    private static final RedisScript<Long> SUMMARY_SCRIPT = new DefaultRedisScript<>("""
+        local current = redis.call('get', KEYS[1])
+        if ARGV[2] == '' then
+            if ARGV[4] == '1' then
+                redis.call('del', KEYS[1])
+                return 0
+            end
+            if current then return 0 end
+        elseif current then
+            local stored = cjson.decode(current)['version']
+            if type(stored) == 'number' and stored > tonumber(ARGV[2]) then return 0 end
+        end
+        redis.call('setex', KEYS[1], ARGV[3], ARGV[1])
+        return 1
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter rebuildCounter;
+    private Counter summaryMissCounter;
+    private Counter fallbackCounter;
+
+    @PostConstruct
+    public void initializeMetrics() {
+        this.rebuildCounter = Counter.builder("vynlo.orders.timeline.rebuilds")
+            .description("Customer timelines loaded from the database")
+            .register(meterRegistry);
+        this.summaryMissCounter = Counter.builder("vynlo.orders.timeline.summary.misses")
+            .description("Order summaries missing from Redis and read from the database")
+            .register(meterRegistry);
+        this.fallbackCounter = Counter.builder("vynlo.orders.timeline.fallbacks")
+            .description("Timeline pages served from the database because Redis failed")
+            .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        record(List.of(event));
+    }
+
+    @EventListener
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        record(event.getChanges());
+    }
+
+    /**
+     * Página {@code page} do histórico do cliente, do pedido mais recente para o mais antigo.
+     */
+    public Page<ActiveOrder> getTimeline(Long customerId, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), KeysetCursor.limit(size));
+        String key = TIMELINE_PREFIX + customerId;
+
+        try {
+            TimelineSlice slice = readSlice(key, pageRequest);
+            if (!slice.complete()) {
+                rebuild(customerId, key);
+                slice = readSlice(key, pageRequest);
+            }
+            List<ActiveOrder> content = loadSummaries(key, slice.ids());
+            return new PageImpl<>(content, pageRequest, slice.total());
+        } catch (DataAccessException e) {
+            // Redis indisponível: a mesma página direto do banco
+            fallbackCounter.increment();
+            log.warn("Timeline do cliente {} indisponível no Redis, lendo do banco", customerId, e);
+            return orderRepository.findHistoryByCustomerId(customerId, pageRequest).map(ActiveOrder::of);
+        }
+    }
+
+    // Uma ida ao Redis: sentinela, ids da página, tamanho e renovação do TTL
+    private TimelineSlice readSlice(String key, PageRequest pageRequest) {
+        long start = pageRequest.getOffset();
+        long ttlSeconds = properties.getOrderTimeline().getTtl().toSeconds();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            redis.zScore(key, COMPLETE_MARKER);
+            redis.zRevRange(key, start, start + pageRequest.getPageSize() - 1);
+            redis.zCard(key);
+            redis.expire(key, ttlSeconds);
+            return null;
+        });
+
+        boolean complete = results.get(0) != null;
+        @SuppressWarnings("unchecked")
+        Collection<String> members = (Collection<String>) results.get(1);
+        long size = results.get(2) != null ? (Long) results.get(2) : 0;
+
+        List<Long> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            if (!COMPLETE_MARKER.equals(member)) {
+                ids.add(Long.valueOf(member));
+            }
+        }
+        return new TimelineSlice(complete, ids, complete ? size - 1 : size);
+    }
+
+    // Carga inicial (ou após expirar): O(histórico), uma vez por TTL
+    private void rebuild(Long customerId, String key) {
+        List<ActiveOrder> orders = orderRepository.findAllHistoryByCustomerId(customerId).stream()
+            .map(ActiveOrder::of)
+            .toList();
+        if (orders.isEmpty() && !userRepository.existsById(customerId)) {
+            throw new UserNotFoundException(customerId);
+        }
+
+        Map<String, String> summaries = serialize(orders);
+        long ttlSeconds = properties.getOrderTimeline().getTtl().toSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (ActiveOrder order : orders) {
+                redis.zAdd(key, score(order.createdAt()), order.id().toString());
+                // Um evento gravado durante a carga pode ser mais novo que o banco lido
+                writeSummary(redis, order, summaries.get(order.id().toString()), ttlSeconds, false);
+            }
+            redis.zAdd(key, -1, COMPLETE_MARKER);
+            redis.expire(key, ttlSeconds);
+            return null;
+        });
+        rebuildCounter.increment();
+        log.debug("Timeline do cliente {} carregada do banco com {} pedidos", customerId, orders.size());
+    }
+
+    private List<ActiveOrder> loadSummaries(String key, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> keys = ids.stream().map(id -> SUMMARY_PREFIX + id).toList();
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+
+        Map<Long, ActiveOrder> byId = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String json = values != null ? values.get(i) : null;
+            if (json != null) {
+                byId.put(ids.get(i), read(json));
+            } else {
+                missing.add(ids.get(i));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            summaryMissCounter.increment(missing.size());
+            List<ActiveOrder> loaded = orderRepository.findHistoryByIds(missing).stream()
+                .map(ActiveOrder::of)
+                .toList();
+            loaded.forEach(order -> byId.put(order.id(), order));
+            writeSummaries(loaded);
+
+            // Pedidos removidos logicamente saem da timeline
+            Set<Long> gone = new HashSet<>(missing);
+            gone.removeAll(byId.keySet());
+            if (!gone.isEmpty()) {
+                stringRedisTemplate.opsForZSet().remove(key, gone.stream().map(String::valueOf).toArray());
+            }
+        }
+
+        List<ActiveOrder> content = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ActiveOrder order = byId.get(id);
+            if (order != null) {
+                content.add(order);
+            }
+        }
+        return content;
+    }
+
+    private void record(List<OrderStatusChangedEvent> events) {
+        List<ActiveOrder> orders = new ArrayList<>(events.size());
+        for (OrderStatusChangedEvent event : events) {
+            if (event.getCustomerId() == null) {
+                continue;
+            }
+            orders.add(new ActiveOrder(
+                event.getOrderId(),
+                event.getOrderNumber(),
+                Order.OrderStatus.valueOf(event.getNewStatus()),
+                event.getOrderType() != null ? Order.OrderType.valueOf(event.getOrderType()) : null,
+                event.getCustomerId(),
+                event.getTotalAmount(),
+                event.getOrderCreatedAt(),
+                event.getOrderVersion()));
+        }
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, String> summaries = serialize(orders);
+            long ttlSeconds = properties.getOrderTimeline().getTtl().toSeconds();
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (ActiveOrder order : orders) {
+                    String key = TIMELINE_PREFIX + order.customerId();
+                    redis.zAdd(key, score(order.createdAt()), order.id().toString());
+                    redis.expire(key, ttlSeconds);
+                    writeSummary(redis, order, summaries.get(order.id().toString()), ttlSeconds, true);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // Best-effort: o resumo é relido do banco quando faltar e a timeline expira e é recarregada
+            log.warn("Falha ao atualizar timelines de pedidos no Redis ({} pedidos)", orders.size(), e);
+        }
+    }
+
+    private void writeSummaries(List<ActiveOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<String, String> summaries = serialize(orders);
+        long ttlSeconds = properties.getOrderTimeline().getTtl().toSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (ActiveOrder order : orders) {
+                writeSummary(redis, order, summaries.get(order.id().toString()), ttlSeconds, false);
+            }
+            return null;
+        });
+    }
+
+    private static void writeSummary(StringRedisConnection redis, ActiveOrder order, String json, long ttlSeconds,
+                                     boolean fromEvent) {
+        redis.eval(SUMMARY_SCRIPT.getScriptAsString(), ReturnType.INTEGER, 1,
+            SUMMARY_PREFIX + order.id(),
+            json,
+            order.version() != null ? order.version().toString() : "",
+            Long.toString(ttlSeconds),
+            fromEvent ? "1" : "0");
+    }
+
+    private Map<String, String> serialize(List<ActiveOrder> orders) {
+        Map<String, String> summaries = new HashMap<>();
+        for (ActiveOrder order : orders) {
+            try {
+                summaries.put(order.id().toString(), objectMapper.writeValueAsString(order));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize order summary " + order.id(), e);
+            }
+        }
+        return summaries;
+    }
+
+    private ActiveOrder read(String json) {
+        try {
+            return objectMapper.readValue(json, ActiveOrder.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize order summary", e);
+        }
+    }
+
+    private static double score(LocalDateTime createdAt) {
+        LocalDateTime value = createdAt != null ? createdAt : LocalDateTime.now();
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record TimelineSlice(boolean complete, List<Long> ids, long total) {
+    }
+}
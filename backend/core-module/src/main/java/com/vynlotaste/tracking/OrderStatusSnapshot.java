@@ -0,0 +1,45 @@
+package com.vynlotaste.tracking;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.service.OrderStateMachine;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Status de um pedido como visto pelo polling dos apps. {@code version} é o {@code @Version} do
+ * pedido, que cresce a cada mudança independente do relógio dos nós, e forma o ETag; {@code eta}
+ * é a previsão de saída do status atual, ou de pronto enquanto o pedido está na fila da cozinha.
+ * {@code customerId} serve à checagem de dono e não vai para a resposta.
+ */
+public record OrderStatusSnapshot(Long orderId, @JsonIgnore Long customerId, Order.OrderStatus status, long version,
+                                  LocalDateTime eta) {
+
+    // Usado pela consulta JPQL quando o hash ainda não existe no Redis
+    public OrderStatusSnapshot(Long orderId, Long customerId, Order.OrderStatus status, LocalDateTime createdAt,
+                               Long version) {
+        this(orderId, customerId, status, version != null ? version : 0, etaOf(status, createdAt));
+    }
+
+    public OrderStatusSnapshot withEta(LocalDateTime eta) {
+        return new OrderStatusSnapshot(orderId, customerId, status, version, eta);
+    }
+
+    public String etag() {
+        return "\"" + orderId + "-" + version + "\"";
+    }
+
+    public boolean isTerminal() {
+        return OrderStateMachine.allowedFrom(status).isEmpty();
+    }
+
+    static LocalDateTime etaOf(Order.OrderStatus status, LocalDateTime createdAt) {
+        int minutes = OrderStateMachine.estimatedMinutes(status);
+        return minutes > 0 && createdAt != null ? createdAt.plusMinutes(minutes) : null;
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+}
@@ -0,0 +1,283 @@
+package com.vynlotaste.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.event.OrderStatusBatchChangedEvent;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import com.vynlotaste.kitchen.KitchenScheduler;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Status de pedidos para polling barato.
+ * <p>
+ * Cada pedido tem um hash {@code vynlo:orders:status:<id>} com status, versão, ETA e cliente,
+ * gravado pelos eventos de mudança de status (TTL longo enquanto em andamento, curto depois de
+ * finalizado). A gravação é um compare-and-set pela versão do pedido: um evento atrasado ou
+ * entregue fora de ordem nunca sobrescreve um status mais novo. Uma consulta é um HGETALL; o
+ * banco só é lido quando o hash não existe, e o resultado é gravado de volta pelo mesmo script.
+ * <p>
+ * O long-poll não segura thread: o pedido de espera fica registrado em memória e é completado
+ * pela notificação publicada no canal {@value #CHANNEL} a cada mudança, que chega a todos os
+ * nós, ou pelo timeout.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStatusTracker implements MessageListener {
+
+    public static final String CHANNEL = "vynlo:order-status";
+    static final String KEY_PREFIX = "vynlo:orders:status:";
+
+    private static final String STATUS = "status";
+    private static final String VERSION = "version";
+    private static final String ETA = "eta";
+    private static final String CUSTOMER = "customer";
+
+    // ARGV: status, versão, ETA, cliente e TTL em segundos. Versão igual ou menor que a gravada é descartada
+    private static final RedisScript<Long> WRITE_SCRIPT = new DefaultRedisScript<>("""
+        local current = redis.call('hget', KEYS[1], 'version')
+        if current and tonumber(current) >= tonumber(ARGV[2]) then return 0 end
+        redis.call('hmset', KEYS[1], 'status', ARGV[1], 'version', ARGV[2], 'eta', ARGV[3], 'customer', ARGV[4])
+        redis.call('expire', KEYS[1], ARGV[5])
+        return 1
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final OrderRepository orderRepository;
+    private final UserService userService;
+    private final KitchenScheduler kitchenScheduler;
+    private final ObjectMapper objectMapper;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Long, Set<CompletableFuture<OrderStatusSnapshot>>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void initialize() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.hitCounter = Counter.builder("vynlo.orders.status.lookups")
+            .tag("source", "redis")
+            .description("Order status lookups by source")
+            .register(meterRegistry);
+        this.missCounter = Counter.builder("vynlo.orders.status.lookups")
+            .tag("source", "database")
+            .description("Order status lookups by source")
+            .register(meterRegistry);
+        Gauge.builder("vynlo.orders.status.waiters", waiting, AtomicInteger::get)
+            .description("Long-poll requests waiting for an order status change on this node")
+            .register(meterRegistry);
+    }
+
+    public OrderStatusSnapshot get(Long orderId) {
+        Map<Object, Object> hash = stringRedisTemplate.opsForHash().entries(KEY_PREFIX + orderId);
+        if (!hash.isEmpty()) {
+            hitCounter.increment();
+            return withKitchenEta(fromHash(orderId, hash));
+        }
+
+        missCounter.increment();
+        OrderStatusSnapshot snapshot = orderRepository.findStatusSnapshotById(orderId)
+            .orElseThrow(() -> new BusinessException(ErrorCode.ORDER_NOT_FOUND, "Order not found with ID: " + orderId));
+        write(List.of(snapshot));
+        return withKitchenEta(snapshot);
+    }
+
+    /**
+     * Se o usuário autenticado ({@code authentication.name}, o e-mail) é o cliente do pedido.
+     */
+    public boolean isOwner(Long orderId, String currentUserEmail) {
+        try {
+            Object customer = stringRedisTemplate.opsForHash().get(KEY_PREFIX + orderId, CUSTOMER);
+            Long customerId = customer != null && !customer.toString().isEmpty()
+                ? Long.valueOf(customer.toString())
+                : get(orderId).customerId();
+            return customerId != null && userService.findById(customerId).getEmail().equals(currentUserEmail);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Completa quando o status do pedido deixar de ser {@code current}, ou com {@code null} após
+     * {@code wait} (limitado a {@code vynlo.order-status-tracking.max-wait}).
+     */
+    public CompletableFuture<OrderStatusSnapshot> awaitChange(OrderStatusSnapshot current, Duration wait) {
+        Duration maxWait = properties.getOrderStatusTracking().getMaxWait();
+        long timeoutMillis = Math.min(wait.toMillis(), maxWait.toMillis());
+
+        Long orderId = current.orderId();
+        CompletableFuture<OrderStatusSnapshot> future = new CompletableFuture<>();
+        waiters.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(future);
+        waiting.incrementAndGet();
+        future.whenComplete((snapshot, error) -> {
+            waiting.decrementAndGet();
+            waiters.computeIfPresent(orderId, (id, pending) -> {
+                pending.remove(future);
+                return pending.isEmpty() ? null : pending;
+            });
+        });
+
+        future.completeOnTimeout(null, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        // Registrado antes de reler: uma mudança entre a primeira leitura e o registro não se perde
+        try {
+            OrderStatusSnapshot latest = get(orderId);
+            if (latest.version() != current.version()) {
+                future.complete(latest);
+            }
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @EventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        publish(List.of(event));
+    }
+
+    @EventListener
+    public void onOrderStatusBatchChanged(OrderStatusBatchChangedEvent event) {
+        publish(event.getChanges());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            OrderStatusSnapshot snapshot = objectMapper.readValue(
+                new String(message.getBody(), StandardCharsets.UTF_8), OrderStatusSnapshot.class);
+            Set<CompletableFuture<OrderStatusSnapshot>> pending = waiters.get(snapshot.orderId());
+            if (pending != null) {
+                OrderStatusSnapshot changed = withKitchenEta(snapshot);
+                List.copyOf(pending).forEach(future -> future.complete(changed));
+            }
+        } catch (Exception e) {
+            log.error("Erro ao processar notificação de status de pedido", e);
+        }
+    }
+
+    private void publish(List<OrderStatusChangedEvent> changes) {
+        try {
+            List<OrderStatusSnapshot> snapshots = new ArrayList<>(changes.size());
+            List<String> unversioned = new ArrayList<>();
+            for (OrderStatusChangedEvent change : changes) {
+                if (change.getOrderVersion() != null) {
+                    snapshots.add(snapshotOf(change));
+                } else {
+                    unversioned.add(KEY_PREFIX + change.getOrderId());
+                }
+            }
+            // Eventos gravados no outbox antes da versão: sem como ordenar, a próxima consulta relê do banco
+            if (!unversioned.isEmpty()) {
+                stringRedisTemplate.delete(unversioned);
+            }
+            // Só as mudanças aceitas acordam o long-poll; uma atrasada já foi superada
+            for (OrderStatusSnapshot snapshot : write(snapshots)) {
+                stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(snapshot));
+            }
+        } catch (Exception e) {
+            // Best-effort: sem o hash a próxima consulta relê do banco; o long-poll termina no timeout
+            log.warn("Falha ao atualizar status de pedidos no Redis ({} pedidos)", changes.size(), e);
+        }
+    }
+
+    /**
+     * Grava os snapshots com o compare-and-set de versão.
+     *
+     * @return os snapshots aceitos (mais novos que o gravado)
+     */
+    List<OrderStatusSnapshot> write(List<OrderStatusSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return List.of();
+        }
+        VynloProperties.OrderStatusTracking settings = properties.getOrderStatusTracking();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (OrderStatusSnapshot snapshot : snapshots) {
+                Duration ttl = snapshot.isTerminal() ? settings.getTerminalTtl() : settings.getActiveTtl();
+                redis.eval(WRITE_SCRIPT.getScriptAsString(), ReturnType.INTEGER, 1,
+                    KEY_PREFIX + snapshot.orderId(),
+                    snapshot.status().name(),
+                    Long.toString(snapshot.version()),
+                    snapshot.eta() != null ? Long.toString(OrderStatusSnapshot.toEpochMillis(snapshot.eta())) : "",
+                    snapshot.customerId() != null ? snapshot.customerId().toString() : "",
+                    Long.toString(ttl.toSeconds()));
+            }
+            return null;
+        });
+
+        List<OrderStatusSnapshot> accepted = new ArrayList<>(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (Long.valueOf(1L).equals(results.get(i))) {
+                accepted.add(snapshots.get(i));
+            }
+        }
+        return accepted;
+    }
+
+    // A previsão da fila da cozinha muda sem mudança de status; é aplicada na leitura e não entra no ETag
+    private OrderStatusSnapshot withKitchenEta(OrderStatusSnapshot snapshot) {
+        if (!KitchenScheduler.KITCHEN_STATUSES.contains(snapshot.status())) {
+            return snapshot;
+        }
+        return kitchenScheduler.estimateReadyAt(snapshot.orderId()).map(snapshot::withEta).orElse(snapshot);
+    }
+
+    private static OrderStatusSnapshot snapshotOf(OrderStatusChangedEvent event) {
+        Order.OrderStatus status = Order.OrderStatus.valueOf(event.getNewStatus());
+        return new OrderStatusSnapshot(event.getOrderId(), event.getCustomerId(), status, event.getOrderVersion(),
+            OrderStatusSnapshot.etaOf(status, event.getOrderCreatedAt()));
+    }
+
+    private static OrderStatusSnapshot fromHash(Long orderId, Map<Object, Object> hash) {
+        String eta = (String) hash.get(ETA);
+        String customer = (String) hash.get(CUSTOMER);
+        return new OrderStatusSnapshot(
+            orderId,
+            customer == null || customer.isEmpty() ? null : Long.valueOf(customer),
+            Order.OrderStatus.valueOf((String) hash.get(STATUS)),
+            Long.parseLong((String) hash.get(VERSION)),
+            eta == null || eta.isEmpty() ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(eta)), ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.vynlotaste.webhook;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrega pendente de um evento a um endpoint de webhook. Cada endpoint tem sua própria linha,
+ * tentativas e espera, independentes do outbox e dos outros endpoints.
+ */
+@Entity
+@Table(name = "webhook_deliveries")
+@Data
+public class WebhookDelivery {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "webhook_config_id", nullable = false)
+    private Long webhookConfigId;
+    
+    @Column(name = "event_id", nullable = false, length = 100)
+    private String eventId;
+    
+    @Column(name = "event_type", nullable = false, length = 100)
+    private String eventType;
+    
+    // Corpo JSON já serializado; a assinatura é calculada sobre ele no envio
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+    
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,33 @@
+package com.vynlotaste.webhook;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDelivery, Long> {
+    
+    // Uma linha por endpoint ativo do tipo de evento. A chave (endpoint, event_id) torna a
+    // inserção idempotente quando o outbox reentrega o mesmo evento
+    @Modifying
+    @Query(value = "INSERT INTO webhook_deliveries (webhook_config_id, event_id, event_type, payload, attempts, next_attempt_at, created_at) "
+        + "SELECT c.id, :eventId, :eventType, :payload, 0, :now, :now FROM webhook_configs c "
+        + "WHERE c.event_type = :eventType AND c.active = true "
+        + "ON CONFLICT (webhook_config_id, event_id) DO NOTHING",
+        nativeQuery = true)
+    int enqueue(@Param("eventId") String eventId,
+                @Param("eventType") String eventType,
+                @Param("payload") String payload,
+                @Param("now") LocalDateTime now);
+    
+    // Mesmo padrão do outbox: SKIP LOCKED deixa vários nós reservarem lotes diferentes
+    @Query(value = "SELECT * FROM webhook_deliveries WHERE attempts < :maxAttempts AND next_attempt_at <= CURRENT_TIMESTAMP "
+        + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<WebhookDelivery> lockNextBatch(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+}
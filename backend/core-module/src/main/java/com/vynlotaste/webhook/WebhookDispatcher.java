@@ -0,0 +1,118 @@
+package com.vynlotaste.webhook;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.outbox.OutboxRelay;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Envia as linhas de webhook_deliveries, com tentativas e espera exponencial por endpoint.
+ * <p>
+ * Um lote é reservado com FOR UPDATE SKIP LOCKED em uma transação curta, que só adia
+ * next_attempt_at pela duração da reserva ({@code vynlo.webhook.lease}) e faz o commit. As
+ * chamadas HTTP rodam depois, no {@code webhookExecutor}, sem travas nem conexão do banco
+ * presas. Sucesso remove a linha; falha incrementa attempts e agenda a próxima tentativa. Se o
+ * nó cair no meio do envio, a reserva vence e outro nó reenvia (at-least-once; receptores
+ * devem ser idempotentes pelo eventId do payload).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebhookDispatcher {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+    private final WebhookService webhookService;
+    private final PlatformTransactionManager transactionManager;
+    private final VynloProperties properties;
+    private final MeterRegistry meterRegistry;
+    
+    @Qualifier("webhookExecutor")
+    private final ThreadPoolTaskExecutor webhookExecutor;
+    
+    private TransactionTemplate transactionTemplate;
+    private Counter deliveredCounter;
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void initialize() {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.deliveredCounter = Counter.builder("vynlo.webhooks.delivered")
+            .description("Webhook deliveries accepted by their endpoint")
+            .register(meterRegistry);
+        this.failedCounter = Counter.builder("vynlo.webhooks.failed")
+            .description("Webhook delivery attempts that failed")
+            .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "#{@vynloProperties.webhook.pollInterval.toMillis()}")
+    public void poll() {
+        VynloProperties.Webhook settings = properties.getWebhook();
+        if (!settings.isEnabled()) {
+            return;
+        }
+        
+        try {
+            for (WebhookDelivery delivery : claimBatch(settings)) {
+                try {
+                    webhookExecutor.execute(() -> send(delivery, settings));
+                } catch (TaskRejectedException e) {
+                    // Pool lotado: a linha volta a ficar disponível quando a reserva vencer
+                    log.debug("Webhook executor full; delivery {} waits for its lease to expire", delivery.getId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Erro ao reservar entregas de webhook", e);
+        }
+    }
+    
+    List<WebhookDelivery> claimBatch(VynloProperties.Webhook settings) {
+        List<WebhookDelivery> batch = transactionTemplate.execute(status -> {
+            List<WebhookDelivery> locked = webhookDeliveryRepository.lockNextBatch(settings.getMaxAttempts(), settings.getBatchSize());
+            LocalDateTime leaseUntil = LocalDateTime.now().plus(settings.getLease());
+            locked.forEach(delivery -> delivery.setNextAttemptAt(leaseUntil));
+            return webhookDeliveryRepository.saveAll(locked);
+        });
+        return batch != null ? batch : List.of();
+    }
+    
+    void send(WebhookDelivery delivery, VynloProperties.Webhook settings) {
+        try {
+            webhookService.deliver(delivery);
+            webhookDeliveryRepository.deleteById(delivery.getId());
+            deliveredCounter.increment();
+        } catch (Exception e) {
+            delivery.setAttempts(delivery.getAttempts() + 1);
+            delivery.setLastError(truncate(e.toString()));
+            delivery.setNextAttemptAt(LocalDateTime.now().plus(
+                OutboxRelay.backoff(settings.getRetryBackoff(), settings.getMaxRetryBackoff(), delivery.getAttempts())));
+            failedCounter.increment();
+            try {
+                webhookDeliveryRepository.save(delivery);
+            } catch (Exception saveError) {
+                // A reserva vence e a entrega é tentada de novo sem contar esta falha
+                log.error("Falha ao registrar tentativa da entrega de webhook {}", delivery.getId(), saveError);
+            }
+            log.warn("Falha ao entregar webhook {} para o endpoint {} (tentativa {})",
+                delivery.getEventId(), delivery.getWebhookConfigId(), delivery.getAttempts());
+        }
+    }
+    
+    private String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
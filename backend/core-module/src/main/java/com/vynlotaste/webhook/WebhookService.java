@@ -1,15 +1,16 @@
 package com.vynlotaste.webhook;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.event.BaseEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import javax.crypto.Mac;
@@ -20,7 +21,6 @@ import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -31,34 +31,53 @@ public class WebhookService {
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final WebhookConfigRepository webhookConfigRepository;
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
     
-    @Retryable(
-        retryFor = {Exception.class},
-        maxAttempts = 3,
-        backoff = @Backoff(delay = 2000, multiplier = 2)
-    )
-    public void sendWebhook(String eventType, Object payload) {
-        List<WebhookConfig> configs = webhookConfigRepository.findByEventTypeAndActive(eventType, true);
-        
-        for (WebhookConfig config : configs) {
-            try {
-                sendWebhookToEndpoint(config, eventType, payload);
-            } catch (Exception e) {
-                log.error("Failed to send webhook to {}: {}", config.getUrl(), e.getMessage());
-                logWebhookFailure(config, eventType, payload, e);
-            }
-        }
-    }
-    
-    private void sendWebhookToEndpoint(WebhookConfig config, String eventType, Object payload) throws Exception {
+    /**
+     * Registra o evento para entrega a cada endpoint ativo do tipo, sem chamar nenhum endpoint:
+     * o {@link WebhookDispatcher} envia as linhas com tentativas próprias por endpoint. Roda dentro
+     * do relay do outbox; uma reentrega do mesmo evento não duplica as linhas.
+     */
+    @Transactional
+    public void enqueue(String eventType, BaseEvent event) {
         WebhookPayload webhookPayload = WebhookPayload.builder()
             .eventType(eventType)
             .timestamp(LocalDateTime.now())
-            .data(payload)
+            .data(event)
             .build();
         
-        String jsonPayload = objectMapper.writeValueAsString(webhookPayload);
+        String jsonPayload;
+        try {
+            jsonPayload = objectMapper.writeValueAsString(webhookPayload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize webhook " + eventType, e);
+        }
+        
+        int endpoints = webhookDeliveryRepository.enqueue(event.getEventId(), eventType, jsonPayload, LocalDateTime.now());
+        log.debug("Webhook {} queued for {} endpoints: {}", eventType, endpoints, event.getEventId());
+    }
+    
+    /**
+     * Envia uma entrega ao seu endpoint. Lança exceção se o endpoint recusar ou não responder
+     * dentro dos timeouts do RestTemplate; endpoints removidos ou desativados são ignorados.
+     */
+    public void deliver(WebhookDelivery delivery) {
+        WebhookConfig config = webhookConfigRepository.findById(delivery.getWebhookConfigId()).orElse(null);
+        if (config == null || !Boolean.TRUE.equals(config.getActive())) {
+            log.info("Webhook endpoint {} no longer active; dropping delivery {}", delivery.getWebhookConfigId(), delivery.getId());
+            return;
+        }
         
+        try {
+            sendWebhookToEndpoint(config, delivery.getEventType(), delivery.getPayload());
+        } catch (RuntimeException e) {
+            log.error("Failed to send webhook to {}: {}", config.getUrl(), e.getMessage());
+            logWebhookFailure(config, delivery.getEventType(), e);
+            throw e;
+        }
+    }
+    
+    private void sendWebhookToEndpoint(WebhookConfig config, String eventType, String jsonPayload) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Content-Type", "application/json");
         headers.set("X-Webhook-Event", eventType);
@@ -75,7 +94,7 @@ public class WebhookService {
         
         if (response.getStatusCode().is2xxSuccessful()) {
             log.info("Webhook sent successfully to {}: {}", config.getUrl(), eventType);
-            logWebhookSuccess(config, eventType, payload);
+            logWebhookSuccess(config, eventType);
         } else {
             throw new RuntimeException("Webhook failed with status: " + response.getStatusCode());
         }
@@ -93,7 +112,7 @@ public class WebhookService {
         }
     }
     
-    private void logWebhookSuccess(WebhookConfig config, String eventType, Object payload) {
+    private void logWebhookSuccess(WebhookConfig config, String eventType) {
         Map<String, Object> logData = new HashMap<>();
         logData.put("webhookUrl", config.getUrl());
         logData.put("eventType", eventType);
@@ -103,7 +122,7 @@ public class WebhookService {
         log.info("WEBHOOK_SUCCESS: {}", logData);
     }
     
-    private void logWebhookFailure(WebhookConfig config, String eventType, Object payload, Exception error) {
+    private void logWebhookFailure(WebhookConfig config, String eventType, Exception error) {
         Map<String, Object> logData = new HashMap<>();
         logData.put("webhookUrl", config.getUrl());
         logData.put("eventType", eventType);
@@ -0,0 +1,10 @@
+-- V10: Status de pedido da saga de pagamento
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- PENDING_PAYMENT: autorização em andamento no gateway
+-- PAYMENT_FAILED: pagamento recusado, pode ser tentado de novo ou cancelado
+ALTER TABLE orders DROP CONSTRAINT orders_status_check;
+ALTER TABLE orders ADD CONSTRAINT orders_status_check CHECK (status IN (
+    'PENDING', 'PENDING_PAYMENT', 'PAYMENT_FAILED', 'CONFIRMED', 'PREPARING', 'READY', 'DELIVERED', 'CANCELLED'
+));
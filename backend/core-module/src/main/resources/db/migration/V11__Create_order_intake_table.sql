@@ -0,0 +1,28 @@
+-- V11: Fila de ingestão assíncrona de pedidos
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Pedidos aceitos pela API ficam aqui até um worker criá-los em lote (FOR UPDATE SKIP LOCKED).
+-- O tracking_id é o número já reservado para o pedido; o cliente consulta o resultado por ele
+CREATE TABLE order_intake (
+    id BIGSERIAL PRIMARY KEY,
+    tracking_id VARCHAR(20) NOT NULL,
+    customer_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'QUEUED' CHECK (status IN ('QUEUED', 'ACCEPTED', 'REJECTED')),
+    order_id BIGINT,
+    error VARCHAR(1000),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    CONSTRAINT uk_order_intake_tracking_id UNIQUE (tracking_id)
+);
+
+-- Só as linhas pendentes são varridas pelos workers
+CREATE INDEX idx_order_intake_queued ON order_intake (id) WHERE status = 'QUEUED';
+CREATE INDEX idx_order_intake_processed_at ON order_intake (processed_at) WHERE processed_at IS NOT NULL;
+
+-- Mesmo incremento do allocationSize da entidade
+ALTER SEQUENCE order_intake_id_seq INCREMENT BY 50;
+
+COMMENT ON TABLE order_intake IS 'Fila de pedidos aceitos aguardando criação em lote';
@@ -0,0 +1,9 @@
+-- V12: Índices para paginação por cursor em (created_at, id)
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- As listagens por cursor ordenam por created_at DESC, id DESC e continuam com
+-- (created_at, id) < (?, ?); o índice composto atende a ordem e o seek sem sort nem OFFSET
+CREATE INDEX IF NOT EXISTS idx_orders_created_at_id ON orders (created_at DESC, id DESC) WHERE deleted = false;
+CREATE INDEX IF NOT EXISTS idx_users_created_at_id ON users (created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at DESC, id DESC) WHERE deleted = false;
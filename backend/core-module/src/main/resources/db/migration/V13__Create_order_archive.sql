@@ -0,0 +1,109 @@
+-- V13: Arquivo particionado de pedidos finalizados
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Pedidos DELIVERED/CANCELLED (ou removidos logicamente) mais antigos que a retenção saem de
+-- orders/order_items para tabelas particionadas por mês de criação. A tabela quente fica só com o
+-- que está em andamento ou é recente, e os índices de status/created_at param de crescer.
+-- As tabelas de arquivo copiam as colunas de orders/order_items: migrações que alterarem as
+-- colunas delas precisam alterar também orders_archive/order_items_archive.
+CREATE TABLE orders_archive (
+    LIKE orders INCLUDING DEFAULTS,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items_archive (
+    LIKE order_items INCLUDING DEFAULTS,
+    -- Chave de partição: os itens ficam no mesmo mês do pedido
+    order_created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, order_created_at)
+) PARTITION BY RANGE (order_created_at);
+
+-- Índices particionados: criados automaticamente em cada partição nova
+CREATE INDEX idx_orders_archive_customer_created ON orders_archive (customer_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_archive_order_number ON orders_archive (order_number);
+CREATE INDEX idx_order_items_archive_order ON order_items_archive (order_id);
+
+-- Cria (se ainda não existir) a partição mensal das duas tabelas para o mês de p_month
+CREATE OR REPLACE FUNCTION ensure_order_archive_partition(p_month DATE)
+RETURNS VOID AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::DATE;
+    v_end DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_suffix TEXT := to_char(date_trunc('month', p_month), 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF orders_archive FOR VALUES FROM (%L) TO (%L)',
+                   'orders_archive_' || v_suffix, v_start, v_end);
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF order_items_archive FOR VALUES FROM (%L) TO (%L)',
+                   'order_items_archive_' || v_suffix, v_start, v_end);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move um lote de até p_batch_size pedidos finalizados criados antes de p_cutoff (com os itens)
+-- para o arquivo e devolve quantos foram movidos. SKIP LOCKED: pedidos em uso ficam para a
+-- próxima execução, e vários nós podem arquivar ao mesmo tempo sem se bloquear.
+CREATE OR REPLACE FUNCTION archive_orders(p_cutoff TIMESTAMP, p_batch_size INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    v_ids BIGINT[];
+    v_month DATE;
+    v_moved INTEGER;
+BEGIN
+    SELECT array_agg(id) INTO v_ids
+    FROM (
+        SELECT id FROM orders
+        WHERE created_at < p_cutoff
+          AND (status IN ('DELIVERED', 'CANCELLED') OR deleted = true)
+        ORDER BY created_at
+        LIMIT p_batch_size
+        FOR UPDATE SKIP LOCKED
+    ) batch;
+
+    IF v_ids IS NULL THEN
+        RETURN 0;
+    END IF;
+
+    FOR v_month IN
+        SELECT DISTINCT date_trunc('month', created_at)::DATE FROM orders WHERE id = ANY (v_ids)
+    LOOP
+        PERFORM ensure_order_archive_partition(v_month);
+    END LOOP;
+
+    INSERT INTO order_items_archive
+    SELECT i.*, o.created_at
+    FROM order_items i
+    JOIN orders o ON o.id = i.order_id
+    WHERE i.order_id = ANY (v_ids);
+
+    DELETE FROM order_items WHERE order_id = ANY (v_ids);
+
+    INSERT INTO orders_archive
+    SELECT o.*, CURRENT_TIMESTAMP FROM orders o WHERE o.id = ANY (v_ids);
+
+    DELETE FROM orders WHERE id = ANY (v_ids);
+    GET DIAGNOSTICS v_moved = ROW_COUNT;
+    RETURN v_moved;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Leitura unificada do histórico (tabela quente + arquivo); a coluna archived indica a origem
+CREATE VIEW orders_history AS
+    SELECT o.id, o.order_number, o.status, o.type, o.total_amount, o.customer_id, o.deleted,
+           o.created_at, o.updated_at, FALSE AS archived
+    FROM orders o
+    UNION ALL
+    SELECT a.id, a.order_number, a.status, a.type, a.total_amount, a.customer_id, a.deleted,
+           a.created_at, a.updated_at, TRUE AS archived
+    FROM orders_archive a;
+
+CREATE VIEW order_items_history AS
+    SELECT i.id, i.order_id, i.product_id, i.quantity, i.unit_price, i.deleted
+    FROM order_items i
+    UNION ALL
+    SELECT a.id, a.order_id, a.product_id, a.quantity, a.unit_price, a.deleted
+    FROM order_items_archive a;
+
+COMMENT ON TABLE orders_archive IS 'Pedidos finalizados arquivados, particionados por mês de criação';
+COMMENT ON TABLE order_items_archive IS 'Itens dos pedidos arquivados, particionados pelo mês do pedido';
+COMMENT ON VIEW orders_history IS 'Pedidos ativos e arquivados';
@@ -0,0 +1,118 @@
+-- V14: Criação de pedido em uma única chamada ao banco
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Versão de process_order (V6) alinhada ao schema atual: recebe os itens em arrays paralelos
+-- e, em uma única ida ao banco, valida cliente e produtos, trava os produtos em ordem de ID,
+-- decrementa o estoque, insere pedido e itens e calcula o total. Usada pela estratégia
+-- vynlo.order-placement.strategy=database-function.
+--
+-- Os ids vêm de nextval nas mesmas sequences das entidades; cada nextval reserva um bloco
+-- inteiro do allocationSize, então não colidem com os blocos pooled do Hibernate.
+--
+-- Erros de negócio usam SQLSTATE próprios, traduzidos pela aplicação:
+--   VT404 cliente não encontrado, VT422 item inválido ou produto indisponível,
+--   VT409 estoque insuficiente
+CREATE OR REPLACE FUNCTION process_order(
+    p_order_number VARCHAR(50),
+    p_customer_id BIGINT,
+    p_order_type VARCHAR(20),
+    p_delivery_address VARCHAR(200),
+    p_notes TEXT,
+    p_product_ids BIGINT[],
+    p_quantities INTEGER[],
+    p_unit_prices DECIMAL(10,2)[],
+    p_item_notes VARCHAR(300)[],
+    p_customizations TEXT[]
+)
+RETURNS TABLE(
+    order_id BIGINT,
+    created_at TIMESTAMP,
+    total_amount DECIMAL(10,2),
+    item_id BIGINT,
+    unit_price DECIMAL(10,2)
+) AS $$
+#variable_conflict use_column
+DECLARE
+    v_order_id BIGINT;
+    v_now TIMESTAMP := LOCALTIMESTAMP;
+    v_total DECIMAL(10,2);
+    v_invalid BIGINT[];
+    v_short BIGINT[];
+BEGIN
+    IF COALESCE(cardinality(p_product_ids), 0) = 0
+       OR cardinality(p_quantities) IS DISTINCT FROM cardinality(p_product_ids)
+       OR cardinality(p_unit_prices) IS DISTINCT FROM cardinality(p_product_ids)
+       OR cardinality(p_item_notes) IS DISTINCT FROM cardinality(p_product_ids)
+       OR cardinality(p_customizations) IS DISTINCT FROM cardinality(p_product_ids) THEN
+        RAISE EXCEPTION 'Order must have at least one item' USING ERRCODE = 'VT422';
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM users WHERE id = p_customer_id) THEN
+        RAISE EXCEPTION 'User not found with ID: %', p_customer_id USING ERRCODE = 'VT404';
+    END IF;
+
+    -- Mesma ordem de lock das reservas em Java, para não haver deadlock entre os dois caminhos
+    PERFORM 1 FROM products WHERE id = ANY (p_product_ids) ORDER BY id FOR UPDATE;
+
+    SELECT array_agg(r.product_id ORDER BY r.product_id) INTO v_invalid
+    FROM (SELECT DISTINCT unnest(p_product_ids) AS product_id) r
+    LEFT JOIN products p ON p.id = r.product_id AND p.deleted = false
+    WHERE p.id IS NULL OR p.available IS DISTINCT FROM true;
+
+    IF v_invalid IS NOT NULL THEN
+        RAISE EXCEPTION 'Invalid order items - products not found or unavailable: %', v_invalid
+            USING ERRCODE = 'VT422';
+    END IF;
+
+    WITH requested AS (
+        SELECT r.product_id, SUM(r.quantity) AS quantity
+        FROM unnest(p_product_ids, p_quantities) AS r(product_id, quantity)
+        GROUP BY r.product_id
+    ), reserved AS (
+        UPDATE products p
+        SET stock_quantity = p.stock_quantity - r.quantity,
+            version = p.version + 1,
+            updated_at = CURRENT_TIMESTAMP
+        FROM requested r
+        WHERE p.id = r.product_id AND p.stock_quantity >= r.quantity
+        RETURNING p.id
+    )
+    SELECT array_agg(r.product_id ORDER BY r.product_id) INTO v_short
+    FROM requested r
+    WHERE r.product_id NOT IN (SELECT id FROM reserved);
+
+    IF v_short IS NOT NULL THEN
+        -- A exceção desfaz os decrementos já aplicados
+        RAISE EXCEPTION 'Insufficient stock for products: %', v_short USING ERRCODE = 'VT409';
+    END IF;
+
+    SELECT ROUND(SUM(r.quantity * COALESCE(r.unit_price, p.price)), 2) INTO v_total
+    FROM unnest(p_product_ids, p_quantities, p_unit_prices) AS r(product_id, quantity, unit_price)
+    JOIN products p ON p.id = r.product_id;
+
+    v_order_id := nextval('orders_id_seq');
+    INSERT INTO orders (id, order_number, status, type, total_amount, delivery_address, notes,
+                        customer_id, deleted, version, created_at, updated_at)
+    VALUES (v_order_id, p_order_number, 'PENDING', p_order_type, v_total, p_delivery_address, p_notes,
+            p_customer_id, false, 0, v_now, v_now);
+
+    RETURN QUERY
+    WITH items AS MATERIALIZED (
+        SELECT nextval('order_items_id_seq') AS item_id, r.ord, r.product_id, r.quantity,
+               COALESCE(r.unit_price, p.price) AS unit_price, r.item_notes, r.customizations
+        FROM unnest(p_product_ids, p_quantities, p_unit_prices, p_item_notes, p_customizations)
+             WITH ORDINALITY AS r(product_id, quantity, unit_price, item_notes, customizations, ord)
+        JOIN products p ON p.id = r.product_id
+    ), inserted AS (
+        INSERT INTO order_items (id, order_id, product_id, quantity, unit_price, item_notes, customizations,
+                                 deleted, version, created_at, updated_at)
+        SELECT i.item_id, v_order_id, i.product_id, i.quantity, i.unit_price, i.item_notes, i.customizations,
+               false, 0, v_now, v_now
+        FROM items i
+    )
+    SELECT v_order_id, v_now, v_total, i.item_id, i.unit_price
+    FROM items i
+    ORDER BY i.ord;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,12 @@
+-- V15: Espera entre tentativas de entrega do outbox
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Um evento cuja entrega falhou só volta a ser travado pelo relay depois de next_attempt_at,
+-- que cresce exponencialmente com o número de tentativas
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+-- O relay consome em ordem de id, filtrando os eventos ainda em espera
+CREATE INDEX idx_outbox_events_next_attempt_at ON outbox_events(next_attempt_at);
+
+COMMENT ON COLUMN outbox_events.next_attempt_at IS 'Instante a partir do qual o relay pode tentar entregar o evento de novo';
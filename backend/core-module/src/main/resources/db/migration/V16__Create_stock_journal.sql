@@ -0,0 +1,28 @@
+-- V16: Diário de movimentos de estoque dos contadores no Redis
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Com vynlo.stock-counter.enabled cada reserva ou devolução grava aqui, na transação do pedido,
+-- um movimento por produto; a gravação periódica soma em products.stock_quantity os movimentos
+-- ainda não aplicados. Assim um movimento confirmado nunca se perde junto com o Redis.
+CREATE TABLE stock_journal (
+    id BIGSERIAL PRIMARY KEY,
+    reservation_id VARCHAR(36) NOT NULL,
+    product_id BIGINT NOT NULL REFERENCES products(id),
+    delta INTEGER NOT NULL,
+    applied BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Gravação periódica e recarga dos contadores: só os movimentos pendentes
+CREATE INDEX idx_stock_journal_pending ON stock_journal(product_id, id) WHERE applied = FALSE;
+
+-- Conciliação das reservas em andamento
+CREATE INDEX idx_stock_journal_reservation_id ON stock_journal(reservation_id);
+
+-- Limpeza dos movimentos já aplicados
+CREATE INDEX idx_stock_journal_applied_created_at ON stock_journal(created_at) WHERE applied = TRUE;
+
+COMMENT ON TABLE stock_journal IS 'Movimentos de estoque dos contadores no Redis, somados em products.stock_quantity pela gravação periódica';
+COMMENT ON COLUMN stock_journal.reservation_id IS 'Identificador da reserva ou devolução no hash de operações em andamento do Redis';
+COMMENT ON COLUMN stock_journal.delta IS 'Variação do estoque: negativa na reserva, positiva na devolução';
@@ -0,0 +1,15 @@
+-- V17: Versão do pedido na view de histórico
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- A timeline de pedidos do cliente é recarregada de orders_history (pedidos ativos e arquivados)
+-- e ordena os resumos gravados no Redis pelo @Version do pedido. CREATE OR REPLACE só permite
+-- acrescentar colunas no fim da view.
+CREATE OR REPLACE VIEW orders_history AS
+    SELECT o.id, o.order_number, o.status, o.type, o.total_amount, o.customer_id, o.deleted,
+           o.created_at, o.updated_at, FALSE AS archived, o.version
+    FROM orders o
+    UNION ALL
+    SELECT a.id, a.order_number, a.status, a.type, a.total_amount, a.customer_id, a.deleted,
+           a.created_at, a.updated_at, TRUE AS archived, a.version
+    FROM orders_archive a;
@@ -0,0 +1,14 @@
+-- V18: Endereço de entrega na view de histórico
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- As listagens de pedidos do cliente (/my-orders e timeline) leem orders_history para incluir
+-- os pedidos arquivados, e a listagem mostra o endereço de entrega.
+CREATE OR REPLACE VIEW orders_history AS
+    SELECT o.id, o.order_number, o.status, o.type, o.total_amount, o.customer_id, o.deleted,
+           o.created_at, o.updated_at, FALSE AS archived, o.version, o.delivery_address
+    FROM orders o
+    UNION ALL
+    SELECT a.id, a.order_number, a.status, a.type, a.total_amount, a.customer_id, a.deleted,
+           a.created_at, a.updated_at, TRUE AS archived, a.version, a.delivery_address
+    FROM orders_archive a;
@@ -0,0 +1,30 @@
+-- V19: Entregas de webhook por endpoint, fora do relay do outbox
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Uma linha por (endpoint, evento). O relay do outbox só insere as linhas; o envio HTTP, as
+-- tentativas e a espera entre elas são controlados aqui, por endpoint
+CREATE TABLE webhook_deliveries (
+    id BIGSERIAL PRIMARY KEY,
+    webhook_config_id BIGINT NOT NULL,
+    event_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    
+    -- Foreign Keys
+    CONSTRAINT fk_webhook_deliveries_config FOREIGN KEY (webhook_config_id)
+        REFERENCES webhook_configs(id) ON DELETE CASCADE,
+    
+    -- Reentregas do outbox não duplicam a entrega
+    CONSTRAINT uk_webhook_deliveries_config_event UNIQUE (webhook_config_id, event_id)
+);
+
+-- O despachante consome em ordem de id, filtrando as entregas ainda em espera
+CREATE INDEX idx_webhook_deliveries_next_attempt_at ON webhook_deliveries(next_attempt_at);
+
+COMMENT ON TABLE webhook_deliveries IS 'Entregas pendentes de webhook, com tentativas por endpoint';
+COMMENT ON COLUMN webhook_deliveries.next_attempt_at IS 'Instante a partir do qual a entrega pode ser reservada de novo (espera ou reserva de um nó)';
@@ -0,0 +1,39 @@
+-- V8: Sequences com otimizador pooled para inserts em lote (Hibernate JDBC batching)
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-09
+
+-- IDENTITY desabilita o batching do Hibernate; as entidades passam a usar sequences
+-- com allocationSize = 50. O incremento das sequences precisa ser igual ao allocationSize.
+-- Inserts fora do Hibernate (procedures, scripts) continuam usando o DEFAULT da coluna:
+-- cada nextval reserva um bloco distinto de 50 ids, então não há colisão.
+
+-- Sequences já existentes das colunas BIGSERIAL do core
+ALTER SEQUENCE orders_id_seq INCREMENT BY 50;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 50;
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+
+-- Sequences das entidades financeiras (tabelas podem ainda não existir neste ponto)
+DO $$
+DECLARE
+    target RECORD;
+    max_id BIGINT;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES
+            ('financial_accounts', 'financial_accounts_seq'),
+            ('financial_transactions', 'financial_transactions_seq'),
+            ('transaction_splits', 'transaction_splits_seq'),
+            ('financial_statements', 'financial_statements_seq')
+        ) AS t(table_name, sequence_name)
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', target.sequence_name);
+
+        IF to_regclass(target.table_name) IS NOT NULL THEN
+            EXECUTE format('SELECT MAX(id) FROM %I', target.table_name) INTO max_id;
+            IF max_id IS NOT NULL THEN
+                -- Próximo nextval devolve max_id + 50, bloco pooled (max_id, max_id + 50]
+                PERFORM setval(target.sequence_name, max_id, true);
+            END IF;
+        END IF;
+    END LOOP;
+END $$;
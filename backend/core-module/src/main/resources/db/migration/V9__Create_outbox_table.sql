@@ -0,0 +1,22 @@
+-- V9: Tabela de outbox transacional para eventos de domínio
+-- Autor: Sistema Vynlo Taste
+-- Data: 2024-01-10
+
+-- Eventos são gravados na mesma transação do pedido e despachados depois por um relay,
+-- que consome em lotes com FOR UPDATE SKIP LOCKED (vários nós drenam em paralelo)
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(100) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    aggregate_id BIGINT,
+    payload_type VARCHAR(255) NOT NULL,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Mesmo incremento do allocationSize da entidade (inserts em lote)
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
+
+COMMENT ON TABLE outbox_events IS 'Outbox transacional de eventos de domínio (entrega at-least-once)';
@@ -0,0 +1,9 @@
+-- Rollback V10: remove os status da saga de pagamento
+-- ATENÇÃO: pedidos em PENDING_PAYMENT/PAYMENT_FAILED voltam para PENDING
+
+UPDATE orders SET status = 'PENDING' WHERE status IN ('PENDING_PAYMENT', 'PAYMENT_FAILED');
+
+ALTER TABLE orders DROP CONSTRAINT orders_status_check;
+ALTER TABLE orders ADD CONSTRAINT orders_status_check CHECK (status IN (
+    'PENDING', 'CONFIRMED', 'PREPARING', 'READY', 'DELIVERED', 'CANCELLED'
+));
@@ -0,0 +1,4 @@
+-- Rollback V11: remove a fila de ingestão assíncrona
+-- ATENÇÃO: pedidos ainda em QUEUED são perdidos; desative vynlo.ingestion e drene a fila antes
+
+DROP TABLE IF EXISTS order_intake;
@@ -0,0 +1,5 @@
+-- Rollback V12: remove os índices da paginação por cursor
+
+DROP INDEX IF EXISTS idx_orders_created_at_id;
+DROP INDEX IF EXISTS idx_users_created_at_id;
+DROP INDEX IF EXISTS idx_products_created_at_id;
@@ -0,0 +1,9 @@
+-- Rollback V13: remove o arquivo particionado de pedidos
+-- ATENÇÃO: os pedidos arquivados são perdidos; devolva-os a orders/order_items antes, se necessário
+
+DROP VIEW IF EXISTS order_items_history;
+DROP VIEW IF EXISTS orders_history;
+DROP FUNCTION IF EXISTS archive_orders(TIMESTAMP, INTEGER);
+DROP FUNCTION IF EXISTS ensure_order_archive_partition(DATE);
+DROP TABLE IF EXISTS order_items_archive;
+DROP TABLE IF EXISTS orders_archive;
@@ -0,0 +1,4 @@
+-- Rollback V14: remove a versão em arrays de process_order (a da V6 não é afetada)
+-- Configure vynlo.order-placement.strategy=jpa antes
+
+DROP FUNCTION IF EXISTS process_order(VARCHAR, BIGINT, VARCHAR, VARCHAR, TEXT, BIGINT[], INTEGER[], DECIMAL[], VARCHAR[], TEXT[]);
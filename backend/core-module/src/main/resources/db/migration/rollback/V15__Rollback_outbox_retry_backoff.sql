@@ -0,0 +1,4 @@
+-- Rollback V15: remove a espera entre tentativas do outbox
+
+DROP INDEX IF EXISTS idx_outbox_events_next_attempt_at;
+ALTER TABLE outbox_events DROP COLUMN IF EXISTS next_attempt_at;
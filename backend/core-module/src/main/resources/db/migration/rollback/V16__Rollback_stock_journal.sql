@@ -0,0 +1,4 @@
+-- Rollback V16: remove o diário de movimentos de estoque
+-- Movimentos ainda não aplicados se perdem; grave os contadores antes (vynlo.stock-counter)
+
+DROP TABLE IF EXISTS stock_journal;
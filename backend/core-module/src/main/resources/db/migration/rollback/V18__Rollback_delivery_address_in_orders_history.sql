@@ -0,0 +1,15 @@
+-- Rollback V18: volta a view de histórico às colunas da V17
+-- CREATE OR REPLACE não remove colunas; a view é recriada
+
+DROP VIEW IF EXISTS orders_history;
+
+CREATE VIEW orders_history AS
+    SELECT o.id, o.order_number, o.status, o.type, o.total_amount, o.customer_id, o.deleted,
+           o.created_at, o.updated_at, FALSE AS archived, o.version
+    FROM orders o
+    UNION ALL
+    SELECT a.id, a.order_number, a.status, a.type, a.total_amount, a.customer_id, a.deleted,
+           a.created_at, a.updated_at, TRUE AS archived, a.version
+    FROM orders_archive a;
+
+COMMENT ON VIEW orders_history IS 'Pedidos ativos e arquivados';
@@ -0,0 +1,3 @@
+-- Rollback V19: remove as entregas de webhook por endpoint
+
+DROP TABLE IF EXISTS webhook_deliveries;
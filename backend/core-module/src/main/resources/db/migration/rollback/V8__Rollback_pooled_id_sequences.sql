@@ -0,0 +1,11 @@
+-- Rollback V8: volta as sequences para incremento unitário
+-- ATENÇÃO: reverter também as entidades para GenerationType.IDENTITY
+
+ALTER SEQUENCE orders_id_seq INCREMENT BY 1;
+ALTER SEQUENCE order_items_id_seq INCREMENT BY 1;
+ALTER SEQUENCE products_id_seq INCREMENT BY 1;
+
+DROP SEQUENCE IF EXISTS financial_accounts_seq;
+DROP SEQUENCE IF EXISTS financial_transactions_seq;
+DROP SEQUENCE IF EXISTS transaction_splits_seq;
+DROP SEQUENCE IF EXISTS financial_statements_seq;
@@ -0,0 +1,108 @@
+package com.vynlotaste.board;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ordenação das escritas do índice pela versão do pedido: deltas atrasados, deltas que chegam
+ * durante a leitura do banco e a verificação de consistência não voltam uma entrada no tempo.
+ */
+class ActiveOrderIndexTest {
+
+    private static final long ORDER_ID = 42L;
+    private static final LocalDateTime CREATED = LocalDateTime.now().withNano(0);
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private ActiveOrderIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ActiveOrderIndex(orderRepository, new VynloProperties(), new SimpleMeterRegistry());
+        index.initialize();
+        when(orderRepository.findIndexEntries(any(), any())).thenReturn(List.of());
+        index.rebuild();
+    }
+
+    @Test
+    void lateDeltasDoNotRollBackTheEntry() {
+        index.apply(delta(Order.OrderStatus.PREPARING, Order.OrderStatus.READY, 4L));
+        index.apply(delta(Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING, 3L));
+
+        assertThat(index.findByStatus(Order.OrderStatus.READY)).extracting(ActiveOrder::id).containsExactly(ORDER_ID);
+        assertThat(index.findByStatus(Order.OrderStatus.PREPARING)).isEmpty();
+
+        // Entregue e fora da janela de recentes: sai do índice e o delta atrasado não o ressuscita
+        index.apply(new OrderBoardDelta(ORDER_ID, "VYN-42", Order.OrderType.DELIVERY, 7L, BigDecimal.TEN,
+            Order.OrderStatus.READY, Order.OrderStatus.DELIVERED, 0L, 0L, 5L));
+        index.apply(delta(Order.OrderStatus.PREPARING, Order.OrderStatus.READY, 4L));
+
+        assertThat(index.findByStatus(Order.OrderStatus.READY)).isEmpty();
+    }
+
+    @Test
+    void deltaArrivingWhileTheRebuildReadsTheDatabaseSurvivesIt() {
+        when(orderRepository.findIndexEntries(any(), any())).thenAnswer(invocation -> {
+            index.apply(delta(Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING, 3L));
+            return List.of(order(Order.OrderStatus.CONFIRMED, 2L));
+        });
+
+        index.rebuild();
+
+        assertThat(index.findByStatus(Order.OrderStatus.PREPARING)).extracting(ActiveOrder::version).containsExactly(3L);
+        assertThat(index.findByStatus(Order.OrderStatus.CONFIRMED)).isEmpty();
+    }
+
+    @Test
+    void consistencyCheckKeepsEntriesNewerThanTheDatabaseRead() {
+        index.apply(delta(Order.OrderStatus.PREPARING, Order.OrderStatus.READY, 4L));
+        index.apply(new OrderBoardDelta(43L, "VYN-43", Order.OrderType.DELIVERY, 7L, BigDecimal.TEN,
+            null, Order.OrderStatus.PENDING, epochMillis(), epochMillis(), 0L));
+        // Réplica atrasada: o banco ainda não tem o READY nem o pedido 43, que chega durante a leitura
+        when(orderRepository.findIndexEntries(any(), any())).thenAnswer(invocation -> {
+            index.apply(new OrderBoardDelta(43L, "VYN-43", Order.OrderType.DELIVERY, 7L, BigDecimal.TEN,
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, epochMillis(), epochMillis(), 1L));
+            return List.of(order(Order.OrderStatus.PREPARING, 3L));
+        });
+
+        index.checkConsistency();
+
+        assertThat(index.findByStatus(Order.OrderStatus.READY)).extracting(ActiveOrder::id).containsExactly(ORDER_ID);
+        assertThat(index.findByStatus(Order.OrderStatus.CONFIRMED)).extracting(ActiveOrder::id).containsExactly(43L);
+
+        // Já o banco mais novo que o índice (delta perdido) corrige a entrada
+        when(orderRepository.findIndexEntries(any(), any())).thenReturn(List.of(
+            order(Order.OrderStatus.DELIVERED, 5L)));
+
+        index.checkConsistency();
+
+        assertThat(index.findByStatus(Order.OrderStatus.DELIVERED)).extracting(ActiveOrder::id).containsExactly(ORDER_ID);
+        assertThat(index.findByStatus(Order.OrderStatus.CONFIRMED)).isEmpty();
+    }
+
+    private static OrderBoardDelta delta(Order.OrderStatus from, Order.OrderStatus to, Long version) {
+        return new OrderBoardDelta(ORDER_ID, "VYN-42", Order.OrderType.DELIVERY, 7L, BigDecimal.TEN, from, to,
+            epochMillis(), epochMillis(), version);
+    }
+
+    private static ActiveOrder order(Order.OrderStatus status, long version) {
+        return new ActiveOrder(ORDER_ID, "VYN-42", status, Order.OrderType.DELIVERY, 7L, BigDecimal.TEN, CREATED, version);
+    }
+
+    private static long epochMillis() {
+        return CREATED.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
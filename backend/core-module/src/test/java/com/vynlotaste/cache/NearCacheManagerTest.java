@@ -0,0 +1,95 @@
+package com.vynlotaste.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class NearCacheManagerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ConcurrentMapCacheManager redis;
+    private StringRedisTemplate stringRedisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        redis = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE, CacheConfig.ORDERS_CACHE);
+        stringRedisTemplate = mock(StringRedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromMemoryUntilInvalidatedByAnotherNode() throws Exception {
+        NearCacheManager node = manager();
+        Cache products = node.getCache(CacheConfig.PRODUCTS_CACHE);
+        redis.getCache(CacheConfig.PRODUCTS_CACHE).put("id:1", "Pizza");
+
+        assertThat(products.get("id:1", String.class)).isEqualTo("Pizza");
+        // Alterado direto no Redis: o L1 continua servindo até a invalidação
+        redis.getCache(CacheConfig.PRODUCTS_CACHE).put("id:1", "Pizza grande");
+        assertThat(products.get("id:1", String.class)).isEqualTo("Pizza");
+
+        NearCacheManager.CacheInvalidation invalidation = new NearCacheManager.CacheInvalidation(
+            "other-node", CacheConfig.PRODUCTS_CACHE, "id:1", System.currentTimeMillis());
+        node.onMessage(message(invalidation), null);
+
+        assertThat(products.get("id:1", String.class)).isEqualTo("Pizza grande");
+        assertThat(count("l1", "hit")).isEqualTo(1);
+        assertThat(count("l2", "hit")).isEqualTo(2);
+        assertThat(meterRegistry.get("vynlo.cache.invalidation.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void localWritesAreBroadcastAndOwnMessagesIgnored() throws Exception {
+        NearCacheManager node = manager();
+        Cache products = node.getCache(CacheConfig.PRODUCTS_CACHE);
+
+        products.put("id:2", "Suco");
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(NearCacheManager.CHANNEL), published.capture());
+
+        node.onMessage(new DefaultMessage(NearCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            published.getValue().getBytes(StandardCharsets.UTF_8)), null);
+        assertThat(products.get("id:2", String.class)).isEqualTo("Suco");
+        assertThat(count("l1", "hit")).isEqualTo(1);
+
+        // Caches fora da lista passam direto para o Redis
+        assertThat(node.getCache(CacheConfig.ORDERS_CACHE).getNativeCache())
+            .isSameAs(redis.getCache(CacheConfig.ORDERS_CACHE).getNativeCache());
+    }
+
+    private NearCacheManager manager() {
+        NearCacheManager manager = new NearCacheManager(redis, stringRedisTemplate,
+            mock(RedisMessageListenerContainer.class), objectMapper, new VynloProperties.NearCache(), meterRegistry);
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    private DefaultMessage message(NearCacheManager.CacheInvalidation invalidation) throws Exception {
+        return new DefaultMessage(NearCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            objectMapper.writeValueAsBytes(invalidation));
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.get("vynlo.cache.requests")
+            .tag("cache", CacheConfig.PRODUCTS_CACHE).tag("tier", tier).tag("result", result)
+            .counter().count();
+    }
+}
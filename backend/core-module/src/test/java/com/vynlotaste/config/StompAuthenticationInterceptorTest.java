@@ -0,0 +1,134 @@
+package com.vynlotaste.config;
+
+import com.vynlotaste.board.BoardSubscriptionInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.ImmutableMessageChannelInterceptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Frames STOMP passando pelo StompSubProtocolHandler real e pelo canal de entrada com os
+ * interceptadores na ordem do WebSocketConfig: o usuário autenticado no CONNECT vale para os
+ * SUBSCRIBE seguintes da sessão.
+ */
+class StompAuthenticationInterceptorTest {
+
+    private final FirebaseTokenAuthenticator tokenAuthenticator = mock(FirebaseTokenAuthenticator.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final StompSubProtocolHandler protocolHandler = new StompSubProtocolHandler();
+    private final List<Message<?>> delivered = new ArrayList<>();
+    private ExecutorSubscribableChannel inboundChannel;
+
+    @BeforeEach
+    void setUp() {
+        inboundChannel = new ExecutorSubscribableChannel();
+        inboundChannel.addInterceptor(new StompAuthenticationInterceptor(tokenAuthenticator));
+        inboundChannel.addInterceptor(new BoardSubscriptionInterceptor());
+        inboundChannel.addInterceptor(new ImmutableMessageChannelInterceptor());
+        inboundChannel.subscribe(delivered::add);
+
+        when(session.getId()).thenReturn("s1");
+        when(session.getAttributes()).thenReturn(new HashMap<>());
+        when(session.isOpen()).thenReturn(true);
+        protocolHandler.afterSessionStarted(session, inboundChannel);
+
+        when(tokenAuthenticator.authenticate("staff-token")).thenReturn(new UsernamePasswordAuthenticationToken(
+            "staff-uid", null, List.of(new SimpleGrantedAuthority("ROLE_STAFF"))));
+        when(tokenAuthenticator.authenticate("customer-token")).thenReturn(new UsernamePasswordAuthenticationToken(
+            "customer-uid", null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+        when(tokenAuthenticator.authenticate("expired")).thenThrow(new RuntimeException("Token inválido"));
+    }
+
+    @Test
+    void subscribesToTheKitchenBoardWithAValidToken() throws Exception {
+        send(connect("staff-token"));
+        send(subscribe("/topic/board/kitchen"));
+
+        assertThat(delivered).hasSize(2);
+        StompHeaderAccessor subscription = StompHeaderAccessor.wrap(delivered.get(1));
+        assertThat(subscription.getCommand()).isEqualTo(StompCommand.SUBSCRIBE);
+        assertThat(subscription.getUser()).isNotNull();
+        assertThat(subscription.getUser().getName()).isEqualTo("staff-uid");
+    }
+
+    @Test
+    void connectWithoutOrWithAnInvalidTokenIsAnsweredWithError() throws Exception {
+        send("CONNECT\naccept-version:1.2\nhost:localhost\n\n\0");
+        send(connect("expired"));
+
+        assertThat(delivered).isEmpty();
+        assertThat(sentFrames()).allMatch(frame -> frame.startsWith("ERROR"));
+    }
+
+    @Test
+    void authenticatedUserWithoutTheStationRoleCannotSubscribe() throws Exception {
+        send(connect("customer-token"));
+        send(subscribe("/topic/board/kitchen"));
+
+        assertThat(delivered).hasSize(1);
+        assertThat(sentFrames()).anyMatch(frame -> frame.startsWith("ERROR"));
+    }
+
+    @Test
+    void destinationPatternsAreRejectedEvenForBoardRoles() throws Exception {
+        send(connect("staff-token"));
+        send(subscribe("/topic/**"));
+        send(subscribe("/topic/*/kitchen"));
+        send(subscribe("/topic/board/{station}"));
+        send(subscribe("/topic/board/kitche?"));
+
+        assertThat(delivered).hasSize(1);
+        assertThat(sentFrames()).hasSize(4).allMatch(frame -> frame.startsWith("ERROR"));
+    }
+
+    @Test
+    void topicsOutsideTheBoardCannotBeSubscribed() throws Exception {
+        send(connect("customer-token"));
+        send(subscribe("/topic/orders"));
+        send(subscribe("/topic"));
+
+        assertThat(delivered).hasSize(1);
+        assertThat(sentFrames()).hasSize(2).allMatch(frame -> frame.startsWith("ERROR"));
+    }
+
+    private void send(String frame) throws Exception {
+        protocolHandler.handleMessageFromClient(session, new TextMessage(frame), inboundChannel);
+    }
+
+    private List<String> sentFrames() throws Exception {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> frames = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeastOnce()).sendMessage(frames.capture());
+        return frames.getAllValues().stream().map(frame -> frame.getPayload().toString()).toList();
+    }
+
+    private static String connect(String token) {
+        return "CONNECT\naccept-version:1.2\nhost:localhost\n" + StompAuthenticationInterceptor.AUTHORIZATION_HEADER
+            + ":Bearer " + token + "\n\n\0";
+    }
+
+    private static String subscribe(String destination) {
+        return "SUBSCRIBE\nid:sub-0\ndestination:" + destination + "\n\n\0";
+    }
+}
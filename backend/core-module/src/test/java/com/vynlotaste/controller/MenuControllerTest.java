@@ -0,0 +1,81 @@
+package com.vynlotaste.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.menu.MenuSnapshot;
+import com.vynlotaste.menu.MenuSnapshotService;
+import com.vynlotaste.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Revalidação do cardápio público: 304 para If-None-Match com o ETag da representação pedida
+ * (fraco, em lista ou "*"), 200 com o corpo caso contrário.
+ */
+class MenuControllerTest {
+
+    private MenuController menuController;
+    private MenuSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(TestDataFixtures.createTestProduct()));
+        MenuSnapshotService menuSnapshotService = new MenuSnapshotService(productRepository,
+            mock(StringRedisTemplate.class), mock(RedisMessageListenerContainer.class), new ObjectMapper(),
+            new SimpleMeterRegistry(), mock(ThreadPoolTaskExecutor.class));
+        menuSnapshotService.initialize();
+        snapshot = menuSnapshotService.current();
+        menuController = new MenuController(menuSnapshotService);
+    }
+
+    @Test
+    void matchingEtagsAnswerNotModified() {
+        String etag = snapshot.etag(false);
+
+        for (String ifNoneMatch : List.of(etag, "W/" + etag, "\"outro\", W/" + etag, "*")) {
+            ResponseEntity<byte[]> response = menuController.getMenu(ifNoneMatch, null);
+
+            assertThat(response.getStatusCode()).as(ifNoneMatch).isEqualTo(HttpStatus.NOT_MODIFIED);
+            assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+            assertThat(response.getBody()).isNull();
+        }
+    }
+
+    @Test
+    void staleOrMissingEtagGetsTheFullBody() {
+        ResponseEntity<byte[]> response = menuController.getMenu("\"outro\"", null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(snapshot.body(false));
+        assertThat(response.getHeaders().getETag()).isEqualTo(snapshot.etag(false));
+        assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void gzipRepresentationHasItsOwnEtag() {
+        ResponseEntity<byte[]> response = menuController.getMenu(snapshot.etag(false), "br, gzip");
+
+        // O ETag da versão sem compressão não valida a comprimida
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(snapshot.body(true));
+        assertThat(response.getHeaders().getETag()).isEqualTo(snapshot.etag(true));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+        assertThat(menuController.getMenu(snapshot.etag(true), "gzip").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+}
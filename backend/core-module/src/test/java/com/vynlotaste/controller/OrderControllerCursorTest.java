@@ -0,0 +1,66 @@
+package com.vynlotaste.controller;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.exception.ErrorCode;
+import com.vynlotaste.exception.ErrorMetricsService;
+import com.vynlotaste.exception.GlobalExceptionHandler;
+import com.vynlotaste.export.OrderExportService;
+import com.vynlotaste.fixtures.OrderServiceFixture;
+import com.vynlotaste.idempotency.IdempotencyService;
+import com.vynlotaste.ingestion.OrderIntakeService;
+import com.vynlotaste.mapper.OrderMapper;
+import com.vynlotaste.monitoring.SimpleMonitoringService;
+import com.vynlotaste.service.PaymentOrchestrator;
+import com.vynlotaste.service.UserService;
+import com.vynlotaste.timeline.OrderTimelineService;
+import com.vynlotaste.tracking.OrderStatusTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Base64;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cursor inválido na listagem de pedidos é erro do cliente (400), não falha do servidor.
+ */
+class OrderControllerCursorTest {
+
+    private final OrderServiceFixture fixture = new OrderServiceFixture();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        OrderController controller = new OrderController(fixture.build(), mock(OrderMapper.class),
+            mock(PaymentOrchestrator.class), mock(IdempotencyService.class), mock(OrderIntakeService.class),
+            new VynloProperties(), mock(OrderExportService.class), mock(OrderTimelineService.class),
+            mock(OrderStatusTracker.class), mock(UserService.class));
+        GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler(new StaticMessageSource(),
+            mock(SimpleMonitoringService.class), mock(ErrorMetricsService.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(exceptionHandler).build();
+    }
+
+    @Test
+    void garbageOrTamperedCursorIsABadRequest() throws Exception {
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString("2024-03-15T12:30:45|1;--".getBytes());
+
+        for (String cursor : List.of("%%%", "bm90LWEtY3Vyc29y", tampered)) {
+            mockMvc.perform(get("/api/v1/orders").param("cursor", cursor).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(ErrorCode.INVALID_INPUT.getCode()));
+        }
+        verify(fixture.orderListQuery, never()).scroll(any(), any(), anyInt());
+    }
+}
@@ -0,0 +1,186 @@
+package com.vynlotaste.controller;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.export.OrderExportService;
+import com.vynlotaste.idempotency.IdempotencyService;
+import com.vynlotaste.ingestion.OrderIntake;
+import com.vynlotaste.ingestion.OrderIntakeResponse;
+import com.vynlotaste.ingestion.OrderIntakeService;
+import com.vynlotaste.mapper.OrderMapper;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.PaymentOrchestrator;
+import com.vynlotaste.service.UserService;
+import com.vynlotaste.timeline.OrderTimelineService;
+import com.vynlotaste.tracking.OrderStatusTracker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Regras de {@code @PreAuthorize} do OrderController avaliadas pela segurança de método real,
+ * com os serviços substituídos por mocks.
+ */
+class OrderControllerSecurityTest {
+
+    private static final String TRACKING_ID = "0000000000001";
+    private static final String OWNER = "cliente@vynlo.com";
+    private static final Long CUSTOMER_ID = 5L;
+
+    private AnnotationConfigApplicationContext context;
+    private OrderController controller;
+    private OrderTimelineService orderTimelineService;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(SecuredControllerConfig.class);
+        controller = context.getBean(OrderController.class);
+        orderTimelineService = context.getBean(OrderTimelineService.class);
+
+        User customer = new User();
+        customer.setId(CUSTOMER_ID);
+        customer.setEmail(OWNER);
+        when(context.getBean(UserService.class).findByEmail(OWNER)).thenReturn(Optional.of(customer));
+
+        OrderIntakeService orderIntakeService = context.getBean(OrderIntakeService.class);
+        when(orderIntakeService.isOwner(TRACKING_ID, OWNER)).thenReturn(true);
+        when(orderIntakeService.getStatus(TRACKING_ID)).thenReturn(new OrderIntakeResponse(
+            TRACKING_ID, OrderIntake.Status.QUEUED, null, null, LocalDateTime.now(), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Test
+    void customerReadsOnlyTheirOwnIntakeStatus() {
+        authenticate(OWNER, "ROLE_CUSTOMER");
+        assertThat(controller.getIntakeStatus(TRACKING_ID).getBody().trackingId()).isEqualTo(TRACKING_ID);
+
+        authenticate("outro@vynlo.com", "ROLE_CUSTOMER");
+        assertThatThrownBy(() -> controller.getIntakeStatus(TRACKING_ID)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void staffReadsAnyIntakeStatus() {
+        authenticate("equipe@vynlo.com", "ROLE_STAFF");
+
+        assertThat(controller.getIntakeStatus(TRACKING_ID).getBody().trackingId()).isEqualTo(TRACKING_ID);
+    }
+
+    @Test
+    void customerTimelineComesFromTheAuthenticatedUser() {
+        authenticate(OWNER, "ROLE_CUSTOMER");
+
+        controller.getOrderTimeline(null, 0, 20, SecurityContextHolder.getContext().getAuthentication());
+        controller.getOrderTimeline(CUSTOMER_ID, 0, 20, SecurityContextHolder.getContext().getAuthentication());
+
+        verify(orderTimelineService, times(2)).getTimeline(CUSTOMER_ID, 0, 20);
+    }
+
+    @Test
+    void customerCannotReadAnotherCustomersTimeline() {
+        authenticate(OWNER, "ROLE_CUSTOMER");
+
+        assertThatThrownBy(() -> controller.getOrderTimeline(99L, 0, 20,
+            SecurityContextHolder.getContext().getAuthentication())).isInstanceOf(AccessDeniedException.class);
+        verify(orderTimelineService, never()).getTimeline(anyLong(), anyInt(), anyInt());
+        assertThatThrownBy(() -> controller.getUserOrders(99L, SecurityContextHolder.getContext().getAuthentication()))
+            .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void staffReadsAnyCustomersTimelineByUserId() {
+        authenticate("equipe@vynlo.com", "ROLE_MANAGER");
+
+        controller.getOrderTimeline(99L, 0, 20, SecurityContextHolder.getContext().getAuthentication());
+
+        verify(orderTimelineService).getTimeline(99L, 0, 20);
+    }
+
+    private static void authenticate(String name, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            name, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+
+    @Configuration
+    @EnableMethodSecurity
+    @Import(OrderController.class)
+    static class SecuredControllerConfig {
+
+        @Bean
+        OrderService orderService() {
+            return mock(OrderService.class);
+        }
+
+        @Bean
+        OrderMapper orderMapper() {
+            return mock(OrderMapper.class);
+        }
+
+        @Bean
+        PaymentOrchestrator paymentOrchestrator() {
+            return mock(PaymentOrchestrator.class);
+        }
+
+        @Bean
+        IdempotencyService idempotencyService() {
+            return mock(IdempotencyService.class);
+        }
+
+        @Bean
+        OrderIntakeService orderIntakeService() {
+            return mock(OrderIntakeService.class);
+        }
+
+        @Bean
+        VynloProperties vynloProperties() {
+            return new VynloProperties();
+        }
+
+        @Bean
+        OrderExportService orderExportService() {
+            return mock(OrderExportService.class);
+        }
+
+        @Bean
+        OrderTimelineService orderTimelineService() {
+            return mock(OrderTimelineService.class);
+        }
+
+        @Bean
+        OrderStatusTracker orderStatusTracker() {
+            return mock(OrderStatusTracker.class);
+        }
+
+        @Bean
+        UserService userService() {
+            return mock(UserService.class);
+        }
+    }
+}
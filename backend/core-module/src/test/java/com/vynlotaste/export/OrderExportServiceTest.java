@@ -0,0 +1,80 @@
+package com.vynlotaste.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Limite de exports simultâneos: o excedente é recusado com TOO_MANY_REQUESTS (429) antes de o
+ * destino ser aberto, e a vaga volta quando o export termina, mesmo com falha.
+ */
+class OrderExportServiceTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        StatelessSession session = mock(StatelessSession.class);
+        when(session.beginTransaction()).thenReturn(mock(Transaction.class));
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+
+        VynloProperties properties = new VynloProperties();
+        properties.getExport().setMaxConcurrent(1);
+        exportService = new OrderExportService(entityManagerFactory, new ObjectMapper(), properties, meterRegistry);
+        exportService.initialize();
+    }
+
+    @Test
+    void exportBeyondTheLimitIsRejectedBeforeItsTargetIsOpened() {
+        AtomicReference<Throwable> rejected = new AtomicReference<>();
+        AtomicReference<Boolean> nestedOpened = new AtomicReference<>(false);
+
+        // O destino do primeiro export abre o segundo enquanto segura a única vaga
+        assertThatThrownBy(() -> exportService.export(FROM, TO, ExportFormat.CSV, () -> {
+            assertThat(meterRegistry.get("vynlo.orders.export.active").gauge().value()).isEqualTo(1.0);
+            try {
+                exportService.export(FROM, TO, ExportFormat.CSV, () -> {
+                    nestedOpened.set(true);
+                    throw new IOException("não deveria abrir");
+                });
+            } catch (Throwable e) {
+                rejected.set(e);
+            }
+            throw new IOException("cliente desconectou");
+        })).isInstanceOf(IOException.class).hasMessage("cliente desconectou");
+
+        assertThat(rejected.get()).isInstanceOfSatisfying(BusinessException.class,
+            e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.TOO_MANY_REQUESTS));
+        assertThat(nestedOpened.get()).isFalse();
+
+        // A falha do primeiro devolveu a vaga
+        assertThat(meterRegistry.get("vynlo.orders.export.active").gauge().value()).isZero();
+        assertThatThrownBy(() -> exportService.export(FROM, TO, ExportFormat.NDJSON, () -> {
+            throw new IOException("aberto");
+        })).hasMessage("aberto");
+    }
+}
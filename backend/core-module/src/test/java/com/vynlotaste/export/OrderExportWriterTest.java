@@ -0,0 +1,87 @@
+package com.vynlotaste.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.entity.Order;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Formato das linhas do export: CSV com escape RFC 4180 e NDJSON com um objeto por pedido,
+ * incluindo pedidos sem itens.
+ */
+class OrderExportWriterTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 2, 10, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void csvWritesOneEscapedLinePerItem() throws IOException {
+        String csv = export(ExportFormat.CSV, List.of(
+            item(1L, 10L, "Pizza, \"grande\""),
+            item(1L, 11L, "Suco"),
+            order(2L)));
+
+        assertThat(csv.split("\r\n")).containsExactly(
+            "order_id,order_number,status,type,created_at,total_amount,customer_id,customer_email,"
+                + "item_id,product_id,product_name,quantity,unit_price",
+            "1,VYN-1,DELIVERED,DELIVERY,2024-01-02T10:00,59.80,7,cliente@vynlo.com,10,3,\"Pizza, \"\"grande\"\"\",2,29.90",
+            "1,VYN-1,DELIVERED,DELIVERY,2024-01-02T10:00,59.80,7,cliente@vynlo.com,11,3,Suco,2,29.90",
+            "2,VYN-2,DELIVERED,DELIVERY,2024-01-02T10:00,59.80,7,cliente@vynlo.com,,,,,");
+        assertThat(CsvOrderExportWriter.escape("linha\nquebrada")).isEqualTo("\"linha\nquebrada\"");
+    }
+
+    @Test
+    void ndjsonGroupsTheItemsOfEachOrder() throws IOException {
+        String ndjson = export(ExportFormat.NDJSON, List.of(
+            item(1L, 10L, "Pizza"),
+            item(1L, 11L, "Suco"),
+            order(2L)));
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("orderNumber").asText()).isEqualTo("VYN-1");
+        assertThat(first.get("status").asText()).isEqualTo("DELIVERED");
+        assertThat(first.get("totalAmount").decimalValue()).isEqualByComparingTo("59.80");
+        assertThat(first.get("items")).extracting(item -> item.get("productName").asText())
+            .containsExactly("Pizza", "Suco");
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asLong()).isEqualTo(2L);
+        assertThat(second.get("items")).isEmpty();
+    }
+
+    private String export(ExportFormat format, List<OrderExportRow> rows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OrderExportWriter writer = format.open(out, objectMapper)) {
+            for (OrderExportRow row : rows) {
+                writer.write(row);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static OrderExportRow item(long orderId, long itemId, String productName) {
+        return new OrderExportRow(orderId, "VYN-" + orderId, Order.OrderStatus.DELIVERED, Order.OrderType.DELIVERY,
+            CREATED, new BigDecimal("59.80"), 7L, "cliente@vynlo.com", itemId, 3L, productName, 2,
+            new BigDecimal("29.90"));
+    }
+
+    // Pedido sem itens: o LEFT JOIN traz as colunas de item nulas
+    private static OrderExportRow order(long orderId) {
+        return new OrderExportRow(orderId, "VYN-" + orderId, Order.OrderStatus.DELIVERED, Order.OrderType.DELIVERY,
+            CREATED, new BigDecimal("59.80"), 7L, "cliente@vynlo.com", null, null, null, null, null);
+    }
+}
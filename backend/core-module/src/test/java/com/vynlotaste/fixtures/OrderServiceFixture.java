@@ -0,0 +1,68 @@
+package com.vynlotaste.fixtures;
+
+import com.vynlotaste.board.ActiveOrderIndex;
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.inventory.StockHoldService;
+import com.vynlotaste.inventory.StockReservationService;
+import com.vynlotaste.notification.NotificationService;
+import com.vynlotaste.outbox.OutboxService;
+import com.vynlotaste.pagination.ApproximateCounter;
+import com.vynlotaste.repository.ArchivedOrderQuery;
+import com.vynlotaste.repository.OrderListQuery;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.repository.ProcessOrderFunction;
+import com.vynlotaste.repository.ProductRepository;
+import com.vynlotaste.repository.UserRepository;
+import com.vynlotaste.search.ProductSearchIndex;
+import com.vynlotaste.service.OrderNumberGenerator;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Monta um {@link OrderService} (e o {@link ProductService} real que ele usa) com mocks em
+ * todas as dependências. Os testes configuram ou substituem os campos de que precisam antes de
+ * {@link #build()}; uma dependência nova no serviço só muda esta classe.
+ */
+public class OrderServiceFixture {
+
+    public OrderRepository orderRepository = mock(OrderRepository.class);
+    public UserRepository userRepository = mock(UserRepository.class);
+    public ProductRepository productRepository = mock(ProductRepository.class);
+    public OutboxService outboxService = mock(OutboxService.class);
+    public MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    public NotificationService notificationService = mock(NotificationService.class);
+    public StockReservationService stockReservationService = mock(StockReservationService.class);
+    public StockHoldService stockHoldService = mock(StockHoldService.class);
+    public ActiveOrderIndex activeOrderIndex = mock(ActiveOrderIndex.class);
+    public ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+    public ApproximateCounter approximateCounter = mock(ApproximateCounter.class);
+    public OrderListQuery orderListQuery = mock(OrderListQuery.class);
+    public ProcessOrderFunction processOrderFunction = mock(ProcessOrderFunction.class);
+    public ArchivedOrderQuery archivedOrderQuery = mock(ArchivedOrderQuery.class);
+    public ProductSearchIndex productSearchIndex = mock(ProductSearchIndex.class);
+    public VynloProperties properties = new VynloProperties();
+
+    {
+        properties.getOrderNumber().setNodeId(1);
+    }
+
+    public ProductService productService() {
+        return new ProductService(productRepository, cacheManager, stockReservationService, outboxService,
+            productSearchIndex);
+    }
+
+    public OrderService build() {
+        OrderService orderService = new OrderService(orderRepository, userRepository, productService(),
+            outboxService, meterRegistry, notificationService, stockReservationService, stockHoldService,
+            new OrderNumberGenerator(properties), activeOrderIndex, cacheManager, approximateCounter,
+            orderListQuery, processOrderFunction, archivedOrderQuery, properties);
+        orderService.initializeMetrics();
+        return orderService;
+    }
+}
@@ -0,0 +1,189 @@
+package com.vynlotaste.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.exception.ErrorCode;
+import com.vynlotaste.exception.order.IdempotencyConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Execução idempotente num Redis embutido: duplicata concorrente espera a original, reuso da
+ * chave com outro corpo, liberação da chave quando a original falha, isolamento por escopo e
+ * gravação da resposta só sobre o próprio marcador.
+ */
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "orders:cliente@vynlo.com";
+    private static final String KEY = "3f9c2b1e-7a4d-4c1b-9e0f-5a6b7c8d9e0f";
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private final VynloProperties properties = new VynloProperties();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private IdempotencyService idempotencyService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", redisPort);
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        idempotencyService = new IdempotencyService(redis, new ObjectMapper(), properties, new SimpleMeterRegistry(),
+            transactionManager);
+        idempotencyService.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheOriginalAndReplaysItsResponse() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch originalRunning = new CountDownLatch(1);
+        CountDownLatch duplicateWaiting = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyService.IdempotentResult<String>> original = executor.submit(() ->
+                idempotencyService.execute(SCOPE, KEY, Map.of("total", 10), String.class, () -> {
+                    originalRunning.countDown();
+                    await(duplicateWaiting);
+                    return "pedido-" + executions.incrementAndGet();
+                }));
+            assertThat(originalRunning.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<IdempotencyService.IdempotentResult<String>> duplicate = executor.submit(() ->
+                idempotencyService.execute(SCOPE, KEY, Map.of("total", 10), String.class,
+                    () -> "pedido-" + executions.incrementAndGet()));
+            // A duplicata encontra o marcador em andamento e fica esperando a original
+            Thread.sleep(200);
+            assertThat(duplicate.isDone()).isFalse();
+            duplicateWaiting.countDown();
+
+            assertThat(original.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyService.IdempotentResult<>("pedido-1", false));
+            assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo(new IdempotencyService.IdempotentResult<>("pedido-1", true));
+            assertThat(executions).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejected() {
+        idempotencyService.execute(SCOPE, KEY, Map.of("total", 10), String.class, () -> "pedido-1");
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, Map.of("total", 99), String.class,
+                () -> "pedido-2"))
+            .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.IDEMPOTENCY_KEY_REUSED));
+    }
+
+    @Test
+    void failedOriginalReleasesTheKeyForTheRetry() {
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, KEY, Map.of("total", 10), String.class, () -> {
+            throw new IllegalStateException("estoque indisponível");
+        })).hasMessage("estoque indisponível");
+        assertThat(redis.hasKey(IdempotencyService.KEY_PREFIX + SCOPE + ":" + KEY)).isFalse();
+
+        IdempotencyService.IdempotentResult<String> retry = idempotencyService.execute(SCOPE, KEY,
+            Map.of("total", 10), String.class, () -> "pedido-1");
+
+        assertThat(retry).isEqualTo(new IdempotencyService.IdempotentResult<>("pedido-1", false));
+    }
+
+    @Test
+    void keysAreIsolatedPerScope() {
+        idempotencyService.execute(SCOPE, KEY, Map.of("total", 10), String.class, () -> "pedido-1");
+
+        // Outro usuário com a mesma chave e outro corpo não vê nem bloqueia a resposta do primeiro
+        IdempotencyService.IdempotentResult<String> other = idempotencyService.execute("orders:outro@vynlo.com", KEY,
+            Map.of("total", 99), String.class, () -> "pedido-2");
+
+        assertThat(other).isEqualTo(new IdempotencyService.IdempotentResult<>("pedido-2", false));
+    }
+
+    @Test
+    void responseIsNotWrittenOverAMarkerThatChangedHands() {
+        String redisKey = IdempotencyService.KEY_PREFIX + SCOPE + ":" + KEY;
+
+        IdempotencyService.IdempotentResult<String> result = idempotencyService.execute(SCOPE, KEY,
+            Map.of("total", 10), String.class, () -> {
+                // O marcador vive mais que o prazo da ação
+                assertThat(redis.getExpire(redisKey, TimeUnit.SECONDS))
+                    .isGreaterThan(properties.getIdempotency().getActionTimeout().toSeconds());
+                // Simula o marcador expirando e outra execução adquirindo a chave
+                redis.opsForValue().set(redisKey, "marcador-de-outra-execucao");
+                return "pedido-1";
+            });
+
+        assertThat(result).isEqualTo(new IdempotencyService.IdempotentResult<>("pedido-1", false));
+        assertThat(redis.opsForValue().get(redisKey)).isEqualTo("marcador-de-outra-execucao");
+    }
+
+    @Test
+    void inFlightTtlMustOutlastTheActionTimeout() {
+        properties.getIdempotency().setActionTimeout(Duration.ofSeconds(30));
+        properties.getIdempotency().setInFlightTtl(Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> new IdempotencyService(redis, new ObjectMapper(), properties, new SimpleMeterRegistry(),
+                transactionManager).initialize())
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("in-flight-ttl");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
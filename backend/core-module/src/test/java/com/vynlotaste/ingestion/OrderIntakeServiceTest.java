@@ -0,0 +1,101 @@
+package com.vynlotaste.ingestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.order.OrderValidationException;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.service.OrderNumberGenerator;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderIntakeRepository repository = mock(OrderIntakeRepository.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final UserService userService = mock(UserService.class);
+    private OrderIntakeService intakeService;
+
+    @BeforeEach
+    void setUp() {
+        intakeService = new OrderIntakeService(repository, orderService,
+            orderNumberGenerator(), userService, objectMapper, new SimpleMeterRegistry());
+        intakeService.initializeMetrics();
+    }
+
+    @Test
+    void enqueueStoresTheRequestUnderAReservedOrderNumber() throws Exception {
+        OrderRequestDto request = TestDataFixtures.createOrderRequestDto();
+
+        OrderIntakeResponse response = intakeService.enqueue(request);
+
+        ArgumentCaptor<OrderIntake> saved = ArgumentCaptor.forClass(OrderIntake.class);
+        verify(repository).save(saved.capture());
+        assertThat(response.status()).isEqualTo(OrderIntake.Status.QUEUED);
+        assertThat(response.trackingId()).isEqualTo(saved.getValue().getTrackingId());
+        assertThat(OrderNumberGenerator.normalize(response.trackingId())).isEqualTo(response.trackingId());
+        assertThat(objectMapper.readValue(saved.getValue().getPayload(), OrderRequestDto.class).getCustomerId())
+            .isEqualTo(request.getCustomerId());
+    }
+
+    @Test
+    void invalidRequestIsRefusedBeforeEnteringTheQueue() {
+        OrderRequestDto request = TestDataFixtures.createOrderRequestDto();
+        doThrow(new OrderValidationException("Order must have at least one item"))
+            .when(orderService).validateOrderRequest(request);
+
+        assertThatThrownBy(() -> intakeService.enqueue(request)).isInstanceOf(OrderValidationException.class);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void statusLookupNormalizesTheTrackingCodeAndRejectsUnknownOnes() {
+        String trackingId = orderNumberGenerator().nextOrderNumber();
+        OrderIntake intake = new OrderIntake();
+        intake.setTrackingId(trackingId);
+        when(repository.findByTrackingId(trackingId)).thenReturn(Optional.of(intake));
+
+        String typed = trackingId.toLowerCase().substring(0, 4) + "-" + trackingId.toLowerCase().substring(4);
+        assertThat(intakeService.getStatus(typed).trackingId()).isEqualTo(trackingId);
+        assertThatThrownBy(() -> intakeService.getStatus("not-a-code")).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void onlyTheCustomerWhoPlacedTheRequestOwnsIt() {
+        String trackingId = orderNumberGenerator().nextOrderNumber();
+        OrderIntake intake = new OrderIntake();
+        intake.setTrackingId(trackingId);
+        intake.setCustomerId(1L);
+        when(repository.findByTrackingId(trackingId)).thenReturn(Optional.of(intake));
+        when(userService.findById(1L)).thenReturn(TestDataFixtures.createTestUser());
+        String ownerEmail = TestDataFixtures.createTestUser().getEmail();
+
+        assertThat(intakeService.isOwner(trackingId.toLowerCase(), ownerEmail)).isTrue();
+        assertThat(intakeService.isOwner(trackingId, "outro@vynlo.com")).isFalse();
+        assertThat(intakeService.isOwner(orderNumberGenerator().nextOrderNumber(), ownerEmail)).isFalse();
+        assertThat(intakeService.isOwner("not-a-code", ownerEmail)).isFalse();
+    }
+
+    private static OrderNumberGenerator orderNumberGenerator() {
+        VynloProperties properties = new VynloProperties();
+        properties.getOrderNumber().setNodeId(1);
+        return new OrderNumberGenerator(properties);
+    }
+}
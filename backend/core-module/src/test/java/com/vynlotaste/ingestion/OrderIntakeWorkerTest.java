@@ -0,0 +1,147 @@
+package com.vynlotaste.ingestion;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OrderIntakeWorkerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final OrderIntakeRepository repository = mock(OrderIntakeRepository.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final VynloProperties properties = new VynloProperties();
+    private final Map<Long, OrderIntake> queue = new TreeMap<>();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private ThreadPoolTaskExecutor executor;
+    private OrderIntakeWorker worker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.getIngestion().setEnabled(true);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        String payload = objectMapper.writeValueAsString(TestDataFixtures.createOrderRequestDto());
+        for (long id = 1; id <= 8; id++) {
+            OrderIntake intake = new OrderIntake();
+            intake.setId(id);
+            intake.setTrackingId("T" + id);
+            intake.setCustomerId(1L);
+            intake.setPayload(payload);
+            queue.put(id, intake);
+        }
+        when(repository.lockNextBatch(anyInt())).thenAnswer(invocation ->
+            queued(intake -> true).stream().limit(invocation.<Integer>getArgument(0)).toList());
+        when(repository.lockQueuedIn(any())).thenAnswer(invocation ->
+            queued(intake -> invocation.<Collection<Long>>getArgument(0).contains(intake.getId())));
+        when(repository.lockQueued(anyLong())).thenAnswer(invocation ->
+            queued(intake -> intake.getId().equals(invocation.getArgument(0))).stream().findFirst());
+        when(repository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(queue.get(invocation.<Long>getArgument(0))));
+
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getIngestion().getWorkers());
+        executor.setQueueCapacity(properties.getIngestion().getWorkers());
+        executor.initialize();
+        worker = new OrderIntakeWorker(repository, orderService, objectMapper, transactionManager, properties,
+            new SimpleMeterRegistry(), executor);
+        worker.initialize();
+    }
+
+    @Test
+    void failedBatchIsSplitUntilThePoisonOrderIsDeadLetteredAlone() {
+        failBatchesContaining("T6", new IllegalStateException("corrupted order"));
+
+        worker.processBatch(properties.getIngestion());
+
+        assertThat(queue.get(6L).getStatus()).isEqualTo(OrderIntake.Status.REJECTED);
+        assertThat(queue.get(6L).getAttempts()).isEqualTo(1);
+        assertThat(queue.values()).filteredOn(intake -> !intake.getId().equals(6L))
+            .allSatisfy(intake -> assertThat(intake.getStatus()).isEqualTo(OrderIntake.Status.ACCEPTED));
+        // Lote, [1-4], [5-8], [5-6], 5, 6, [7-8]: divisões em vez de um pedido por transação
+        assertThat(batchCalls.get()).isEqualTo(7);
+    }
+
+    @Test
+    void transientFailureLeavesTheWholeBatchQueued() {
+        failBatchesContaining("T1", new QueryTimeoutException("lock timeout"));
+
+        worker.processBatch(properties.getIngestion());
+
+        assertThat(queue.values()).allSatisfy(intake -> {
+            assertThat(intake.getStatus()).isEqualTo(OrderIntake.Status.QUEUED);
+            assertThat(intake.getAttempts()).isZero();
+        });
+        assertThat(batchCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void pollStartsWorkersOnTheExecutorWithoutWaitingForThem() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.lockNextBatch(anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        worker.poll();
+        worker.poll();
+        worker.poll();
+
+        assertThat(worker.activeWorkers()).isEqualTo(properties.getIngestion().getWorkers());
+        release.countDown();
+        executor.getThreadPoolExecutor().shutdown();
+        assertThat(executor.getThreadPoolExecutor().awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(worker.activeWorkers()).isZero();
+    }
+
+    private void failBatchesContaining(String poisonTrackingId, RuntimeException failure) {
+        when(orderService.createOrdersInBatch(any())).thenAnswer(invocation -> {
+            batchCalls.incrementAndGet();
+            Map<String, OrderRequestDto> requests = invocation.getArgument(0);
+            if (requests.containsKey(poisonTrackingId)) {
+                throw failure;
+            }
+            Map<String, OrderService.BatchOrderResult> results = new LinkedHashMap<>();
+            requests.keySet().forEach(trackingId -> {
+                Order order = TestDataFixtures.createTestOrder();
+                order.setOrderNumber(trackingId);
+                results.put(trackingId, new OrderService.BatchOrderResult(order, null));
+            });
+            return results;
+        });
+    }
+
+    private List<OrderIntake> queued(Predicate<OrderIntake> filter) {
+        return queue.values().stream()
+            .filter(intake -> intake.getStatus() == OrderIntake.Status.QUEUED)
+            .filter(filter)
+            .toList();
+    }
+}
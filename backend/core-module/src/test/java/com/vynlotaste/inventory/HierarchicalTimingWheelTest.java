@@ -0,0 +1,64 @@
+package com.vynlotaste.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 10;
+
+    @Test
+    void expiresEachTimeoutOnItsDeadlineTickAcrossLevels() {
+        long start = 1_000_003;
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, start);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // Cobre os níveis 0 a 2 do wheel (até ~64^3 ticks)
+            long deadline = start + 1 + random.nextInt(64 * 64 * 70) * TICK;
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        int expired = 0;
+        for (long now = start; wheel.size() > 0; now += TICK) {
+            for (Long deadline : wheel.advanceTo(now)) {
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                assertThat(now - deadline).isLessThan(TICK);
+                expired++;
+            }
+        }
+        assertThat(expired).isEqualTo(deadlines.size());
+    }
+
+    @Test
+    void cancelledTimeoutNeverExpires() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 0);
+        HierarchicalTimingWheel.Timeout<String> kept = wheel.schedule("kept", 500);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 500);
+
+        assertThat(wheel.cancel(cancelled)).isTrue();
+        assertThat(wheel.cancel(cancelled)).isFalse();
+
+        assertThat(wheel.advanceTo(490)).isEmpty();
+        assertThat(wheel.advanceTo(500)).containsExactly(kept.getPayload());
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastAndFarDeadlinesAreHandled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 1000);
+        wheel.schedule("past", 10);
+        long far = 1000 + (1L << 25);
+        wheel.schedule("far", far);
+
+        assertThat(wheel.advanceTo(1000)).containsExactly("past");
+        assertThat(wheel.advanceTo(far - 1)).isEmpty();
+        assertThat(wheel.advanceTo(far)).containsExactly("far");
+    }
+}
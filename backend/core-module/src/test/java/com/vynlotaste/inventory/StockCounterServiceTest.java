@@ -0,0 +1,200 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Contadores de estoque com os scripts Lua rodando num Redis embutido e o diário no H2: commit,
+ * rollback, conciliação de operações abandonadas e recarga depois de uma perda do Redis.
+ */
+class StockCounterServiceTest {
+
+    private static final long PIZZA = 1L;
+    private static final long SUCO = 2L;
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private StockCounterService counters;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", redisPort);
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:stock-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_quantity INT NOT NULL, "
+            + "version BIGINT NOT NULL, updated_at TIMESTAMP, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE stock_journal (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "reservation_id VARCHAR(36) NOT NULL, product_id BIGINT NOT NULL, delta INT NOT NULL, "
+            + "applied BOOLEAN NOT NULL DEFAULT FALSE, created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO products VALUES (?, 10, 0, CURRENT_TIMESTAMP, false)", PIZZA);
+        jdbcTemplate.update("INSERT INTO products VALUES (?, 5, 0, CURRENT_TIMESTAMP, false)", SUCO);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        VynloProperties properties = new VynloProperties();
+        properties.getStockCounter().setEnabled(true);
+        counters = new StockCounterService(redis, jdbcTemplate, transactionManager, new ConcurrentMapCacheManager(),
+            properties, new SimpleMeterRegistry());
+        counters.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void committedMovementsReachTheDatabaseThroughTheJournalWithoutBumpingTheVersion() {
+        transactionTemplate.executeWithoutResult(status ->
+            assertThat(counters.tryDecrement(Map.of(PIZZA, 3, SUCO, 1))).isEmpty());
+        assertThat(counter(PIZZA)).isEqualTo("7");
+        assertThat(pendingJournal()).isEqualTo(2);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            counters.increment(Map.of(PIZZA, 1));
+            // A devolução só chega ao contador depois do commit
+            assertThat(counter(PIZZA)).isEqualTo("7");
+        });
+        assertThat(counter(PIZZA)).isEqualTo("8");
+        assertThat(redis.opsForHash().size(StockCounterService.IN_FLIGHT_KEY)).isZero();
+
+        counters.flush();
+
+        assertThat(databaseStock(PIZZA)).isEqualTo(8);
+        assertThat(databaseStock(SUCO)).isEqualTo(4);
+        assertThat(pendingJournal()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(version) FROM products", Long.class)).isZero();
+    }
+
+    @Test
+    void rolledBackOperationsLeaveCountersAndJournalUntouched() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(counters.tryDecrement(Map.of(PIZZA, 4))).isEmpty();
+            assertThat(counter(PIZZA)).isEqualTo("6");
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            counters.increment(Map.of(PIZZA, 2));
+            status.setRollbackOnly();
+        });
+
+        assertThat(counter(PIZZA)).isEqualTo("10");
+        assertThat(redis.opsForHash().size(StockCounterService.IN_FLIGHT_KEY)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_journal", Integer.class)).isZero();
+
+        // Tudo ou nada: o produto com estoque não é decrementado
+        assertThat(counters.tryDecrement(Map.of(PIZZA, 1, SUCO, 6))).containsExactly(SUCO);
+        assertThat(counter(PIZZA)).isEqualTo("10");
+        assertThat(counter(SUCO)).isEqualTo("5");
+    }
+
+    @Test
+    void abandonedOperationsAreSettledFromTheJournal() {
+        redis.opsForHash().put(StockCounterService.COUNTERS_KEY, String.valueOf(PIZZA), "5");
+        redis.opsForHash().put(StockCounterService.COUNTERS_KEY, String.valueOf(SUCO), "5");
+        // Nó caiu antes do commit: decrementou o contador, mas não há movimentos
+        redis.opsForHash().put(StockCounterService.IN_FLIGHT_KEY, "reserve-lost", "reserve|0|1:2");
+        // Nó caiu depois do commit, antes de concluir: os movimentos valem
+        journal("reserve-committed", PIZZA, -3);
+        redis.opsForHash().put(StockCounterService.IN_FLIGHT_KEY, "reserve-committed", "reserve|0|1:3");
+        journal("release-committed", SUCO, 1);
+        redis.opsForHash().put(StockCounterService.IN_FLIGHT_KEY, "release-committed", "release|0|2:1");
+        redis.opsForHash().put(StockCounterService.IN_FLIGHT_KEY, "release-lost", "release|0|2:4");
+        // Recente: ainda pode estar em andamento
+        redis.opsForHash().put(StockCounterService.IN_FLIGHT_KEY, "recent",
+            StockCounterService.inFlight(StockCounterService.RESERVE, Map.of(PIZZA, 1)));
+
+        counters.reconcile();
+        counters.reconcile();
+
+        assertThat(counter(PIZZA)).isEqualTo("7");
+        assertThat(counter(SUCO)).isEqualTo("6");
+        assertThat(redis.opsForHash().keys(StockCounterService.IN_FLIGHT_KEY)).containsExactly("recent");
+    }
+
+    @Test
+    void countersReloadedAfterRedisLossIncludeMovementsNotYetFlushed() {
+        assertThat(counters.tryDecrement(Map.of(PIZZA, 4))).isEmpty();
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        assertThat(counters.tryDecrement(Map.of(PIZZA, 1))).isEmpty();
+        assertThat(counter(PIZZA)).isEqualTo("5");
+        assertThat(counters.tryDecrement(Map.of(3L, 1))).containsExactly(3L);
+
+        counters.flush();
+        assertThat(databaseStock(PIZZA)).isEqualTo(5);
+    }
+
+    @Test
+    void currentStockReadsLiveCountersAndFallsBackToTheDatabaseWithoutLoading() {
+        assertThat(counters.tryDecrement(Map.of(PIZZA, 4))).isEmpty();
+        // Movimento do suco ainda não aplicado e sem contador no Redis
+        journal("pending", SUCO, -2);
+
+        assertThat(counters.currentStock(List.of(PIZZA, SUCO, 3L))).containsOnly(entry(PIZZA, 6), entry(SUCO, 3));
+        assertThat(counter(SUCO)).isNull();
+    }
+
+    private void journal(String reservationId, long productId, int delta) {
+        jdbcTemplate.update(StockCounterService.JOURNAL_SQL, reservationId, productId, delta);
+    }
+
+    private Object counter(long productId) {
+        return redis.opsForHash().get(StockCounterService.COUNTERS_KEY, String.valueOf(productId));
+    }
+
+    private int pendingJournal() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_journal WHERE applied = false", Integer.class);
+    }
+
+    private int databaseStock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,123 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de carga dos contadores de estoque contra um Redis real: decrementos concorrentes no
+ * mesmo produto nunca vendem além do estoque, e a gravação do diário leva o banco ao mesmo valor.
+ * O banco é H2. Pulado sem Docker.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+class StockCounterStressTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int INITIAL_STOCK = 4_000;
+    private static final int DECREMENTS = 10_000;
+    private static final int THREADS = 32;
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+        .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private JdbcTemplate jdbcTemplate;
+    private StockCounterService counters;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:stock-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_quantity INT NOT NULL, "
+            + "version BIGINT NOT NULL, updated_at TIMESTAMP, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE stock_journal (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "reservation_id VARCHAR(36) NOT NULL, product_id BIGINT NOT NULL, delta INT NOT NULL, "
+            + "applied BOOLEAN NOT NULL DEFAULT FALSE, created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO products VALUES (?, ?, 0, CURRENT_TIMESTAMP, false)", PRODUCT_ID, INITIAL_STOCK);
+
+        VynloProperties properties = new VynloProperties();
+        properties.getStockCounter().setEnabled(true);
+        counters = new StockCounterService(redis, jdbcTemplate, new DataSourceTransactionManager(dataSource),
+            new ConcurrentMapCacheManager(), properties, new SimpleMeterRegistry());
+        counters.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void concurrentDecrementsOnOneProductNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>(DECREMENTS);
+        try {
+            for (int i = 0; i < DECREMENTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return counters.tryDecrement(Map.of(PRODUCT_ID, 1)).isEmpty();
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    accepted++;
+                }
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            log.info("{} decrementos concorrentes em {} ms ({} aceitos)", DECREMENTS, elapsedMillis, accepted);
+
+            assertThat(accepted).isEqualTo(INITIAL_STOCK);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(redis.opsForHash().get(StockCounterService.COUNTERS_KEY, String.valueOf(PRODUCT_ID))).isEqualTo("0");
+        counters.flush();
+        assertThat(databaseStock()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_journal WHERE applied = false", Integer.class))
+            .isZero();
+    }
+
+    private int databaseStock() {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, PRODUCT_ID);
+    }
+}
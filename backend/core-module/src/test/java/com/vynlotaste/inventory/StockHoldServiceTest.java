@@ -0,0 +1,106 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.service.OrderService;
+import com.vynlotaste.service.PaymentOrchestrator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockHoldServiceTest {
+
+    private static final long ORDER_ID = 7L;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final VynloProperties properties = new VynloProperties();
+    private StockHoldService holds;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // O ticker não roda sozinho: os testes avançam o wheel chamando tick()
+        properties.getStockHold().setEnabled(false);
+        properties.getStockHold().setTick(Duration.ofMillis(10));
+        ObjectProvider<OrderService> orderServiceProvider = mock(ObjectProvider.class);
+        when(orderServiceProvider.getObject()).thenReturn(orderService);
+        holds = new StockHoldService(orderRepository, orderServiceProvider, mock(ObjectProvider.class), properties,
+            new SimpleMeterRegistry());
+        holds.initialize();
+        properties.getStockHold().setEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void commitInsideARolledBackTransactionKeepsTheHold() {
+        holds.place(order());
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> holds.commit(ORDER_ID));
+        assertThat(holds.activeHolds()).isEqualTo(1);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(holds.activeHolds()).isEqualTo(1);
+    }
+
+    @Test
+    void releaseTakesEffectOnlyAfterTheTransactionCommits() {
+        holds.place(order());
+
+        List<TransactionSynchronization> synchronizations = inTransaction(() -> holds.release(ORDER_ID));
+        assertThat(holds.activeHolds()).isEqualTo(1);
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(holds.activeHolds()).isZero();
+    }
+
+    @Test
+    void expiredHoldCancelsWithACompareAndSetOnTheStatusItRead() throws Exception {
+        properties.getStockHold().setTtl(Duration.ofMillis(1));
+        Order order = order();
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        holds.place(order);
+
+        Thread.sleep(50);
+        holds.tick();
+
+        verify(orderService).expireOrder(ORDER_ID, Order.OrderStatus.PENDING, StockHoldService.EXPIRED_REASON);
+        assertThat(holds.activeHolds()).isZero();
+    }
+
+    private static List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        action.run();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static Order order() {
+        Order order = TestDataFixtures.createTestOrder();
+        order.setId(ORDER_ID);
+        order.setStatus(Order.OrderStatus.PENDING);
+        return order;
+    }
+}
@@ -0,0 +1,92 @@
+package com.vynlotaste.inventory;
+
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.exception.InsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Reserva em lote com os UPDATEs guardados por {@code stock_quantity >= ?} no H2: uma linha sem
+ * estoque suficiente não deixa nenhum produto decrementado.
+ */
+class StockReservationServiceTest {
+
+    private static final long PIZZA = 1L;
+    private static final long SUCO = 2L;
+    private static final long SOBREMESA = 3L;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ConcurrentMapCacheManager cacheManager;
+    private StockReservationService reservations;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:reservation-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, stock_quantity INT NOT NULL, "
+            + "version BIGINT NOT NULL, updated_at TIMESTAMP, deleted BOOLEAN NOT NULL)");
+        jdbcTemplate.update("INSERT INTO products VALUES (?, 10, 0, CURRENT_TIMESTAMP, false)", PIZZA);
+        jdbcTemplate.update("INSERT INTO products VALUES (?, 1, 0, CURRENT_TIMESTAMP, false)", SUCO);
+        jdbcTemplate.update("INSERT INTO products VALUES (?, 5, 0, CURRENT_TIMESTAMP, false)", SOBREMESA);
+
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        reservations = new StockReservationService(jdbcTemplate, cacheManager, mock(StockCounterService.class));
+    }
+
+    @Test
+    void reserveWithOneLineShortDecrementsNothing() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                reservations.reserve(Map.of(PIZZA, 2, SUCO, 3, SOBREMESA, 1))))
+            .isInstanceOf(InsufficientStockException.class)
+            .hasMessageContaining("[" + SUCO + "]");
+
+        assertThat(stock(PIZZA)).isEqualTo(10);
+        assertThat(stock(SUCO)).isEqualTo(1);
+        assertThat(stock(SOBREMESA)).isEqualTo(5);
+    }
+
+    @Test
+    void tryReserveWithOneLineShortGivesBackTheAppliedLinesAndKeepsTheTransactionUsable() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(reservations.tryReserve(Map.of(PIZZA, 2, SUCO, 3, SOBREMESA, 1))).containsExactly(SUCO);
+            // O próximo pedido do mesmo lote ainda reserva na mesma transação
+            assertThat(reservations.tryReserve(Map.of(PIZZA, 4))).isEmpty();
+        });
+
+        assertThat(stock(PIZZA)).isEqualTo(6);
+        assertThat(stock(SUCO)).isEqualTo(1);
+        assertThat(stock(SOBREMESA)).isEqualTo(5);
+    }
+
+    @Test
+    void reserveDecrementsEveryLineAndEvictsOnlyTheReservedProducts() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put("id:" + PIZZA, "pizza");
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put("id:" + SOBREMESA, "sobremesa");
+
+        transactionTemplate.executeWithoutResult(status -> reservations.reserve(Map.of(PIZZA, 10, SUCO, 1)));
+
+        assertThat(stock(PIZZA)).isZero();
+        assertThat(stock(SUCO)).isZero();
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("id:" + PIZZA)).isNull();
+        assertThat(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get("id:" + SOBREMESA)).isNotNull();
+    }
+
+    private int stock(long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
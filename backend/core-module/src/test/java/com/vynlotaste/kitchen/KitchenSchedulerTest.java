@@ -0,0 +1,154 @@
+package com.vynlotaste.kitchen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.board.OrderBoardDelta;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class KitchenSchedulerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long START = 1_700_000_000_000L;
+
+    private OrderRepository orderRepository;
+    private VynloProperties properties;
+    private KitchenScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        properties = new VynloProperties();
+        scheduler = new KitchenScheduler(orderRepository, mock(RedisMessageListenerContainer.class),
+            new ObjectMapper(), properties, new SimpleMeterRegistry());
+        scheduler.initialize();
+    }
+
+    @Test
+    void queuedOrdersTakeTheFirstFreeCookOfEachStation() {
+        properties.getKitchen().getCooks().put("pizzas", 2);
+        for (long id = 1; id <= 3; id++) {
+            givenItems(id, START + id, line(id, 100L, "Pizzas", 20));
+        }
+        givenItems(4L, START + 4, line(4L, 200L, "Bebidas", 5));
+
+        for (long id = 1; id <= 4; id++) {
+            scheduler.apply(delta(id, Order.OrderStatus.CONFIRMED, START + id, START));
+        }
+
+        assertThat(readyAt(1L)).isEqualTo(START + 20 * MINUTE);
+        assertThat(readyAt(2L)).isEqualTo(START + 20 * MINUTE);
+        assertThat(readyAt(3L)).isEqualTo(START + 40 * MINUTE);
+        assertThat(readyAt(4L)).isEqualTo(START + 5 * MINUTE);
+
+        // O cancelamento libera um cozinheiro e a fila é reprogramada a partir do instante do delta
+        scheduler.apply(delta(1L, Order.OrderStatus.CANCELLED, START + 1, START + 10 * MINUTE));
+        assertThat(scheduler.estimateReadyAt(1L)).isEmpty();
+        assertThat(readyAt(3L)).isEqualTo(START + 30 * MINUTE);
+    }
+
+    @Test
+    void actualPreparationTimesReplaceTheRegisteredEstimateAfterMinSamples() {
+        properties.getKitchen().setMinSamples(2);
+        long now = START;
+        for (long id = 1; id <= 2; id++) {
+            givenItems(id, now, line(id, 100L, "Pizzas", 10));
+            scheduler.apply(delta(id, Order.OrderStatus.CONFIRMED, now, now));
+            scheduler.apply(delta(id, Order.OrderStatus.PREPARING, now, now));
+            assertThat(readyAt(id)).isEqualTo(now + 10 * MINUTE);
+            now += 20 * MINUTE;
+            scheduler.apply(delta(id, Order.OrderStatus.READY, now - 20 * MINUTE, now));
+        }
+
+        givenItems(3L, now, line(3L, 100L, "Pizzas", 10));
+        scheduler.apply(delta(3L, Order.OrderStatus.CONFIRMED, now, now));
+        assertThat(readyAt(3L)).isEqualTo(now + 20 * MINUTE);
+    }
+
+    @Test
+    void quantityMultipliesTheWorkOfEachProduct() {
+        // Duas linhas do mesmo produto somam as quantidades
+        givenItems(1L, START, line(1L, 100L, "Pizzas", 10, 2), line(1L, 100L, "Pizzas", 10, 1),
+            line(1L, 200L, "Bebidas", 2, 3));
+
+        scheduler.apply(delta(1L, Order.OrderStatus.CONFIRMED, START, START));
+
+        assertThat(readyAt(1L)).isEqualTo(START + 30 * MINUTE);
+    }
+
+    @Test
+    void eventsReplanOnlyTheAffectedPartOfTheQueue() {
+        for (long id = 1; id <= 4; id++) {
+            givenItems(id, START + id, line(id, 100L, "Pizzas", 10));
+        }
+        scheduler.apply(delta(1L, Order.OrderStatus.CONFIRMED, START + 1, START));
+        scheduler.apply(delta(2L, Order.OrderStatus.CONFIRMED, START + 2, START));
+        scheduler.apply(delta(4L, Order.OrderStatus.CONFIRMED, START + 4, START));
+        assertThat(readyAt(4L)).isEqualTo(START + 30 * MINUTE);
+
+        // Delta atrasado de um pedido mais antigo entra antes do 4, que é empurrado
+        scheduler.apply(delta(3L, Order.OrderStatus.CONFIRMED, START + 3, START));
+        assertThat(readyAt(3L)).isEqualTo(START + 30 * MINUTE);
+        assertThat(readyAt(4L)).isEqualTo(START + 40 * MINUTE);
+
+        // O primeiro começa na hora prevista: a programação do resto da fila não muda
+        scheduler.apply(delta(1L, Order.OrderStatus.PREPARING, START + 1, START));
+        assertThat(readyAt(1L)).isEqualTo(START + 10 * MINUTE);
+        assertThat(readyAt(4L)).isEqualTo(START + 40 * MINUTE);
+
+        // Pronto antes do previsto: a fila inteira adianta
+        scheduler.apply(delta(1L, Order.OrderStatus.READY, START + 1, START + 5 * MINUTE));
+        assertThat(readyAt(2L)).isEqualTo(START + 15 * MINUTE);
+        assertThat(readyAt(4L)).isEqualTo(START + 35 * MINUTE);
+
+        // Cancelamento no meio da fila adianta só quem vem depois
+        scheduler.apply(delta(3L, Order.OrderStatus.CANCELLED, START + 3, START + 5 * MINUTE));
+        assertThat(readyAt(2L)).isEqualTo(START + 15 * MINUTE);
+        assertThat(readyAt(4L)).isEqualTo(START + 25 * MINUTE);
+    }
+
+    private void givenItems(long orderId, long createdAt, KitchenWorkLine... lines) {
+        List<KitchenWorkLine> withCreation = Arrays.stream(lines)
+            .map(line -> new KitchenWorkLine(line.orderId(), Order.OrderStatus.CONFIRMED, toLocal(createdAt),
+                toLocal(createdAt), line.productId(), line.station(), line.preparationTime(), line.quantity()))
+            .toList();
+        when(orderRepository.findKitchenWorkByOrderIds(List.of(orderId))).thenReturn(withCreation);
+    }
+
+    private static KitchenWorkLine line(long orderId, long productId, String station, int minutes) {
+        return line(orderId, productId, station, minutes, 1);
+    }
+
+    private static KitchenWorkLine line(long orderId, long productId, String station, int minutes, int quantity) {
+        return new KitchenWorkLine(orderId, Order.OrderStatus.CONFIRMED, null, null, productId, station, minutes, quantity);
+    }
+
+    private static OrderBoardDelta delta(long orderId, Order.OrderStatus to, long created, long at) {
+        return new OrderBoardDelta(orderId, "N" + orderId, Order.OrderType.DINE_IN, 1L, BigDecimal.TEN, null, to, created, at, null);
+    }
+
+    private long readyAt(long orderId) {
+        return scheduler.estimateReadyAt(orderId).orElseThrow()
+            .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,109 @@
+package com.vynlotaste.menu;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Snapshot do cardápio: bytes e ETag estáveis para o mesmo conteúdo, variante gzip e
+ * agrupamento dos pedidos de reconstrução.
+ */
+class MenuSnapshotServiceTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ThreadPoolTaskExecutor menuExecutor = mock(ThreadPoolTaskExecutor.class);
+    private MenuSnapshotService menuSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        menuSnapshotService = new MenuSnapshotService(productRepository, mock(StringRedisTemplate.class),
+            mock(RedisMessageListenerContainer.class), new ObjectMapper(), new SimpleMeterRegistry(), menuExecutor);
+        menuSnapshotService.initialize();
+    }
+
+    @Test
+    void sameMenuInAnyOrderKeepsTheSnapshotAndItsEtag() {
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(
+            product(1L, "Pizza", "Pizzas", "29.90"), product(2L, "Suco", "Bebidas", "8.00"), product(3L, "Bolo", null, "12.00")));
+        menuSnapshotService.rebuild();
+        MenuSnapshot first = menuSnapshotService.current();
+
+        // Mesmo cardápio lido em outra ordem; categoria em branco também cai em "Outros"
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(
+            product(3L, "Bolo", " ", "12.00"), product(2L, "Suco", "Bebidas", "8.00"), product(1L, "Pizza", "Pizzas", "29.90")));
+        menuSnapshotService.rebuild();
+
+        assertThat(menuSnapshotService.current()).isSameAs(first);
+        assertThat(first.etag(false)).isEqualTo("\"" + first.hash() + "\"");
+
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(
+            product(1L, "Pizza", "Pizzas", "31.90"), product(2L, "Suco", "Bebidas", "8.00"), product(3L, "Bolo", null, "12.00")));
+        menuSnapshotService.rebuild();
+
+        assertThat(menuSnapshotService.current().hash()).isNotEqualTo(first.hash());
+    }
+
+    @Test
+    void gzipVariantIsTheSameJsonWithItsOwnEtag() throws IOException {
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(product(1L, "Pizza", "Pizzas", "29.90")));
+
+        MenuSnapshot snapshot = menuSnapshotService.current();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(snapshot.body(true)))) {
+            assertThat(in.readAllBytes()).isEqualTo(snapshot.body(false));
+        }
+        assertThat(snapshot.etag(true)).isEqualTo("\"" + snapshot.hash() + "-gzip\"");
+        assertThat(new String(snapshot.body(false))).contains("\"Pizzas\"");
+    }
+
+    @Test
+    void rebuildRequestsArrivingWhileOneIsQueuedAreCoalesced() {
+        when(productRepository.findByAvailableTrue()).thenReturn(List.of(product(1L, "Pizza", "Pizzas", "29.90")));
+
+        menuSnapshotService.requestRebuild();
+        menuSnapshotService.requestRebuild();
+        menuSnapshotService.onMessage(null, null);
+
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(menuExecutor, times(1)).execute(task.capture());
+
+        // Um pedido que chega durante a reconstrução entra na fila de novo: pode ter lido o banco antes da mudança
+        when(productRepository.findByAvailableTrue()).thenAnswer(invocation -> {
+            menuSnapshotService.requestRebuild();
+            return List.of(product(1L, "Pizza", "Pizzas", "29.90"));
+        });
+        task.getValue().run();
+
+        verify(menuExecutor, times(2)).execute(task.capture());
+        assertThat(menuSnapshotService.current()).isNotNull();
+    }
+
+    private static Product product(long id, String name, String category, String price) {
+        Product product = TestDataFixtures.createTestProduct();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
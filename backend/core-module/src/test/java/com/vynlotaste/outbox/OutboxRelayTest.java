@@ -0,0 +1,106 @@
+package com.vynlotaste.outbox;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.event.EventPublisher;
+import com.vynlotaste.event.UserRegisteredEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .findAndRegisterModules()
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final EventPublisher eventPublisher = mock(EventPublisher.class);
+    private final VynloProperties properties = new VynloProperties();
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        relay = new OutboxRelay(repository, eventPublisher, objectMapper, transactionManager, properties,
+            new SimpleMeterRegistry());
+        relay.initialize();
+    }
+
+    @Test
+    void failingListenerLeavesTheEventInTheOutboxWithBackoff() throws Exception {
+        OutboxEvent delivered = outboxEvent(1L, new UserRegisteredEvent(10L, "ana@vynlo.com", "ana", "Ana", "CUSTOMER"));
+        OutboxEvent failing = outboxEvent(2L, new UserRegisteredEvent(20L, "bia@vynlo.com", "bia", "Bia", "CUSTOMER"));
+        when(repository.lockNextBatch(anyInt(), anyInt())).thenReturn(List.of(delivered, failing));
+        doThrow(new RuntimeException("Webhook user.registered failed for 1 of 1 endpoints"))
+            .when(eventPublisher).publishEvent(argThat(event -> ((UserRegisteredEvent) event).getUserId() == 20L));
+
+        LocalDateTime before = LocalDateTime.now();
+        int locked = relay.relayBatch(properties.getOutbox());
+
+        assertThat(locked).isEqualTo(2);
+        verify(repository).deleteAllInBatch(List.of(delivered));
+        assertThat(failing.getAttempts()).isEqualTo(1);
+        assertThat(failing.getLastError()).contains("failed for 1 of 1 endpoints");
+        assertThat(failing.getNextAttemptAt()).isAfter(before);
+        assertThat(delivered.getAttempts()).isZero();
+    }
+
+    @Test
+    void aFullBatchWithAFailureKeepsDraining() throws Exception {
+        properties.getOutbox().setBatchSize(2);
+        OutboxEvent failing = outboxEvent(1L, new UserRegisteredEvent(20L, "bia@vynlo.com", "bia", "Bia", "CUSTOMER"));
+        OutboxEvent next = outboxEvent(2L, new UserRegisteredEvent(10L, "ana@vynlo.com", "ana", "Ana", "CUSTOMER"));
+        OutboxEvent last = outboxEvent(3L, new UserRegisteredEvent(30L, "cris@vynlo.com", "cris", "Cris", "CUSTOMER"));
+        when(repository.lockNextBatch(anyInt(), anyInt()))
+            .thenReturn(List.of(failing, next))
+            .thenReturn(List.of(last));
+        doThrow(new RuntimeException("listener down"))
+            .when(eventPublisher).publishEvent(argThat(event -> ((UserRegisteredEvent) event).getUserId() == 20L));
+
+        relay.poll();
+
+        verify(repository).deleteAllInBatch(List.of(next));
+        verify(repository).deleteAllInBatch(List.of(last));
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheLimit() {
+        VynloProperties.Outbox settings = properties.getOutbox();
+        settings.setRetryBackoff(Duration.ofSeconds(1));
+        settings.setMaxRetryBackoff(Duration.ofSeconds(30));
+
+        assertThat(OutboxRelay.backoff(settings, 1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(OutboxRelay.backoff(settings, 3)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(OutboxRelay.backoff(settings, 5)).isEqualTo(Duration.ofSeconds(16));
+        assertThat(OutboxRelay.backoff(settings, 6)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(OutboxRelay.backoff(settings, 60)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    private OutboxEvent outboxEvent(Long id, UserRegisteredEvent event) throws Exception {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setId(id);
+        outboxEvent.setEventId(event.getEventId());
+        outboxEvent.setEventType(event.getEventType());
+        outboxEvent.setAggregateId(event.getUserId());
+        outboxEvent.setPayloadType(event.getClass().getName());
+        outboxEvent.setPayload(objectMapper.writeValueAsString(event));
+        return outboxEvent;
+    }
+}
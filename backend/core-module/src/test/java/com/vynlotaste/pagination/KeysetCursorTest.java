@@ -0,0 +1,85 @@
+package com.vynlotaste.pagination;
+
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.ErrorCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Token opaco do cursor: ida e volta sem perda, rejeição de tokens inválidos como erro do
+ * cliente e ausência de próximo cursor na última página.
+ */
+class KeysetCursorTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 15, 12, 30, 45, 123_456_000);
+
+    @Test
+    void nextCursorDecodesBackToTheLastKeyOfThePage() {
+        List<KeysetCursor.Key> rows = List.of(
+            new KeysetCursor.Key(CREATED_AT, 30L),
+            new KeysetCursor.Key(CREATED_AT, 20L),
+            new KeysetCursor.Key(CREATED_AT.minusSeconds(1), 10L));
+
+        Window<KeysetCursor.Key> window = KeysetCursor.window(rows, 2, Function.identity());
+        String cursor = KeysetCursor.next(window);
+
+        assertThat(window.getContent()).containsExactly(rows.get(0), rows.get(1));
+        assertThat(cursor).isNotBlank().doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.keyOf(KeysetCursor.decode(cursor))).isEqualTo(rows.get(1));
+    }
+
+    @Test
+    void missingCursorStartsFromTheFirstRow() {
+        assertThat(KeysetCursor.keyOf(KeysetCursor.decode(null))).isNull();
+        assertThat(KeysetCursor.keyOf(KeysetCursor.decode(" "))).isNull();
+    }
+
+    @Test
+    void garbageOrTamperedTokensAreInvalidInput() {
+        List<String> tokens = List.of(
+            "não é base64!",
+            encode("sem-separador"),
+            encode("2024-13-45T00:00|1"),
+            encode("2024-03-15T12:30:45|"),
+            encode("2024-03-15T12:30:45|1 OR 1=1"),
+            encode("|1"));
+
+        for (String token : tokens) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                .as(token)
+                .isInstanceOfSatisfying(BusinessException.class,
+                    e -> assertThat(e.getErrorCode()).isEqualTo(ErrorCode.INVALID_INPUT));
+        }
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        List<KeysetCursor.Key> rows = List.of(new KeysetCursor.Key(CREATED_AT, 2L), new KeysetCursor.Key(CREATED_AT, 1L));
+
+        // Página cheia sem a linha extra: é a última, mesmo com exatamente "limit" linhas
+        assertThat(KeysetCursor.next(KeysetCursor.window(rows, 2, Function.identity()))).isNull();
+        assertThat(KeysetCursor.next(KeysetCursor.window(rows, 5, Function.identity()))).isNull();
+        assertThat(KeysetCursor.next(KeysetCursor.window(List.<KeysetCursor.Key>of(), 5, Function.identity()))).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertThat(KeysetCursor.limit(0)).isEqualTo(1);
+        assertThat(KeysetCursor.limit(-5)).isEqualTo(1);
+        assertThat(KeysetCursor.limit(KeysetCursor.DEFAULT_SIZE)).isEqualTo(KeysetCursor.DEFAULT_SIZE);
+        assertThat(KeysetCursor.limit(10_000)).isEqualTo(KeysetCursor.MAX_SIZE);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,142 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Arquiva um pedido entregue com a função {@code archive_orders} (V13) num PostgreSQL real e o
+ * lê de volta pelo arquivo e pela view {@code orders_history} (V17/V18). O schema quente vem das
+ * entidades. Pulado sem Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class ArchivedOrderQueryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private JdbcTemplate jdbcTemplate;
+    private ArchivedOrderQuery archivedOrderQuery;
+    private User customer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(User.class)
+            .addAnnotatedClass(Product.class)
+            .addAnnotatedClass(Order.class)
+            .addAnnotatedClass(OrderItem.class)
+            .setProperty(AvailableSettings.URL, POSTGRES.getJdbcUrl())
+            .setProperty(AvailableSettings.USER, POSTGRES.getUsername())
+            .setProperty(AvailableSettings.PASS, POSTGRES.getPassword())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+            .buildSessionFactory();
+
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        // O create-drop não conhece as tabelas de arquivo
+        jdbcTemplate.execute("DROP TABLE IF EXISTS order_items_archive, orders_archive CASCADE");
+        jdbcTemplate.execute(migration("db/migration/V13__Create_order_archive.sql"));
+        jdbcTemplate.execute(migration("db/migration/V17__Add_version_to_orders_history.sql"));
+        jdbcTemplate.execute(migration("db/migration/V18__Add_delivery_address_to_orders_history.sql"));
+
+        sessionFactory.inTransaction(s -> {
+            customer = TestDataFixtures.createTestUser();
+            customer.setId(null);
+            s.persist(customer);
+            product = TestDataFixtures.createTestProduct();
+            product.setId(null);
+            s.persist(product);
+        });
+        session = sessionFactory.openSession();
+        archivedOrderQuery = new ArchivedOrderQuery(jdbcTemplate, session);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void deliveredOrderIsReadBackAfterArchival() {
+        Order delivered = place("VYN-OLD", Order.OrderStatus.DELIVERED, LocalDateTime.now().minusMonths(3));
+        Order pending = place("VYN-NEW", Order.OrderStatus.PENDING, LocalDateTime.now().minusMonths(3));
+
+        Integer moved = jdbcTemplate.queryForObject("SELECT archive_orders(?, ?)", Integer.class,
+            LocalDateTime.now().minusDays(30), 100);
+
+        assertThat(moved).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE id = ?", Integer.class,
+            delivered.getId())).isZero();
+
+        Order archived = archivedOrderQuery.findById(delivered.getId()).orElseThrow();
+        assertThat(archived.getOrderNumber()).isEqualTo("VYN-OLD");
+        assertThat(archived.getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+        assertThat(archived.getCustomer().getId()).isEqualTo(customer.getId());
+        assertThat(archived.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProduct().getId()).isEqualTo(product.getId());
+            assertThat(item.getQuantity()).isEqualTo(2);
+            assertThat(item.getOrder()).isSameAs(archived);
+        });
+        assertThat(archivedOrderQuery.findByOrderNumber("VYN-OLD")).isPresent();
+        // Pedido ainda na tabela quente não é lido do arquivo
+        assertThat(archivedOrderQuery.findById(pending.getId())).isEmpty();
+
+        List<Map<String, Object>> history = jdbcTemplate.queryForList(
+            OrderRepository.HISTORY_SELECT + "WHERE h.customer_id = ? ORDER BY h.id", customer.getId());
+        assertThat(history).extracting(row -> row.get("orderNumber")).containsExactly("VYN-OLD", "VYN-NEW");
+        assertThat(history).extracting(row -> row.get("archived")).containsExactly(true, false);
+        assertThat(history).extracting(row -> ((Number) row.get("itemCount")).intValue()).containsExactly(1, 1);
+        assertThat(history).extracting(row -> row.get("deliveryAddress")).containsOnly("Rua A, 10");
+    }
+
+    private Order place(String orderNumber, Order.OrderStatus status, LocalDateTime createdAt) {
+        Order order = sessionFactory.fromTransaction(s -> {
+            Order created = new Order(orderNumber, s.get(User.class, customer.getId()), new BigDecimal("59.80"));
+            created.setStatus(status);
+            created.setDeliveryAddress("Rua A, 10");
+            created.addItem(new OrderItem(created, s.get(Product.class, product.getId()), 2, new BigDecimal("29.90")));
+            s.persist(created);
+            return created;
+        });
+        // created_at vem do @CreationTimestamp: recuado direto no banco
+        jdbcTemplate.update("UPDATE orders SET created_at = ? WHERE id = ?", createdAt, order.getId());
+        return order;
+    }
+
+    private static String migration(String path) throws IOException {
+        try (InputStream in = ArchivedOrderQueryTest.class.getClassLoader().getResourceAsStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
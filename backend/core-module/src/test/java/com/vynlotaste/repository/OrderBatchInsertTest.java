@@ -0,0 +1,138 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que um pedido com N itens é gravado com statements em lote, e não com N+1
+ * round trips individuais (o que acontecia com GenerationType.IDENTITY).
+ */
+class OrderBatchInsertTest {
+
+    private static final int ITEM_COUNT = 20;
+
+    private SessionFactory sessionFactory;
+    private Long customerId;
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<String> preparedSql = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(User.class)
+            .addAnnotatedClass(Product.class)
+            .addAnnotatedClass(Order.class)
+            .addAnnotatedClass(OrderItem.class)
+            .setProperty(AvailableSettings.URL, "jdbc:h2:mem:batch-" + UUID.randomUUID() + ";MODE=PostgreSQL")
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+            .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+            .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+            .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+            .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+            .setStatementInspector(sql -> {
+                preparedSql.add(sql.toLowerCase());
+                return sql;
+            })
+            .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            User customer = TestDataFixtures.createTestUser();
+            customer.setId(null);
+            session.persist(customer);
+            customerId = customer.getId();
+
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                Product product = TestDataFixtures.createTestProduct();
+                product.setId(null);
+                product.setName("Produto " + i);
+                session.persist(product);
+                productIds.add(product.getId());
+            }
+        });
+
+        // Primeiro pedido inicializa os blocos pooled das sequences
+        sessionFactory.inTransaction(session -> session.persist(buildOrder(session)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void twentyItemOrderIsWrittenWithTwoBatchedStatements() {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        preparedSql.clear();
+
+        sessionFactory.inTransaction(session -> session.persist(buildOrder(session)));
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEM_COUNT + 1);
+        // Um INSERT em orders e um único INSERT em lote para os 20 itens
+        assertThat(insertStatements()).containsExactly("insert into orders", "insert into order_items");
+        // No máximo uma ida à sequence por entidade, quando o bloco pooled de 50 ids se esgota
+        assertThat(sequenceCalls()).isLessThanOrEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(preparedSql.size());
+    }
+
+    @Test
+    void sequenceIsHitOncePerAllocationBlock() {
+        preparedSql.clear();
+
+        // 5 pedidos x 20 itens = 100 ids de itens, ou seja, dois blocos de 50
+        for (int i = 0; i < 5; i++) {
+            sessionFactory.inTransaction(session -> session.persist(buildOrder(session)));
+        }
+
+        assertThat(insertStatements()).hasSize(5 * 2);
+        assertThat(sequenceCalls()).isLessThanOrEqualTo(3 + 1);
+    }
+
+    private List<String> insertStatements() {
+        return preparedSql.stream()
+            .filter(sql -> sql.startsWith("insert"))
+            .map(sql -> sql.substring(0, sql.indexOf(" (")))
+            .toList();
+    }
+
+    private long sequenceCalls() {
+        return preparedSql.stream().filter(sql -> sql.contains("next value for")).count();
+    }
+
+    private Order buildOrder(Session session) {
+        Order order = new Order();
+        order.setOrderNumber("ORD-" + UUID.randomUUID());
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setType(Order.OrderType.PICKUP);
+        order.setTotalAmount(new BigDecimal("598.00"));
+        order.setCustomer(session.getReference(User.class, customerId));
+
+        for (Long productId : productIds) {
+            OrderItem item = new OrderItem();
+            item.setProduct(session.getReference(Product.class, productId));
+            item.setQuantity(1);
+            item.setUnitPrice(new BigDecimal("29.90"));
+            order.addItem(item);
+        }
+        return order;
+    }
+}
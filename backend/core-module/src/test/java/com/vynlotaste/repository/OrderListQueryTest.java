@@ -0,0 +1,184 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.pagination.KeysetCursor;
+import com.vynlotaste.projection.OrderListItem;
+import com.vynlotaste.specification.OrderSpecifications;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que as listagens de pedidos por projeção fazem um número fixo de consultas por
+ * página, independente do tamanho dela: nada de N+1 em {@code customer} ou {@code items}.
+ */
+class OrderListQueryTest {
+
+    private static final int CUSTOMERS = 3;
+    private static final int ORDERS_PER_CUSTOMER = 10;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    private SessionFactory sessionFactory;
+    private final List<Long> customerIds = new ArrayList<>();
+    private final List<String> preparedSql = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(User.class)
+            .addAnnotatedClass(Product.class)
+            .addAnnotatedClass(Order.class)
+            .addAnnotatedClass(OrderItem.class)
+            .setProperty(AvailableSettings.URL, "jdbc:h2:mem:list-" + UUID.randomUUID() + ";MODE=PostgreSQL")
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+            .setProperty(AvailableSettings.GENERATE_STATISTICS, "true")
+            .setStatementInspector(sql -> {
+                preparedSql.add(sql.toLowerCase());
+                return sql;
+            })
+            .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            Product product = TestDataFixtures.createTestProduct();
+            product.setId(null);
+            session.persist(product);
+
+            for (int c = 0; c < CUSTOMERS; c++) {
+                User customer = TestDataFixtures.createTestUser();
+                customer.setId(null);
+                customer.setEmail("cliente" + c + "@example.com");
+                customer.setUsername("cliente" + c);
+                session.persist(customer);
+                customerIds.add(customer.getId());
+
+                for (int o = 0; o < ORDERS_PER_CUSTOMER; o++) {
+                    Order order = new Order();
+                    order.setOrderNumber("ORD-" + UUID.randomUUID());
+                    order.setStatus(Order.OrderStatus.PENDING);
+                    order.setType(Order.OrderType.DELIVERY);
+                    order.setDeliveryAddress("Rua das Flores, " + o);
+                    order.setTotalAmount(new BigDecimal("89.70"));
+                    order.setCustomer(customer);
+                    for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                        OrderItem item = new OrderItem();
+                        item.setProduct(product);
+                        item.setQuantity(1);
+                        item.setUnitPrice(new BigDecimal("29.90"));
+                        order.addItem(item);
+                    }
+                    session.persist(order);
+                }
+            }
+        });
+
+        sessionFactory.getStatistics().clear();
+        preparedSql.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void offsetPageIsOneSelectPlusOneCount() {
+        Page<OrderListItem> page = sessionFactory.fromSession(session -> new OrderListQuery(session)
+            .findPage(OrderSpecifications.hasCustomerEmail("cliente"), PageRequest.of(1, 10, KeysetCursor.SORT)));
+
+        assertThat(page.getContent()).hasSize(10);
+        assertThat(page.getTotalElements()).isEqualTo(CUSTOMERS * ORDERS_PER_CUSTOMER);
+        assertThat(page.getContent()).allSatisfy(item -> {
+            assertThat(item.getItemCount()).isEqualTo(ITEMS_PER_ORDER);
+            assertThat(item.getCustomerEmail()).startsWith("cliente");
+        });
+        assertBoundedQueries(2);
+    }
+
+    @Test
+    void customerListIsASingleSelect() {
+        List<OrderListItem> orders = sessionFactory.fromSession(session -> new OrderListQuery(session)
+            .findAll(OrderSpecifications.hasCustomerId(customerIds.get(0)), KeysetCursor.SORT));
+
+        assertThat(orders).hasSize(ORDERS_PER_CUSTOMER)
+            .allSatisfy(item -> assertThat(item.getCustomerId()).isEqualTo(customerIds.get(0)));
+        assertBoundedQueries(1);
+    }
+
+    @Test
+    void cursorPagesWalkEveryOrderOnceWithoutCounting() {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            String current = cursor;
+            Window<OrderListItem> window = sessionFactory.fromSession(session -> new OrderListQuery(session)
+                .scroll(null, KeysetCursor.decode(current), 7));
+            window.forEach(item -> assertThat(seen.add(item.getId())).isTrue());
+            cursor = KeysetCursor.next(window);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(CUSTOMERS * ORDERS_PER_CUSTOMER);
+        // Um SELECT por página e nenhum COUNT do total (o único count é o subselect de itens)
+        assertBoundedQueries(pages);
+        assertThat(preparedSql).noneMatch(sql -> sql.startsWith("select count("));
+    }
+
+    @Test
+    void ordersSharingACreatedAtAreOrderedByIdAcrossPages() {
+        // Todos no mesmo instante: só o id desempata, e nenhuma fronteira de página pode pular ou repetir
+        sessionFactory.inTransaction(session -> session.createNativeMutationQuery("update orders set created_at = :createdAt")
+            .setParameter("createdAt", LocalDateTime.of(2024, 3, 15, 12, 0))
+            .executeUpdate());
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            String current = cursor;
+            Window<OrderListItem> window = sessionFactory.fromSession(session -> new OrderListQuery(session)
+                .scroll(null, KeysetCursor.decode(current), 10));
+            window.forEach(item -> ids.add(item.getId()));
+            cursor = KeysetCursor.next(window);
+            pages++;
+        } while (cursor != null);
+
+        // 30 pedidos em páginas de 10: a terceira vem cheia e ainda assim não tem próximo cursor
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).hasSize(CUSTOMERS * ORDERS_PER_CUSTOMER).doesNotHaveDuplicates()
+            .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    private void assertBoundedQueries(int expected) {
+        Statistics statistics = sessionFactory.getStatistics();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(expected);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+}
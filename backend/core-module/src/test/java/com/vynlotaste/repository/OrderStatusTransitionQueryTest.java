@@ -0,0 +1,127 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executa o SQL de {@link OrderRepository#transitionStatuses} (UPDATE ... FROM ... RETURNING) num
+ * PostgreSQL real, como o Spring Data o executa sem {@code @Modifying}: só os pedidos com status
+ * aceito mudam, e cada linha devolvida traz o status anterior e a versão nova. Pulado sem Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderStatusTransitionQueryTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private SessionFactory sessionFactory;
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(User.class)
+            .addAnnotatedClass(Product.class)
+            .addAnnotatedClass(Order.class)
+            .addAnnotatedClass(OrderItem.class)
+            .setProperty(AvailableSettings.URL, POSTGRES.getJdbcUrl())
+            .setProperty(AvailableSettings.USER, POSTGRES.getUsername())
+            .setProperty(AvailableSettings.PASS, POSTGRES.getPassword())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+            .buildSessionFactory();
+
+        sessionFactory.inTransaction(s -> {
+            customer = TestDataFixtures.createTestUser();
+            customer.setId(null);
+            s.persist(customer);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void onlyOrdersInAnAcceptedStatusAreMovedAndReturned() throws NoSuchMethodException {
+        Order pending = place("VYN-1", Order.OrderStatus.PENDING);
+        Order confirmed = place("VYN-2", Order.OrderStatus.CONFIRMED);
+        Order preparing = place("VYN-3", Order.OrderStatus.PREPARING);
+        Order delivered = place("VYN-4", Order.OrderStatus.DELIVERED);
+        Long missing = delivered.getId() + 1000;
+
+        String sql = transitionSql();
+        List<Object[]> rows = sessionFactory.fromTransaction(s -> s.createNativeQuery(sql, Object[].class)
+            .setParameter("ids", List.of(pending.getId(), confirmed.getId(), preparing.getId(), delivered.getId(), missing))
+            .setParameter("from", List.of(Order.OrderStatus.PENDING.name(), Order.OrderStatus.CONFIRMED.name()))
+            .setParameter("to", Order.OrderStatus.PREPARING.name())
+            .setParameter("now", LocalDateTime.now())
+            .getResultList());
+
+        Map<Long, String> previousStatuses = new HashMap<>();
+        Map<Long, Long> versions = new HashMap<>();
+        for (Object[] row : rows) {
+            previousStatuses.put(((Number) row[0]).longValue(), (String) row[1]);
+            versions.put(((Number) row[0]).longValue(), ((Number) row[2]).longValue());
+        }
+        assertThat(previousStatuses).containsOnly(
+            Map.entry(pending.getId(), "PENDING"),
+            Map.entry(confirmed.getId(), "CONFIRMED"));
+        assertThat(versions).containsOnly(
+            Map.entry(pending.getId(), pending.getVersion() + 1),
+            Map.entry(confirmed.getId(), confirmed.getVersion() + 1));
+
+        assertStored(pending, Order.OrderStatus.PREPARING, pending.getVersion() + 1);
+        assertStored(confirmed, Order.OrderStatus.PREPARING, confirmed.getVersion() + 1);
+        // Fora do conjunto "from": nem o status nem a versão mudam
+        assertStored(preparing, Order.OrderStatus.PREPARING, preparing.getVersion());
+        assertStored(delivered, Order.OrderStatus.DELIVERED, delivered.getVersion());
+    }
+
+    private void assertStored(Order order, Order.OrderStatus status, long version) {
+        Order stored = sessionFactory.fromSession(s -> s.get(Order.class, order.getId()));
+        assertThat(stored.getStatus()).as(order.getOrderNumber()).isEqualTo(status);
+        assertThat(stored.getVersion()).as(order.getOrderNumber()).isEqualTo(version);
+    }
+
+    private Order place(String orderNumber, Order.OrderStatus status) {
+        return sessionFactory.fromTransaction(s -> {
+            Order order = new Order(orderNumber, s.get(User.class, customer.getId()), new BigDecimal("29.90"));
+            order.setStatus(status);
+            order.setDeliveryAddress("Rua A, 10");
+            s.persist(order);
+            return order;
+        });
+    }
+
+    private static String transitionSql() throws NoSuchMethodException {
+        return OrderRepository.class
+            .getMethod("transitionStatuses", Collection.class, Collection.class, String.class, LocalDateTime.class)
+            .getAnnotation(Query.class)
+            .value();
+    }
+}
@@ -0,0 +1,225 @@
+package com.vynlotaste.repository;
+
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.OrderItem;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.exception.InsufficientStockException;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Benchmark de integração (PostgreSQL real) entre as duas estratégias de criação de pedido:
+ * o caminho JPA (cliente, produtos, reserva de estoque em lote e inserts em lote, como em
+ * {@code OrderService.createOrder}) e uma única chamada a {@code process_order}. O schema vem
+ * das entidades e a função é carregada da própria migração V14. Pulado sem Docker.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+class ProcessOrderFunctionBenchmarkTest {
+
+    private static final int ITEM_COUNT = 10;
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 100;
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    private static final String RESERVE_SQL =
+        "UPDATE products SET stock_quantity = stock_quantity - ?, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE id = ? AND stock_quantity >= ? AND deleted = false";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"));
+
+    private SessionFactory sessionFactory;
+    private ProcessOrderFunction processOrderFunction;
+    private User customer;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(User.class)
+            .addAnnotatedClass(Product.class)
+            .addAnnotatedClass(Order.class)
+            .addAnnotatedClass(OrderItem.class)
+            .setProperty(AvailableSettings.URL, POSTGRES.getJdbcUrl())
+            .setProperty(AvailableSettings.USER, POSTGRES.getUsername())
+            .setProperty(AvailableSettings.PASS, POSTGRES.getPassword())
+            .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .setProperty(AvailableSettings.JAKARTA_VALIDATION_MODE, "none")
+            .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, "50")
+            .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+            .buildSessionFactory();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(migration("db/migration/V14__Process_order_function.sql"));
+        processOrderFunction = new ProcessOrderFunction(jdbcTemplate);
+
+        sessionFactory.inTransaction(session -> {
+            customer = TestDataFixtures.createTestUser();
+            customer.setId(null);
+            session.persist(customer);
+
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                Product product = TestDataFixtures.createTestProduct();
+                product.setId(null);
+                product.setName("Produto " + i);
+                product.setStockQuantity(INITIAL_STOCK);
+                session.persist(product);
+                products.add(product);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void databaseFunctionMatchesJpaPathInOneRoundTrip() {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            placeWithJpa();
+            processOrderFunction.place(buildOrder());
+        }
+
+        long jpaNanos = 0;
+        long functionNanos = 0;
+        Order jpaOrder = null;
+        Order functionOrder = null;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            jpaOrder = placeWithJpa();
+            jpaNanos += System.nanoTime() - start;
+
+            Order order = buildOrder();
+            start = System.nanoTime();
+            processOrderFunction.place(order);
+            functionNanos += System.nanoTime() - start;
+            functionOrder = order;
+        }
+
+        double jpaMillis = jpaNanos / (double) MEASURED_RUNS / TimeUnit.MILLISECONDS.toNanos(1);
+        double functionMillis = functionNanos / (double) MEASURED_RUNS / TimeUnit.MILLISECONDS.toNanos(1);
+        log.info("Pedido com {} itens: JPA {} ms, process_order {} ms em média",
+            ITEM_COUNT, String.format("%.2f", jpaMillis), String.format("%.2f", functionMillis));
+        // Uma ida ao banco contra várias: a função não pode ser mais lenta que o caminho JPA
+        assertThat(functionMillis).isLessThan(jpaMillis);
+
+        assertThat(functionOrder.getId()).isNotNull();
+        assertThat(functionOrder.getItems()).allSatisfy(item -> assertThat(item.getId()).isNotNull());
+        assertThat(functionOrder.getTotalAmount()).isEqualByComparingTo(jpaOrder.getTotalAmount());
+
+        Long functionOrderId = functionOrder.getId();
+        BigDecimal expectedTotal = jpaOrder.getTotalAmount();
+        sessionFactory.inSession(session -> {
+            Order stored = session.get(Order.class, functionOrderId);
+            assertThat(stored.getItems()).hasSize(ITEM_COUNT);
+            assertThat(stored.getTotalAmount()).isEqualByComparingTo(expectedTotal);
+
+            int placedOrders = 2 * (WARMUP_RUNS + MEASURED_RUNS);
+            Product product = session.get(Product.class, products.get(0).getId());
+            assertThat(product.getStockQuantity()).isEqualTo(INITIAL_STOCK - placedOrders * 2);
+        });
+    }
+
+    @Test
+    void insufficientStockLeavesNothingBehind() {
+        Order order = buildOrder();
+        order.getItems().get(ITEM_COUNT - 1).setQuantity(INITIAL_STOCK + 1);
+
+        assertThatThrownBy(() -> processOrderFunction.place(order))
+            .isInstanceOf(InsufficientStockException.class)
+            .hasMessageContaining(String.valueOf(products.get(ITEM_COUNT - 1).getId()));
+
+        sessionFactory.inSession(session -> {
+            assertThat(session.createQuery("SELECT COUNT(o) FROM Order o", Long.class).getSingleResult()).isZero();
+            Product product = session.get(Product.class, products.get(0).getId());
+            assertThat(product.getStockQuantity()).isEqualTo(INITIAL_STOCK);
+        });
+    }
+
+    // Mesmos passos do caminho JPA de OrderService.createOrder
+    private Order placeWithJpa() {
+        return sessionFactory.fromTransaction(session -> {
+            User loadedCustomer = session.get(User.class, customer.getId());
+            List<Product> loadedProducts = session.byMultipleIds(Product.class)
+                .multiLoad(products.stream().map(Product::getId).toList());
+
+            Order order = new Order(UUID.randomUUID().toString(), loadedCustomer, null);
+            for (Product product : loadedProducts) {
+                order.addItem(item(product));
+            }
+            reserveStock(session, order.getItems());
+            order.setTotalAmount(order.getItems().stream()
+                .map(OrderItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+            session.persist(order);
+            return order;
+        });
+    }
+
+    private static void reserveStock(Session session, List<OrderItem> items) {
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(RESERVE_SQL)) {
+                for (OrderItem item : items) {
+                    statement.setInt(1, item.getQuantity());
+                    statement.setLong(2, item.getProduct().getId());
+                    statement.setInt(3, item.getQuantity());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private Order buildOrder() {
+        Order order = new Order(UUID.randomUUID().toString(), customer, null);
+        for (Product product : products) {
+            order.addItem(item(product));
+        }
+        return order;
+    }
+
+    private static OrderItem item(Product product) {
+        OrderItem item = new OrderItem();
+        item.setProduct(product);
+        item.setQuantity(2);
+        item.setUnitPrice(product.getPrice());
+        return item;
+    }
+
+    private static String migration(String path) throws IOException {
+        try (InputStream in = ProcessOrderFunctionBenchmarkTest.class.getClassLoader().getResourceAsStream(path)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
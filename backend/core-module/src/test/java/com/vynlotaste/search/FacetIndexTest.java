@@ -0,0 +1,60 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    private final FacetIndex index = FacetIndex.of(List.of(
+        product(1L, "Margherita", "Pizzas", "42.00", true, false),
+        product(2L, "Calabresa", "pizzas", "45.00", true, false),
+        product(3L, "Salada Verde", "Saladas", "28.50", true, true),
+        product(4L, "Pizza Vegana", "Pizzas", "49.90", false, true),
+        product(5L, "Suco", null, null, true, true)));
+
+    @Test
+    void filtersWithBitmapsAndPriceRangeAndCountsEachFacetWithoutItsOwnFilter() {
+        ProductFilter filter = new ProductFilter("PIZZAS", true, new BigDecimal("42.00"), new BigDecimal("49.90"),
+            null, null, null, null, null, null);
+
+        ProductFacetPage result = index.query(filter, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")), true);
+
+        assertThat(result.products().getContent()).extracting(Product::getId).containsExactly(2L, 1L);
+        assertThat(result.products().getTotalElements()).isEqualTo(2);
+        // Categoria ignora o próprio filtro; "Pizzas" e "pizzas" são a mesma faceta
+        assertThat(result.facets().get(FacetIndex.CATEGORY)).containsExactly(Map.entry("Pizzas", 2));
+        assertThat(result.facets().get(FacetIndex.AVAILABLE)).containsEntry("true", 2).containsEntry("false", 1);
+        assertThat(result.facets().get(FacetIndex.VEGAN)).containsEntry("true", 0).containsEntry("false", 2);
+    }
+
+    @Test
+    void pagesThroughPreSortedOrderingsAndLeavesUnsupportedSortsToTheDatabase() {
+        ProductFilter filter = new ProductFilter(null, null, null, null, "a", null, null, null, null, null);
+
+        ProductFacetPage second = index.query(filter, PageRequest.of(1, 2, Sort.by("name")), false);
+
+        assertThat(second.products().getContent()).extracting(Product::getId).containsExactly(4L, 3L);
+        assertThat(second.products().getTotalElements()).isEqualTo(4);
+        assertThat(second.facets()).isEmpty();
+        assertThat(index.canSort(Sort.by("stockQuantity"))).isFalse();
+    }
+
+    private static Product product(Long id, String name, String category, String price, boolean available, boolean vegan) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(price != null ? new BigDecimal(price) : null);
+        product.setAvailable(available);
+        product.setVegan(vegan);
+        return product;
+    }
+}
@@ -0,0 +1,66 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import com.vynlotaste.inventory.StockCounterService;
+import com.vynlotaste.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Páginas servidas do catálogo em memória levam o estoque atual, não o da última reconstrução.
+ */
+class ProductSearchIndexTest {
+
+    private static final ProductFilter ALL = new ProductFilter(null, null, null, null, null, null, null, null, null, null);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final StockCounterService stockCounterService = mock(StockCounterService.class);
+    private ProductSearchIndex searchIndex;
+    private Product pizza;
+
+    @BeforeEach
+    void setUp() {
+        pizza = TestDataFixtures.createTestProduct();
+        pizza.setId(1L);
+        pizza.setStockQuantity(10);
+        when(productRepository.findAll()).thenReturn(List.of(pizza));
+
+        searchIndex = new ProductSearchIndex(productRepository, mock(StringRedisTemplate.class),
+            mock(RedisMessageListenerContainer.class), stockCounterService, new SimpleMeterRegistry());
+        searchIndex.initialize();
+        searchIndex.rebuild();
+    }
+
+    @Test
+    void filteredPageCarriesTheCurrentStockWithoutTouchingTheCatalog() {
+        when(stockCounterService.currentStock(List.of(1L))).thenReturn(Map.of(1L, 0));
+
+        Product served = searchIndex.filter(ALL, PageRequest.of(0, 10), false).products().getContent().get(0);
+
+        assertThat(served.getStockQuantity()).isZero();
+        assertThat(served.isInStock()).isFalse();
+        assertThat(served.getName()).isEqualTo(pizza.getName());
+        assertThat(pizza.getStockQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void facetCountsDoNotReadStock() {
+        assertThat(searchIndex.facetCounts(ALL)).isNotEmpty();
+        verify(stockCounterService, never()).currentStock(any());
+    }
+}
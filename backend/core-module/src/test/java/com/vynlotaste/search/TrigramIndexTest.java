@@ -0,0 +1,54 @@
+package com.vynlotaste.search;
+
+import com.vynlotaste.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(product(1L, "Pizza Calabresa", "Molho de tomate e cebola", "calabresa, muçarela", true));
+        index.put(product(2L, "Açaí na Tigela", "Com granola e banana", "açaí, granola, banana", true));
+        index.put(product(3L, "Calzone", "Massa recheada com calabresa", "calabresa, queijo", true));
+        index.put(product(4L, "Pizza Portuguesa", "Presunto, ovo e cebola", "presunto, ovo, muçarela", false));
+    }
+
+    @Test
+    void ranksNameMatchesFirstAndToleratesAccentsPrefixesAndTypos() {
+        assertThat(index.search("calabresa", 10, true)).extracting(ProductSearchHit::id).containsExactly(1L, 3L);
+        assertThat(index.search("acai", 10, true)).extracting(ProductSearchHit::id).containsExactly(2L);
+        assertThat(index.search("MUCAR", 10, false)).extracting(ProductSearchHit::id).containsExactlyInAnyOrder(1L, 4L);
+        assertThat(index.search("piza calabersa", 10, true)).extracting(ProductSearchHit::id).containsExactly(1L);
+        assertThat(index.search("portuguesa", 10, true)).isEmpty();
+    }
+
+    @Test
+    void incrementalUpdatesReplaceAndRemoveTerms() {
+        index.put(product(3L, "Calzone de Frango", "Massa recheada", "frango, catupiry", true));
+        assertThat(index.search("calabresa", 10, true)).extracting(ProductSearchHit::id).containsExactly(1L);
+        assertThat(index.search("frango", 10, true)).extracting(ProductSearchHit::id).containsExactly(3L);
+
+        index.remove(2L);
+        assertThat(index.search("granola", 10, true)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private static Product product(Long id, String name, String description, String ingredients, boolean available) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setIngredients(ingredients);
+        product.setPrice(BigDecimal.TEN);
+        product.setAvailable(available);
+        return product;
+    }
+}
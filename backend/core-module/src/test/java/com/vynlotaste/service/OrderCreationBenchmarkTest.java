@@ -0,0 +1,152 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.config.CacheConfig;
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.exception.order.OrderValidationException;
+import com.vynlotaste.fixtures.OrderServiceFixture;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmark de latência da criação de pedidos em função da quantidade de itens.
+ * Cada consulta ao repositório simula um round trip ao banco, de modo que a
+ * latência reflete o número de SELECTs emitidos durante a resolução de produtos.
+ */
+@Slf4j
+class OrderCreationBenchmarkTest {
+
+    private static final long ROUND_TRIP_MILLIS = 2;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private OrderService orderService;
+    private final AtomicInteger productQueries = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        OrderServiceFixture fixture = new OrderServiceFixture();
+        cacheManager = fixture.cacheManager;
+
+        when(fixture.userRepository.findById(any())).thenReturn(Optional.of(TestDataFixtures.createTestUser()));
+        when(fixture.orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(1L);
+            return order;
+        });
+        when(fixture.productRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            productQueries.incrementAndGet();
+            simulateRoundTrip();
+            List<Product> products = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                if (id < 1000) {
+                    products.add(product(id));
+                }
+            }
+            return products;
+        });
+
+        orderService = fixture.build();
+    }
+
+    @ParameterizedTest(name = "{0} itens")
+    @ValueSource(ints = {1, 10, 50})
+    void orderCreationLatencyByItemCount(int itemCount) {
+        OrderRequestDto request = orderRequest(itemCount);
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+            orderService.createOrder(request);
+        }
+
+        productQueries.set(0);
+        long totalNanos = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+            long start = System.nanoTime();
+            Order order = orderService.createOrder(request);
+            totalNanos += System.nanoTime() - start;
+            assertThat(order.getItems()).hasSize(itemCount);
+        }
+
+        double avgMillis = totalNanos / (double) MEASURED_RUNS / TimeUnit.MILLISECONDS.toNanos(1);
+        log.info("createOrder com {} itens (cache frio): {} ms em média", itemCount, String.format("%.2f", avgMillis));
+
+        // Uma única consulta multi-id por pedido, independente do número de itens. A latência só é
+        // registrada no log: tempo de relógio depende da máquina e não pode reprovar o build
+        assertThat(productQueries.get()).isEqualTo(MEASURED_RUNS);
+    }
+
+    @Test
+    void cachedProductsSkipTheDatabase() {
+        OrderRequestDto request = orderRequest(10);
+        orderService.createOrder(request);
+        productQueries.set(0);
+
+        orderService.createOrder(request);
+
+        assertThat(productQueries.get()).isZero();
+    }
+
+    @Test
+    void reportsAllInvalidProductsInOneError() {
+        OrderRequestDto request = orderRequest(2);
+        OrderRequestDto.OrderItemRequestDto missing = TestDataFixtures.createOrderItemRequestDto();
+        missing.setProductId(1001L);
+        OrderRequestDto.OrderItemRequestDto unavailable = TestDataFixtures.createOrderItemRequestDto();
+        unavailable.setProductId(999L);
+        request.getItems().add(missing);
+        request.getItems().add(unavailable);
+
+        assertThatThrownBy(() -> orderService.createOrder(request))
+            .isInstanceOf(OrderValidationException.class)
+            .hasMessageContaining("not found: [1001]")
+            .hasMessageContaining("unavailable: [999]");
+    }
+
+    private OrderRequestDto orderRequest(int itemCount) {
+        OrderRequestDto request = TestDataFixtures.createOrderRequestDto();
+        List<OrderRequestDto.OrderItemRequestDto> items = new ArrayList<>();
+        for (long id = 1; id <= itemCount; id++) {
+            OrderRequestDto.OrderItemRequestDto item = TestDataFixtures.createOrderItemRequestDto();
+            item.setProductId(id);
+            items.add(item);
+        }
+        request.setItems(items);
+        return request;
+    }
+
+    private Product product(Long id) {
+        Product product = TestDataFixtures.createTestProduct();
+        product.setId(id);
+        product.setAvailable(id != 999L);
+        return product;
+    }
+
+    private void simulateRoundTrip() {
+        try {
+            Thread.sleep(ROUND_TRIP_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.config.VynloProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderNumberGeneratorTest {
+
+    @Test
+    void codesAreShortAndDecodeBackToTimeAndNode() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(513);
+        Instant before = Instant.now();
+
+        long id = generator.nextId();
+        String code = OrderNumberGenerator.encode(id);
+
+        assertThat(code).hasSize(OrderNumberGenerator.CODE_LENGTH).matches("[0-9A-HJKMNP-TV-Z]+");
+        assertThat(OrderNumberGenerator.decode(code)).isEqualTo(id);
+        assertThat(OrderNumberGenerator.nodeOf(id)).isEqualTo(513);
+        assertThat(OrderNumberGenerator.timestampOf(id)).isBetween(before.minusMillis(1), Instant.now().plusMillis(1));
+    }
+
+    @Test
+    void refusesToStartWithoutAnExplicitNodeId() {
+        VynloProperties properties = new VynloProperties();
+
+        assertThatThrownBy(() -> new OrderNumberGenerator(properties))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("node-id");
+
+        properties.getOrderNumber().setNodeId(3);
+        assertThat(OrderNumberGenerator.nodeOf(new OrderNumberGenerator(properties).nextId())).isEqualTo(3);
+    }
+
+    @Test
+    void decodingToleratesTypingMistakes() {
+        String code = new OrderNumberGenerator(1).nextOrderNumber();
+        String typed = code.toLowerCase().replace('0', 'o').replace('1', 'l');
+        String grouped = code.substring(0, 4) + "-" + code.substring(4, 8) + " " + code.substring(8);
+
+        assertThat(OrderNumberGenerator.normalize(typed)).isEqualTo(code);
+        assertThat(OrderNumberGenerator.normalize(grouped)).isEqualTo(code);
+        assertThat(OrderNumberGenerator.decode("ORD-1704067200000-ABCDEF12")).isEqualTo(-1);
+        assertThat(OrderNumberGenerator.decode("ZZZZZZZZZZZZZ")).isEqualTo(-1);
+    }
+
+    @Test
+    void concurrentGenerationNeverRepeats() throws InterruptedException {
+        OrderNumberGenerator generator = new OrderNumberGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 20_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                long previous = -1;
+                for (int i = 0; i < perThread; i++) {
+                    long id = generator.nextId();
+                    assertThat(id).isGreaterThan(previous);
+                    previous = id;
+                    ids.add(id);
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(threads * perThread);
+    }
+}
@@ -1 +1,128 @@
- 
\ No newline at end of file
+package com.vynlotaste.service;
+
+import com.vynlotaste.dto.order.OrderRequestDto;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.Product;
+import com.vynlotaste.event.OrderEvent;
+import com.vynlotaste.exception.BusinessException;
+import com.vynlotaste.exception.order.OrderValidationException;
+import com.vynlotaste.fixtures.OrderServiceFixture;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTest {
+
+    private final OrderServiceFixture fixture = new OrderServiceFixture();
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        when(fixture.userRepository.findAllById(anyIterable())).thenReturn(List.of(TestDataFixtures.createTestUser()));
+        when(fixture.productRepository.findAllById(anyIterable())).thenReturn(List.of(product(1L), product(2L)));
+        when(fixture.orderRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            long id = 100;
+            for (Order order : invocation.<Iterable<Order>>getArgument(0)) {
+                order.setId(id++);
+            }
+            return invocation.getArgument(0);
+        });
+        orderService = fixture.build();
+    }
+
+    @Test
+    void createOrdersInBatchRejectsOnlyTheInvalidRequests() {
+        when(fixture.stockReservationService.tryReserve(anyMap())).thenAnswer(invocation ->
+            invocation.<Map<Long, Integer>>getArgument(0).containsKey(2L) ? List.of(2L) : List.of());
+
+        Map<String, OrderRequestDto> requests = new LinkedHashMap<>();
+        requests.put("A", request(1L, 1L));
+        requests.put("B", request(99L, 1L));
+        requests.put("C", request(1L, 2L));
+
+        Map<String, OrderService.BatchOrderResult> results = orderService.createOrdersInBatch(requests);
+
+        assertThat(results).containsOnlyKeys("A", "B", "C");
+        assertThat(results.get("A").isAccepted()).isTrue();
+        assertThat(results.get("A").order().getOrderNumber()).isEqualTo("A");
+        assertThat(results.get("A").order().getTotalAmount()).isEqualByComparingTo("59.80");
+        assertThat(results.get("B").rejectionReason()).contains("99");
+        assertThat(results.get("C").rejectionReason()).contains("Insufficient stock");
+
+        // Produtos travados uma vez para o lote inteiro; só o aceito é gravado e vai ao outbox
+        verify(fixture.stockReservationService, times(1)).lockProducts(any());
+        verify(fixture.orderRepository).saveAll(List.of(results.get("A").order()));
+        verify(fixture.stockHoldService).place(results.get("A").order());
+        verify(fixture.outboxService).append(any(OrderEvent.class), eq(100L));
+    }
+
+    @Test
+    void manualStatusChangeCannotTakeAnOrderOutOfPendingPayment() {
+        when(fixture.orderRepository.findStatusById(7L)).thenReturn(Optional.of(Order.OrderStatus.PENDING_PAYMENT));
+
+        assertThatThrownBy(() -> orderService.updateOrderStatus(7L, Order.OrderStatus.CONFIRMED))
+            .isInstanceOf(OrderValidationException.class)
+            .hasMessageContaining("payment flow");
+        verify(fixture.orderRepository, never()).compareAndSetStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void archivedOrdersAreReadFromTheArchiveButNeverChanged() {
+        Order archived = TestDataFixtures.createTestOrder();
+        archived.setId(8L);
+        archived.setStatus(Order.OrderStatus.DELIVERED);
+        when(fixture.orderRepository.findById(8L)).thenReturn(Optional.empty());
+        when(fixture.archivedOrderQuery.findById(8L)).thenReturn(Optional.of(archived));
+        when(fixture.orderRepository.findByOrderNumber("ORD-8")).thenReturn(null);
+        when(fixture.archivedOrderQuery.findByOrderNumber("ORD-8")).thenReturn(Optional.of(archived));
+
+        assertThat(orderService.getOrderById(8L)).isSameAs(archived);
+        assertThat(orderService.findByOrderNumber(" ORD-8 ")).isSameAs(archived);
+        assertThatThrownBy(() -> orderService.cancelOrder(8L, "cliente desistiu"))
+            .isInstanceOf(BusinessException.class)
+            .hasMessageContaining("Order not found");
+    }
+
+    @Test
+    void orderCodesAreLookedUpByTheirCanonicalNumberOnly() {
+        String code = OrderNumberGenerator.encode(123_456_789_012L);
+        Order order = TestDataFixtures.createTestOrder();
+        // O created_at gravado não precisa bater com o instante embutido no código
+        order.setOrderNumber(code);
+        when(fixture.orderRepository.findByOrderNumber(code)).thenReturn(order);
+
+        String typed = code.substring(0, 6).toLowerCase() + "-" + code.substring(6).toLowerCase();
+
+        assertThat(orderService.findByOrderNumber(typed)).isSameAs(order);
+        verify(fixture.archivedOrderQuery, never()).findByOrderNumber(any());
+    }
+
+    private static OrderRequestDto request(Long customerId, Long productId) {
+        OrderRequestDto request = TestDataFixtures.createOrderRequestDto();
+        request.setCustomerId(customerId);
+        request.getItems().get(0).setProductId(productId);
+        return request;
+    }
+
+    private static Product product(Long id) {
+        Product product = TestDataFixtures.createTestProduct();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,56 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.entity.Order.OrderStatus;
+import com.vynlotaste.exception.order.OrderValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStateMachineTest {
+
+    @Test
+    void ordersOnlyMoveForward() {
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PENDING, OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PREPARING, OrderStatus.READY)).isTrue();
+        assertThat(OrderStateMachine.canTransition(OrderStatus.READY, OrderStatus.PREPARING)).isFalse();
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PENDING, OrderStatus.READY)).isFalse();
+        assertThat(OrderStateMachine.allowedFrom(OrderStatus.DELIVERED)).isEmpty();
+        assertThat(OrderStateMachine.allowedFrom(OrderStatus.CANCELLED)).isEmpty();
+    }
+
+    @Test
+    void cancellationIsOnlyAllowedBeforePreparation() {
+        assertThat(OrderStateMachine.predecessorsOf(OrderStatus.CANCELLED))
+            .containsExactlyInAnyOrder(OrderStatus.PENDING, OrderStatus.PAYMENT_FAILED, OrderStatus.CONFIRMED);
+        assertThatThrownBy(() -> OrderStateMachine.validateTransition(OrderStatus.PREPARING, OrderStatus.CANCELLED))
+            .isInstanceOf(OrderValidationException.class);
+        // Autorização em andamento: só o callback do gateway decide
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PENDING_PAYMENT, OrderStatus.CANCELLED)).isFalse();
+    }
+
+    @Test
+    void everyStatusExceptPendingIsReachable() {
+        for (OrderStatus status : OrderStatus.values()) {
+            boolean reachable = !OrderStateMachine.predecessorsOf(status).isEmpty()
+                || OrderStateMachine.canTransitionByPayment(OrderStatus.PENDING_PAYMENT, status)
+                || OrderStateMachine.canTransitionByPayment(OrderStatus.PENDING, status);
+            assertThat(reachable).isEqualTo(status != OrderStatus.PENDING);
+        }
+    }
+
+    @Test
+    void pendingPaymentIsOnlyEnteredAndLeftByThePaymentFlow() {
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PENDING_PAYMENT, OrderStatus.CONFIRMED)).isFalse();
+        assertThat(OrderStateMachine.canTransition(OrderStatus.PENDING, OrderStatus.PENDING_PAYMENT)).isFalse();
+        assertThat(OrderStateMachine.predecessorsOf(OrderStatus.CONFIRMED)).containsExactly(OrderStatus.PENDING);
+        assertThatThrownBy(() -> OrderStateMachine.validateTransition(OrderStatus.PENDING_PAYMENT, OrderStatus.CONFIRMED))
+            .isInstanceOf(OrderValidationException.class)
+            .hasMessageContaining("payment flow");
+
+        assertThat(OrderStateMachine.canTransitionByPayment(OrderStatus.PENDING_PAYMENT, OrderStatus.CONFIRMED)).isTrue();
+        assertThat(OrderStateMachine.canTransitionByPayment(OrderStatus.PAYMENT_FAILED, OrderStatus.PENDING_PAYMENT)).isTrue();
+        assertThatThrownBy(() -> OrderStateMachine.validatePaymentTransition(OrderStatus.PREPARING, OrderStatus.CONFIRMED))
+            .isInstanceOf(OrderValidationException.class);
+    }
+}
@@ -0,0 +1,130 @@
+package com.vynlotaste.service;
+
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.fixtures.TestDataFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentOrchestratorTest {
+
+    private static final long ORDER_ID = 1L;
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final VynloProperties properties = new VynloProperties();
+    private ThreadPoolTaskExecutor paymentExecutor;
+    private PaymentOrchestrator orchestrator;
+
+    @BeforeEach
+    void setUp() {
+        properties.getPayment().setAuthorizationTimeout(Duration.ofMillis(100));
+        when(orderService.applyPaymentStatus(ORDER_ID, Order.OrderStatus.PENDING_PAYMENT))
+            .thenReturn(TestDataFixtures.createTestOrder());
+        when(paymentService.voidAuthorization(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        paymentExecutor = new ThreadPoolTaskExecutor();
+        paymentExecutor.initialize();
+        orchestrator = new PaymentOrchestrator(orderService, paymentService, new SimpleMeterRegistry(), properties,
+            paymentExecutor);
+        orchestrator.initializeMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentExecutor.shutdown();
+    }
+
+    @Test
+    void approvedPaymentConfirmsTheOrder() {
+        gatewayAnswers(CompletableFuture.completedFuture(true));
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+
+        verify(orderService, timeout(1000)).applyPaymentStatus(ORDER_ID, Order.OrderStatus.CONFIRMED);
+        verify(orderService, never()).expireOrder(anyLong(), any(), anyString());
+    }
+
+    @Test
+    void declinedPaymentLeavesTheOrderInPaymentFailedForAnotherAttempt() {
+        gatewayAnswers(CompletableFuture.completedFuture(false));
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+
+        verify(orderService, timeout(1000)).applyPaymentStatus(ORDER_ID, Order.OrderStatus.PAYMENT_FAILED);
+        verify(orderService, never()).expireOrder(anyLong(), any(), anyString());
+        // Recusa é final: uma única chamada ao gateway, sem retry
+        verify(paymentService, times(1)).authorizePayment(any(), any(), any());
+    }
+
+    @Test
+    void gatewayErrorFailsThePaymentWithoutRetrying() {
+        gatewayAnswers(CompletableFuture.failedFuture(new IllegalStateException("connection reset")));
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+
+        verify(orderService, timeout(1000)).applyPaymentStatus(ORDER_ID, Order.OrderStatus.PAYMENT_FAILED);
+        verify(orderService, never()).applyPaymentStatus(ORDER_ID, Order.OrderStatus.CONFIRMED);
+        verify(paymentService, times(1)).authorizePayment(any(), any(), any());
+    }
+
+    @Test
+    void gatewaySilentPastTheDeadlineFailsThePaymentAndCancelsTheOrder() {
+        CompletableFuture<Boolean> neverAnswers = new CompletableFuture<>();
+        gatewayAnswers(neverAnswers);
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+
+        verify(orderService, timeout(2000)).applyPaymentStatus(ORDER_ID, Order.OrderStatus.PAYMENT_FAILED);
+        verify(orderService, timeout(2000)).expireOrder(ORDER_ID, Order.OrderStatus.PAYMENT_FAILED, PaymentOrchestrator.TIMEOUT_REASON);
+
+        // Resposta depois do prazo não muda mais o pedido e a aprovação é desfeita no gateway
+        neverAnswers.complete(true);
+        verify(paymentService, timeout(1000)).voidAuthorization(any(), any());
+        verify(orderService, never()).applyPaymentStatus(ORDER_ID, Order.OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void lateDeclinePastTheDeadlineNeedsNoCompensation() throws Exception {
+        CompletableFuture<Boolean> neverAnswers = new CompletableFuture<>();
+        gatewayAnswers(neverAnswers);
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+        verify(orderService, timeout(2000)).expireOrder(ORDER_ID, Order.OrderStatus.PAYMENT_FAILED, PaymentOrchestrator.TIMEOUT_REASON);
+
+        neverAnswers.complete(false);
+        Thread.sleep(100);
+        verify(paymentService, never()).voidAuthorization(any(), any());
+    }
+
+    @Test
+    void approvalThatCannotConfirmTheOrderIsVoided() {
+        when(orderService.applyPaymentStatus(ORDER_ID, Order.OrderStatus.CONFIRMED))
+            .thenThrow(new IllegalStateException("order already cancelled"));
+        gatewayAnswers(CompletableFuture.completedFuture(true));
+
+        orchestrator.authorize(ORDER_ID, "CREDIT_CARD");
+
+        verify(paymentService, timeout(1000)).voidAuthorization(any(), any());
+    }
+
+    private void gatewayAnswers(CompletableFuture<Boolean> answer) {
+        when(paymentService.authorizePayment(any(), any(), any())).thenReturn(answer);
+    }
+}
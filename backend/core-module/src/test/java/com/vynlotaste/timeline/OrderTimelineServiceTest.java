@@ -0,0 +1,143 @@
+package com.vynlotaste.timeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.board.ActiveOrder;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import com.vynlotaste.projection.OrderHistoryEntry;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Timeline de pedidos num Redis embutido: resumos ordenados pela versão do pedido e carga do
+ * histórico incluindo pedidos arquivados.
+ */
+class OrderTimelineServiceTest {
+
+    private static final long CUSTOMER_ID = 7L;
+    private static final long ORDER_ID = 42L;
+    private static final LocalDateTime CREATED = LocalDateTime.now().withNano(0);
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private OrderTimelineService timeline;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", redisPort);
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        timeline = new OrderTimelineService(redis, orderRepository, userRepository,
+            new ObjectMapper().findAndRegisterModules(), new VynloProperties(), new SimpleMeterRegistry());
+        timeline.initializeMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void lateEventsAndStaleDatabaseLoadsKeepTheNewestSummary() {
+        timeline.onOrderStatusChanged(changed("PREPARING", "READY", 3L));
+        timeline.onOrderStatusChanged(changed("CONFIRMED", "PREPARING", 2L));
+        // A carga da timeline lê uma réplica ainda no CONFIRMED
+        List<OrderHistoryEntry> history = List.of(entry(ORDER_ID, Order.OrderStatus.CONFIRMED, CREATED, false, 1L));
+        when(orderRepository.findAllHistoryByCustomerId(CUSTOMER_ID)).thenReturn(history);
+
+        List<ActiveOrder> page = timeline.getTimeline(CUSTOMER_ID, 0, 20).getContent();
+
+        assertThat(page).extracting(ActiveOrder::status).containsExactly(Order.OrderStatus.READY);
+        assertThat(page).extracting(ActiveOrder::version).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildIncludesArchivedOrders() {
+        List<OrderHistoryEntry> history = List.of(
+            entry(ORDER_ID, Order.OrderStatus.PENDING, CREATED, false, 0L),
+            entry(7L, Order.OrderStatus.DELIVERED, CREATED.minusMonths(6), true, 4L));
+        when(orderRepository.findAllHistoryByCustomerId(CUSTOMER_ID)).thenReturn(history);
+
+        List<ActiveOrder> page = timeline.getTimeline(CUSTOMER_ID, 0, 20).getContent();
+
+        assertThat(page).extracting(ActiveOrder::id).containsExactly(ORDER_ID, 7L);
+        assertThat(timeline.getTimeline(CUSTOMER_ID, 0, 20).getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void unversionedEventsDropTheSummarySoItIsReadFromTheHistory() {
+        timeline.onOrderStatusChanged(changed("CONFIRMED", "PREPARING", 2L));
+        timeline.onOrderStatusChanged(changed("PREPARING", "READY", null));
+        assertThat(redis.hasKey(OrderTimelineService.SUMMARY_PREFIX + ORDER_ID)).isFalse();
+
+        when(orderRepository.findAllHistoryByCustomerId(CUSTOMER_ID)).thenReturn(List.of());
+        when(userRepository.existsById(CUSTOMER_ID)).thenReturn(true);
+        List<OrderHistoryEntry> archived = List.of(entry(ORDER_ID, Order.OrderStatus.READY, CREATED, true, 3L));
+        when(orderRepository.findHistoryByIds(List.of(ORDER_ID))).thenReturn(archived);
+
+        assertThat(timeline.getTimeline(CUSTOMER_ID, 0, 20).getContent())
+            .extracting(ActiveOrder::status).containsExactly(Order.OrderStatus.READY);
+    }
+
+    private static OrderStatusChangedEvent changed(String from, String to, Long version) {
+        return new OrderStatusChangedEvent(ORDER_ID, from, to, CUSTOMER_ID, "VYN-42", "DELIVERY",
+            new BigDecimal("59.90"), CREATED, version);
+    }
+
+    private static OrderHistoryEntry entry(long id, Order.OrderStatus status, LocalDateTime createdAt,
+                                           boolean archived, long version) {
+        OrderHistoryEntry entry = mock(OrderHistoryEntry.class);
+        when(entry.getId()).thenReturn(id);
+        when(entry.getOrderNumber()).thenReturn("VYN-" + id);
+        when(entry.getStatus()).thenReturn(status);
+        when(entry.getType()).thenReturn(Order.OrderType.DELIVERY);
+        when(entry.getCustomerId()).thenReturn(CUSTOMER_ID);
+        when(entry.getTotalAmount()).thenReturn(new BigDecimal("59.90"));
+        when(entry.getCreatedAt()).thenReturn(createdAt);
+        when(entry.getArchived()).thenReturn(archived);
+        when(entry.getVersion()).thenReturn(version);
+        return entry;
+    }
+}
@@ -0,0 +1,138 @@
+package com.vynlotaste.tracking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vynlotaste.config.VynloProperties;
+import com.vynlotaste.entity.Order;
+import com.vynlotaste.entity.User;
+import com.vynlotaste.event.OrderStatusChangedEvent;
+import com.vynlotaste.kitchen.KitchenScheduler;
+import com.vynlotaste.repository.OrderRepository;
+import com.vynlotaste.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compare-and-set do status no Redis (embutido) pela versão do pedido e checagem de dono.
+ */
+class OrderStatusTrackerTest {
+
+    private static final long ORDER_ID = 42L;
+    private static final long CUSTOMER_ID = 7L;
+
+    private static RedisServer redisServer;
+    private static int redisPort;
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final UserService userService = mock(UserService.class);
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redis;
+    private OrderStatusTracker tracker;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(redisPort);
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", redisPort);
+        connectionFactory.afterPropertiesSet();
+        redis = new StringRedisTemplate(connectionFactory);
+        redis.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        tracker = new OrderStatusTracker(redis, mock(RedisMessageListenerContainer.class), orderRepository, userService,
+            mock(KitchenScheduler.class), new ObjectMapper().findAndRegisterModules(), new VynloProperties(),
+            new SimpleMeterRegistry());
+        tracker.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void lateOrRepeatedEventsNeverOverwriteANewerStatus() {
+        tracker.onOrderStatusChanged(changed("PREPARING", "READY", 3L));
+        tracker.onOrderStatusChanged(changed("CONFIRMED", "PREPARING", 2L));
+        tracker.onOrderStatusChanged(changed("PREPARING", "READY", 3L));
+
+        OrderStatusSnapshot current = tracker.get(ORDER_ID);
+        assertThat(current.status()).isEqualTo(Order.OrderStatus.READY);
+        assertThat(current.version()).isEqualTo(3L);
+        assertThat(current.etag()).isEqualTo("\"42-3\"");
+
+        tracker.onOrderStatusChanged(changed("READY", "DELIVERED", 4L));
+        assertThat(tracker.get(ORDER_ID).status()).isEqualTo(Order.OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void databaseFallbackIsWrittenWithTheOrderVersionAndGuardsLaterWrites() {
+        when(orderRepository.findStatusSnapshotById(ORDER_ID)).thenReturn(Optional.of(new OrderStatusSnapshot(
+            ORDER_ID, CUSTOMER_ID, Order.OrderStatus.PREPARING, LocalDateTime.now(), 5L)));
+
+        assertThat(tracker.get(ORDER_ID).version()).isEqualTo(5L);
+
+        OrderStatusSnapshot stale = new OrderStatusSnapshot(ORDER_ID, CUSTOMER_ID, Order.OrderStatus.CONFIRMED, 4L, null);
+        OrderStatusSnapshot newer = new OrderStatusSnapshot(ORDER_ID, CUSTOMER_ID, Order.OrderStatus.READY, 6L, null);
+        assertThat(tracker.write(List.of(stale))).isEmpty();
+        assertThat(tracker.write(List.of(newer))).containsExactly(newer);
+        assertThat(tracker.get(ORDER_ID).status()).isEqualTo(Order.OrderStatus.READY);
+    }
+
+    @Test
+    void unversionedEventsDropTheHashSoTheNextReadGoesToTheDatabase() {
+        tracker.onOrderStatusChanged(changed("CONFIRMED", "PREPARING", 2L));
+
+        tracker.onOrderStatusChanged(changed("PREPARING", "READY", null));
+
+        assertThat(redis.hasKey(OrderStatusTracker.KEY_PREFIX + ORDER_ID)).isFalse();
+    }
+
+    @Test
+    void onlyTheCustomerOfTheOrderIsItsOwner() {
+        User customer = new User();
+        customer.setEmail("cliente@vynlo.com");
+        when(userService.findById(CUSTOMER_ID)).thenReturn(customer);
+        tracker.onOrderStatusChanged(changed("CONFIRMED", "PREPARING", 2L));
+
+        assertThat(tracker.isOwner(ORDER_ID, "cliente@vynlo.com")).isTrue();
+        assertThat(tracker.isOwner(ORDER_ID, "outro@vynlo.com")).isFalse();
+        // Pedido inexistente: a consulta ao banco falha e ninguém é dono
+        assertThat(tracker.isOwner(99L, "cliente@vynlo.com")).isFalse();
+    }
+
+    private static OrderStatusChangedEvent changed(String from, String to, Long version) {
+        return new OrderStatusChangedEvent(ORDER_ID, from, to, CUSTOMER_ID, "VYN-42", "DELIVERY",
+            new BigDecimal("59.90"), LocalDateTime.now(), version);
+    }
+}
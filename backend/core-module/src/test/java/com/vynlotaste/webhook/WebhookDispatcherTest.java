@@ -0,0 +1,94 @@
+package com.vynlotaste.webhook;
+
+import com.vynlotaste.config.VynloProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebhookDispatcherTest {
+
+    private final WebhookDeliveryRepository repository = mock(WebhookDeliveryRepository.class);
+    private final WebhookService webhookService = mock(WebhookService.class);
+    private final VynloProperties properties = new VynloProperties();
+    private ThreadPoolTaskExecutor webhookExecutor;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        webhookExecutor = new ThreadPoolTaskExecutor();
+        webhookExecutor.initialize();
+        dispatcher = new WebhookDispatcher(repository, webhookService, transactionManager, properties,
+            new SimpleMeterRegistry(), webhookExecutor);
+        dispatcher.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookExecutor.shutdown();
+    }
+
+    @Test
+    void claimedDeliveriesAreLeasedBeforeTheHttpCall() {
+        WebhookDelivery delivery = delivery(1L, 10L);
+        when(repository.lockNextBatch(anyInt(), anyInt())).thenReturn(List.of(delivery));
+
+        LocalDateTime before = LocalDateTime.now();
+        List<WebhookDelivery> claimed = dispatcher.claimBatch(properties.getWebhook());
+
+        assertThat(claimed).containsExactly(delivery);
+        assertThat(delivery.getNextAttemptAt()).isAfterOrEqualTo(before.plus(properties.getWebhook().getLease()));
+        verify(webhookService, never()).deliver(any());
+    }
+
+    @Test
+    void eachEndpointKeepsItsOwnAttemptsAndBackoff() {
+        WebhookDelivery failing = delivery(1L, 10L);
+        WebhookDelivery accepted = delivery(2L, 20L);
+        when(repository.lockNextBatch(anyInt(), anyInt())).thenReturn(List.of(failing, accepted));
+        doThrow(new ResourceAccessException("Read timed out")).when(webhookService).deliver(failing);
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.poll();
+
+        verify(repository, timeout(1000)).deleteById(2L);
+        verify(repository, timeout(1000)).save(failing);
+        verify(repository, never()).deleteById(1L);
+        assertThat(failing.getAttempts()).isEqualTo(1);
+        assertThat(failing.getLastError()).contains("Read timed out");
+        assertThat(failing.getNextAttemptAt()).isAfterOrEqualTo(before.plus(properties.getWebhook().getRetryBackoff()));
+        assertThat(accepted.getAttempts()).isZero();
+    }
+
+    private static WebhookDelivery delivery(Long id, Long webhookConfigId) {
+        WebhookDelivery delivery = new WebhookDelivery();
+        delivery.setId(id);
+        delivery.setWebhookConfigId(webhookConfigId);
+        delivery.setEventId("event-" + id);
+        delivery.setEventType("order.status.changed");
+        delivery.setPayload("{}");
+        return delivery;
+    }
+}
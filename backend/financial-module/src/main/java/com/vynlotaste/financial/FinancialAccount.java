@@ -38,7 +38,8 @@ import jakarta.validation.constraints.Size;
 public class FinancialAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "financial_accounts_seq")
+    @SequenceGenerator(name = "financial_accounts_seq", sequenceName = "financial_accounts_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Nome da conta é obrigatório")
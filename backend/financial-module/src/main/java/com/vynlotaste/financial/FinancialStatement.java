@@ -30,7 +30,8 @@ import java.time.LocalDateTime;
 public class FinancialStatement {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "financial_statements_seq")
+    @SequenceGenerator(name = "financial_statements_seq", sequenceName = "financial_statements_seq", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Nome do extrato é obrigatório")
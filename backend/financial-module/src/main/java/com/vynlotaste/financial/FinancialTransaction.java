@@ -39,7 +39,8 @@ import java.util.Set;
 public class FinancialTransaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "financial_transactions_seq")
+    @SequenceGenerator(name = "financial_transactions_seq", sequenceName = "financial_transactions_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Descrição da transação é obrigatória")
@@ -21,7 +21,8 @@ import java.math.BigDecimal;
 public class TransactionSplit {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_splits_seq")
+    @SequenceGenerator(name = "transaction_splits_seq", sequenceName = "transaction_splits_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Valor do rateio é obrigatório")